@@ -1,22 +1,129 @@
 package com.github.toon;
 
-import com.github.toon.core.DefaultToonSerializer;
+import com.github.toon.core.JsonToonTranscoder;
+import com.github.toon.core.ToonBudgetResult;
+import com.github.toon.core.ToonChunkSink;
+import com.github.toon.core.ToonDelta;
+import com.github.toon.core.ToonMapper;
+import com.github.toon.core.ToonQuery;
+import com.github.toon.core.ToonRowSource;
+import com.github.toon.core.ToonSession;
+import com.github.toon.core.ToonTable;
 import com.github.toon.exception.ToonException;
 
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public class Toons {
     private Toons() {}
-    // 全局单例，避免重复初始化
-    private static final DefaultToonSerializer SERIALIZER = new DefaultToonSerializer();
+    // 全局实例（不可变，线程安全），避免重复初始化；整体替换即可更换转换器与选项，如：
+    // Toons.setMapper(ToonMapper.builder().addConverter(new BigDecimalConverter()).build());
+    private static volatile ToonMapper mapper = ToonMapper.builder().build();
+    private static final JsonToonTranscoder TRANSCODER = new JsonToonTranscoder();
+
+    public static ToonMapper getMapper() {
+        return mapper;
+    }
 
-    // 静态代码块：注册全局转换器
-    static {
-        //SERIALIZER.addConverter(new BigDecimalConverter());
-        //DESERIALIZER.addConverter(new BigDecimalConverter());
+    // 替换全局实例，之后的调用使用新的转换器与选项
+    public static void setMapper(ToonMapper newMapper) {
+        if (newMapper == null) {
+            throw new IllegalArgumentException("mapper不能为null");
+        }
+        mapper = newMapper;
     }
 
     // 序列化工具方法
     public static String serialize(String rootName, Object data) throws ToonException {
-        return SERIALIZER.serialize(rootName, data);
+        return mapper.serialize(rootName, data);
+    }
+
+    // 流式序列化到Writer/StringBuilder等
+    public static void serialize(String rootName, Object data, Appendable out) throws ToonException {
+        mapper.serialize(rootName, data, out);
+    }
+
+    // 以UTF-8流式序列化到OutputStream（不关闭流）；PrintStream等同时是Appendable的输出按serialize写出
+    public static void serializeUtf8(String rootName, Object data, OutputStream out) throws ToonException {
+        mapper.serializeUtf8(rootName, data, out);
+    }
+
+    // 按token预算序列化集合，超出预算的行被舍弃，(N)为实际写出的行数
+    public static ToonBudgetResult serialize(String rootName, Object data, int maxTokens) throws ToonException {
+        return mapper.serialize(rootName, data, maxTokens);
+    }
+
+    // schema引用模式：同一会话中相同类型的集合头部只声明一次
+    public static String serialize(String rootName, Object data, ToonSession session) throws ToonException {
+        return mapper.serialize(rootName, data, session);
+    }
+
+    // 异步序列化行数未知的数据源，行数写在表尾（sink可回写开头时回填到头部），结果为写出的行数
+    public static <T> CompletableFuture<Integer> serializeAsync(String rootName, Class<T> elementType,
+                                                                ToonRowSource<T> source, ToonChunkSink sink) {
+        return mapper.serializeAsync(rootName, elementType, source, sink);
+    }
+
+    // 增量序列化：按@ToonId匹配前后快照，只写出新增、变化与删除的行
+    public static String serializeDelta(String rootName, Collection<?> previous, Collection<?> current) throws ToonException {
+        return mapper.serializeDelta(rootName, previous, current);
+    }
+
+    // 按身份与版本缓存整个文档（需通过 setMapper 设置开启了输出缓存的 ToonMapper，否则每次重新序列化）
+    public static String serializeCached(String rootName, Object data, Object version) throws ToonException {
+        return mapper.serializeCached(rootName, data, version);
+    }
+
+    // 启动时预热包（含子包）中的类：字段顺序、序列化计划与头部、反序列化绑定；返回含有@ToonField字段的类
+    public static List<Class<?>> warmup(String packageName) throws ToonException {
+        return mapper.warmup(packageName);
+    }
+
+    public static List<Class<?>> warmup(Class<?>... classes) {
+        return mapper.warmup(classes);
+    }
+
+    // JSON文本直接转为TOON（不经过对象）
+    public static String fromJson(String rootName, String json) throws ToonException {
+        return TRANSCODER.transcode(rootName, json);
+    }
+
+    // 流式转码：边读JSON边写出TOON
+    public static void fromJson(String rootName, Reader json, Appendable out) throws ToonException {
+        TRANSCODER.transcode(rootName, json, out);
+    }
+
+    // 反序列化单个对象
+    public static <T> T deserialize(String toonStr, Class<T> targetType) throws ToonException {
+        return mapper.deserialize(toonStr, targetType);
     }
 
+    // 反序列化集合
+    public static <T> List<T> deserializeList(String toonStr, Class<T> elementType) throws ToonException {
+        return mapper.deserializeList(toonStr, elementType);
+    }
+
+    // 按查询反序列化集合：只读取投影的列，只为满足条件的行创建对象
+    public static <T> List<T> deserializeList(String toonStr, Class<T> elementType, ToonQuery query) throws ToonException {
+        return mapper.deserializeList(toonStr, elementType, query);
+    }
+
+    // 集合文档的延迟视图：按列路径读取单元格，未读取的列不解析
+    public static ToonTable parseTable(String toonStr) throws ToonException {
+        return mapper.parseTable(toonStr);
+    }
+
+    // 读取增量文档
+    public static <T> ToonDelta<T> deserializeDelta(String toonStr, Class<T> elementType) throws ToonException {
+        return mapper.deserializeDelta(toonStr, elementType);
+    }
+
+    // 从文件并行加载集合（内存映射，适合大文件）
+    public static <T> List<T> deserializeList(Path file, Class<T> elementType) throws ToonException {
+        return mapper.deserializeList(file, elementType);
+    }
 }
@@ -0,0 +1,14 @@
+package com.github.toon.anno;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 标记不可变（或带版本字段）的类：序列化器开启输出缓存后，其实例作为数据行或嵌套对象时按身份缓存写出的片段
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ToonCacheable {
+    String version() default ""; // 版本字段名：取值变化时缓存的片段失效；为空时实例视为不可变
+}
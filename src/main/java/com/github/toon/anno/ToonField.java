@@ -12,4 +12,5 @@ import java.lang.annotation.Target;
 public @interface ToonField {
     int order(); // 字段顺序（值越小越靠前）
     String comment() default ""; // 新增：字段注释，默认空
+    boolean dictionary() default false; // 集合中按列字典编码（取值在头部前声明一次，数据行写下标）
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.github.toon.anno;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 标记集合元素的键字段（需同时标注@ToonField），增量序列化按键匹配前后两个快照中的行
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ToonId {
+}
@@ -1,28 +1,77 @@
 package com.github.toon.converter;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Optional;
 
+/**
+ * 转换器注册表：注册时整体替换转换器数组与查找缓存（写时复制），查找方无锁读取，
+ * 并发注册与查找时不会读到修改中途的列表。注册按调用先后串行，后注册的优先。
+ */
 public class ConverterRegistry {
-    private final List<TypeConverter> converters = new ArrayList<>();
+    private TypeConverter[] converters; // 只在持有锁时替换，查找缓存捕获各自的数组
+    // 按类型缓存查找结果，避免每次线性扫描；注册新转换器后整体替换
+    private volatile ClassValue<Optional<TypeConverter>> lookupCache;
 
     public ConverterRegistry() {
         // 注册内置转换器
-        converters.add(new LocalDateTimeConverter());
-        converters.add(new EnumConverter()); // 枚举转换器
-        // 其他默认转换器...
+        this.converters = new TypeConverter[]{
+                new LocalDateTimeConverter(),
+                new EnumConverter() // 枚举转换器
+                // 其他默认转换器...
+        };
+        this.lookupCache = newLookupCache(converters);
     }
 
-    public void addConverter(TypeConverter converter) {
-        converters.add(0, converter); // 自定义转换器优先
+    private ConverterRegistry(TypeConverter[] converters, ClassValue<Optional<TypeConverter>> lookupCache) {
+        this.converters = converters;
+        this.lookupCache = lookupCache;
     }
 
-    public TypeConverter findConverter(Class<?> type) {
-        for (TypeConverter converter : converters) {
-            if (converter.support(type)) {
-                return converter;
+    public synchronized void addConverter(TypeConverter converter) {
+        TypeConverter[] next = prepend(converter, converters); // 自定义转换器优先
+        converters = next;
+        lookupCache = newLookupCache(next);
+    }
+
+    /**
+     * 派生一个多注册了converter的新注册表，本注册表不变。
+     * 新注册表的查找缓存只对converter支持的类型改变结果，其余类型沿用本注册表的查找结果
+     */
+    public synchronized ConverterRegistry withConverter(TypeConverter converter) {
+        ClassValue<Optional<TypeConverter>> parent = lookupCache;
+        ClassValue<Optional<TypeConverter>> derived = new ClassValue<Optional<TypeConverter>>() {
+            @Override
+            protected Optional<TypeConverter> computeValue(Class<?> type) {
+                return converter.support(type) ? Optional.of(converter) : parent.get(type);
             }
+        };
+        return new ConverterRegistry(prepend(converter, converters), derived);
+    }
+
+    public TypeConverter findConverter(Class<?> type) {
+        return lookupCache.get(type).orElse(null); // 未找到则使用默认反射转换
+    }
+
+    private static TypeConverter[] prepend(TypeConverter converter, TypeConverter[] current) {
+        if (converter == null) {
+            throw new IllegalArgumentException("converter不能为null");
         }
-        return null; // 未找到则使用默认反射转换
+        TypeConverter[] next = new TypeConverter[current.length + 1];
+        next[0] = converter;
+        System.arraycopy(current, 0, next, 1, current.length);
+        return next;
+    }
+
+    private static ClassValue<Optional<TypeConverter>> newLookupCache(TypeConverter[] converters) {
+        return new ClassValue<Optional<TypeConverter>>() {
+            @Override
+            protected Optional<TypeConverter> computeValue(Class<?> type) {
+                for (TypeConverter converter : converters) {
+                    if (converter.support(type)) {
+                        return Optional.of(converter);
+                    }
+                }
+                return Optional.empty();
+            }
+        };
     }
 }
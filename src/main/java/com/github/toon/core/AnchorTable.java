@@ -0,0 +1,33 @@
+package com.github.toon.core;
+
+import java.util.Arrays;
+
+/**
+ * 身份去重文档的锚点表：&amp;N 定义的对象按编号登记，*N 引用时取回同一实例。
+ * 对象在读取其内容之前登记，环形引用可以解析为尚在构建中的祖先对象。
+ * 定义位于未绑定的列中（被跳过）时引用解析为null，并记录下来供分块解析判断是否需要整体重读。
+ */
+final class AnchorTable {
+    private Object[] objects = new Object[16];
+    private boolean unresolved;
+
+    void define(int anchor, Object value) {
+        if (anchor >= objects.length) {
+            objects = Arrays.copyOf(objects, Math.max(objects.length * 2, anchor + 1));
+        }
+        objects[anchor] = value;
+    }
+
+    Object resolve(int anchor) {
+        Object value = anchor < objects.length ? objects[anchor] : null;
+        if (value == null) {
+            unresolved = true;
+        }
+        return value;
+    }
+
+    // 是否出现过无法解析的引用
+    boolean hasUnresolved() {
+        return unresolved;
+    }
+}
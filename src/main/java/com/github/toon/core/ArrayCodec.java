@@ -0,0 +1,194 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonException;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * 基础类型数组与String[]的读写：写为括号组 (e1,e2,...)（与嵌套集合相同，空数组为 ()），
+ * 元素直接按原始类型格式化与解析，不装箱。
+ * String[]中的null与空字符串都写为空，读回为null。
+ * 基础类型数组中的空元素读为默认值（0/false）。
+ */
+final class ArrayCodec {
+    private ArrayCodec() {}
+
+    // 按数组处理的类型（有转换器的数组类型仍按转换器处理）
+    static boolean supports(Class<?> type) {
+        return type == int[].class || type == long[].class || type == double[].class
+                || type == float[].class || type == boolean[].class || type == String[].class;
+    }
+
+    static void write(Object array, ToonOutput out) throws ToonException {
+        out.append(ToonSyntax.GROUP_START);
+        if (array instanceof int[]) {
+            int[] values = (int[]) array;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(ToonSyntax.SEPARATOR);
+                }
+                out.appendInt(values[i]);
+            }
+        } else if (array instanceof long[]) {
+            long[] values = (long[]) array;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(ToonSyntax.SEPARATOR);
+                }
+                out.appendLong(values[i]);
+            }
+        } else if (array instanceof double[]) {
+            double[] values = (double[]) array;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(ToonSyntax.SEPARATOR);
+                }
+                out.appendDouble(values[i]);
+            }
+        } else if (array instanceof float[]) {
+            float[] values = (float[]) array;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(ToonSyntax.SEPARATOR);
+                }
+                out.appendFloat(values[i]);
+            }
+        } else if (array instanceof boolean[]) {
+            boolean[] values = (boolean[]) array;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(ToonSyntax.SEPARATOR);
+                }
+                out.appendBoolean(values[i]);
+            }
+        } else {
+            String[] values = (String[]) array;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(ToonSyntax.SEPARATOR);
+                }
+                if (values[i] != null) {
+                    out.appendEscaped(values[i]);
+                }
+            }
+        }
+        out.append(ToonSyntax.GROUP_END);
+    }
+
+    /**
+     * 读取括号组为数组，扫描器当前位置为 (，结束时位于 ) 之后
+     */
+    static Object read(ToonScanner scanner, Class<?> arrayType, String fieldName) throws ToonException {
+        scanner.expect(ToonSyntax.GROUP_START);
+        Class<?> component = arrayType.getComponentType();
+        if (scanner.peekIs(ToonSyntax.GROUP_END)) {
+            scanner.pos++;
+            return Array.newInstance(component, 0);
+        }
+        Object result;
+        if (component == int.class) {
+            result = readInts(scanner, fieldName);
+        } else if (component == long.class) {
+            result = readLongs(scanner, fieldName);
+        } else if (component == double.class) {
+            result = readDoubles(scanner, fieldName);
+        } else if (component == float.class) {
+            result = readFloats(scanner, fieldName);
+        } else if (component == boolean.class) {
+            result = readBooleans(scanner, fieldName);
+        } else {
+            result = readStrings(scanner);
+        }
+        scanner.expect(ToonSyntax.GROUP_END);
+        return result;
+    }
+
+    // 扫描下一个元素单元格，返回是否还有后续元素（逗号已消费）
+    private static boolean next(ToonScanner scanner) {
+        if (scanner.peekIs(ToonSyntax.SEPARATOR)) {
+            scanner.pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private static int[] readInts(ToonScanner scanner, String fieldName) throws ToonException {
+        int[] values = new int[16];
+        int size = 0;
+        do {
+            scanner.scanCell(true);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = scanner.cellEmpty() ? 0
+                    : scanner.cellInt(fieldName, int.class, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        } while (next(scanner));
+        return Arrays.copyOf(values, size);
+    }
+
+    private static long[] readLongs(ToonScanner scanner, String fieldName) throws ToonException {
+        long[] values = new long[16];
+        int size = 0;
+        do {
+            scanner.scanCell(true);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = scanner.cellEmpty() ? 0 : scanner.cellLong(fieldName, long.class);
+        } while (next(scanner));
+        return Arrays.copyOf(values, size);
+    }
+
+    private static double[] readDoubles(ToonScanner scanner, String fieldName) throws ToonException {
+        double[] values = new double[16];
+        int size = 0;
+        do {
+            scanner.scanCell(true);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = scanner.cellEmpty() ? 0 : scanner.cellDouble(fieldName, double.class);
+        } while (next(scanner));
+        return Arrays.copyOf(values, size);
+    }
+
+    private static float[] readFloats(ToonScanner scanner, String fieldName) throws ToonException {
+        float[] values = new float[16];
+        int size = 0;
+        do {
+            scanner.scanCell(true);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = scanner.cellEmpty() ? 0 : scanner.cellFloat(fieldName, float.class);
+        } while (next(scanner));
+        return Arrays.copyOf(values, size);
+    }
+
+    private static boolean[] readBooleans(ToonScanner scanner, String fieldName) throws ToonException {
+        boolean[] values = new boolean[16];
+        int size = 0;
+        do {
+            scanner.scanCell(true);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = !scanner.cellEmpty() && scanner.cellBoolean(fieldName, boolean.class);
+        } while (next(scanner));
+        return Arrays.copyOf(values, size);
+    }
+
+    private static String[] readStrings(ToonScanner scanner) {
+        String[] values = new String[8];
+        int size = 0;
+        do {
+            scanner.scanCell(true);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = scanner.cellEmpty() ? null : scanner.cellString();
+        } while (next(scanner));
+        return Arrays.copyOf(values, size);
+    }
+}
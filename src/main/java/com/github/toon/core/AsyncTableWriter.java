@@ -0,0 +1,177 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 异步表格写出：从ToonRowSource按需拉取行，编码满一块后写出到ToonChunkSink，待写出完成再继续。
+ * 任一时刻至多有一次未完成的拉取或写出，内存占用为一批行加一块文本。
+ * 已完成的异步结果在当前线程上循环处理，同步的数据源或写出目标不会使调用栈逐批加深。
+ * 非线程安全，每次调用使用独立实例。
+ */
+final class AsyncTableWriter<T> {
+    static final int COUNT_WIDTH = 10; // 回填行数的定宽（int最大值的位数）
+
+    private final DefaultToonSerializer serializer;
+    private final String rootName;
+    private final Class<T> elementType;
+    private final ToonRowSource<T> source;
+    private final ToonChunkSink sink;
+    private final int chunkSize;
+    private final int demand;
+    private final CompletableFuture<Integer> result = new CompletableFuture<>();
+    private final ToonOutput out = new ToonOutput();
+    private final ToonMetrics metrics;
+    private final long startNanos;
+
+    private ClassPlan plan;
+    private CompletableFuture<List<T>> pendingRows; // 已请求、尚未处理的一批行
+    private List<T> rows;
+    private int index;
+    private int count;
+    private long written;
+    private boolean exhausted;
+    private boolean finished;
+
+    AsyncTableWriter(DefaultToonSerializer serializer, String rootName, Class<T> elementType,
+                     ToonRowSource<T> source, ToonChunkSink sink, int chunkSize, int demand) {
+        this.serializer = serializer;
+        this.rootName = rootName;
+        this.elementType = elementType;
+        this.source = source;
+        this.sink = sink;
+        this.chunkSize = chunkSize;
+        this.demand = demand;
+        if (serializer.isIdentityTracking()) {
+            out.identities = new IdentityTracker(); // 跨越多次异步回调，不使用线程复用的实例
+        }
+        this.metrics = serializer.getMetrics();
+        this.startNanos = metrics != ToonMetrics.NOOP ? System.nanoTime() : 0;
+    }
+
+    CompletableFuture<Integer> start() {
+        resume();
+        return result;
+    }
+
+    // 推进到需要等待未完成的异步结果为止，或直至全部完成
+    private void resume() {
+        try {
+            CompletableFuture<?> waiting;
+            while ((waiting = step()) != null) {
+                if (!waiting.isDone()) {
+                    waiting.whenComplete((value, error) -> {
+                        if (error != null) {
+                            fail(error);
+                        } else {
+                            resume();
+                        }
+                    });
+                    return;
+                }
+                waiting.join(); // 已失败时抛出CompletionException
+            }
+        } catch (Throwable e) {
+            fail(e);
+            return;
+        }
+        succeed();
+    }
+
+    // 推进一步，返回需要等待的异步结果，全部写出后返回null
+    private CompletableFuture<?> step() throws ToonException {
+        if (plan == null) {
+            String count = sink instanceof ToonChunkSink.Seekable
+                    ? padCount(0)
+                    : String.valueOf(ToonSyntax.DEFERRED_COUNT);
+            plan = serializer.writeTableHeader(rootName + '(' + count + ')', elementType, out);
+        }
+        if (pendingRows != null) {
+            rows = pendingRows.join();
+            pendingRows = null;
+            index = 0;
+            exhausted = rows == null || rows.isEmpty();
+        }
+        while (rows != null && index < rows.size()) {
+            if (count == Integer.MAX_VALUE) {
+                throw new ToonException("行数超出范围");
+            }
+            serializer.writeRow(rows.get(index++), plan, out);
+            count++;
+            if (out.size() >= chunkSize) {
+                return emit();
+            }
+        }
+        rows = null;
+        if (!exhausted) {
+            pendingRows = source.next(demand).toCompletableFuture();
+            return pendingRows;
+        }
+        if (!finished) {
+            finished = true;
+            return finish();
+        }
+        return null;
+    }
+
+    private CompletableFuture<Void> emit() {
+        String chunk = out.drain();
+        written += chunk.length();
+        return sink.write(chunk).toCompletableFuture();
+    }
+
+    // 写出表尾行数（或回填头部）及剩余内容
+    private CompletableFuture<Void> finish() throws ToonException {
+        boolean seekable = sink instanceof ToonChunkSink.Seekable;
+        if (!seekable) {
+            serializer.writeRowCountTrailer(count, out);
+        }
+        out.finish();
+        CompletableFuture<Void> done = out.size() > 0 ? emit() : CompletableFuture.completedFuture(null);
+        if (seekable) {
+            String head = rootName + '(' + padCount(count) + ')';
+            done = done.thenCompose(v -> ((ToonChunkSink.Seekable) sink).rewriteHead(head));
+        }
+        return done.thenCompose(v -> sink.complete());
+    }
+
+    private void succeed() {
+        try {
+            source.close();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(new ToonException("关闭数据源失败", e));
+            return;
+        }
+        if (metrics != ToonMetrics.NOOP) {
+            metrics.onSerialize(new ToonSerializationStats(rootName, elementType, System.nanoTime() - startNanos,
+                    written, count, out.maxDepth, out.escapedChars));
+        }
+        result.complete(count);
+    }
+
+    private void fail(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        ToonException failure = cause instanceof ToonException
+                ? (ToonException) cause
+                : new ToonException("异步序列化失败", cause);
+        try {
+            source.close();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+        result.completeExceptionally(failure);
+    }
+
+    // 定宽补零的行数，回填时与占位等长
+    static String padCount(int count) {
+        String digits = Integer.toString(count);
+        StringBuilder builder = new StringBuilder(COUNT_WIDTH);
+        for (int i = digits.length(); i < COUNT_WIDTH; i++) {
+            builder.append('0');
+        }
+        return builder.append(digits).toString();
+    }
+}
@@ -0,0 +1,312 @@
+package com.github.toon.core;
+
+import com.github.toon.anno.ToonCacheable;
+import com.github.toon.anno.ToonField;
+import com.github.toon.anno.ToonId;
+import com.github.toon.converter.ConverterRegistry;
+import com.github.toon.converter.TypeConverter;
+import com.github.toon.exception.ToonReflectionException;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 按类预编译的序列化计划（不可变，线程安全）
+ * 构建时一次性完成字段排序、注解读取、转换器解析和访问器生成，
+ * 序列化热路径只按列数组顺序读取，不再做任何反射查找。
+ * 计划依赖转换器注册表（决定某类型是值还是嵌套对象），因此由序列化器按实例缓存。
+ */
+final class ClassPlan {
+    // 类型作为字段值出现时的处理方式
+    enum Kind {
+        VALUE,      // 基础类型或有转换器支持的类型
+        COLLECTION, // 集合类型
+        ARRAY,      // 基础类型数组与String[]（见 ArrayCodec）
+        OBJECT      // 嵌套对象
+    }
+
+    // 无转换器的基础类型字段的无装箱写出方式（float保持Float.toString格式，走装箱路径）
+    enum Primitive {
+        NONE, INT, LONG, DOUBLE, BOOLEAN, CHAR
+    }
+
+    final Class<?> type;
+    final Kind kind;
+    final TypeConverter converter; // VALUE时使用，为null表示直接toString
+    final ToonWriter<Object> writer; // 编译期生成的专用写出器，没有则为null
+    final boolean cacheable; // 标注@ToonCacheable，开启输出缓存时按身份缓存写出的片段
+    private final FieldAccessor version; // @ToonCacheable声明的版本字段，没有则为null
+    private final ConverterRegistry registry;
+    private volatile Column[] columns; // 按@ToonField排序的字段；有专用写出器时按需构建
+    private volatile String objectHeader; // 单对象头部字段声明
+    private volatile String tableHeader; // 集合头部字段声明（含嵌套展开），首次使用时生成
+    private volatile int rowDepth = -1; // 数据行中括号组的最大嵌套层数，首次统计时计算
+    private volatile int dictionaryColumns = -1; // 行内（含嵌套展开）标注为字典编码的列数，首次使用时计算
+    volatile boolean looked; // 已作为集合/对象计划被查找过，此后的查找计为缓存命中（仅用于指标）
+
+    private ClassPlan(Class<?> type, Kind kind, ConverterRegistry registry) {
+        this.type = type;
+        this.kind = kind;
+        this.registry = registry;
+        this.converter = kind == Kind.VALUE ? registry.findConverter(type) : null;
+        this.writer = kind == Kind.OBJECT ? GeneratedWriters.find(type, registry) : null;
+        ToonCacheable cache = kind == Kind.OBJECT ? type.getAnnotation(ToonCacheable.class) : null;
+        this.cacheable = cache != null;
+        this.version = cache != null && !cache.version().isEmpty() ? versionAccessor(type, cache.version()) : null;
+        if (writer == null) {
+            // 无专用写出器时立即完成反射解析，热路径上不再有延迟初始化
+            columns();
+        }
+    }
+
+    static ClassPlan build(Class<?> type, ConverterRegistry registry) {
+        return new ClassPlan(type, kindOf(type, registry), registry);
+    }
+
+    // 缓存片段的版本（没有版本字段时为null，实例视为不可变）
+    Object versionOf(Object obj) throws ToonReflectionException {
+        return version != null ? version.get(obj) : null;
+    }
+
+    private static FieldAccessor versionAccessor(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                return FieldAccessor.of(current.getDeclaredField(name));
+            } catch (NoSuchFieldException e) {
+                // 继续查找父类
+            }
+        }
+        throw new IllegalArgumentException("@ToonCacheable的版本字段不存在：" + type.getName() + "." + name);
+    }
+
+    // 按@ToonField排序的字段计划
+    Column[] columns() {
+        Column[] result = columns;
+        if (result == null) {
+            result = buildColumns();
+            columns = result;
+        }
+        return result;
+    }
+
+    // 标注@ToonId的键列，没有时返回null
+    Column idColumn() {
+        for (Column column : columns()) {
+            if (column.id) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    String objectHeader() {
+        String header = objectHeader;
+        if (header == null) {
+            header = buildObjectHeader(columns());
+            objectHeader = header;
+        }
+        return header;
+    }
+
+    private Column[] buildColumns() {
+        if (kind != Kind.OBJECT) {
+            return new Column[0];
+        }
+        List<Field> fields = FieldCache.getOrderedFields(type);
+        Column[] result = new Column[fields.size()];
+        for (int i = 0; i < result.length; i++) {
+            Field field = fields.get(i);
+            Class<?> fieldType = field.getType();
+            Kind fieldKind = kindOf(fieldType, registry);
+            result[i] = new Column(field, fieldKind,
+                    fieldKind == Kind.VALUE ? registry.findConverter(fieldType) : null);
+        }
+        return result;
+    }
+
+    // 集合头部：字段路径#注释，嵌套对象追加[$object]标记并展开其字段
+    String tableHeader(ClassValue<ClassPlan> plans) {
+        String header = tableHeader;
+        if (header == null) {
+            if (writer != null) {
+                header = writer.tableHeader();
+            } else {
+                StringBuilder builder = new StringBuilder();
+                appendTableMetas(builder, plans, "", new ArrayList<>());
+                header = builder.toString();
+            }
+            tableHeader = header;
+        }
+        return header;
+    }
+
+    // 数据行中括号组的最大嵌套层数：嵌套对象逐层展开，集合按一层计（元素类型在运行时才确定）
+    int rowDepth(ClassValue<ClassPlan> plans) {
+        int depth = rowDepth;
+        if (depth < 0) {
+            depth = computeRowDepth(plans, new ArrayList<>());
+            rowDepth = depth;
+        }
+        return depth;
+    }
+
+    // 集合行内是否有标注为字典编码的列（含嵌套展开的子列）
+    boolean hasDictionaryColumns(ClassValue<ClassPlan> plans) {
+        int count = dictionaryColumns;
+        if (count < 0) {
+            count = countDictionaryColumns(plans, new ArrayList<>());
+            dictionaryColumns = count;
+        }
+        return count > 0;
+    }
+
+    private int countDictionaryColumns(ClassValue<ClassPlan> plans, List<Class<?>> path) {
+        int count = 0;
+        path.add(type);
+        for (Column column : columns()) {
+            if (column.kind == Kind.OBJECT && !path.contains(column.type)) {
+                count += plans.get(column.type).countDictionaryColumns(plans, path);
+            } else if (column.dictionary && column.kind == Kind.VALUE && column.primitive == Primitive.NONE) {
+                count++;
+            }
+        }
+        path.remove(path.size() - 1);
+        return count;
+    }
+
+    /**
+     * 新注册的转换器是否会改变本计划：支持本类型或任一列的类型，或改变某个嵌套对象列（逐层展开）的计划。
+     * 不受影响的计划（含缓存的头部）可以原样用于多注册了该转换器的序列化器
+     */
+    boolean dependsOn(TypeConverter added, ClassValue<ClassPlan> plans) {
+        return dependsOn(added, plans, new HashSet<>());
+    }
+
+    private boolean dependsOn(TypeConverter added, ClassValue<ClassPlan> plans, Set<Class<?>> visited) {
+        if (!visited.add(type)) {
+            return false;
+        }
+        if (added.support(type)) {
+            return true;
+        }
+        for (Column column : columns()) {
+            if (added.support(column.type)
+                    || (column.kind == Kind.OBJECT && plans.get(column.type).dependsOn(added, plans, visited))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 自引用的类型（如 Employee.manager）不再展开，按一层计
+    private int computeRowDepth(ClassValue<ClassPlan> plans, List<Class<?>> path) {
+        int depth = 0;
+        path.add(type);
+        for (Column column : columns()) {
+            if (column.kind == Kind.OBJECT) {
+                int nested = path.contains(column.type) ? 0 : plans.get(column.type).computeRowDepth(plans, path);
+                depth = Math.max(depth, 1 + nested);
+            } else if (column.kind == Kind.COLLECTION || column.kind == Kind.ARRAY) {
+                depth = Math.max(depth, 1);
+            }
+        }
+        path.remove(path.size() - 1);
+        return depth;
+    }
+
+    // 嵌套对象列展开其子列；类型已在展开路径上（自引用）时只声明该列，子值按类的字段顺序写出
+    private void appendTableMetas(StringBuilder builder, ClassValue<ClassPlan> plans, String parentPath,
+                                  List<Class<?>> path) {
+        path.add(type);
+        for (Column column : columns()) {
+            String fullPath = parentPath.isEmpty() ? column.name : parentPath + "." + column.name;
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(fullPath).append('#').append(column.comment);
+            if (column.kind == Kind.OBJECT) {
+                builder.append("[$object]");
+                if (!path.contains(column.type)) {
+                    plans.get(column.type).appendTableMetas(builder, plans, fullPath, path);
+                }
+            }
+        }
+        path.remove(path.size() - 1);
+    }
+
+    private static String buildObjectHeader(Column[] columns) {
+        StringBuilder builder = new StringBuilder();
+        for (Column column : columns) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(column.name);
+            if (!column.comment.isEmpty()) {
+                builder.append('#').append(column.comment);
+            }
+        }
+        return builder.toString();
+    }
+
+    // 判断是否为基础类型或有转换器支持的类型
+    static Kind kindOf(Class<?> type, ConverterRegistry registry) {
+        if (type.isPrimitive()
+                || type == String.class
+                || type == Integer.class
+                || type == Long.class
+                || type == Double.class
+                || type == Boolean.class
+                || registry.findConverter(type) != null) {
+            return Kind.VALUE;
+        }
+        if (ArrayCodec.supports(type)) {
+            return Kind.ARRAY;
+        }
+        return Collection.class.isAssignableFrom(type) ? Kind.COLLECTION : Kind.OBJECT;
+    }
+
+    // 单个字段的预解析信息
+    static final class Column {
+        final String name;
+        final String comment;
+        final Class<?> type;
+        final Kind kind;
+        final TypeConverter converter;
+        final Primitive primitive;
+        final FieldAccessor accessor;
+        final boolean dictionary; // 标注为字典编码（仅对非基础类型的值列生效）
+        final boolean id; // 标注为@ToonId的键字段
+
+        Column(Field field, Kind kind, TypeConverter converter) {
+            ToonField annotation = field.getAnnotation(ToonField.class);
+            this.name = field.getName();
+            this.comment = annotation.comment();
+            this.dictionary = annotation.dictionary();
+            this.id = field.isAnnotationPresent(ToonId.class);
+            this.type = field.getType();
+            this.kind = kind;
+            this.converter = converter;
+            this.primitive = converter == null ? primitiveOf(type) : Primitive.NONE;
+            this.accessor = FieldAccessor.of(field);
+        }
+
+        private static Primitive primitiveOf(Class<?> type) {
+            if (type == int.class || type == short.class || type == byte.class) {
+                return Primitive.INT;
+            } else if (type == long.class) {
+                return Primitive.LONG;
+            } else if (type == double.class) {
+                return Primitive.DOUBLE;
+            } else if (type == boolean.class) {
+                return Primitive.BOOLEAN;
+            } else if (type == char.class) {
+                return Primitive.CHAR;
+            }
+            return Primitive.NONE;
+        }
+    }
+}
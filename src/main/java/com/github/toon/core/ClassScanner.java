@@ -0,0 +1,98 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonIOException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 按包名扫描类路径中的类（预热使用）：支持目录与jar两种来源，类只加载不初始化
+ */
+final class ClassScanner {
+    private static final String CLASS_SUFFIX = ".class";
+
+    private ClassScanner() {}
+
+    // 使用上下文类加载器（没有时为本库的类加载器）
+    static List<Class<?>> scan(String packageName) throws ToonException {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return scan(packageName, loader != null ? loader : ClassScanner.class.getClassLoader());
+    }
+
+    static List<Class<?>> scan(String packageName, ClassLoader loader) throws ToonException {
+        if (packageName == null || packageName.isEmpty()) {
+            throw new IllegalArgumentException("包名不能为空");
+        }
+        String path = packageName.replace('.', '/');
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                if ("file".equals(url.getProtocol())) {
+                    collectDirectory(new File(URLDecoder.decode(url.getFile(), "UTF-8")), packageName, names);
+                } else if ("jar".equals(url.getProtocol())) {
+                    collectJar(url, path, names);
+                }
+            }
+        } catch (IOException e) {
+            throw new ToonIOException("扫描包" + packageName + "失败", e);
+        }
+        List<Class<?>> classes = new ArrayList<>(names.size());
+        for (String name : names) {
+            try {
+                classes.add(Class.forName(name, false, loader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                // 缺少依赖等无法加载的类直接跳过
+            }
+        }
+        return classes;
+    }
+
+    private static void collectDirectory(File directory, String packageName, Set<String> names)
+            throws UnsupportedEncodingException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                collectDirectory(file, packageName + '.' + name, names);
+            } else if (isClassFile(name)) {
+                names.add(packageName + '.' + name.substring(0, name.length() - CLASS_SUFFIX.length()));
+            }
+        }
+    }
+
+    private static void collectJar(URL url, String path, Set<String> names) throws IOException {
+        JarURLConnection connection = (JarURLConnection) url.openConnection();
+        connection.setUseCaches(false);
+        try (JarFile jar = connection.getJarFile()) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(path + '/') && isClassFile(name.substring(name.lastIndexOf('/') + 1))) {
+                    names.add(name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.'));
+                }
+            }
+        }
+    }
+
+    private static boolean isClassFile(String fileName) {
+        return fileName.endsWith(CLASS_SUFFIX) && !fileName.equals("package-info.class")
+                && !fileName.equals("module-info.class");
+    }
+}
@@ -0,0 +1,739 @@
+package com.github.toon.core;
+
+import com.github.toon.converter.ConverterRegistry;
+import com.github.toon.converter.TypeConverter;
+import com.github.toon.core.TypeBinding.FieldBinding;
+import com.github.toon.core.TypeBinding.Slot;
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonFormatException;
+
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 默认反序列化器：单遍扫描字符数组，由头部驱动绑定。
+ * 集合头部在每个文档中只解析并绑定一次（列 → 字段写入器），数据行按列顺序直接写入字段；
+ * 数值与布尔值从字符区间直接解析，只有字符串和转换器类型才创建String。
+ */
+public class DefaultToonDeserializer implements ToonDeserializer {
+    private static final int MAX_PRESIZE = 1 << 16; // 头部声明行数仅作预分配参考，防止异常大的声明
+
+    private final ConverterRegistry converterRegistry;
+    // 按类缓存的绑定信息，注册转换器后整体失效重建
+    private volatile ClassValue<TypeBinding> bindings;
+
+    public DefaultToonDeserializer() {
+        this(new ConverterRegistry());
+    }
+
+    // 使用指定的转换器注册表（ToonMapper构建时使用）
+    DefaultToonDeserializer(ConverterRegistry registry) {
+        this.converterRegistry = registry;
+        this.bindings = newBindingCache();
+    }
+
+    // 派生：不受added影响的类型直接沿用parent的绑定，其余类型按新注册表构建
+    DefaultToonDeserializer(DefaultToonDeserializer parent, ConverterRegistry registry, TypeConverter added) {
+        this.converterRegistry = registry;
+        ClassValue<TypeBinding> inherited = parent.bindings;
+        this.bindings = new ClassValue<TypeBinding>() {
+            @Override
+            protected TypeBinding computeValue(Class<?> type) {
+                if (!added.support(type)) {
+                    TypeBinding binding = inherited.get(type);
+                    if (!binding.dependsOn(added, inherited)) {
+                        return binding;
+                    }
+                }
+                return TypeBinding.build(type, converterRegistry);
+            }
+        };
+    }
+
+    // 支持自定义转换器（与序列化器注册相同的转换器即可互相还原）
+    public void addConverter(TypeConverter converter) {
+        converterRegistry.addConverter(converter);
+        bindings = newBindingCache();
+    }
+
+    // 预热：为这些类构建绑定（含按类字段顺序的列绑定），注册转换器后需重新预热
+    public void warmup(Collection<Class<?>> types) {
+        for (Class<?> type : types) {
+            TypeBinding binding = bindingFor(type);
+            if (binding.kind == ClassPlan.Kind.OBJECT) {
+                classSlots(binding);
+            }
+        }
+    }
+
+    TypeBinding bindingFor(Class<?> type) {
+        return bindings.get(type);
+    }
+
+    private ClassValue<TypeBinding> newBindingCache() {
+        return new ClassValue<TypeBinding>() {
+            @Override
+            protected TypeBinding computeValue(Class<?> type) {
+                return TypeBinding.build(type, converterRegistry);
+            }
+        };
+    }
+
+    // 反序列化单个对象文档：root{...}: 后跟缩进的字段行
+    @Override
+    public <T> T deserialize(String toonStr, Class<T> targetType) throws ToonException {
+        return deserialize(toonStr, targetType, new ToonSession());
+    }
+
+    /**
+     * 按会话反序列化：文档中的 "@schema" 声明登记到会话，头部引用 name(N)&lt;Id&gt;: 可使用此前文档中的声明
+     */
+    public <T> T deserialize(String toonStr, Class<T> targetType, ToonSession session) throws ToonException {
+        ToonScanner scanner = open(toonStr, session);
+        if (scanner == null) {
+            return null;
+        }
+        String rootName = scanner.readName();
+        char c = scanner.peek();
+        if (c == ':') {
+            return null; // root: null
+        }
+        if (c != '{') {
+            throw scanner.error("集合数据请使用deserializeList反序列化");
+        }
+        ToonHeader.skipObjectHeader(scanner);
+        return targetType.cast(readObjectBody(scanner, bindingFor(targetType), 0, session, anchorOf(rootName)));
+    }
+
+    // 反序列化集合文档：root(N){...}: 后跟数据行
+    @Override
+    public <T> List<T> deserializeList(String toonStr, Class<T> elementType) throws ToonException {
+        return deserializeList(toonStr, elementType, new ToonSession());
+    }
+
+    public <T> List<T> deserializeList(String toonStr, Class<T> elementType, ToonSession session) throws ToonException {
+        return deserializeList(toonStr, elementType, ToonQuery.all(), session);
+    }
+
+    /**
+     * 按查询反序列化集合：未投影的列直接跳过，不满足条件的行不创建对象（见 ToonQuery）
+     */
+    public <T> List<T> deserializeList(String toonStr, Class<T> elementType, ToonQuery query) throws ToonException {
+        return deserializeList(toonStr, elementType, query, new ToonSession());
+    }
+
+    public <T> List<T> deserializeList(String toonStr, Class<T> elementType, ToonQuery query, ToonSession session)
+            throws ToonException {
+        if (query == null) {
+            throw new IllegalArgumentException("query不能为null");
+        }
+        ToonScanner scanner = open(toonStr, session);
+        if (scanner == null) {
+            return null;
+        }
+        String name = scanner.readName();
+        char c = scanner.peek();
+        if (c == ':') {
+            return null;
+        }
+        if (c != '(') {
+            throw scanner.error("单个对象请使用deserialize反序列化");
+        }
+        ToonHeader header = ToonHeader.parse(name, scanner, session);
+        List<T> result = new ArrayList<>(header.presize(MAX_PRESIZE));
+        @SuppressWarnings("unchecked")
+        Collection<Object> target = (Collection<Object>) result;
+        TypeBinding binding = bindingFor(elementType);
+        int rows = readTableRows(scanner, bindColumns(header.getColumns(), binding, query), binding, target, 1, true,
+                header.isCountDeferred(), compileFilter(header, query));
+        if (header.isCountDeferred()) {
+            checkRowCount(readRowCountTrailer(scanner), rows, scanner.pos);
+        }
+        return result;
+    }
+
+    // 行数延后给出的表格：数据行之后应为 "@count N"，返回N
+    static int readRowCountTrailer(ToonScanner scanner) throws ToonFormatException {
+        if (scanner.nextLine() < 0) {
+            throw scanner.error("缺少表尾行数'" + ToonSyntax.ROW_COUNT_TRAILER.trim() + "'");
+        }
+        return ToonHeader.parseRowCountTrailer(scanner);
+    }
+
+    // 表尾行数须与实际行数一致
+    static void checkRowCount(int count, int rows, int position) throws ToonFormatException {
+        if (count != rows) {
+            throw new ToonFormatException("表尾行数" + count + "与数据行数" + rows + "不一致", position);
+        }
+    }
+
+    /**
+     * 读取 DefaultToonSerializer.serializeDelta 写出的增量文档：name{added,changed,removed}: 下的三个集合，
+     * 均按元素类型绑定（removed的行只有键列）；未知的字段跳过
+     */
+    public <T> ToonDelta<T> deserializeDelta(String toonStr, Class<T> elementType) throws ToonException {
+        ToonSession session = new ToonSession();
+        ToonScanner scanner = open(toonStr, session);
+        if (scanner == null) {
+            return null;
+        }
+        scanner.readName();
+        if (!scanner.peekIs('{')) {
+            throw scanner.error("增量文档应为 name{added,changed,removed}: 形式");
+        }
+        ToonHeader.skipObjectHeader(scanner);
+        TypeBinding binding = bindingFor(elementType);
+        List<T> added = new ArrayList<>();
+        List<T> changed = new ArrayList<>();
+        List<T> removed = new ArrayList<>();
+        while (true) {
+            int mark = scanner.pos;
+            int indent = scanner.nextLine();
+            if (indent < 0 || (indent < 2 && !scanner.atLineEnd())) {
+                scanner.pos = mark;
+                break;
+            }
+            if (scanner.atLineEnd()) {
+                continue;
+            }
+            if (indent / 2 > 1) {
+                scanner.skipLine(); // 无法归属的更深缩进行
+                continue;
+            }
+            if (scanner.peekIs('@')) {
+                ToonHeader.parseDeclaration(scanner, session);
+                continue;
+            }
+            String name = scanner.readName();
+            if (!scanner.peekIs('(')) {
+                throw scanner.error("增量文档的字段" + name + "应为集合");
+            }
+            ToonHeader header = ToonHeader.parse(name, scanner, session);
+            List<T> target = "added".equals(name) ? added
+                    : "changed".equals(name) ? changed
+                    : "removed".equals(name) ? removed
+                    : null;
+            if (target == null) {
+                skipBlock(scanner, 4);
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Collection<Object> rows = (Collection<Object>) target;
+            readTableRows(scanner, header, binding, rows, 2, false);
+        }
+        return new ToonDelta<>(added, changed, removed);
+    }
+
+    /**
+     * 集合文档的延迟视图：只记录单元格位置，读取时才还原与转换（见 ToonTable）
+     */
+    public ToonTable parseTable(String toonStr) throws ToonException {
+        return parseTable(toonStr, new ToonSession());
+    }
+
+    public ToonTable parseTable(String toonStr, ToonSession session) throws ToonException {
+        ToonScanner scanner = open(toonStr, session);
+        if (scanner == null) {
+            return null;
+        }
+        String name = scanner.readName();
+        if (scanner.peek() != '(') {
+            throw scanner.error("表格视图只支持集合文档");
+        }
+        ToonHeader header = ToonHeader.parse(name, scanner, session);
+        ToonTable table = new ToonTable(this, scanner, header, header.isCountDeferred());
+        if (header.isCountDeferred()) {
+            checkRowCount(readRowCountTrailer(scanner), table.size(), scanner.pos);
+        }
+        return table;
+    }
+
+    /**
+     * 从文件加载集合文档（UTF-8）：内存映射后按行边界分块，在公共ForkJoinPool上并行解析，
+     * 结果保持文件中的原有顺序
+     */
+    public <T> List<T> deserializeList(Path file, Class<T> elementType) throws ToonException {
+        return deserializeList(file, elementType, ForkJoinPool.commonPool());
+    }
+
+    // 使用指定的线程池并行解析
+    public <T> List<T> deserializeList(Path file, Class<T> elementType, ForkJoinPool pool) throws ToonException {
+        return new MappedTableLoader(this, pool).load(file, elementType, ToonQuery.all());
+    }
+
+    // 按查询从文件加载，投影与条件在各分块中同样生效
+    public <T> List<T> deserializeList(Path file, Class<T> elementType, ToonQuery query) throws ToonException {
+        return deserializeList(file, elementType, query, ForkJoinPool.commonPool());
+    }
+
+    public <T> List<T> deserializeList(Path file, Class<T> elementType, ToonQuery query, ForkJoinPool pool)
+            throws ToonException {
+        if (query == null) {
+            throw new IllegalArgumentException("query不能为null");
+        }
+        return new MappedTableLoader(this, pool).load(file, elementType, query);
+    }
+
+    // 跳过文档开头的空白与声明行（schema、列字典），定位到根名称
+    private static ToonScanner open(String toonStr, ToonSession session) throws ToonFormatException {
+        if (toonStr == null) {
+            return null;
+        }
+        char[] buf = toonStr.toCharArray();
+        int start = 0;
+        while (start < buf.length && Character.isWhitespace(buf[start])) {
+            start++;
+        }
+        if (start == buf.length) {
+            return null;
+        }
+        ToonScanner scanner = new ToonScanner(buf, start, buf.length);
+        while (scanner.peekIs('@')) {
+            ToonHeader.parseDeclaration(scanner, session);
+            while (scanner.pos < scanner.end && Character.isWhitespace(scanner.buf[scanner.pos])) {
+                scanner.pos++;
+            }
+            if (scanner.pos == scanner.end) {
+                return null;
+            }
+        }
+        return scanner;
+    }
+
+    /**
+     * 读取单对象格式的字段行（缩进为 (level+1)*2），遇到缩进更浅的行时结束
+     * 字段行三种形式：name: value / name{...}: 嵌套对象 / name(N){...}: 嵌套集合
+     * 身份去重文档中对象头部为 name&amp;N{...}:（anchor为N），已写出的对象为 name: *N
+     */
+    private Object readObjectBody(ToonScanner scanner, TypeBinding binding, int level, ToonSession session,
+                                  int anchor) throws ToonException {
+        Object target = binding.kind == ClassPlan.Kind.OBJECT ? binding.newInstance() : null;
+        if (anchor > 0 && target != null) {
+            scanner.anchors().define(anchor, target); // 先登记，内容中的环形引用可解析为本对象
+        }
+        int fieldLevel = level + 1;
+        while (true) {
+            int mark = scanner.pos;
+            int indent = scanner.nextLine();
+            if (indent < 0) {
+                scanner.pos = mark;
+                break;
+            }
+            if (scanner.atLineEnd()) {
+                continue; // 空行
+            }
+            // 空集合后不换行时多出1个空格，按层级取整即可
+            int lineLevel = indent / 2;
+            if (lineLevel < fieldLevel) {
+                scanner.pos = mark;
+                break;
+            }
+            if (lineLevel > fieldLevel) {
+                scanner.skipLine(); // 无法归属的更深缩进行
+                continue;
+            }
+            if (scanner.peekIs('@')) {
+                ToonHeader.parseDeclaration(scanner, session); // 紧随其后的嵌套集合引用此声明（schema、列字典）
+                continue;
+            }
+            String name = scanner.readName();
+            int fieldAnchor = anchorOf(name);
+            if (fieldAnchor > 0) {
+                name = name.substring(0, name.indexOf(ToonSyntax.ANCHOR_DEFINE));
+            }
+            FieldBinding field = target != null ? binding.field(name) : null;
+            TypeBinding fieldBinding = field != null ? bindingFor(field.type) : null;
+            char c = scanner.peek();
+            if (c == ':') {
+                scanner.pos++;
+                if (scanner.peekIs(' ')) {
+                    scanner.pos++;
+                }
+                if (fieldBinding != null && fieldBinding.kind == ClassPlan.Kind.OBJECT
+                        && scanner.peekIs(ToonSyntax.ANCHOR_REF)) {
+                    field.setter.set(target, readReference(scanner, field.type));
+                } else if (fieldBinding != null && fieldBinding.kind == ClassPlan.Kind.ARRAY
+                        && scanner.peekIs(ToonSyntax.GROUP_START)) {
+                    field.setter.set(target, ArrayCodec.read(scanner, field.type, field.name));
+                }
+                scanner.scanToLineEnd();
+                if (fieldBinding != null && fieldBinding.kind == ClassPlan.Kind.VALUE
+                        && !scanner.cellEquals(ToonSyntax.NULL_VALUE)) {
+                    assignValue(scanner, target, field, fieldBinding);
+                }
+            } else if (c == '{') {
+                ToonHeader.skipObjectHeader(scanner);
+                if (fieldBinding != null && fieldBinding.kind == ClassPlan.Kind.OBJECT) {
+                    field.setter.set(target, readObjectBody(scanner, fieldBinding, fieldLevel, session, fieldAnchor));
+                } else {
+                    skipBlock(scanner, (fieldLevel + 1) * 2);
+                }
+            } else if (c == '(') {
+                ToonHeader header = ToonHeader.parse(name, scanner, session);
+                if (fieldBinding != null && fieldBinding.kind == ClassPlan.Kind.COLLECTION) {
+                    Collection<Object> collection = TypeBinding.newCollection(field.type, header.presize(MAX_PRESIZE));
+                    TypeBinding elementBinding = bindingFor(TypeBinding.rawClass(field.elementType));
+                    readTableRows(scanner, header, elementBinding, collection, fieldLevel + 1, false);
+                    field.setter.set(target, collection);
+                } else {
+                    skipBlock(scanner, (fieldLevel + 1) * 2);
+                }
+            } else {
+                throw scanner.error("无法识别的字段行");
+            }
+        }
+        return target;
+    }
+
+    // 名称中的锚点 name&N，没有时返回0（字段名不含 &）
+    private static int anchorOf(String name) throws ToonFormatException {
+        int mark = name.indexOf(ToonSyntax.ANCHOR_DEFINE);
+        if (mark < 0) {
+            return 0;
+        }
+        char[] chars = name.toCharArray();
+        ToonScanner scanner = new ToonScanner(chars, mark, chars.length);
+        int anchor = scanner.readAnchor();
+        if (!scanner.atEnd()) {
+            throw scanner.error("名称中的锚点无效：" + name);
+        }
+        return anchor;
+    }
+
+    // 引用 *N：取回已登记的同一对象，定义被跳过时为null
+    private static Object readReference(ToonScanner scanner, Class<?> type) throws ToonFormatException {
+        int anchor = scanner.readAnchor();
+        Object value = scanner.anchors().resolve(anchor);
+        if (value != null && !type.isInstance(value)) {
+            throw scanner.error("锚点" + anchor + "的对象类型" + value.getClass().getName() + "与" + type.getName() + "不符");
+        }
+        return value;
+    }
+
+    // 跳过缩进不小于minIndent的后续行（未知字段的嵌套内容）
+    private static void skipBlock(ToonScanner scanner, int minIndent) {
+        while (true) {
+            int mark = scanner.pos;
+            int indent = scanner.nextLine();
+            if (indent < 0 || (indent < minIndent && !scanner.atLineEnd())) {
+                scanner.pos = mark;
+                return;
+            }
+            scanner.skipLine();
+        }
+    }
+
+    /**
+     * 读取集合数据行：头部列在此一次性绑定为字段写入器，随后逐行按列写入，返回数据行数
+     * 顶层集合（lenient）接受任意缩进的数据行，嵌套集合按缩进判断结束位置；
+     * 行数延后给出的顶层集合在缩进为0的 @ 行（表尾行数）处结束
+     */
+    private int readTableRows(ToonScanner scanner, ToonHeader header, TypeBinding elementBinding,
+                              Collection<Object> target, int rowLevel, boolean lenient) throws ToonException {
+        return readTableRows(scanner, bindColumns(header.getColumns(), elementBinding), elementBinding, target,
+                rowLevel, lenient, lenient && header.isCountDeferred(), null);
+    }
+
+    /**
+     * 按已绑定的列读取数据行（列绑定与行条件不可变，可在多个线程的分块解析间共享）
+     * 返回的行数包含被filter丢弃的行，与头部或表尾的行数对应
+     */
+    int readTableRows(ToonScanner scanner, Slot[] slots, TypeBinding elementBinding, Collection<Object> target,
+                      int rowLevel, boolean lenient, boolean trailer, RowFilter filter) throws ToonException {
+        // 值类型元素在行中没有内容，对象类型至少需要一个可写字段
+        boolean readable = elementBinding.kind == ClassPlan.Kind.OBJECT && elementBinding.fields.length > 0;
+        int rowIndent = rowLevel * 2;
+        int rows = 0;
+        while (true) {
+            int mark = scanner.pos;
+            int indent = scanner.nextLine();
+            if (indent < 0) {
+                scanner.pos = mark;
+                return rows;
+            }
+            if (scanner.atLineEnd()) {
+                if (lenient) {
+                    continue;
+                }
+                scanner.pos = mark;
+                return rows;
+            }
+            if ((indent < rowIndent && !lenient) || (trailer && indent == 0 && scanner.peekIs('@'))) {
+                scanner.pos = mark;
+                return rows;
+            }
+            if (indent > rowIndent) {
+                scanner.pos -= indent - rowIndent; // 多出的空格属于首个单元格
+            }
+            rows++;
+            if (!readable || (filter != null && !filter.accept(scanner))) {
+                scanner.skipLine();
+                continue;
+            }
+            Object element = elementBinding.newInstance();
+            readSlots(scanner, element, slots, false);
+            if (scanner.peekIs(ToonSyntax.ROW_END)) {
+                scanner.pos++;
+            } else if (!scanner.atLineEnd()) {
+                throw scanner.error("此处应为'" + ToonSyntax.ROW_END + "'");
+            }
+            target.add(element);
+        }
+    }
+
+    // 从行首读取一行为对象（表格视图按需绑定单行时使用）
+    Object readRow(ToonScanner scanner, TypeBinding binding, Slot[] slots) throws ToonException {
+        Object element = binding.newInstance();
+        readSlots(scanner, element, slots, false);
+        return element;
+    }
+
+    // 查询条件按头部编译，没有条件时为null
+    RowFilter compileFilter(ToonHeader header, ToonQuery query) throws ToonException {
+        return RowFilter.compile(header, query, converterRegistry);
+    }
+
+    // 头部列按名称绑定到字段，未知列绑定为空（跳过）；嵌套对象列递归绑定其子列
+    Slot[] bindColumns(List<ToonHeader.Column> columns, TypeBinding binding) throws ToonException {
+        return bindColumns(columns, binding, ToonQuery.all());
+    }
+
+    // 同上，未投影的列也绑定为空；只投影了部分子列的嵌套对象列只绑定这些子列
+    Slot[] bindColumns(List<ToonHeader.Column> columns, TypeBinding binding, ToonQuery query) throws ToonException {
+        Slot[] slots = new Slot[columns.size()];
+        for (int i = 0; i < slots.length; i++) {
+            ToonHeader.Column column = columns.get(i);
+            FieldBinding field = binding.field(column.getName());
+            if (field == null || query.coverage(column.getPath()) == ToonQuery.NONE) {
+                slots[i] = Slot.SKIP;
+                continue;
+            }
+            TypeBinding fieldBinding = bindingFor(field.type);
+            // 未声明子列（自引用类型不再展开）时按类的字段顺序读取
+            Slot[] children = column.isObject() && fieldBinding.kind == ClassPlan.Kind.OBJECT
+                    && !column.getChildren().isEmpty()
+                    ? bindColumns(column.getChildren(), fieldBinding, query)
+                    : null;
+            Object[] dictionary = column.isDictionaryEncoded() && fieldBinding.kind == ClassPlan.Kind.VALUE
+                    ? decodeDictionary(column.getDictionary(), field, fieldBinding)
+                    : null;
+            slots[i] = new Slot(field, fieldBinding, children, dictionary);
+        }
+        return slots;
+    }
+
+    // 字典取值在绑定时一次性转换为字段类型，数据行中按下标取用
+    private Object[] decodeDictionary(List<String> entries, FieldBinding field, TypeBinding binding)
+            throws ToonException {
+        Object[] values = new Object[entries.size()];
+        for (int i = 0; i < values.length; i++) {
+            char[] chars = entries.get(i).toCharArray();
+            ToonScanner cell = new ToonScanner(chars, 0, chars.length);
+            cell.cellStart = 0;
+            cell.cellEnd = chars.length;
+            values[i] = readValue(cell, binding, field.name);
+        }
+        return values;
+    }
+
+    // 集合元素中的嵌套对象没有头部，按类的字段顺序绑定
+    private Slot[] classSlots(TypeBinding binding) {
+        Slot[] slots = binding.classSlots;
+        if (slots == null) {
+            slots = new Slot[binding.fields.length];
+            for (int i = 0; i < slots.length; i++) {
+                FieldBinding field = binding.fields[i];
+                slots[i] = new Slot(field, bindingFor(field.type), null);
+            }
+            binding.classSlots = slots;
+        }
+        return slots;
+    }
+
+    // 按列读取逗号分隔的单元格，多余的单元格跳过
+    private void readSlots(ToonScanner scanner, Object target, Slot[] slots, boolean inGroup) throws ToonException {
+        for (int i = 0; i < slots.length; i++) {
+            if (i > 0) {
+                if (!scanner.peekIs(ToonSyntax.SEPARATOR)) {
+                    return; // 缺少的列保持默认值
+                }
+                scanner.pos++;
+            }
+            readSlot(scanner, target, slots[i], inGroup);
+        }
+        while (scanner.peekIs(ToonSyntax.SEPARATOR)) {
+            scanner.pos++;
+            scanner.skipCell(inGroup);
+        }
+    }
+
+    private void readSlot(ToonScanner scanner, Object target, Slot slot, boolean inGroup) throws ToonException {
+        FieldBinding field = slot.field;
+        if (field == null) {
+            scanner.skipCell(inGroup);
+            return;
+        }
+        TypeBinding binding = slot.binding;
+        switch (binding.kind) {
+            case VALUE:
+                scanner.scanCell(inGroup);
+                if (scanner.cellEmpty()) {
+                    break;
+                }
+                Object[] dictionary = slot.dictionary;
+                if (dictionary != null) {
+                    field.setter.set(target, dictionary[scanner.cellInt(field.name, field.type, 0, dictionary.length - 1)]);
+                } else {
+                    assignValue(scanner, target, field, binding);
+                }
+                break;
+            case OBJECT:
+                if (scanner.peekIs(ToonSyntax.GROUP_START) || scanner.peekIs(ToonSyntax.ANCHOR_DEFINE)) {
+                    field.setter.set(target, readObjectGroup(scanner, binding, slot.children));
+                } else if (scanner.peekIs(ToonSyntax.ANCHOR_REF)) {
+                    field.setter.set(target, readReference(scanner, field.type));
+                } else {
+                    scanner.scanCell(inGroup); // null写为空
+                }
+                break;
+            case ARRAY:
+                if (scanner.peekIs(ToonSyntax.GROUP_START)) {
+                    field.setter.set(target, ArrayCodec.read(scanner, field.type, field.name));
+                } else {
+                    scanner.scanCell(inGroup);
+                }
+                break;
+            default:
+                if (scanner.peekIs(ToonSyntax.GROUP_START)) {
+                    field.setter.set(target, readCollectionGroup(scanner, field.type, field.elementType, field.name));
+                } else {
+                    scanner.scanCell(inGroup);
+                }
+        }
+    }
+
+    // 嵌套对象：(v1,v2,...) 或带锚点的 &N(v1,v2,...)，children为空时按类字段顺序读取
+    private Object readObjectGroup(ToonScanner scanner, TypeBinding binding, Slot[] children) throws ToonException {
+        int anchor = scanner.peekIs(ToonSyntax.ANCHOR_DEFINE) ? scanner.readAnchor() : 0;
+        if (!scanner.peekIs(ToonSyntax.GROUP_START)) {
+            throw scanner.error("此处应为'" + ToonSyntax.GROUP_START + "'");
+        }
+        if (binding.fields.length == 0) {
+            scanner.skipGroup();
+            return null;
+        }
+        scanner.pos++;
+        Object value = binding.newInstance();
+        if (anchor > 0) {
+            scanner.anchors().define(anchor, value); // 先登记，内容中的环形引用可解析为本对象
+        }
+        readSlots(scanner, value, children != null ? children : classSlots(binding), true);
+        scanner.expect(ToonSyntax.GROUP_END);
+        return value;
+    }
+
+    // 嵌套集合：(e1,e2,...)，元素类型取自字段的泛型参数
+    private Collection<Object> readCollectionGroup(ToonScanner scanner, Class<?> collectionType,
+                                                   Type elementType, String fieldName) throws ToonException {
+        scanner.pos++;
+        Collection<Object> collection = TypeBinding.newCollection(collectionType, 8);
+        if (scanner.peekIs(ToonSyntax.GROUP_END)) {
+            scanner.pos++;
+            return collection;
+        }
+        TypeBinding binding = bindingFor(TypeBinding.rawClass(elementType));
+        while (true) {
+            collection.add(readElement(scanner, binding, elementType, fieldName));
+            if (!scanner.peekIs(ToonSyntax.SEPARATOR)) {
+                break;
+            }
+            scanner.pos++;
+        }
+        scanner.expect(ToonSyntax.GROUP_END);
+        return collection;
+    }
+
+    private Object readElement(ToonScanner scanner, TypeBinding binding, Type elementType, String fieldName) throws ToonException {
+        switch (binding.kind) {
+            case VALUE:
+                scanner.scanCell(true);
+                return scanner.cellEmpty() ? null : readValue(scanner, binding, fieldName);
+            case OBJECT:
+                if (scanner.peekIs(ToonSyntax.GROUP_START) || scanner.peekIs(ToonSyntax.ANCHOR_DEFINE)) {
+                    return readObjectGroup(scanner, binding, null);
+                }
+                if (scanner.peekIs(ToonSyntax.ANCHOR_REF)) {
+                    return readReference(scanner, binding.type);
+                }
+                break;
+            case ARRAY:
+                if (scanner.peekIs(ToonSyntax.GROUP_START)) {
+                    return ArrayCodec.read(scanner, binding.type, fieldName);
+                }
+                break;
+            default:
+                if (scanner.peekIs(ToonSyntax.GROUP_START)) {
+                    return readCollectionGroup(scanner, binding.type, TypeBinding.elementTypeOf(elementType), fieldName);
+                }
+        }
+        scanner.scanCell(true);
+        return null;
+    }
+
+    // 写入值类型字段：基础类型走无装箱写入，其余解析为对象后写入
+    private void assignValue(ToonScanner scanner, Object target, FieldBinding field, TypeBinding binding) throws ToonException {
+        if (field.type.isPrimitive()) {
+            FieldSetter setter = field.setter;
+            switch (binding.valueType) {
+                case INT:
+                    setter.setInt(target, scanner.cellInt(field.name, field.type, Integer.MIN_VALUE, Integer.MAX_VALUE));
+                    return;
+                case LONG:
+                    setter.setLong(target, scanner.cellLong(field.name, field.type));
+                    return;
+                case DOUBLE:
+                    setter.setDouble(target, scanner.cellDouble(field.name, field.type));
+                    return;
+                case BOOLEAN:
+                    setter.setBoolean(target, scanner.cellBoolean(field.name, field.type));
+                    return;
+                case CHAR:
+                    setter.setChar(target, scanner.cellChar(field.name, field.type));
+                    return;
+                default:
+                    // short/byte/float及自定义转换器按包装类型写入
+            }
+        }
+        field.setter.set(target, readValue(scanner, binding, field.name));
+    }
+
+    Object readValue(ToonScanner scanner, TypeBinding binding, String fieldName) throws ToonException {
+        Class<?> type = binding.type;
+        switch (binding.valueType) {
+            case INT:
+                return scanner.cellInt(fieldName, type, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            case LONG:
+                return scanner.cellLong(fieldName, type);
+            case SHORT:
+                return (short) scanner.cellInt(fieldName, type, Short.MIN_VALUE, Short.MAX_VALUE);
+            case BYTE:
+                return (byte) scanner.cellInt(fieldName, type, Byte.MIN_VALUE, Byte.MAX_VALUE);
+            case DOUBLE:
+                return scanner.cellDouble(fieldName, type);
+            case FLOAT:
+                return scanner.cellFloat(fieldName, type);
+            case BOOLEAN:
+                return scanner.cellBoolean(fieldName, type);
+            case CHAR:
+                return scanner.cellChar(fieldName, type);
+            case CONVERTER:
+                return binding.converter.convert(scanner.cellString(), type);
+            default:
+                return scanner.cellString();
+        }
+    }
+}
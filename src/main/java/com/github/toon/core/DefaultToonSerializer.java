@@ -1,28 +1,247 @@
 package com.github.toon.core;
 
-import com.github.toon.anno.ToonField;
 import com.github.toon.converter.ConverterRegistry;
 import com.github.toon.converter.TypeConverter;
+import com.github.toon.core.ClassPlan.Column;
+import com.github.toon.core.ClassPlan.Primitive;
 import com.github.toon.exception.ToonException;
-import com.github.toon.exception.ToonReflectionException;
 
-import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class DefaultToonSerializer implements ToonSerializer {
     private final ConverterRegistry converterRegistry;
     private static final String INDENT_CHAR = "  "; // 缩进字符（2个空格）
+    // 延迟写出的行尾：头部行、数据行、空集合（原格式空集合后不换行）
+    private static final String HEADER_BREAK = " \n";
+    private static final String LINE_BREAK = "\n";
+    private static final String EMPTY_BREAK = " ";
+    private static final String[] INDENTS = new String[16];
+    private static final int RANGES_PER_THREAD = 4; // 每个线程多分几段，平衡各段耗时
+    private static final int MIN_RANGE_ROWS = 1024; // 每段至少的行数，避免任务过碎
+    private static final int SAMPLE_PROBE_ROWS = 16; // 抽样模式下用于估算平均行成本的行数
+    private static final int INITIAL_BYTES = 8192; // UTF-8输出的初始缓冲大小
+    private static final int ASYNC_DEMAND = 256; // 异步序列化每次向数据源请求的行数
+
+    static {
+        INDENTS[0] = "";
+        for (int i = 1; i < INDENTS.length; i++) {
+            INDENTS[i] = INDENTS[i - 1] + INDENT_CHAR;
+        }
+    }
+
+    // 按类缓存的序列化计划，注册转换器后整体失效重建
+    private volatile ClassValue<ClassPlan> plans;
+    // 并行序列化配置，为null时关闭（默认）
+    private volatile ParallelMode parallelMode;
+    // 指标回调，默认NOOP（不计时、不统计）
+    private volatile ToonMetrics metrics = ToonMetrics.NOOP;
+    // 身份去重模式，默认关闭
+    private volatile boolean identityTracking;
+    // 自动字典编码的不同取值比例上限，为0时只编码标注的列（默认）
+    private volatile double dictionaryRatio;
+    // 输出缓存，为null时关闭（默认）
+    private volatile ToonOutputCache cache;
 
     public DefaultToonSerializer() {
-        this.converterRegistry = new ConverterRegistry();
+        this(new ConverterRegistry());
+    }
+
+    // 使用指定的转换器注册表（ToonMapper构建时使用）
+    DefaultToonSerializer(ConverterRegistry registry) {
+        this.converterRegistry = registry;
+        this.plans = newPlanCache();
+    }
+
+    /**
+     * 派生：registry为parent的注册表多注册了added，不受added影响的类型直接沿用parent的计划（已构建的不再重建），
+     * 其余类型按新注册表构建。只复制计划缓存，不复制其他设置
+     */
+    DefaultToonSerializer(DefaultToonSerializer parent, ConverterRegistry registry, TypeConverter added) {
+        this.converterRegistry = registry;
+        ClassValue<ClassPlan> inherited = parent.plans;
+        this.plans = new ClassValue<ClassPlan>() {
+            @Override
+            protected ClassPlan computeValue(Class<?> type) {
+                if (!added.support(type)) {
+                    ClassPlan plan = inherited.get(type);
+                    if (!plan.dependsOn(added, inherited)) {
+                        return plan;
+                    }
+                }
+                ToonMetrics current = metrics;
+                if (current != ToonMetrics.NOOP) {
+                    current.onPlanCache(type, false);
+                }
+                return ClassPlan.build(type, converterRegistry);
+            }
+        };
     }
 
     // 支持自定义转换器
     public void addConverter(TypeConverter converter) {
         converterRegistry.addConverter(converter);
+        plans = newPlanCache();
+        invalidateCache();
+    }
+
+    /**
+     * 开启并行序列化：元素数不少于threshold的List（RandomAccess）集合按区间分段，
+     * 在指定线程池上各自编码到独立缓冲区，再按顺序拼接，输出与顺序序列化完全一致
+     */
+    public void enableParallel(int threshold, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool不能为null");
+        }
+        parallelMode = new ParallelMode(Math.max(threshold, 1), pool);
+    }
+
+    // 使用公共ForkJoinPool
+    public void enableParallel(int threshold) {
+        enableParallel(threshold, ForkJoinPool.commonPool());
+    }
+
+    public void disableParallel() {
+        parallelMode = null;
+    }
+
+    /**
+     * 设置指标回调（如 ToonHistogramMetrics、toon-jfr 模块的 ToonJfrMetrics），传入null恢复为NOOP。
+     * 每次序列化结束时回调一次；查找集合/对象的类计划时报告缓存命中与未命中。
+     */
+    public void setMetrics(ToonMetrics metrics) {
+        this.metrics = metrics != null ? metrics : ToonMetrics.NOOP;
+    }
+
+    public ToonMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 身份去重模式：同一文档中重复出现的嵌套对象（按==判断）只完整写出一次，记为 &amp;N(...)，
+     * 之后的出现写为 *N；环形引用回到已登记的祖先时同样写为引用，不会无限递归。
+     * 单对象格式中写为 name&amp;N{...}: 与 name: *N。开启后集合不再分段并行序列化，也不使用编译期生成的写出器。
+     */
+    public void setIdentityTracking(boolean enabled) {
+        if (identityTracking != enabled) {
+            identityTracking = enabled;
+            invalidateCache();
+        }
+    }
+
+    public boolean isIdentityTracking() {
+        return identityTracking;
+    }
+
+    /**
+     * 自动列字典编码：集合（至少16行）中不同取值数不超过 行数×maxDistinctRatio 的值列，
+     * 取值在头部前以 "@dict path: v0,v1,..." 声明一次，数据行中写为下标。
+     * 标注 @ToonField(dictionary = true) 的列无论是否开启都会编码。
+     * 需要预先扫描一遍集合，字典编码的集合不再分段并行序列化；异步序列化时不使用字典。
+     */
+    public void enableDictionary(double maxDistinctRatio) {
+        if (!(maxDistinctRatio > 0 && maxDistinctRatio <= 1)) {
+            throw new IllegalArgumentException("maxDistinctRatio须在(0, 1]之间");
+        }
+        dictionaryRatio = maxDistinctRatio;
+        invalidateCache();
+    }
+
+    // 关闭自动字典编码（标注的列仍然编码）
+    public void disableDictionary() {
+        dictionaryRatio = 0;
+        invalidateCache();
+    }
+
+    /**
+     * 开启输出缓存（最多缓存约maxChars个字符）：标注 @ToonCacheable 的对象作为数据行或嵌套对象写出时，
+     * 按身份（及版本字段）缓存其片段，再次写出时直接拼接；serializeCached 按身份与版本缓存整个文档。
+     * 身份去重模式下片段与锚点编号相关，不使用缓存。注册转换器或修改身份去重、字典编码选项时缓存全部失效。
+     */
+    public void enableCache(long maxChars) {
+        cache = new ToonOutputCache(maxChars);
+    }
+
+    public void disableCache() {
+        cache = null;
+    }
+
+    // 当前的输出缓存（含命中统计），未开启时为null
+    public ToonOutputCache getCache() {
+        return cache;
+    }
+
+    // 缓存的片段与文档依赖转换器与输出选项，二者变化时全部失效
+    private void invalidateCache() {
+        ToonOutputCache current = cache;
+        if (current != null) {
+            current.invalidateAll();
+        }
+    }
+
+    /**
+     * 预热：为这些类构建序列化计划并生成集合头部与单对象头部（含嵌套对象），首次序列化时不再解析。
+     * 注册转换器后计划整体重建，需重新预热
+     */
+    public void warmup(Collection<Class<?>> types) {
+        ClassValue<ClassPlan> planCache = plans;
+        for (Class<?> type : types) {
+            ClassPlan plan = planCache.get(type);
+            if (plan.kind == ClassPlan.Kind.OBJECT) {
+                plan.columns();
+                plan.tableHeader(planCache);
+                plan.objectHeader();
+                plan.rowDepth(planCache);
+                plan.hasDictionaryColumns(planCache);
+            }
+        }
+    }
+
+    ClassPlan planFor(Class<?> type) {
+        return plans.get(type);
+    }
+
+    private ClassValue<ClassPlan> newPlanCache() {
+        return new ClassValue<ClassPlan>() {
+            @Override
+            protected ClassPlan computeValue(Class<?> type) {
+                ToonMetrics current = metrics;
+                if (current != ToonMetrics.NOOP) {
+                    current.onPlanCache(type, false);
+                }
+                return ClassPlan.build(type, converterRegistry);
+            }
+        };
+    }
+
+    // 集合/对象计划的查找：开启指标时报告命中（构建计划时已报告未命中，首次查找不重复计入）
+    // depth为头部之下内容所在的深度，数据行（table）还需加上行内括号组的嵌套层数
+    private ClassPlan lookupPlan(ClassValue<ClassPlan> planCache, Class<?> type, ToonOutput out, int depth,
+                                 boolean table) {
+        ClassPlan plan = planCache.get(type);
+        ToonMetrics current = metrics;
+        if (current != ToonMetrics.NOOP) {
+            if (plan.looked) {
+                current.onPlanCache(type, true);
+            } else {
+                plan.looked = true;
+            }
+            out.noteDepth(table ? depth + plan.rowDepth(planCache) : depth);
+        }
+        return plan;
     }
 
     @Override
@@ -31,249 +250,824 @@ public class DefaultToonSerializer implements ToonSerializer {
             return rootName + ": null";
         }
 
-        StringBuilder builder = new StringBuilder();
-        // 处理集合类型（List/Set）
-        if (data instanceof Collection<?>) {
-            serializeCollection(rootName, (Collection<?>) data, builder, 0);
+        ToonOutput out = new ToonOutput();
+        writeDocument(rootName, data, out, null);
+        return out.toString();
+    }
+
+    /**
+     * 按身份缓存整个文档：data（按身份）与version都与缓存时相同则直接返回缓存的结果，
+     * 否则重新序列化并缓存。version为null时data视为不可变；未开启输出缓存时等同于serialize
+     */
+    public String serializeCached(String rootName, Object data, Object version) throws ToonException {
+        ToonOutputCache current = cache;
+        if (current == null || data == null) {
+            return serialize(rootName, data);
+        }
+        String text = current.get(data, rootName, version);
+        if (text == null) {
+            text = serialize(rootName, data);
+            current.put(data, rootName, version, text);
+        }
+        return text;
+    }
+
+    // 流式序列化：边生成边写出，不在内存中拼接完整结果
+    @Override
+    public void serialize(String rootName, Object data, Appendable target) throws ToonException {
+        writeStreaming(rootName, data, new ToonOutput(target), null);
+    }
+
+    /**
+     * 直接编码为UTF-8字节：写出缓冲每次刷出时即编码进池化的ByteBuffer，
+     * 不生成String，也不再整体做一次字符到字节的转换；写出缓冲与ByteBuffer均取自缓冲池。
+     * 返回的缓冲区position为0、limit为字节数，写出后应交还 pool.release(buffer)
+     */
+    public ByteBuffer serialize(String rootName, Object data, ToonBufferPool pool) throws ToonException {
+        char[] chars = pool.acquireChars();
+        Utf8BufferSink sink = new Utf8BufferSink(pool, INITIAL_BYTES);
+        boolean completed = false;
+        try {
+            writeStreaming(rootName, data, new ToonOutput(sink, chars), null);
+            completed = true;
+            return sink.finish();
+        } finally {
+            pool.releaseChars(chars);
+            if (!completed) {
+                sink.discard();
+            }
+        }
+    }
+
+    private void writeStreaming(String rootName, Object data, ToonOutput out, ToonSession session) throws ToonException {
+        if (data == null) {
+            out.append(rootName).append(": null");
+            out.finish();
+            return;
+        }
+        writeDocument(rootName, data, out, session);
+    }
+
+    /**
+     * schema引用模式：集合头部在会话中只以 "@schema Order{...}" 声明一次，
+     * 之后同一类型的集合写为 "orders(N)&lt;Order&gt;:"，省去重复的字段声明与注释
+     */
+    public String serialize(String rootName, Object data, ToonSession session) throws ToonException {
+        if (data == null) {
+            return rootName + ": null";
+        }
+        ToonOutput out = new ToonOutput();
+        writeDocument(rootName, data, out, session);
+        return out.toString();
+    }
+
+    public void serialize(String rootName, Object data, ToonSession session, Appendable target) throws ToonException {
+        writeStreaming(rootName, data, new ToonOutput(target), session);
+    }
+
+    /**
+     * 异步序列化行数未知的数据源（JDBC游标、分页接口等）：行到达即编码，每满一块写出到sink，
+     * 写出完成后才继续编码和拉取，不会先把全部行读入内存。
+     * 头部的行数写为 name(*)，数据行之后以 "@count N" 给出；sink可回写开头时（ToonChunkSink.Seekable）
+     * 则先写定宽的占位行数，结束后回填为 name(0000000042)，不需要表尾行。
+     * 返回的结果为写出的行数，数据源或写出失败时以ToonException异常完成。
+     */
+    public <T> CompletableFuture<Integer> serializeAsync(String rootName, Class<T> elementType,
+                                                         ToonRowSource<T> source, ToonChunkSink sink) {
+        return serializeAsync(rootName, elementType, source, sink, ToonOutput.DEFAULT_BUFFER_SIZE, ASYNC_DEMAND);
+    }
+
+    // chunkSize为每块的字符数（内存上限约为一块加一行），demand为每次向数据源请求的行数
+    public <T> CompletableFuture<Integer> serializeAsync(String rootName, Class<T> elementType,
+                                                         ToonRowSource<T> source, ToonChunkSink sink,
+                                                         int chunkSize, int demand) {
+        if (elementType == null || source == null || sink == null) {
+            throw new IllegalArgumentException("elementType、source与sink不能为null");
+        }
+        return new AsyncTableWriter<>(this, rootName, elementType, source, sink,
+                Math.max(chunkSize, 1), Math.max(demand, 1)).start();
+    }
+
+    // 异步写出的表格头部：列取自元素类型的计划，head为 name(行数)
+    ClassPlan writeTableHeader(String head, Class<?> elementType, ToonOutput out) throws ToonException {
+        ClassValue<ClassPlan> planCache = plans;
+        ClassPlan plan = lookupPlan(planCache, elementType, out, 2, true);
+        out.beginLine(getIndent(0));
+        out.append(head).append("{").append(plan.tableHeader(planCache)).append("}:");
+        out.endLine(HEADER_BREAK);
+        return plan;
+    }
+
+    void writeRow(Object element, ClassPlan plan, ToonOutput out) throws ToonException {
+        serializeCompressedElement(element, plan, out, getIndent(1));
+    }
+
+    void writeRowCountTrailer(int rows, ToonOutput out) throws ToonException {
+        out.beginLine(getIndent(0));
+        out.append(ToonSyntax.ROW_COUNT_TRAILER).appendInt(rows);
+        out.endLine(LINE_BREAK);
+    }
+
+    /**
+     * 增量序列化：按 @ToonId 标注的键匹配前后两个快照，只写出新增、变化与删除的行。
+     * 每行只编码一次，编码结果与上一快照中同键行的编码逐字比较，变化的行直接写出已编码的文本。
+     * 输出为单对象文档 name{added,changed,removed}:，三个字段均为集合，removed只含键列：
+     * <pre>
+     * users{added,changed,removed}:
+     *   added(1){id#,name#}:
+     *     3,Carol;
+     *   changed(0){}:
+     *   removed(1){id#}:
+     *     2;
+     * </pre>
+     * 增量文档中不做身份去重与字典编码，以 DefaultToonDeserializer.deserializeDelta 读取
+     */
+    public String serializeDelta(String rootName, Collection<?> previous, Collection<?> current) throws ToonException {
+        if (previous == null || current == null) {
+            throw new IllegalArgumentException("previous与current不能为null");
+        }
+        ToonMetrics metrics = this.metrics;
+        long start = metrics != ToonMetrics.NOOP ? System.nanoTime() : 0;
+        ToonOutput out = new ToonOutput();
+        out.beginLine(getIndent(0));
+        out.append(rootName).append("{added,changed,removed}:");
+        out.endLine(HEADER_BREAK);
+        Object sample = !current.isEmpty() ? current.iterator().next()
+                : !previous.isEmpty() ? previous.iterator().next() : null;
+        if (sample == null) {
+            writeDeltaSection("added", null, Collections.emptyList(), out);
+            writeDeltaSection("changed", null, Collections.emptyList(), out);
+            writeDeltaSection("removed", null, Collections.emptyList(), out);
+        } else {
+            writeDelta(sample.getClass(), previous, current, out);
+        }
+        out.finish();
+        if (metrics != ToonMetrics.NOOP) {
+            metrics.onSerialize(new ToonSerializationStats(rootName, current.getClass(), System.nanoTime() - start,
+                    out.length(), out.rows, out.maxDepth, out.escapedChars));
+        }
+        return out.toString();
+    }
+
+    private void writeDelta(Class<?> elementType, Collection<?> previous, Collection<?> current, ToonOutput out)
+            throws ToonException {
+        ClassValue<ClassPlan> planCache = plans;
+        ClassPlan plan = lookupPlan(planCache, elementType, out, 3, true);
+        Column key = plan.idColumn();
+        if (key == null) {
+            throw new ToonException(elementType.getName() + "没有标注@ToonId的字段，无法增量序列化");
+        }
+        // 上一快照：键 → 行编码，按原顺序保留元素供写出删除的行
+        ToonOutput row = new ToonOutput();
+        Map<Object, String> encoded = new HashMap<>(Math.max(16, previous.size() * 4 / 3 + 1));
+        Map<Object, Object> remaining = new LinkedHashMap<>(Math.max(16, previous.size() * 4 / 3 + 1));
+        for (Object element : previous) {
+            Object id = keyOf(element, key);
+            if (remaining.put(id, element) != null) {
+                throw new ToonException("上一快照中的@ToonId重复：" + id);
+            }
+            encoded.put(id, encodeRow(element, plan, row, out));
+        }
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        Set<Object> seen = new HashSet<>(Math.max(16, current.size() * 4 / 3 + 1));
+        for (Object element : current) {
+            Object id = keyOf(element, key);
+            if (!seen.add(id)) {
+                throw new ToonException("当前快照中的@ToonId重复：" + id);
+            }
+            String text = encodeRow(element, plan, row, out);
+            String before = encoded.get(id);
+            if (before == null) {
+                added.add(text);
+            } else {
+                remaining.remove(id);
+                if (!before.equals(text)) {
+                    changed.add(text);
+                }
+            }
+        }
+        String columns = plan.tableHeader(planCache);
+        writeDeltaSection("added", columns, added, out);
+        writeDeltaSection("changed", columns, changed, out);
+        List<String> removed = new ArrayList<>(remaining.size());
+        for (Object element : remaining.values()) {
+            row.reset();
+            writeColumnValue(element, key, row);
+            out.escapedChars += row.escapedChars;
+            removed.add(row.drain());
+        }
+        writeDeltaSection("removed", key.name + '#' + key.comment, removed, out);
+    }
+
+    private static Object keyOf(Object element, Column key) throws ToonException {
+        if (element == null) {
+            throw new ToonException("增量序列化的集合不能含有null元素");
+        }
+        Object id = key.accessor.get(element);
+        if (id == null) {
+            throw new ToonException("@ToonId字段" + key.name + "的值不能为null");
+        }
+        return id;
+    }
+
+    // 单行的编码文本（不含行首缩进与行尾 ;）
+    private String encodeRow(Object element, ClassPlan plan, ToonOutput row, ToonOutput out) throws ToonException {
+        row.reset();
+        writeRowValues(element, plan, row);
+        out.escapedChars += row.escapedChars;
+        return row.drain();
+    }
+
+    // 增量文档中的一个集合字段，rows为已编码的行
+    private static void writeDeltaSection(String name, String columns, List<String> rows, ToonOutput out)
+            throws ToonException {
+        out.beginLine(getIndent(1));
+        if (rows.isEmpty()) {
+            out.append(name).append("(0){}:");
+            out.endLine(EMPTY_BREAK);
+            return;
+        }
+        out.rows += rows.size();
+        out.append(name).append('(').appendInt(rows.size()).append("){").append(columns).append("}:");
+        out.endLine(HEADER_BREAK);
+        String rowIndent = getIndent(2);
+        for (String text : rows) {
+            out.beginLine(rowIndent);
+            out.append(text).append(';');
+            out.endLine(LINE_BREAK);
+        }
+    }
+
+    /**
+     * 按token预算序列化集合：逐行编码并估算token，到达预算即停止，不会先序列化全部数据再截断。
+     * 头部的 (N) 为实际写出的行数；非集合数据按原样序列化，只报告估算值。
+     * 与普通序列化一样报告指标并遵循身份去重与字典编码的设置：去重只作用于写出的行（被舍弃的行之后不再写出任何行），
+     * 字典按写出的行重新生成，编码后超出预算时这些行以不编码的形式写出。
+     */
+    public ToonBudgetResult serialize(String rootName, Object data, int maxTokens) throws ToonException {
+        return serialize(rootName, data, maxTokens, ToonBudgetResult.Strategy.TRUNCATE);
+    }
+
+    public ToonBudgetResult serialize(String rootName, Object data, int maxTokens,
+                                      ToonBudgetResult.Strategy strategy) throws ToonException {
+        if (!(data instanceof Collection<?>) || ((Collection<?>) data).isEmpty()) {
+            String text = serialize(rootName, data);
+            return new ToonBudgetResult(text, ToonTokenEstimator.estimate(text), 0, 0);
+        }
+        ToonMetrics current = metrics;
+        long start = current != ToonMetrics.NOOP ? System.nanoTime() : 0;
+        Collection<?> collection = (Collection<?>) data;
+        int size = collection.size();
+        ClassValue<ClassPlan> planCache = plans;
+        ToonOutput out = new ToonOutput();
+        ClassPlan plan = lookupPlan(planCache, collection.iterator().next().getClass(), out, 2, true);
+        String columns = plan.tableHeader(planCache);
+        List<Object> selected = dictionaryRatio > 0 || plan.hasDictionaryColumns(planCache)
+                ? new ArrayList<>()
+                : null;
+
+        // 头部按原行数估算（位数只会更多），数据行逐行编码到临时缓冲区后再决定是否保留
+        ToonTokenEstimator estimator = new ToonTokenEstimator();
+        estimator.add(rootName).add('(').add(Integer.toString(size)).add("){").add(columns).add("}: ");
+        long used = estimator.tokens();
+        String indent = getIndent(1);
+        ToonOutput row = new ToonOutput();
+        int target = strategy == ToonBudgetResult.Strategy.SAMPLE
+                ? sampleSize(collection, plan, row, estimator, maxTokens - used)
+                : size;
+
+        // 选取下标 k*size/target 的行（TRUNCATE时即逐行），按原顺序写出
+        ToonOutput body = new ToonOutput();
+        int emitted = 0;
+        IdentityTracker identities = identityTracking ? IdentityTracker.acquire() : null;
+        row.identities = identities; // 抽样估算不登记锚点，写出的行按顺序登记
+        try {
+            long next = 0;
+            int index = 0;
+            Iterator<?> iterator = collection.iterator();
+            while (iterator.hasNext() && emitted < target) {
+                Object element = iterator.next();
+                if (index++ != next) {
+                    continue;
+                }
+                long cost = rowTokens(element, plan, row, estimator, indent);
+                if (used + cost > maxTokens) {
+                    break;
+                }
+                used += cost;
+                body.beginLine("");
+                body.append(row);
+                body.endLine(LINE_BREAK);
+                if (selected != null) {
+                    selected.add(element);
+                }
+                emitted++;
+                next = (long) emitted * size / target;
+            }
+        } finally {
+            if (identities != null) {
+                row.identities = null;
+                IdentityTracker.release(identities);
+            }
+        }
+
+        ToonOutput encoded = emitted > 0 && selected != null ? encodeSelected(rootName, selected, maxTokens) : null;
+        if (encoded != null) {
+            out = encoded;
+        } else if (emitted == 0) {
+            out.append(rootName).append("(0){}:");
         } else {
-            // 处理单个对象（含嵌套）
-            serializeObject(rootName, data, builder, 0);
+            out.rows = emitted;
+            out.append(rootName)
+                    .append('(').appendInt(emitted).append(')')
+                    .append("{").append(columns).append("}:");
+            out.endLine(HEADER_BREAK);
+            out.beginLine("");
+            out.append(body);
+        }
+        out.finish();
+        String text = out.toString();
+        if (current != ToonMetrics.NOOP) {
+            current.onSerialize(new ToonSerializationStats(rootName, data.getClass(), System.nanoTime() - start,
+                    out.length(), out.rows, out.maxDepth, out.escapedChars));
+        }
+        return new ToonBudgetResult(text, ToonTokenEstimator.estimate(text), size, emitted);
+    }
+
+    // 以字典编码重新写出选中的行（字典声明位于头部之前）；未产生字典或编码后超出预算时返回null
+    private ToonOutput encodeSelected(String rootName, List<Object> selected, int maxTokens) throws ToonException {
+        ToonOutput encoded = new ToonOutput();
+        IdentityTracker identities = identityTracking ? IdentityTracker.acquire() : null;
+        encoded.identities = identities;
+        try {
+            serializeCollection(rootName, selected, encoded, 0, null);
+        } finally {
+            if (identities != null) {
+                encoded.identities = null;
+                IdentityTracker.release(identities);
+            }
+        }
+        encoded.finish();
+        String text = encoded.toString();
+        return text.startsWith(ToonSyntax.DICTIONARY_DECLARATION) && ToonTokenEstimator.estimate(text) <= maxTokens
+                ? encoded
+                : null;
+    }
+
+    // 编码一行到临时缓冲区，返回其token估算值（含换行）
+    private long rowTokens(Object element, ClassPlan plan, ToonOutput row, ToonTokenEstimator estimator,
+                           String indent) throws ToonException {
+        row.reset();
+        serializeCompressedElement(element, plan, row, indent);
+        estimator.reset();
+        row.addTo(estimator);
+        return estimator.tokens() + 1;
+    }
+
+    // 以前几行的平均成本估算预算内可容纳的行数
+    private int sampleSize(Collection<?> collection, ClassPlan plan, ToonOutput row, ToonTokenEstimator estimator,
+                           long available) throws ToonException {
+        int size = collection.size();
+        long probeTokens = 0;
+        int probed = 0;
+        String indent = getIndent(1);
+        for (Object element : collection) {
+            if (probed == SAMPLE_PROBE_ROWS) {
+                break;
+            }
+            probeTokens += rowTokens(element, plan, row, estimator, indent);
+            probed++;
+        }
+        long average = Math.max(1, (probeTokens + probed - 1) / probed);
+        return (int) Math.max(1, Math.min(size, available / average));
+    }
+
+    private void writeDocument(String rootName, Object data, ToonOutput out, ToonSession session) throws ToonException {
+        ToonMetrics current = metrics;
+        long start = current != ToonMetrics.NOOP ? System.nanoTime() : 0;
+        IdentityTracker identities = identityTracking ? IdentityTracker.acquire() : null;
+        out.identities = identities;
+        try {
+            // 处理集合类型（List/Set）
+            if (data instanceof Collection<?>) {
+                serializeCollection(rootName, (Collection<?>) data, out, 0, session);
+            } else {
+                // 处理单个对象（含嵌套）
+                serializeObject(rootName, data, out, 0, session);
+            }
+        } finally {
+            if (identities != null) {
+                out.identities = null;
+                IdentityTracker.release(identities);
+            }
+        }
+        out.finish(); // 丢弃末尾行尾，等价于原先的 trim
+        if (current != ToonMetrics.NOOP) {
+            current.onSerialize(new ToonSerializationStats(rootName, data.getClass(), System.nanoTime() - start,
+                    out.length(), out.rows, out.maxDepth, out.escapedChars));
         }
-        return builder.toString().trim(); // 去除首尾空白
     }
 
     // 序列化集合（如List<User>）
-    private void serializeCollection(String collectionName, Collection<?> collection, StringBuilder builder, int indent) throws ToonException {
+    private void serializeCollection(String collectionName, Collection<?> collection, ToonOutput out, int indent,
+                                     ToonSession session) throws ToonException {
         if (collection.isEmpty()) {
-            builder.append(getIndent(indent)).append(collectionName).append("(0){}: ");
+            out.beginLine(getIndent(indent));
+            out.append(collectionName).append("(0){}:");
+            out.endLine(EMPTY_BREAK);
             return;
         }
 
         Object firstElement = collection.iterator().next();
-        Class<?> elementType = firstElement.getClass();
+        ClassValue<ClassPlan> planCache = plans;
+        // 数据行位于头部下一层，行内括号组继续加深
+        ClassPlan plan = lookupPlan(planCache, firstElement.getClass(), out, indent + 2, true);
+        out.rows += collection.size();
 
-        // 构建包含嵌套结构的完整元数据
-        List<String> nestedMetas = buildNestedFieldMetas(elementType, "");
-        String fieldsStr = String.join(",", nestedMetas);
-
-        builder.append(getIndent(indent))
-                .append(collectionName)
-                .append("(").append(collection.size()).append(")")
-                .append("{").append(fieldsStr).append("}: \n");
+        // 头部字段声明已在计划中预先生成
+        String columns = plan.tableHeader(planCache);
+        String schemaId = session != null && !columns.isEmpty() ? session.resolve(plan.type, columns) : null;
+        if (schemaId != null && session.declare(schemaId, columns)) {
+            // 会话中首次出现：先声明schema
+            out.beginLine(getIndent(indent));
+            out.append(ToonSyntax.SCHEMA_DECLARATION).append(schemaId)
+                    .append("{").append(columns).append("}");
+            out.endLine(LINE_BREAK);
+        }
+        double ratio = dictionaryRatio;
+        TableDictionary dictionary = ratio > 0 || plan.hasDictionaryColumns(planCache)
+                ? TableDictionary.build(collection, plan, planCache, ratio)
+                : null;
+        if (dictionary != null) {
+            dictionary.writeDeclarations(out, getIndent(indent), LINE_BREAK);
+        }
+        out.beginLine(getIndent(indent));
+        out.append(collectionName).append('(').appendInt(collection.size()).append(')');
+        if (schemaId != null) {
+            out.append(ToonSyntax.SCHEMA_REF_START).append(schemaId).append(ToonSyntax.SCHEMA_REF_END).append(':');
+        } else {
+            out.append("{").append(columns).append("}:");
+        }
+        out.endLine(HEADER_BREAK);
 
         // 序列化集合元素（使用紧凑格式）
-        int elementIndent = indent + 1;
+        String elementIndent = getIndent(indent + 1);
+        if (dictionary != null) {
+            for (Object element : collection) {
+                out.beginLine(elementIndent);
+                writeDictionaryRow(element, plan, dictionary, out);
+                out.append(';');
+                out.endLine(LINE_BREAK);
+            }
+            return;
+        }
+        ParallelMode mode = parallelMode;
+        if (mode != null && out.identities == null && collection.size() >= mode.threshold
+                && collection instanceof List && collection instanceof RandomAccess) {
+            serializeRowsParallel((List<?>) collection, plan, out, elementIndent, mode.pool);
+            return;
+        }
         for (Object element : collection) {
-            serializeCompressedElement(element, elementType, builder, elementIndent);
+            serializeCompressedElement(element, plan, out, elementIndent);
         }
     }
 
-    // 新增：序列化压缩格式的元素值
-    private void serializeCompressedElement(Object element, Class<?> type, StringBuilder builder, int indent) throws ToonException {
-        List<String> valueList = new ArrayList<>();
-        collectNestedValues(element, type, "", valueList);
-        builder.append(getIndent(indent))
-                .append(String.join(",", valueList))
-                .append(";\n");
+    // 分段并行编码数据行：各段使用同一列计划写入独立的内存缓冲区，按段顺序拼接
+    private void serializeRowsParallel(List<?> list, ClassPlan plan, ToonOutput out, String indent,
+                                       ForkJoinPool pool) throws ToonException {
+        int size = list.size();
+        int ranges = Math.max(1, Math.min(pool.getParallelism() * RANGES_PER_THREAD, size / MIN_RANGE_ROWS));
+        List<Future<ToonOutput>> parts = new ArrayList<>(ranges);
+        try {
+            for (int r = 0; r < ranges; r++) {
+                int from = (int) ((long) size * r / ranges);
+                int to = (int) ((long) size * (r + 1) / ranges);
+                parts.add(pool.submit(() -> encodeRows(list, from, to, plan, indent)));
+            }
+            for (Future<ToonOutput> part : parts) {
+                // 段内行尾已写出，段末行尾与段间衔接仍交给主缓冲区的延迟行尾处理
+                out.beginLine("");
+                out.append(ParallelTasks.join(part));
+                out.endLine(LINE_BREAK);
+            }
+        } finally {
+            ParallelTasks.cancelAll(parts);
+        }
+    }
+
+    private ToonOutput encodeRows(List<?> list, int from, int to, ClassPlan plan, String indent) throws ToonException {
+        ToonOutput part = new ToonOutput();
+        for (int i = from; i < to; i++) {
+            serializeCompressedElement(list.get(i), plan, part, indent);
+        }
+        return part;
+    }
+
+    // 序列化压缩格式的元素值：值、分隔符、括号均直接写入输出缓冲区
+    private void serializeCompressedElement(Object element, ClassPlan plan, ToonOutput out, String indent) throws ToonException {
+        out.beginLine(indent);
+        writeRowValues(element, plan, out);
+        out.append(';');
+        out.endLine(LINE_BREAK);
     }
 
     /**
      * 序列化嵌套在对象中的集合类型字段值
-     * 生成格式：(元素1,元素2,...) （用于嵌套场景的紧凑格式）
+     * 生成格式：(元素1,元素2,...) （用于嵌套场景的紧凑格式，空集合为"()"）
      */
-    private String serializeCollectionValue(Collection<?> collection) throws ToonException {
-        if (collection == null || collection.isEmpty()) {
-            return "()"; // 空集合标识
-        }
-
-        List<String> elementValues = new ArrayList<>();
+    private void writeCollectionValue(Collection<?> collection, ToonOutput out) throws ToonException {
+        out.append('(');
+        boolean first = true;
         for (Object element : collection) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
             if (element == null) {
-                elementValues.add("");
                 continue;
             }
 
-            Class<?> elementType = element.getClass();
-            // 基础类型或支持的类型直接序列化值
-            if (isPrimitiveOrSupported(elementType)) {
-                elementValues.add(serializePrimitiveValue(element, elementType));
-            }
-            // 嵌套对象递归处理（用括号包裹）
-            else if (!Collection.class.isAssignableFrom(elementType)) {
-                List<String> nestedValues = new ArrayList<>();
-                collectNestedValues(element, elementType, "", nestedValues);
-                elementValues.add("(" + String.join(",", nestedValues) + ")");
-            }
-            // 嵌套集合（多层集合）
-            else {
-                elementValues.add(serializeCollectionValue((Collection<?>) element));
+            ClassPlan elementPlan = planFor(element.getClass());
+            switch (elementPlan.kind) {
+                // 基础类型或支持的类型直接序列化值
+                case VALUE:
+                    writePrimitiveValue(element, elementPlan.converter, out);
+                    break;
+                // 嵌套对象递归处理（用括号包裹）
+                case OBJECT:
+                    writeNestedValue(element, elementPlan, out);
+                    break;
+                case ARRAY:
+                    ArrayCodec.write(element, out);
+                    break;
+                // 嵌套集合（多层集合）
+                default:
+                    writeCollectionValue((Collection<?>) element, out);
             }
         }
-
-        return "(" + String.join(",", elementValues) + ")";
+        out.append(')');
     }
 
-    // 新增：递归收集嵌套对象的值
-    private void collectNestedValues(Object obj, Class<?> type, String parentPath, List<String> valueList) throws ToonException {
-        List<Field> fields = FieldCache.getOrderedFields(type);
-        for (Field field : fields) {
-            try {
-                field.setAccessible(true);
-                Object value = field.get(obj);
-                Class<?> fieldType = field.getType();
-
-                if (value == null) {
-                    valueList.add("");
-                    continue;
-                }
+    // 嵌套对象：括号包裹的值序列
+    private void writeNestedValue(Object value, ClassPlan plan, ToonOutput out) throws ToonException {
+        if (writeAnchor(value, out)) {
+            return;
+        }
+        out.append('(');
+        writeRowValues(value, plan, out);
+        out.append(')');
+    }
 
-                // 基础类型直接添加值
-                if (isPrimitiveOrSupported(fieldType)) {
-                    valueList.add(serializePrimitiveValue(value, fieldType));
-                }
-                // 嵌套对象用括号包裹值序列
-                else if (!Collection.class.isAssignableFrom(fieldType)) {
-                    List<String> nestedValues = new ArrayList<>();
-                    collectNestedValues(value, fieldType, parentPath + field.getName() + ".", nestedValues);
-                    valueList.add("(" + String.join(",", nestedValues) + ")");
-                }
-                // 集合类型保持原有格式
-                else {
-                    // 集合处理逻辑保持不变
-                    valueList.add(serializeCollectionValue((Collection<?>) value));
-                }
-            } catch (IllegalAccessException e) {
-                throw new ToonReflectionException(type, "无法访问字段[" + field.getName() + "]", e);
+    // 身份去重：再次出现（含环形引用回到祖先）写为 *N 并返回true，首次出现写出 &N 前缀
+    private boolean writeAnchor(Object value, ToonOutput out) throws ToonException {
+        IdentityTracker identities = out.identities;
+        if (identities != null) {
+            int anchor = identities.anchorOf(value);
+            if (anchor > 0) {
+                out.append(ToonSyntax.ANCHOR_REF).appendInt(anchor);
+                return true;
             }
+            out.append(ToonSyntax.ANCHOR_DEFINE).appendInt(identities.define(value));
         }
+        return false;
     }
 
+    // 按列顺序写出对象的值（逗号分隔），null写为空
+    private void writeRowValues(Object obj, ClassPlan plan, ToonOutput out) throws ToonException {
+        ToonOutputCache current = cache;
+        if (current != null && plan.cacheable && out.identities == null) {
+            writeCachedRowValues(obj, plan, out, current);
+            return;
+        }
+        writeUncachedRowValues(obj, plan, out);
+    }
 
+    // 可缓存对象的值序列：命中时直接拼接缓存的片段，未命中时写入临时缓冲区后缓存
+    private void writeCachedRowValues(Object obj, ClassPlan plan, ToonOutput out, ToonOutputCache current)
+            throws ToonException {
+        Object version = plan.versionOf(obj);
+        String fragment = current.get(obj, null, version);
+        if (fragment == null) {
+            ToonOutput scratch = new ToonOutput();
+            writeUncachedRowValues(obj, plan, scratch);
+            fragment = scratch.toString();
+            current.put(obj, null, version, fragment);
+            out.escapedChars += scratch.escapedChars;
+        }
+        out.append(fragment);
+    }
 
-    private List<String> buildNestedFieldMetas(Class<?> type, String parentPath) throws ToonException {
-        List<String> metas = new ArrayList<>();
-        List<Field> fields = FieldCache.getOrderedFields(type);
+    private void writeUncachedRowValues(Object obj, ClassPlan plan, ToonOutput out) throws ToonException {
+        if (plan.writer != null && out.identities == null) {
+            // 编译期生成的写出器直接写入输出缓冲区（身份去重模式下需逐个登记嵌套对象，不使用）
+            plan.writer.writeRow(obj, out);
+            return;
+        }
+        Column[] columns = plan.columns();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            writeColumnValue(obj, columns[i], out);
+        }
+    }
 
-        for (Field field : fields) {
-            ToonField toonField = field.getAnnotation(ToonField.class);
-            String fieldName = field.getName();
-            String fullPath = parentPath.isEmpty() ? fieldName : parentPath + "." + fieldName;
-            String comment = toonField.comment();
+    // 数据行中单列的值，null写为空
+    private void writeColumnValue(Object obj, Column column, ToonOutput out) throws ToonException {
+        if (column.primitive != Primitive.NONE) {
+            writePrimitiveColumn(obj, column, out);
+            return;
+        }
+        Object value = column.accessor.get(obj);
+        if (value == null) {
+            return;
+        }
 
-            Class<?> fieldType = field.getType();
-            // 判断是否为嵌套对象（非基础类型且非集合）
-            if (!isPrimitiveOrSupported(fieldType) && !Collection.class.isAssignableFrom(fieldType)) {
-                // 递归处理嵌套对象，添加类型标记
-                metas.add(fullPath + "#" + comment + "[$object]");
-                metas.addAll(buildNestedFieldMetas(fieldType, fullPath));
-            } else {
-                metas.add(fullPath + "#" + comment);
-            }
+        switch (column.kind) {
+            // 基础类型直接写出值
+            case VALUE:
+                writePrimitiveValue(value, column.converter, out);
+                break;
+            // 嵌套对象用括号包裹值序列
+            case OBJECT:
+                writeNestedValue(value, planFor(column.type), out);
+                break;
+            // 数组写为括号组，元素不装箱
+            case ARRAY:
+                ArrayCodec.write(value, out);
+                break;
+            // 集合类型
+            default:
+                writeCollectionValue((Collection<?>) value, out);
         }
-        return metas;
     }
 
-    // 序列化集合中的单个元素（表格化数据）
-    private void serializeCollectionElement(Object element, List<Field> fields, StringBuilder builder, int indent) throws ToonException {
-        List<String> valueList = new ArrayList<>();
-        for (Field field : fields) {
-            valueList.add(serializeFieldValue(element, field));
+    // 字典编码的数据行：编码列写字典下标，含编码子列的嵌套对象逐层处理，其余列照常写出
+    private void writeDictionaryRow(Object obj, ClassPlan plan, TableDictionary dictionary, ToonOutput out)
+            throws ToonException {
+        Column[] columns = plan.columns();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Map<Object, Integer> codes = dictionary.codes(i);
+            TableDictionary nested = dictionary.nested(i);
+            if (codes == null && nested == null) {
+                writeColumnValue(obj, columns[i], out);
+                continue;
+            }
+            Object value = columns[i].accessor.get(obj);
+            if (value == null) {
+                continue;
+            }
+            if (codes != null) {
+                TableDictionary.writeCode(codes, value, out);
+            } else if (!writeAnchor(value, out)) {
+                out.append('(');
+                writeDictionaryRow(value, planFor(columns[i].type), nested, out);
+                out.append(')');
+            }
         }
-        builder.append(getIndent(indent))
-                .append(String.join(",", valueList))
-                .append(";\n");
     }
 
     // 序列化单个对象（支持嵌套）
-    private void serializeObject(String objectName, Object object, StringBuilder builder, int indent) throws ToonException {
-        Class<?> clazz = object.getClass();
-        List<Field> fields = FieldCache.getOrderedFields(clazz);
-
-        // 构建对象元数据（字段声明）
-        String fieldsStr = fields.stream()
-                .map(field -> {
-                    ToonField annotation = field.getAnnotation(ToonField.class);
-                    String comment = annotation.comment();
-                    return comment.isEmpty() ? field.getName() : field.getName() + "#" + comment;
-                })
-                .collect(Collectors.joining(","));
-        builder.append(getIndent(indent))
-                .append(objectName)
-                .append("{").append(fieldsStr).append("}: \n");
+    private void serializeObject(String objectName, Object object, ToonOutput out, int indent,
+                                 ToonSession session) throws ToonException {
+        ClassPlan plan = lookupPlan(plans, object.getClass(), out, indent + 1, false);
+
+        // 对象元数据（字段声明）已在计划中预先生成
+        out.beginLine(getIndent(indent));
+        out.append(objectName);
+        if (out.identities != null) {
+            out.append(ToonSyntax.ANCHOR_DEFINE).appendInt(out.identities.define(object));
+        }
+        out.append("{").append(plan.objectHeader()).append("}:");
+        out.endLine(HEADER_BREAK);
 
         // 序列化字段（缩进+1）
         int fieldIndent = indent + 1;
-        for (Field field : fields) {
-            serializeField(object, field, builder, fieldIndent);
+        for (Column column : plan.columns()) {
+            serializeField(object, column, out, fieldIndent, session);
         }
     }
 
     // 序列化单个字段（处理基础类型、集合、嵌套对象）
-    private void serializeField(Object parent, Field field, StringBuilder builder, int indent) throws ToonException {
-        try {
-            field.setAccessible(true);
-            String fieldName = field.getName();
-            Object value = field.get(parent);
+    private void serializeField(Object parent, Column column, ToonOutput out, int indent,
+                                ToonSession session) throws ToonException {
+        String fieldName = column.name;
+        if (column.primitive != Primitive.NONE) {
+            out.beginLine(getIndent(indent));
+            out.append(fieldName).append(": ");
+            writePrimitiveColumn(parent, column, out);
+            out.endLine(LINE_BREAK);
+            return;
+        }
+        Object value = column.accessor.get(parent);
 
-            if (value == null) {
-                builder.append(getIndent(indent)).append(fieldName).append(": null\n");
-                return;
-            }
+        if (value == null) {
+            out.beginLine(getIndent(indent));
+            out.append(fieldName).append(": null");
+            out.endLine(LINE_BREAK);
+            return;
+        }
 
-            Class<?> fieldType = field.getType();
+        switch (column.kind) {
             // 1. 基础类型或有转换器的类型
-            if (isPrimitiveOrSupported(fieldType)) {
-                String serializedValue = serializePrimitiveValue(value, fieldType);
-                builder.append(getIndent(indent))
-                        .append(fieldName)
-                        .append(": ")
-                        .append(serializedValue)
-                        .append("\n");
-            }
-            // 2. 集合类型
-            else if (Collection.class.isAssignableFrom(fieldType)) {
-                serializeCollection(fieldName, (Collection<?>) value, builder, indent);
-            }
-            // 3. 嵌套对象
-            else {
-                serializeObject(fieldName, value, builder, indent);
-            }
-        } catch (IllegalAccessException e) {
-            throw new ToonReflectionException(parent.getClass(), "无法访问字段[" + field.getName() + "]", e);
+            case VALUE:
+                out.beginLine(getIndent(indent));
+                out.append(fieldName).append(": ");
+                writePrimitiveValue(value, column.converter, out);
+                out.endLine(LINE_BREAK);
+                break;
+            // 2. 数组：name: (e1,e2,...)
+            case ARRAY:
+                out.beginLine(getIndent(indent));
+                out.append(fieldName).append(": ");
+                ArrayCodec.write(value, out);
+                out.endLine(LINE_BREAK);
+                break;
+            // 3. 集合类型
+            case COLLECTION:
+                serializeCollection(fieldName, (Collection<?>) value, out, indent, session);
+                break;
+            // 4. 嵌套对象（身份去重模式下已写出的对象写为引用）
+            default:
+                int anchor = out.identities != null ? out.identities.anchorOf(value) : 0;
+                if (anchor > 0) {
+                    out.beginLine(getIndent(indent));
+                    out.append(fieldName).append(": ").append(ToonSyntax.ANCHOR_REF).appendInt(anchor);
+                    out.endLine(LINE_BREAK);
+                } else {
+                    serializeObject(fieldName, value, out, indent, session);
+                }
         }
     }
 
-    // 序列化基础类型值（含转换器支持的类型）
-    private String serializePrimitiveValue(Object value, Class<?> type) {
-        TypeConverter converter = converterRegistry.findConverter(type);
-        if (converter != null) {
-            return escape(converter.serialize(value));
+    // 无转换器的基础类型字段：按原始类型读取并直接格式化，不经过装箱和toString
+    private void writePrimitiveColumn(Object obj, Column column, ToonOutput out) throws ToonException {
+        FieldAccessor accessor = column.accessor;
+        switch (column.primitive) {
+            case INT:
+                out.appendInt(accessor.getInt(obj));
+                break;
+            case LONG:
+                out.appendLong(accessor.getLong(obj));
+                break;
+            case DOUBLE:
+                out.appendDouble(accessor.getDouble(obj));
+                break;
+            case BOOLEAN:
+                out.appendBoolean(accessor.getBoolean(obj));
+                break;
+            default:
+                out.appendEscaped(accessor.getChar(obj));
         }
-        // 处理默认基本类型
-        return escape(value.toString());
     }
 
-    // 序列化集合元素中的字段值（简化版，用于表格化数据）
-    private String serializeFieldValue(Object element, Field field) throws ToonException {
-        try {
-            field.setAccessible(true);
-            Object value = field.get(element);
-            if (value == null) {
-                return "";
+    // 序列化基础类型值（含转换器支持的类型），转义后直接写入输出
+    private void writePrimitiveValue(Object value, TypeConverter converter, ToonOutput out) throws ToonException {
+        if (converter == null) {
+            // 常见包装类型直接格式化，省去toString产生的临时字符串
+            if (value instanceof String) {
+                out.appendEscaped((String) value);
+                return;
+            } else if (value instanceof Integer) {
+                out.appendInt((Integer) value);
+                return;
+            } else if (value instanceof Long) {
+                out.appendLong((Long) value);
+                return;
+            } else if (value instanceof Double) {
+                out.appendDouble((Double) value);
+                return;
+            } else if (value instanceof Float) {
+                out.appendFloat((Float) value);
+                return;
+            } else if (value instanceof Boolean) {
+                out.appendBoolean((Boolean) value);
+                return;
             }
-            Class<?> type = field.getType();
-            TypeConverter converter = converterRegistry.findConverter(type);
-            return converter != null ? escape(converter.serialize(value)) : escape(value.toString());
-        } catch (IllegalAccessException e) {
-            throw new ToonReflectionException(element.getClass(), "无法访问字段[" + field.getName() + "]", e);
         }
+        String text = valueText(value, converter);
+        if (text != null) {
+            out.appendEscaped(text);
+        }
+    }
+
+    // 值的文本形式：有转换器时使用转换器，否则toString
+    static String valueText(Object value, TypeConverter converter) {
+        return converter != null ? converter.serialize(value) : value.toString();
     }
 
-    // 工具方法：生成缩进字符串
-    private String getIndent(int level) {
+    // 工具方法：获取缩进字符串（常用层级预先生成）
+    static String getIndent(int level) {
         if (level <= 0) {
             return "";
         }
+        if (level < INDENTS.length) {
+            return INDENTS[level];
+        }
         StringBuilder indent = new StringBuilder();
         for (int i = 0; i < level; i++) {
             indent.append(INDENT_CHAR);
@@ -281,27 +1075,13 @@ public class DefaultToonSerializer implements ToonSerializer {
         return indent.toString();
     }
 
-    // 工具方法：判断是否为基础类型或有转换器支持的类型
-    private boolean isPrimitiveOrSupported(Class<?> type) {
-        return type.isPrimitive()
-                || type == String.class
-                || type == Integer.class
-                || type == Long.class
-                || type == Double.class
-                || type == Boolean.class
-                || converterRegistry.findConverter(type) != null;
-    }
+    private static final class ParallelMode {
+        final int threshold;
+        final ForkJoinPool pool;
 
-    // 工具方法：特殊字符转义
-    private String escape(String value) {
-        if (value == null) {
-            return "";
+        ParallelMode(int threshold, ForkJoinPool pool) {
+            this.threshold = threshold;
+            this.pool = pool;
         }
-        return value.replace("\\", "\\\\")
-                .replace(",", "\\,")
-                .replace(";", "\\;")
-                .replace("{", "\\{")
-                .replace("}", "\\}")
-                .replace("\n", "\\n");
     }
 }
@@ -0,0 +1,201 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonReflectionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * 字段读取器：构建计划时一次性完成 setAccessible 与 MethodHandle 解析，
+ * 热路径上只剩一次 invokeExact，不再有访问检查和注解读取。
+ * 基础类型字段额外提供 getInt/getLong 等读取方式，避免装箱。
+ */
+abstract class FieldAccessor {
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+    final Field field;
+
+    FieldAccessor(Field field) {
+        this.field = field;
+    }
+
+    abstract Object get(Object target) throws ToonReflectionException;
+
+    // 以下方法仅在字段类型匹配时调用（short/byte字段按int读取）
+    abstract int getInt(Object target) throws ToonReflectionException;
+
+    abstract long getLong(Object target) throws ToonReflectionException;
+
+    abstract double getDouble(Object target) throws ToonReflectionException;
+
+    abstract boolean getBoolean(Object target) throws ToonReflectionException;
+
+    abstract char getChar(Object target) throws ToonReflectionException;
+
+    static FieldAccessor of(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle raw = MethodHandles.lookup().unreflectGetter(field);
+            Class<?> type = field.getType();
+            // short/byte按int读取
+            Class<?> primitive = type == short.class || type == byte.class ? int.class : type;
+            MethodHandle typed = type.isPrimitive()
+                    ? raw.asType(MethodType.methodType(primitive, Object.class))
+                    : null;
+            return new HandleAccessor(field, raw.asType(OBJECT_GETTER), typed);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // 模块限制等原因无法生成MethodHandle时退回反射读取，错误推迟到真正读取时抛出
+            return new ReflectAccessor(field);
+        }
+    }
+
+    ToonReflectionException readFailure(Object target, Throwable cause) {
+        Class<?> owner = target != null ? target.getClass() : field.getDeclaringClass();
+        return new ToonReflectionException(owner, "无法访问字段[" + field.getName() + "]", cause);
+    }
+
+    private static final class HandleAccessor extends FieldAccessor {
+        private final MethodHandle getter;
+        private final MethodHandle typedGetter; // 基础类型字段的无装箱读取，引用类型字段为null
+
+        HandleAccessor(Field field, MethodHandle getter, MethodHandle typedGetter) {
+            super(field);
+            this.getter = getter;
+            this.typedGetter = typedGetter;
+        }
+
+        @Override
+        Object get(Object target) throws ToonReflectionException {
+            try {
+                return getter.invokeExact(target);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        int getInt(Object target) throws ToonReflectionException {
+            try {
+                return (int) typedGetter.invokeExact(target);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        long getLong(Object target) throws ToonReflectionException {
+            try {
+                return (long) typedGetter.invokeExact(target);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        double getDouble(Object target) throws ToonReflectionException {
+            try {
+                return (double) typedGetter.invokeExact(target);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        boolean getBoolean(Object target) throws ToonReflectionException {
+            try {
+                return (boolean) typedGetter.invokeExact(target);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        char getChar(Object target) throws ToonReflectionException {
+            try {
+                return (char) typedGetter.invokeExact(target);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw readFailure(target, e);
+            }
+        }
+    }
+
+    private static final class ReflectAccessor extends FieldAccessor {
+        ReflectAccessor(Field field) {
+            super(field);
+        }
+
+        @Override
+        Object get(Object target) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                return field.get(target);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        int getInt(Object target) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                return field.getInt(target);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        long getLong(Object target) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                return field.getLong(target);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        double getDouble(Object target) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                return field.getDouble(target);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        boolean getBoolean(Object target) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                return field.getBoolean(target);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw readFailure(target, e);
+            }
+        }
+
+        @Override
+        char getChar(Object target) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                return field.getChar(target);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw readFailure(target, e);
+            }
+        }
+    }
+}
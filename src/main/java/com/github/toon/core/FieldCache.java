@@ -1,33 +1,101 @@
 package com.github.toon.core;
 
 import com.github.toon.anno.ToonField;
+import com.github.toon.exception.ToonException;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * 按@ToonField排序的字段缓存：基于ClassValue，缓存随类一起回收，不会因热部署而持有旧的类加载器。
+ * 可在启动时按类或包名预热，避免首批请求承担反射解析的开销。
+ */
 public class FieldCache {
-    private static final ConcurrentHashMap<Class<?>, List<Field>> FIELD_CACHE = new ConcurrentHashMap<>();
+    // 已缓存的类（弱引用，只用于统计数量）
+    private static final Map<Class<?>, Boolean> BUILT = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final LongAdder BUILDS = new LongAdder();
+    private static final LongAdder BUILD_NANOS = new LongAdder();
+    private static final ClassValue<List<Field>> FIELD_CACHE = new ClassValue<List<Field>>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            long start = System.nanoTime();
+            List<Field> fields = collectFields(type);
+            BUILD_NANOS.add(System.nanoTime() - start);
+            BUILDS.increment();
+            BUILT.put(type, Boolean.TRUE);
+            return fields;
+        }
+    };
 
-    // 获取按@ToonField排序的字段列表（缓存）
+    // 获取按@ToonField排序的字段列表（缓存，不可修改）
     public static List<Field> getOrderedFields(Class<?> clazz) {
-        return FIELD_CACHE.computeIfAbsent(clazz, key -> {
-            List<Field> fields = new ArrayList<>();
-            // 递归获取父类字段（支持继承）
-            Class<?> current = key;
-            while (current != Object.class) {
-                for (Field field : current.getDeclaredFields()) {
-                    if (field.isAnnotationPresent(ToonField.class)) {
-                        fields.add(field);
-                    }
+        return FIELD_CACHE.get(clazz);
+    }
+
+    private static List<Field> collectFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        // 递归获取父类字段（支持继承）
+        Class<?> current = type;
+        while (current != null && current != Object.class) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(ToonField.class)) {
+                    fields.add(field);
                 }
-                current = current.getSuperclass();
             }
-            // 按order排序
-            fields.sort(Comparator.comparingInt(f -> f.getAnnotation(ToonField.class).order()));
-            return fields;
-        });
+            current = current.getSuperclass();
+        }
+        // 按order排序
+        fields.sort(Comparator.comparingInt(f -> f.getAnnotation(ToonField.class).order()));
+        return Collections.unmodifiableList(fields);
+    }
+
+    // 预热：解析这些类的字段顺序，返回其中含有@ToonField字段的类
+    public static List<Class<?>> warmup(Class<?>... classes) {
+        return warmup(Arrays.asList(classes));
+    }
+
+    public static List<Class<?>> warmup(Collection<Class<?>> classes) {
+        List<Class<?>> annotated = new ArrayList<>();
+        for (Class<?> type : classes) {
+            if (!getOrderedFields(type).isEmpty()) {
+                annotated.add(type);
+            }
+        }
+        return annotated;
+    }
+
+    /**
+     * 预热包（含子包）中的全部类：从上下文类加载器扫描目录与jar中的类文件（只加载不初始化），
+     * 返回其中含有@ToonField字段的类。无法加载的类被跳过
+     */
+    public static List<Class<?>> warmup(String packageName) throws ToonException {
+        return warmup(ClassScanner.scan(packageName));
+    }
+
+    public static List<Class<?>> warmup(String packageName, ClassLoader loader) throws ToonException {
+        return warmup(ClassScanner.scan(packageName, loader));
+    }
+
+    // 当前缓存的类数（已被回收的类不计入）
+    public static int size() {
+        return BUILT.size();
+    }
+
+    // 累计解析的次数（类被回收后再次使用会重新解析）
+    public static long getBuildCount() {
+        return BUILDS.sum();
+    }
+
+    // 累计的解析耗时（纳秒）
+    public static long getBuildNanos() {
+        return BUILD_NANOS.sum();
     }
 }
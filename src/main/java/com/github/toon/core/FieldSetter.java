@@ -0,0 +1,199 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonReflectionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * 字段写入器：与 FieldAccessor 对应，构建绑定时一次性解析 MethodHandle，
+ * 基础类型字段提供 setInt/setLong 等无装箱写入。
+ */
+abstract class FieldSetter {
+    private static final MethodType OBJECT_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    final Field field;
+
+    FieldSetter(Field field) {
+        this.field = field;
+    }
+
+    // 引用类型字段，或short/byte/float等按包装类型写入的基础类型字段
+    abstract void set(Object target, Object value) throws ToonReflectionException;
+
+    // 以下方法仅在字段类型完全匹配时调用
+    abstract void setInt(Object target, int value) throws ToonReflectionException;
+
+    abstract void setLong(Object target, long value) throws ToonReflectionException;
+
+    abstract void setDouble(Object target, double value) throws ToonReflectionException;
+
+    abstract void setBoolean(Object target, boolean value) throws ToonReflectionException;
+
+    abstract void setChar(Object target, char value) throws ToonReflectionException;
+
+    static FieldSetter of(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle raw = MethodHandles.lookup().unreflectSetter(field);
+            Class<?> type = field.getType();
+            MethodHandle typed = type.isPrimitive()
+                    ? raw.asType(MethodType.methodType(void.class, Object.class, type))
+                    : null;
+            return new HandleSetter(field, raw.asType(OBJECT_SETTER), typed);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // final字段等无法生成MethodHandle时退回反射写入
+            return new ReflectSetter(field);
+        }
+    }
+
+    ToonReflectionException writeFailure(Object target, Throwable cause) {
+        Class<?> owner = target != null ? target.getClass() : field.getDeclaringClass();
+        return new ToonReflectionException(owner, "无法写入字段[" + field.getName() + "]", cause);
+    }
+
+    private static final class HandleSetter extends FieldSetter {
+        private final MethodHandle setter;
+        private final MethodHandle typedSetter; // 基础类型字段的无装箱写入，引用类型字段为null
+
+        HandleSetter(Field field, MethodHandle setter, MethodHandle typedSetter) {
+            super(field);
+            this.setter = setter;
+            this.typedSetter = typedSetter;
+        }
+
+        @Override
+        void set(Object target, Object value) throws ToonReflectionException {
+            try {
+                setter.invokeExact(target, value);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setInt(Object target, int value) throws ToonReflectionException {
+            try {
+                typedSetter.invokeExact(target, value);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setLong(Object target, long value) throws ToonReflectionException {
+            try {
+                typedSetter.invokeExact(target, value);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setDouble(Object target, double value) throws ToonReflectionException {
+            try {
+                typedSetter.invokeExact(target, value);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setBoolean(Object target, boolean value) throws ToonReflectionException {
+            try {
+                typedSetter.invokeExact(target, value);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setChar(Object target, char value) throws ToonReflectionException {
+            try {
+                typedSetter.invokeExact(target, value);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw writeFailure(target, e);
+            }
+        }
+    }
+
+    private static final class ReflectSetter extends FieldSetter {
+        ReflectSetter(Field field) {
+            super(field);
+        }
+
+        @Override
+        void set(Object target, Object value) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                field.set(target, value);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setInt(Object target, int value) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                field.setInt(target, value);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setLong(Object target, long value) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                field.setLong(target, value);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setDouble(Object target, double value) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                field.setDouble(target, value);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setBoolean(Object target, boolean value) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                field.setBoolean(target, value);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw writeFailure(target, e);
+            }
+        }
+
+        @Override
+        void setChar(Object target, char value) throws ToonReflectionException {
+            try {
+                field.setAccessible(true);
+                field.setChar(target, value);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw writeFailure(target, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.toon.core;
+
+import com.github.toon.converter.ConverterRegistry;
+import com.github.toon.converter.EnumConverter;
+import com.github.toon.converter.LocalDateTimeConverter;
+import com.github.toon.converter.TypeConverter;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * 编译期生成写出器的发现与校验
+ */
+final class GeneratedWriters {
+    static final String SUFFIX = "$$ToonWriter";
+
+    private GeneratedWriters() {}
+
+    // 查找 类名+"$$ToonWriter"，不存在或与当前转换器配置不兼容时返回null（退回反射路径）
+    @SuppressWarnings("unchecked")
+    static ToonWriter<Object> find(Class<?> type, ConverterRegistry registry) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null) {
+            return null; // JDK自身的类不会有生成的写出器
+        }
+        ToonWriter<Object> writer;
+        try {
+            Class<?> writerClass = Class.forName(type.getName() + SUFFIX, true, loader);
+            if (!ToonWriter.class.isAssignableFrom(writerClass)) {
+                return null;
+            }
+            Constructor<?> constructor = writerClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            writer = (ToonWriter<Object>) constructor.newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+        return isCompatible(writer, registry) ? writer : null;
+    }
+
+    // 生成的写出器按内置规则输出各列，若自定义转换器接管了其中某个列类型则不能使用
+    private static boolean isCompatible(ToonWriter<?> writer, ConverterRegistry registry) {
+        for (Class<?> columnType : writer.columnTypes()) {
+            if (ClassPlan.kindOf(columnType, registry) != ClassPlan.Kind.VALUE) {
+                return false;
+            }
+            TypeConverter converter = registry.findConverter(columnType);
+            if (converter != null
+                    && converter.getClass() != EnumConverter.class
+                    && converter.getClass() != LocalDateTimeConverter.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
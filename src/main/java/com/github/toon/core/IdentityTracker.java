@@ -0,0 +1,44 @@
+package com.github.toon.core;
+
+import java.util.IdentityHashMap;
+
+/**
+ * 身份去重模式下单个文档的写出状态：嵌套对象按身份（==）登记锚点，编号从1开始按首次出现的顺序分配。
+ * 锚点在写出对象内容之前登记，环形引用回到祖先时即写为引用，遍历必然终止。
+ * 每个线程复用一个实例，文档结束后清空；登记过多对象的实例不再保留，避免长期占用内存。
+ */
+final class IdentityTracker {
+    private static final int MAX_RETAINED = 1 << 16; // 超过此数量的映射表用后丢弃
+    private static final ThreadLocal<IdentityTracker> CACHED = new ThreadLocal<>();
+
+    private final IdentityHashMap<Object, Integer> anchors = new IdentityHashMap<>();
+
+    static IdentityTracker acquire() {
+        IdentityTracker tracker = CACHED.get();
+        if (tracker == null) {
+            return new IdentityTracker();
+        }
+        CACHED.remove(); // 嵌套调用（如转换器内再次序列化）时各自使用独立实例
+        return tracker;
+    }
+
+    static void release(IdentityTracker tracker) {
+        if (tracker.anchors.size() <= MAX_RETAINED) {
+            tracker.anchors.clear();
+            CACHED.set(tracker);
+        }
+    }
+
+    // 已登记对象的锚点，未登记时返回0
+    int anchorOf(Object value) {
+        Integer anchor = anchors.get(value);
+        return anchor != null ? anchor : 0;
+    }
+
+    // 为首次出现的对象分配锚点
+    int define(Object value) {
+        int anchor = anchors.size() + 1;
+        anchors.put(value, anchor);
+        return anchor;
+    }
+}
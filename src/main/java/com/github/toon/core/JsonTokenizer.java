@@ -0,0 +1,367 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonFormatException;
+import com.github.toon.exception.ToonIOException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * 流式JSON分词器：以固定大小的缓冲区从Reader读取，逐个返回记号，校验逗号、冒号与括号的配对。
+ * 字符串已还原转义，数字保留原文；记号文本存放在可复用的字符数组中，不为每个值创建String。
+ * 非线程安全。
+ */
+final class JsonTokenizer {
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END
+    }
+
+    // 容器状态
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte DANGLING_NAME = 5; // 已读取字段名，等待冒号与值
+    private static final byte NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buf;
+    private int pos;
+    private int limit;
+    private long consumed; // 已移出缓冲区的字符数，用于错误定位
+
+    private byte[] stack = new byte[32];
+    private int depth = 1;
+    private Token peeked;
+
+    private char[] text = new char[64];
+    private int textLength;
+
+    JsonTokenizer(Reader in) {
+        this(in, ToonOutput.DEFAULT_BUFFER_SIZE);
+    }
+
+    JsonTokenizer(Reader in, int bufferSize) {
+        this.in = in;
+        this.buf = new char[Math.max(bufferSize, 64)];
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    Token next() throws ToonFormatException, ToonIOException {
+        if (peeked != null) {
+            Token token = peeked;
+            peeked = null;
+            return token;
+        }
+        return read();
+    }
+
+    Token peek() throws ToonFormatException, ToonIOException {
+        if (peeked == null) {
+            peeked = read();
+        }
+        return peeked;
+    }
+
+    // 当前容器的嵌套层数（文档本身不计）
+    int depth() {
+        return depth - 1;
+    }
+
+    // 字段名、字符串或数字的文本
+    char[] textBuffer() {
+        return text;
+    }
+
+    int textLength() {
+        return textLength;
+    }
+
+    String text() {
+        return new String(text, 0, textLength);
+    }
+
+    boolean textEquals(String value) {
+        if (value.length() != textLength) {
+            return false;
+        }
+        for (int i = 0; i < textLength; i++) {
+            if (text[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    ToonFormatException error(String message) {
+        return new ToonFormatException(message, (int) Math.min(consumed + pos, Integer.MAX_VALUE));
+    }
+
+    private Token read() throws ToonFormatException, ToonIOException {
+        int c = nextNonWhitespace();
+        switch (stack[depth - 1]) {
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                return readValue(c);
+            case NONEMPTY_DOCUMENT:
+                if (c != -1) {
+                    throw error("JSON文档之后有多余内容");
+                }
+                return Token.END;
+            case EMPTY_ARRAY:
+                if (c == ']') {
+                    return pop(Token.END_ARRAY);
+                }
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                return readValue(c);
+            case NONEMPTY_ARRAY:
+                if (c == ']') {
+                    return pop(Token.END_ARRAY);
+                }
+                if (c != ',') {
+                    throw error("数组中此处应为','或']'");
+                }
+                return readValue(nextNonWhitespace());
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                if (c == '}') {
+                    return pop(Token.END_OBJECT);
+                }
+                if (stack[depth - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw error("对象中此处应为','或'}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw error("此处应为字段名");
+                }
+                readString();
+                stack[depth - 1] = DANGLING_NAME;
+                return Token.NAME;
+            default: // DANGLING_NAME
+                if (c != ':') {
+                    throw error("字段名之后应为':'");
+                }
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return readValue(nextNonWhitespace());
+        }
+    }
+
+    private Token readValue(int c) throws ToonFormatException, ToonIOException {
+        switch (c) {
+            case '{':
+                push(EMPTY_OBJECT);
+                return Token.BEGIN_OBJECT;
+            case '[':
+                push(EMPTY_ARRAY);
+                return Token.BEGIN_ARRAY;
+            case '"':
+                readString();
+                return Token.STRING;
+            case 't':
+                readLiteral("true");
+                return Token.TRUE;
+            case 'f':
+                readLiteral("false");
+                return Token.FALSE;
+            case 'n':
+                readLiteral("null");
+                return Token.NULL;
+            case -1:
+                throw error("JSON不完整");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber((char) c);
+                    return Token.NUMBER;
+                }
+                throw error("无法识别的JSON值");
+        }
+    }
+
+    private void push(byte scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    private Token pop(Token token) {
+        depth--;
+        return token;
+    }
+
+    // 读取除首字符外的字面量，文本保存为字面量本身
+    private void readLiteral(String literal) throws ToonFormatException, ToonIOException {
+        textLength = 0;
+        appendText(literal.charAt(0));
+        for (int i = 1; i < literal.length(); i++) {
+            if (!ensure() || buf[pos] != literal.charAt(i)) {
+                throw error("无法识别的JSON值");
+            }
+            appendText(buf[pos++]);
+        }
+    }
+
+    // 数字按JSON语法校验后保留原文：-?(0|[1-9]\d*)(\.\d+)?([eE][+-]?\d+)?
+    private void readNumber(char first) throws ToonFormatException, ToonIOException {
+        textLength = 0;
+        appendText(first);
+        if (first == '-') {
+            if (!ensure() || !isDigit(buf[pos])) {
+                throw error("数字格式错误");
+            }
+            first = buf[pos++];
+            appendText(first);
+        }
+        if (first != '0') {
+            readDigits();
+        }
+        if (ensure() && buf[pos] == '.') {
+            appendText(buf[pos++]);
+            if (readDigits() == 0) {
+                throw error("数字格式错误");
+            }
+        }
+        if (ensure() && (buf[pos] == 'e' || buf[pos] == 'E')) {
+            appendText(buf[pos++]);
+            if (ensure() && (buf[pos] == '+' || buf[pos] == '-')) {
+                appendText(buf[pos++]);
+            }
+            if (readDigits() == 0) {
+                throw error("数字格式错误");
+            }
+        }
+    }
+
+    private int readDigits() throws ToonIOException {
+        int count = 0;
+        while (ensure() && isDigit(buf[pos])) {
+            appendText(buf[pos++]);
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // 读取引号之后的字符串内容并还原转义，无转义的片段整段拷贝
+    private void readString() throws ToonFormatException, ToonIOException {
+        textLength = 0;
+        while (true) {
+            if (!ensure()) {
+                throw error("字符串未结束");
+            }
+            int start = pos;
+            while (pos < limit) {
+                char c = buf[pos];
+                if (c == '"' || c == '\\' || c < 0x20) {
+                    break;
+                }
+                pos++;
+            }
+            appendText(buf, start, pos - start);
+            if (pos == limit) {
+                continue;
+            }
+            char c = buf[pos++];
+            if (c == '"') {
+                return;
+            }
+            if (c != '\\') {
+                throw error("字符串中含有未转义的控制字符");
+            }
+            appendText(readEscape());
+        }
+    }
+
+    private char readEscape() throws ToonFormatException, ToonIOException {
+        if (!ensure()) {
+            throw error("字符串未结束");
+        }
+        char c = buf[pos++];
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (!ensure()) {
+                        throw error("字符串未结束");
+                    }
+                    int digit = Character.digit(buf[pos++], 16);
+                    if (digit < 0) {
+                        throw error("\\u转义格式错误");
+                    }
+                    code = (code << 4) | digit;
+                }
+                return (char) code;
+            default:
+                throw error("无法识别的转义字符");
+        }
+    }
+
+    private int nextNonWhitespace() throws ToonIOException {
+        while (ensure()) {
+            char c = buf[pos++];
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private void appendText(char c) {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, textLength * 2);
+        }
+        text[textLength++] = c;
+    }
+
+    private void appendText(char[] chars, int start, int length) {
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+        }
+        System.arraycopy(chars, start, text, textLength, length);
+        textLength += length;
+    }
+
+    // 保证缓冲区中至少有一个可读字符，读到末尾时返回false
+    private boolean ensure() throws ToonIOException {
+        if (pos < limit) {
+            return true;
+        }
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        try {
+            int read;
+            do {
+                read = in.read(buf, 0, buf.length);
+            } while (read == 0);
+            if (read < 0) {
+                return false;
+            }
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new ToonIOException("读取JSON失败", e);
+        }
+    }
+}
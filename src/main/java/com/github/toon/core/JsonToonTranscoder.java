@@ -0,0 +1,423 @@
+package com.github.toon.core;
+
+import com.github.toon.core.JsonTokenizer.Token;
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonFormatException;
+import com.github.toon.exception.ToonIOException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JSON → TOON 流式转码：边读JSON记号边写出TOON，不构建对象也不构建JSON树。
+ * <ul>
+ *     <li>对象数组 → 表格：列由首个元素推断（嵌套对象展开为 [$object] 列），后续元素按字段名对齐到列，
+ *     缺少的字段为空单元格；出现首个元素没有的字段时报错</li>
+ *     <li>行内的嵌套对象 → ( … ) 括号组，数组 → (v1,v2,…)</li>
+ *     <li>对象 → 单对象格式（name{字段}: 后跟缩进的字段行），其他值数组 → 值行</li>
+ * </ul>
+ * 转义与 DefaultToonSerializer 相同。顶层数组的头部写为 name(*)，首行之后的数据行读到即写出，
+ * 结束时以 "@count N" 给出行数；单对象的字段列表要等对象读完才确定，其正文（含其中的表格）先写入暂存缓冲，
+ * 超过阈值后转存到临时文件，内存占用有界。
+ * JSON字段名需为合法的Java标识符（TOON头部的列名规则）。实例无状态，线程安全。
+ */
+public final class JsonToonTranscoder {
+    private static final String HEADER_BREAK = " \n";
+    private static final String LINE_BREAK = "\n";
+    private static final String EMPTY_BREAK = " ";
+    private static final int DEFAULT_SPILL_THRESHOLD = 1 << 20; // 每层正文在内存中暂存的最大字符数
+    private static final int MAX_DEPTH = 512;
+
+    private final int spillThreshold;
+
+    public JsonToonTranscoder() {
+        this(DEFAULT_SPILL_THRESHOLD);
+    }
+
+    public JsonToonTranscoder(int spillThreshold) {
+        if (spillThreshold < 0) {
+            throw new IllegalArgumentException("spillThreshold不能为负数");
+        }
+        this.spillThreshold = spillThreshold;
+    }
+
+    public String transcode(String rootName, String json) throws ToonException {
+        StringBuilder builder = new StringBuilder(json.length());
+        transcode(rootName, new StringReader(json), builder);
+        return builder.toString();
+    }
+
+    // 从Reader读取JSON，TOON写入目标（Writer/StringBuilder等），不关闭两者
+    public void transcode(String rootName, Reader json, Appendable target) throws ToonException {
+        new Transcoding(new JsonTokenizer(json), spillThreshold).document(rootName, new ToonOutput(target));
+    }
+
+    // 单次转码的状态：分词器与各层的单元格缓冲
+    private static final class Transcoding {
+        private final JsonTokenizer json;
+        private final int spillThreshold;
+        private final List<CellBuffer> cellBuffers = new ArrayList<>();
+
+        Transcoding(JsonTokenizer json, int spillThreshold) {
+            this.json = json;
+            this.spillThreshold = spillThreshold;
+        }
+
+        void document(String rootName, ToonOutput out) throws ToonException {
+            writeMember(rootName, json.next(), out, 0);
+            json.next(); // 校验文档之后没有多余内容
+            out.finish();
+        }
+
+        // 对象字段（或根）：值写为字段行，对象写为单对象块，数组写为表格
+        private void writeMember(String name, Token token, ToonOutput out, int indent) throws ToonException {
+            switch (token) {
+                case BEGIN_OBJECT:
+                    writeObject(name, out, indent);
+                    return;
+                case BEGIN_ARRAY:
+                    writeTable(name, out, indent);
+                    return;
+                default:
+                    out.beginLine(DefaultToonSerializer.getIndent(indent));
+                    out.append(name).append(": ");
+                    if (token == Token.NULL) {
+                        out.append(ToonSyntax.NULL_VALUE);
+                    } else {
+                        writeScalar(token, out);
+                    }
+                    out.endLine(LINE_BREAK);
+            }
+        }
+
+        // 单对象块：字段列表在读完对象后才确定，字段行先暂存
+        private void writeObject(String name, ToonOutput out, int indent) throws ToonException {
+            checkDepth();
+            StringBuilder names = new StringBuilder();
+            Block block = new Block(spillThreshold);
+            try {
+                while (json.next() == Token.NAME) {
+                    String field = fieldName();
+                    if (names.length() > 0) {
+                        names.append(',');
+                    }
+                    names.append(field);
+                    writeMember(field, json.next(), block.out, indent + 1);
+                }
+                out.beginLine(DefaultToonSerializer.getIndent(indent));
+                out.append(name).append('{').append(names.toString()).append("}:");
+                out.endLine(HEADER_BREAK);
+                block.copyTo(out);
+            } finally {
+                block.close();
+            }
+        }
+
+        // 表格：顶层数组逐行写出；嵌套在单对象中的数组数据行先暂存，读完后写出带行数与列声明的头部
+        private void writeTable(String name, ToonOutput out, int indent) throws ToonException {
+            checkDepth();
+            if (json.peek() == Token.END_ARRAY) {
+                json.next();
+                out.beginLine(DefaultToonSerializer.getIndent(indent));
+                out.append(name).append("(0){}:");
+                out.endLine(EMPTY_BREAK);
+                return;
+            }
+            Column columns = json.peek() == Token.BEGIN_OBJECT ? new Column("", true) : null;
+            if (indent == 0) {
+                streamTable(name, columns, out);
+                return;
+            }
+            String rowIndent = DefaultToonSerializer.getIndent(indent + 1);
+            long count = 0;
+            Block block = new Block(spillThreshold);
+            try {
+                Token token;
+                while ((token = json.next()) != Token.END_ARRAY) {
+                    writeRow(token, columns, block.out, rowIndent, count == 0);
+                    count++;
+                }
+                writeTableHeader(name, '(' + Long.toString(count) + ')', columns, out, indent);
+                block.copyTo(out);
+            } finally {
+                block.close();
+            }
+        }
+
+        // 顶层表格：列由首个元素推断，只有首行先编码到暂存缓冲，头部写为 name(*)，之后的行直接写出
+        private void streamTable(String name, Column columns, ToonOutput out) throws ToonException {
+            String rowIndent = DefaultToonSerializer.getIndent(1);
+            ToonOutput first = new ToonOutput();
+            writeRow(json.next(), columns, first, rowIndent, true);
+            first.finish();
+            writeTableHeader(name, "(" + ToonSyntax.DEFERRED_COUNT + ")", columns, out, 0);
+            out.beginLine("");
+            out.append(first);
+            out.endLine(LINE_BREAK);
+            long count = 1;
+            Token token;
+            while ((token = json.next()) != Token.END_ARRAY) {
+                writeRow(token, columns, out, rowIndent, false);
+                count++;
+            }
+            out.beginLine(DefaultToonSerializer.getIndent(0));
+            out.append(ToonSyntax.ROW_COUNT_TRAILER).appendLong(count);
+            out.endLine(LINE_BREAK);
+        }
+
+        private void writeTableHeader(String name, String count, Column columns, ToonOutput out, int indent)
+                throws ToonIOException {
+            out.beginLine(DefaultToonSerializer.getIndent(indent));
+            out.append(name).append(count).append('{');
+            if (columns != null) {
+                appendColumns(columns, "", out);
+            }
+            out.append("}:");
+            out.endLine(HEADER_BREAK);
+        }
+
+        // 数据行：对象数组按列写出单元格，其他值数组写为单值行；define为true时（首行）由该元素推断列
+        private void writeRow(Token token, Column columns, ToonOutput rows, String rowIndent, boolean define)
+                throws ToonException {
+            rows.beginLine(rowIndent);
+            if (columns == null) {
+                writeCell(token, null, rows, false);
+            } else if (token == Token.BEGIN_OBJECT) {
+                writeObjectCells(columns, rows, define);
+            } else if (token == Token.NULL) {
+                for (int i = 1; i < columns.children.size(); i++) {
+                    rows.append(',');
+                }
+            } else {
+                throw json.error("对象数组中含有非对象元素");
+            }
+            rows.append(ToonSyntax.ROW_END);
+            rows.endLine(LINE_BREAK);
+        }
+
+        /**
+         * 按列顺序写出对象的单元格（对象起始记号已读取）：各字段先编码到本层缓冲并记录区间，
+         * 读完对象后按列顺序拼接，因此字段顺序可以与首个元素不同。define为true时（首个元素）新字段追加为列
+         */
+        private void writeObjectCells(Column group, ToonOutput out, boolean define) throws ToonException {
+            checkDepth();
+            CellBuffer cells = cellBuffer(json.depth());
+            cells.reset(group.children.size());
+            int expected = 0;
+            while (json.next() == Token.NAME) {
+                int index = group.indexOf(json, expected);
+                if (index < 0) {
+                    if (!define) {
+                        throw json.error("字段与首个元素不一致：" + json.text());
+                    }
+                    index = group.children.size();
+                    group.children.add(new Column(fieldName(), false));
+                    cells.ensureColumns(index + 1);
+                }
+                if (cells.starts[index] >= 0) {
+                    throw json.error("重复的字段：" + json.text());
+                }
+                expected = index + 1;
+                cells.starts[index] = cells.buffer.size();
+                writeCell(json.next(), group.children.get(index), cells.buffer, define);
+                cells.ends[index] = cells.buffer.size();
+            }
+            for (int i = 0; i < group.children.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                if (cells.starts[i] >= 0) {
+                    out.append(cells.buffer, cells.starts[i], cells.ends[i]);
+                }
+            }
+        }
+
+        // 单元格值：null为空，对象与数组为括号组；column为null表示没有列声明（按JSON中的顺序写出）
+        private void writeCell(Token token, Column column, ToonOutput out, boolean define) throws ToonException {
+            switch (token) {
+                case NULL:
+                    return;
+                case BEGIN_OBJECT:
+                    if (column != null && define && column.children == null) {
+                        column.children = new ArrayList<>(); // 首个元素中的嵌套对象成为[$object]列
+                    }
+                    out.append(ToonSyntax.GROUP_START);
+                    if (column != null && column.children != null) {
+                        writeObjectCells(column, out, define);
+                    } else {
+                        writeValuesInOrder(out);
+                    }
+                    out.append(ToonSyntax.GROUP_END);
+                    return;
+                case BEGIN_ARRAY:
+                    checkDepth();
+                    out.append(ToonSyntax.GROUP_START);
+                    boolean first = true;
+                    Token element;
+                    while ((element = json.next()) != Token.END_ARRAY) {
+                        if (!first) {
+                            out.append(ToonSyntax.SEPARATOR);
+                        }
+                        first = false;
+                        writeCell(element, null, out, false);
+                    }
+                    out.append(ToonSyntax.GROUP_END);
+                    return;
+                default:
+                    writeScalar(token, out);
+            }
+        }
+
+        // 没有列声明的对象：按JSON中的字段顺序写出值
+        private void writeValuesInOrder(ToonOutput out) throws ToonException {
+            checkDepth();
+            boolean first = true;
+            while (json.next() == Token.NAME) {
+                if (!first) {
+                    out.append(ToonSyntax.SEPARATOR);
+                }
+                first = false;
+                writeCell(json.next(), null, out, false);
+            }
+        }
+
+        // 字符串按序列化器的规则转义，数字与布尔值原样写出
+        private void writeScalar(Token token, ToonOutput out) throws ToonException {
+            switch (token) {
+                case STRING:
+                    out.appendEscaped(json.textBuffer(), 0, json.textLength());
+                    return;
+                case NUMBER:
+                case TRUE:
+                case FALSE:
+                    out.append(json.textBuffer(), 0, json.textLength());
+                    return;
+                default:
+                    throw json.error("此处应为JSON值");
+            }
+        }
+
+        // 列声明：路径#，嵌套对象追加[$object]并展开子列（与序列化器的集合头部一致）
+        private static void appendColumns(Column group, String parentPath, ToonOutput out) throws ToonIOException {
+            boolean first = parentPath.isEmpty();
+            for (Column column : group.children) {
+                String path = parentPath.isEmpty() ? column.name : parentPath + "." + column.name;
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                out.append(path).append('#');
+                if (column.children != null) {
+                    out.append(ToonSyntax.OBJECT_MARKER);
+                    appendColumns(column, path, out);
+                }
+            }
+        }
+
+        // 字段名作为TOON名称或列路径，需为合法的Java标识符
+        private String fieldName() throws ToonFormatException {
+            char[] text = json.textBuffer();
+            int length = json.textLength();
+            boolean valid = length > 0 && Character.isJavaIdentifierStart(text[0]);
+            for (int i = 1; valid && i < length; i++) {
+                valid = Character.isJavaIdentifierPart(text[i]);
+            }
+            if (!valid) {
+                throw json.error("JSON字段名无法作为TOON名称：" + json.text());
+            }
+            return json.text();
+        }
+
+        private void checkDepth() throws ToonFormatException {
+            if (json.depth() > MAX_DEPTH) {
+                throw json.error("JSON嵌套层数超过" + MAX_DEPTH);
+            }
+        }
+
+        private CellBuffer cellBuffer(int level) {
+            while (cellBuffers.size() <= level) {
+                cellBuffers.add(new CellBuffer());
+            }
+            return cellBuffers.get(level);
+        }
+    }
+
+    // 由首个元素推断的列；children为null表示值列，否则为嵌套对象列
+    private static final class Column {
+        final String name;
+        List<Column> children;
+
+        Column(String name, boolean object) {
+            this.name = name;
+            this.children = object ? new ArrayList<>() : null;
+        }
+
+        // 先比较期望位置（字段顺序一致时一次命中），再线性查找
+        int indexOf(JsonTokenizer json, int expected) {
+            if (expected < children.size() && json.textEquals(children.get(expected).name)) {
+                return expected;
+            }
+            for (int i = 0; i < children.size(); i++) {
+                if (json.textEquals(children.get(i).name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // 同一层对象的单元格缓冲：单元格依次编码，按列记录区间
+    private static final class CellBuffer {
+        final ToonOutput buffer = new ToonOutput();
+        int[] starts = new int[8];
+        int[] ends = new int[8];
+
+        void reset(int columns) {
+            buffer.reset();
+            ensureColumns(columns);
+            Arrays.fill(starts, -1);
+        }
+
+        void ensureColumns(int columns) {
+            if (columns > starts.length) {
+                int oldLength = starts.length;
+                int newLength = Math.max(columns, oldLength * 2);
+                starts = Arrays.copyOf(starts, newLength);
+                ends = Arrays.copyOf(ends, newLength);
+                Arrays.fill(starts, oldLength, newLength, -1);
+            }
+        }
+    }
+
+    // 暂存的正文：读完后接在头部之后写出
+    private static final class Block {
+        final SpillWriter spill;
+        final ToonOutput out;
+
+        Block(int spillThreshold) {
+            this.spill = new SpillWriter(spillThreshold);
+            this.out = new ToonOutput(spill);
+        }
+
+        void copyTo(ToonOutput target) throws ToonIOException {
+            out.finish();
+            if (!spill.isEmpty()) {
+                target.beginLine("");
+                spill.copyTo(target);
+                target.endLine(LINE_BREAK);
+            }
+        }
+
+        void close() throws ToonIOException {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                throw new ToonIOException("删除暂存文件失败", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.github.toon.core;
+
+import com.github.toon.core.TypeBinding.Slot;
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonFormatException;
+import com.github.toon.exception.ToonIOException;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 大文件集合文档加载：内存映射文件，在未转义的 ";\n"（或CRLF行尾 ";\r\n"）处切分数据行，
+ * 各分块独立解码、解析后按原顺序合并。
+ * 数据中的换行与回车一律转义为 \n、\r，UTF-8多字节序列也不含ASCII字节，因此可以直接在字节上查找行边界。
+ */
+final class MappedTableLoader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20; // 小于此大小的数据直接在当前线程解析
+    private static final int MAX_CHUNK_SIZE = 1 << 25; // 单块上限，限制解码后字符数组的大小
+    private static final int CHUNKS_PER_THREAD = 4; // 每个线程多分几块，平衡各块行长不均
+    private static final int BOUNDARY_WINDOW = 1 << 16; // 查找行边界时每次映射的窗口
+    private static final int BOUNDARY_GUARD = 64; // 窗口前多映射的字节，通常足以判断 ; 是否被转义，更长的反斜杠序列继续向前查找
+    private static final int LINE_WINDOW = 1 << 12; // 查找头部行末时首次映射的窗口，找不到换行时逐次加倍
+
+    private final DefaultToonDeserializer deserializer;
+    private final ForkJoinPool pool;
+
+    MappedTableLoader(DefaultToonDeserializer deserializer, ForkJoinPool pool) {
+        this.deserializer = deserializer;
+        this.pool = pool;
+    }
+
+    <T> List<T> load(Path file, Class<T> elementType, ToonQuery query) throws ToonException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return load(channel, elementType, query);
+        } catch (IOException e) {
+            throw new ToonIOException("无法读取文件：" + file, e);
+        }
+    }
+
+    private <T> List<T> load(FileChannel channel, Class<T> elementType, ToonQuery query) throws IOException, ToonException {
+        long size = channel.size();
+        long start = skipBom(channel, size);
+        long lineEnd = lineEnd(channel, start, size);
+
+        // 头部行单独映射、解码、解析，数据行从头部行末的换行开始
+        ToonScanner scanner = lineScanner(channel, start, lineEnd);
+        while (!scanner.atEnd() && Character.isWhitespace(scanner.peek())) {
+            scanner.pos++;
+        }
+        // 头部之前的列字典声明行逐行读取，暂存到头部行的扫描器中
+        Map<String, List<String>> dictionaries = null;
+        while (!scanner.atEnd() && scanner.peekIs('@') && lineEnd < size) {
+            if (!ToonHeader.atDictionaryDeclaration(scanner)) {
+                throw scanner.error("文件加载不支持schema声明");
+            }
+            ToonHeader.parseDeclaration(scanner, null);
+            Map<String, List<String>> declared = scanner.takeDictionaries();
+            if (dictionaries == null) {
+                dictionaries = declared;
+            } else {
+                dictionaries.putAll(declared);
+            }
+            start = lineEnd + 1;
+            lineEnd = lineEnd(channel, start, size);
+            scanner = lineScanner(channel, start, lineEnd);
+        }
+        if (dictionaries != null) {
+            for (Map.Entry<String, List<String>> entry : dictionaries.entrySet()) {
+                scanner.declareDictionary(entry.getKey(), entry.getValue());
+            }
+        }
+        while (!scanner.atEnd() && Character.isWhitespace(scanner.peek())) {
+            scanner.pos++;
+        }
+        if (scanner.atEnd()) {
+            return null;
+        }
+        String name = scanner.readName();
+        if (scanner.peekIs(':')) {
+            return null; // root: null
+        }
+        if (!scanner.peekIs('(')) {
+            throw scanner.error("文件加载仅支持集合文档");
+        }
+        ToonHeader header = ToonHeader.parse(name, scanner);
+        TypeBinding binding = deserializer.bindingFor(elementType);
+        Slot[] slots = deserializer.bindColumns(header.getColumns(), binding, query);
+        RowFilter filter = deserializer.compileFilter(header, query);
+        boolean deferred = header.isCountDeferred();
+
+        long rowsStart = lineEnd;
+        long rowsLength = size - rowsStart;
+        // 声明行数仅用于预分配，每行至少占 ";\n" 两个字节，以此限制异常的声明
+        int presize = (int) Math.min(header.presize(Integer.MAX_VALUE), rowsLength / 2 + 1);
+        List<T> result = new ArrayList<>(presize);
+        if (rowsLength <= 0) {
+            return result;
+        }
+
+        List<long[]> chunks = split(channel, rowsStart, size);
+        if (chunks.size() == 1) {
+            ChunkRows only = parseChunk(channel, rowsStart, size, slots, filter, binding, presize, deferred,
+                    new AnchorTable());
+            addAll(result, only.elements);
+            checkTrailer(only, only.rows, deferred);
+            return result;
+        }
+        List<Callable<ChunkRows>> tasks = new ArrayList<>(chunks.size());
+        AnchorTable[] anchors = new AnchorTable[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            long[] chunk = chunks.get(i);
+            int expected = (int) (presize * (chunk[1] - chunk[0]) / rowsLength);
+            AnchorTable table = anchors[i] = new AnchorTable();
+            tasks.add(() -> parseChunk(channel, chunk[0], chunk[1], slots, filter, binding, expected, deferred, table));
+        }
+        ChunkRows last = null;
+        long rows = 0;
+        for (Future<ChunkRows> future : pool.invokeAll(tasks)) {
+            last = ParallelTasks.join(future);
+            addAll(result, last.elements);
+            rows += last.rows;
+        }
+        for (AnchorTable table : anchors) {
+            if (table.hasUnresolved()) {
+                // 身份去重文档中的引用跨越了分块：按顺序共用一个锚点表重新解析
+                result.clear();
+                rows = 0;
+                AnchorTable shared = new AnchorTable();
+                for (long[] chunk : chunks) {
+                    last = parseChunk(channel, chunk[0], chunk[1], slots, filter, binding, 0, deferred, shared);
+                    addAll(result, last.elements);
+                    rows += last.rows;
+                }
+                break;
+            }
+        }
+        checkTrailer(last, rows, deferred);
+        return result;
+    }
+
+    // 行数延后给出时，最后一块读到的表尾行数须与各块数据行数之和一致（与内存中反序列化的校验相同）
+    private static void checkTrailer(ChunkRows last, long rows, boolean deferred) throws ToonFormatException {
+        if (deferred) {
+            DefaultToonDeserializer.checkRowCount(last.trailer, (int) Math.min(rows, Integer.MAX_VALUE),
+                    last.trailerPosition);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void addAll(List<T> result, List<Object> rows) {
+        result.addAll((Collection<? extends T>) rows);
+    }
+
+    // 按目标块大小切分，每块从行边界的换行符开始（与顶层数据行的读取方式一致）
+    private List<long[]> split(FileChannel channel, long start, long end) throws IOException {
+        long length = end - start;
+        int parallelism = pool.getParallelism() * CHUNKS_PER_THREAD;
+        long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, (length + parallelism - 1) / parallelism));
+        List<long[]> chunks = new ArrayList<>();
+        long chunkStart = start;
+        while (end - chunkStart > chunkSize) {
+            long boundary = findBoundary(channel, start, chunkStart + chunkSize, end);
+            if (boundary < 0) {
+                break;
+            }
+            chunks.add(new long[]{chunkStart, boundary});
+            chunkStart = boundary;
+        }
+        chunks.add(new long[]{chunkStart, end});
+        return chunks;
+    }
+
+    // 从from开始查找未转义的 ";\n" 或 ";\r\n"，返回换行符的位置，没有则返回-1；floor为数据行的起点（头部行末）
+    private static long findBoundary(FileChannel channel, long floor, long from, long end) throws IOException {
+        while (from < end) {
+            long windowStart = Math.max(floor, from - BOUNDARY_GUARD);
+            long windowEnd = Math.min(end, from + BOUNDARY_WINDOW);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            for (int i = (int) (from - windowStart); i < window.limit(); i++) {
+                if (window.get(i) != '\n') {
+                    continue;
+                }
+                int rowEnd = i > 0 && window.get(i - 1) == '\r' ? i - 2 : i - 1;
+                if (rowEnd >= 0 && window.get(rowEnd) == ToonSyntax.ROW_END
+                        && !escaped(channel, floor, window, windowStart, rowEnd)) {
+                    return windowStart + i;
+                }
+            }
+            from = windowEnd;
+        }
+        return -1;
+    }
+
+    /**
+     * 前面连续的反斜杠为奇数个时，该字符被转义。反斜杠一直延续到窗口开头时，
+     * 继续向前映射窗口计数，直到遇到其他字符或到达数据行的起点floor（不受窗口大小限制）
+     */
+    private static boolean escaped(FileChannel channel, long floor, ByteBuffer buffer, long bufferStart, int index)
+            throws IOException {
+        long count = 0;
+        int i = index - 1;
+        while (i >= 0 && buffer.get(i) == ToonSyntax.ESCAPE) {
+            count++;
+            i--;
+        }
+        long position = bufferStart;
+        while (i < 0 && position > floor) {
+            long windowStart = Math.max(floor, position - BOUNDARY_WINDOW);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, position - windowStart);
+            i = window.limit() - 1;
+            while (i >= 0 && window.get(i) == ToonSyntax.ESCAPE) {
+                count++;
+                i--;
+            }
+            position = windowStart;
+        }
+        return (count & 1) == 1;
+    }
+
+    private ChunkRows parseChunk(FileChannel channel, long start, long end, Slot[] slots, RowFilter filter,
+                                 TypeBinding binding, int expectedRows, boolean deferred, AnchorTable anchors) throws IOException, ToonException {
+        if (end - start > Integer.MAX_VALUE / 2) {
+            throw new ToonFormatException("数据行过长，无法分块解析", (int) Math.min(start, Integer.MAX_VALUE));
+        }
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        CharBuffer chars = decode(bytes, 0, bytes.limit());
+        List<Object> elements = new ArrayList<>(Math.max(expectedRows, 16));
+        ToonScanner scanner = new ToonScanner(chars.array(), 0, chars.position(), anchors);
+        // 行数延后给出时，最后一块在表尾行数行处结束
+        int rows = deserializer.readTableRows(scanner, slots, binding, elements, 1, true, deferred, filter);
+        if (deferred && end == channel.size()) {
+            int trailer = DefaultToonDeserializer.readRowCountTrailer(scanner);
+            return new ChunkRows(elements, rows, trailer, scanner.pos);
+        }
+        return new ChunkRows(elements, rows, -1, scanner.pos);
+    }
+
+    private static long skipBom(FileChannel channel, long size) throws IOException {
+        if (size < 3) {
+            return 0;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+        if ((buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    // 从from开始查找换行符，返回其位置（没有则为文件末尾）；只映射所需的窗口，头部行通常只需映射一次
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        long window = LINE_WINDOW;
+        while (from < size) {
+            long windowEnd = Math.min(size, from + window);
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, from, windowEnd - from);
+            for (int i = 0; i < bytes.limit(); i++) {
+                if (bytes.get(i) == '\n') {
+                    return from + i;
+                }
+            }
+            from = windowEnd;
+            window = Math.min(window << 1, MAX_CHUNK_SIZE);
+        }
+        return size;
+    }
+
+    // 映射并解码 [start, end) 中的一行，返回位于行首的扫描器
+    private static ToonScanner lineScanner(FileChannel channel, long start, long end) throws IOException, ToonException {
+        if (end - start > MAX_CHUNK_SIZE) {
+            throw new ToonFormatException("头部行过长", (int) Math.min(start, Integer.MAX_VALUE));
+        }
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        CharBuffer chars = decode(bytes, 0, bytes.limit());
+        return new ToonScanner(chars.array(), 0, chars.position());
+    }
+
+    // UTF-8解码，结果位于返回缓冲区的 [0, position)（字符数不超过字节数）
+    private static CharBuffer decode(ByteBuffer buffer, int start, int end) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        ((Buffer) in).limit(end).position(start); // 经由Buffer调用，兼容JDK 8运行时
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer out = CharBuffer.allocate(end - start);
+        CoderResult result = decoder.decode(in, out, true);
+        if (result.isError()) {
+            result.throwException();
+        }
+        decoder.flush(out);
+        return out;
+    }
+
+    // 一个分块的解析结果：元素、数据行数（含被条件丢弃的行）；最后一块还有表尾行数（没有则为-1）及其位置
+    private static final class ChunkRows {
+        final List<Object> elements;
+        final int rows;
+        final int trailer;
+        final int trailerPosition;
+
+        ChunkRows(List<Object> elements, int rows, int trailer, int trailerPosition) {
+            this.elements = elements;
+            this.rows = rows;
+            this.trailer = trailer;
+            this.trailerPosition = trailerPosition;
+        }
+    }
+}
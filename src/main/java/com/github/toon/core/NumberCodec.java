@@ -0,0 +1,252 @@
+package com.github.toon.core;
+
+/**
+ * 数值的格式化与解析，直接读写字符数组，不创建中间字符串：
+ * 整数按两位一组查表写出；double/float 在 Double.toString 使用定点表示的范围内（[1e-3, 1e7)）
+ * 求能精确还原的最短小数位数，结果与 toString 的格式相同（至少一位小数，如 5.0）；
+ * 解析时不超过15位有效数字、十进制指数不超过22的小数用一次精确的乘除得到正确舍入的结果。
+ * 快速路径之外（科学计数法、NaN、超长小数等）交给 JDK 处理，格式与取值保持一致。
+ */
+final class NumberCodec {
+    static final int MAX_CHARS = 32; // 单个数值最多写出的字符数（快速路径）
+
+    private static final char[] DIGIT_TENS = new char[100];
+    private static final char[] DIGIT_ONES = new char[100];
+    private static final long[] LONG_POW10 = new long[19];
+    private static final double[] DOUBLE_POW10 = new double[23]; // 10^22以内可精确表示
+    private static final float[] FLOAT_POW10 = new float[11]; // 10^10以内可精确表示
+    private static final double DOUBLE_EXACT = 1L << 53; // double可精确表示的整数上限
+    private static final double FLOAT_EXACT = 1 << 24;
+    private static final int MAX_FAST_DIGITS = 15; // 解析快速路径的有效数字上限（小于2^53）
+    private static final int MAX_FAST_FLOAT_DIGITS = 7; // float的有效数字上限（小于2^24）
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+        long p = 1;
+        for (int i = 0; i < LONG_POW10.length; i++) {
+            LONG_POW10[i] = p;
+            p *= 10;
+        }
+        double d = 1;
+        for (int i = 0; i < DOUBLE_POW10.length; i++) {
+            DOUBLE_POW10[i] = d;
+            d *= 10;
+        }
+        for (int i = 0; i < FLOAT_POW10.length; i++) {
+            FLOAT_POW10[i] = (float) DOUBLE_POW10[i];
+        }
+    }
+
+    private NumberCodec() {}
+
+    // 写出整数，返回写出后的位置；buf从pos起至少有20个字符的空间
+    static int writeLong(char[] buf, int pos, long value) {
+        if (value == Long.MIN_VALUE) {
+            "-9223372036854775808".getChars(0, 20, buf, pos);
+            return pos + 20;
+        }
+        if (value < 0) {
+            buf[pos++] = '-';
+            value = -value;
+        }
+        int end = pos + digitCount(value);
+        writeDigits(buf, end, value);
+        return end;
+    }
+
+    // 从end向前写出非负整数的各位数字
+    private static void writeDigits(char[] buf, int end, long value) {
+        int p = end;
+        while (value >= Integer.MAX_VALUE) {
+            long q = value / 100;
+            int r = (int) (value - q * 100);
+            buf[--p] = DIGIT_ONES[r];
+            buf[--p] = DIGIT_TENS[r];
+            value = q;
+        }
+        int v = (int) value;
+        while (v >= 100) {
+            int q = v / 100;
+            int r = v - q * 100;
+            buf[--p] = DIGIT_ONES[r];
+            buf[--p] = DIGIT_TENS[r];
+            v = q;
+        }
+        buf[--p] = DIGIT_ONES[v];
+        if (v >= 10) {
+            buf[--p] = DIGIT_TENS[v];
+        }
+    }
+
+    static int digitCount(long value) {
+        int count = 1;
+        while (count < 19 && value >= LONG_POW10[count]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 写出double，返回写出后的位置；不在快速路径内时返回-1（调用方改用 Double.toString）
+     * buf从pos起至少有 MAX_CHARS 个字符的空间
+     */
+    static int writeDouble(char[] buf, int pos, double value) {
+        double abs = Math.abs(value);
+        if (!(abs >= 1e-3 && abs < 1e7)) {
+            return -1; // 含0、NaN与无穷：格式简单，交给toString
+        }
+        for (int k = 1; k < DOUBLE_POW10.length; k++) {
+            double scaled = abs * DOUBLE_POW10[k];
+            if (scaled >= DOUBLE_EXACT) {
+                return -1;
+            }
+            double m = Math.rint(scaled);
+            // m与10^k均可精确表示，除法的结果正是解析 "m×10^-k" 时正确舍入得到的double
+            if (m / DOUBLE_POW10[k] == abs) {
+                return writeFixed(buf, pos, value < 0, (long) m, k);
+            }
+        }
+        return -1;
+    }
+
+    // 同上，float按float精度求最短小数（与 Float.toString 的格式相同）
+    static int writeFloat(char[] buf, int pos, float value) {
+        float abs = Math.abs(value);
+        if (!(abs >= 1e-3f && abs < 1e7f)) {
+            return -1;
+        }
+        for (int k = 1; k < FLOAT_POW10.length; k++) {
+            double scaled = (double) abs * DOUBLE_POW10[k];
+            if (scaled >= FLOAT_EXACT) {
+                return -1;
+            }
+            float m = (float) Math.rint(scaled);
+            if (m / FLOAT_POW10[k] == abs) {
+                return writeFixed(buf, pos, value < 0, (long) m, k);
+            }
+        }
+        return -1;
+    }
+
+    // 写出 m×10^-k 的定点形式，去掉小数末尾的0但至少保留一位
+    private static int writeFixed(char[] buf, int pos, boolean negative, long m, int k) {
+        if (negative) {
+            buf[pos++] = '-';
+        }
+        long unit = LONG_POW10[k];
+        long integer = m / unit;
+        long fraction = m - integer * unit;
+        pos = writeLong(buf, pos, integer);
+        buf[pos++] = '.';
+        while (k > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            k--;
+        }
+        int end = pos + k;
+        for (int i = pos; i < end; i++) {
+            buf[i] = '0'; // 小数部分的前导0
+        }
+        writeDigits(buf, end, fraction);
+        return end;
+    }
+
+    /**
+     * 解析 [start, end) 中的小数，结果与 Double.parseDouble 相同；格式错误时抛出 NumberFormatException
+     */
+    static double parseDouble(char[] buf, int start, int end) {
+        return parse(buf, start, end, false);
+    }
+
+    // 同上，结果与 Float.parseFloat 相同（不经过double再舍入）
+    static float parseFloat(char[] buf, int start, int end) {
+        return (float) parse(buf, start, end, true);
+    }
+
+    // single为true时按float精度计算，返回值可无损转为float
+    private static double parse(char[] buf, int start, int end, boolean single) {
+        int maxDigits = single ? MAX_FAST_FLOAT_DIGITS : MAX_FAST_DIGITS;
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0; // 有效数字个数（不含前导0）
+        int fractionDigits = 0;
+        boolean any = false;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                any = true;
+                if (point) {
+                    fractionDigits++;
+                }
+                if (mantissa == 0 && c == '0') {
+                    continue;
+                }
+                if (++digits > maxDigits) {
+                    return slowParse(buf, start, end, single);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        int exponent = 0;
+        if (i < end && any && (buf[i] == 'e' || buf[i] == 'E')) {
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < end && (buf[j] == '-' || buf[j] == '+')) {
+                negativeExponent = buf[j] == '-';
+                j++;
+            }
+            if (j == end || end - j > 3) {
+                return slowParse(buf, start, end, single);
+            }
+            for (; j < end; j++) {
+                int digit = buf[j] - '0';
+                if (digit < 0 || digit > 9) {
+                    return slowParse(buf, start, end, single);
+                }
+                exponent = exponent * 10 + digit;
+            }
+            exponent = negativeExponent ? -exponent : exponent;
+            i = end;
+        }
+        if (i != end || !any) {
+            return slowParse(buf, start, end, single); // NaN、Infinity、十六进制等，或格式错误
+        }
+        exponent -= fractionDigits;
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (single) {
+            if (exponent >= 0 && exponent < FLOAT_POW10.length) {
+                value = (float) mantissa * FLOAT_POW10[exponent];
+            } else if (exponent < 0 && -exponent < FLOAT_POW10.length) {
+                value = (float) mantissa / FLOAT_POW10[-exponent];
+            } else {
+                return slowParse(buf, start, end, true);
+            }
+        } else if (exponent >= 0 && exponent < DOUBLE_POW10.length) {
+            value = mantissa * DOUBLE_POW10[exponent];
+        } else if (exponent < 0 && -exponent < DOUBLE_POW10.length) {
+            value = mantissa / DOUBLE_POW10[-exponent];
+        } else {
+            return slowParse(buf, start, end, single);
+        }
+        return negative ? -value : value;
+    }
+
+    private static double slowParse(char[] buf, int start, int end, boolean single) {
+        String text = new String(buf, start, end - start);
+        return single ? Float.parseFloat(text) : Double.parseDouble(text);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonException;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * 并行分段任务的公共处理：按提交顺序取回结果，并还原任务中抛出的ToonException
+ */
+final class ParallelTasks {
+    private ParallelTasks() {}
+
+    static <T> T join(Future<T> future) throws ToonException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ToonException("并行处理被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException && cause.getCause() instanceof ToonException) {
+                cause = cause.getCause(); // 新版JDK的ForkJoinPool.invokeAll把任务抛出的受检异常包装为RuntimeException
+            }
+            if (cause instanceof ToonException) {
+                throw (ToonException) cause;
+            }
+            throw new ToonException("并行处理失败", cause);
+        }
+    }
+
+    // 出错或提前返回时取消尚未完成的分段
+    static void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.toon.core;
+
+import com.github.toon.converter.ConverterRegistry;
+import com.github.toon.converter.TypeConverter;
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonTypeConvertException;
+
+import java.util.List;
+
+/**
+ * 按集合头部编译的行条件（不可变，可在并行分块解析间共享）：
+ * 条件列的位置在编译时确定，每行只定位并比较条件列的单元格，不创建对象；
+ * 字典编码的列预先对每个字典取值求值，行中只比较下标。
+ */
+final class RowFilter {
+    private final Test[] tests;
+
+    private RowFilter(Test[] tests) {
+        this.tests = tests;
+    }
+
+    // 查询没有条件时返回null
+    static RowFilter compile(ToonHeader header, ToonQuery query, ConverterRegistry registry) throws ToonException {
+        List<ToonQuery.Condition> conditions = query.conditions();
+        if (conditions.isEmpty()) {
+            return null;
+        }
+        Test[] tests = new Test[conditions.size()];
+        for (int i = 0; i < tests.length; i++) {
+            ToonQuery.Condition condition = conditions.get(i);
+            int[] indexes = header.locate(condition.path);
+            if (indexes == null) {
+                throw new ToonException("查询条件的列不存在：" + condition.path);
+            }
+            ToonHeader.Column column = header.column(indexes);
+            if (column.isObject()) {
+                throw new ToonException("查询条件的列" + condition.path + "为嵌套对象，请使用其子列");
+            }
+            tests[i] = new Test(condition, indexes, registry);
+            List<String> dictionary = column.getDictionary();
+            if (!dictionary.isEmpty()) {
+                tests[i].decodeDictionary(dictionary);
+            }
+        }
+        return new RowFilter(tests);
+    }
+
+    /**
+     * 扫描器位于行首：逐个条件定位单元格并比较，结束后回到行首
+     */
+    boolean accept(ToonScanner scanner) throws ToonException {
+        int rowStart = scanner.pos;
+        try {
+            for (Test test : tests) {
+                scanner.pos = rowStart;
+                if (!test.accept(scanner)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            scanner.pos = rowStart;
+        }
+    }
+
+    // 一个已定位的条件
+    private static final class Test {
+        private final ToonQuery.Condition condition;
+        private final int[] indexes;
+        private final String text; // 等值条件的文本（非数值）
+        private boolean[] codes; // 字典列：各下标的取值是否满足条件
+
+        Test(ToonQuery.Condition condition, int[] indexes, ConverterRegistry registry) {
+            this.condition = condition;
+            this.indexes = indexes;
+            Object value = condition.value;
+            if (condition.equality && value != null && !(value instanceof Number)) {
+                TypeConverter converter = registry.findConverter(value.getClass());
+                this.text = DefaultToonSerializer.valueText(value, converter);
+            } else {
+                this.text = null;
+            }
+        }
+
+        void decodeDictionary(List<String> dictionary) throws ToonException {
+            boolean[] matches = new boolean[dictionary.size()];
+            for (int i = 0; i < matches.length; i++) {
+                char[] chars = dictionary.get(i).toCharArray();
+                ToonScanner cell = new ToonScanner(chars, 0, chars.length);
+                cell.cellStart = 0;
+                cell.cellEnd = chars.length;
+                matches[i] = chars.length == 0 ? condition.equality && condition.value == null : matches(cell);
+            }
+            this.codes = matches;
+        }
+
+        boolean accept(ToonScanner scanner) throws ToonException {
+            if (!locate(scanner)) {
+                return condition.equality && condition.value == null; // 空值只满足 where(path, null)
+            }
+            if (condition.equality && condition.value == null) {
+                return false;
+            }
+            if (codes != null) {
+                return codes[scanner.cellInt(condition.path, int.class, 0, codes.length - 1)];
+            }
+            return matches(scanner);
+        }
+
+        // 定位到条件列并扫描单元格，单元格为空（或所在的嵌套对象为null）时返回false
+        private boolean locate(ToonScanner scanner) throws ToonException {
+            int last = indexes.length - 1;
+            for (int level = 0; level <= last; level++) {
+                boolean inGroup = level > 0;
+                for (int i = 0; i < indexes[level]; i++) {
+                    scanner.skipCell(inGroup);
+                    if (!scanner.peekIs(ToonSyntax.SEPARATOR)) {
+                        return false; // 行中缺少的列
+                    }
+                    scanner.pos++;
+                }
+                if (level < last) {
+                    if (scanner.peekIs(ToonSyntax.ANCHOR_REF)) {
+                        throw new ToonException("条件列" + condition.path + "所在的对象为引用，无法按路径比较");
+                    }
+                    if (scanner.atAnchoredGroup()) {
+                        scanner.readAnchor();
+                    }
+                    if (!scanner.peekIs(ToonSyntax.GROUP_START)) {
+                        return false;
+                    }
+                    scanner.pos++;
+                }
+            }
+            scanner.scanCell(last > 0);
+            return !scanner.cellEmpty();
+        }
+
+        private boolean matches(ToonScanner scanner) throws ToonTypeConvertException {
+            if (condition.equality) {
+                Object value = condition.value;
+                if (value instanceof Number) {
+                    return compareNumber(scanner, (Number) value) == 0;
+                }
+                return scanner.cellEscaped ? scanner.cellString().equals(text) : scanner.cellEquals(text);
+            }
+            Object min = condition.min;
+            Object max = condition.max;
+            if (min instanceof Number || max instanceof Number) {
+                return (min == null || compareNumber(scanner, (Number) min) >= 0)
+                        && (max == null || compareNumber(scanner, (Number) max) <= 0);
+            }
+            String cell = scanner.cellString();
+            return (min == null || cell.compareTo((String) min) >= 0)
+                    && (max == null || cell.compareTo((String) max) <= 0);
+        }
+
+        // 单元格与数值比较：两边都是整数时按long比较，否则按double比较
+        private int compareNumber(ToonScanner scanner, Number value) throws ToonTypeConvertException {
+            if (isIntegral(value) && scanner.cellIntegral()) {
+                return Long.compare(scanner.cellLong(condition.path, value.getClass()), value.longValue());
+            }
+            return Double.compare(scanner.cellDouble(condition.path, value.getClass()), value.doubleValue());
+        }
+
+        private static boolean isIntegral(Number value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+        }
+    }
+}
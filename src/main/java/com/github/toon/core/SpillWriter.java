@@ -0,0 +1,90 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonIOException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 暂存缓冲：内容先写入内存，超过阈值后整体转存到临时文件（UTF-8），内存占用有界。
+ * 用于头部依赖后续内容（行数、字段列表）时先暂存正文，头部写出后再原样拷贝。
+ * 非线程安全，用完需close()删除临时文件。
+ */
+final class SpillWriter extends Writer {
+    private final int threshold;
+    private char[] buf = new char[256];
+    private int size;
+    private Path file;
+    private Writer fileWriter;
+
+    SpillWriter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        if (fileWriter == null) {
+            if (size + len <= threshold) {
+                if (size + len > buf.length) {
+                    buf = Arrays.copyOf(buf, Math.min(Math.max(buf.length * 2, size + len), Math.max(threshold, 1)));
+                }
+                System.arraycopy(chars, off, buf, size, len);
+                size += len;
+                return;
+            }
+            spill();
+        }
+        fileWriter.write(chars, off, len);
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile("toon-spill", ".tmp");
+        fileWriter = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        fileWriter.write(buf, 0, size);
+        buf = null; // 转存后释放内存缓冲
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return fileWriter == null && size == 0;
+    }
+
+    // 将暂存的全部内容按原顺序写入目标
+    void copyTo(ToonOutput out) throws ToonIOException {
+        if (fileWriter == null) {
+            out.append(buf, 0, size);
+            return;
+        }
+        try {
+            fileWriter.flush();
+            char[] chunk = new char[ToonOutput.DEFAULT_BUFFER_SIZE];
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                int read;
+                while ((read = reader.read(chunk)) >= 0) {
+                    out.append(chunk, 0, read);
+                }
+            }
+        } catch (IOException e) {
+            throw new ToonIOException("读取暂存文件失败", e);
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    // 删除临时文件
+    @Override
+    public void close() throws IOException {
+        if (fileWriter != null) {
+            fileWriter.close();
+            fileWriter = null;
+            Files.deleteIfExists(file);
+        }
+    }
+}
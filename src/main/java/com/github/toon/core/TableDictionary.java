@@ -0,0 +1,180 @@
+package com.github.toon.core;
+
+import com.github.toon.core.ClassPlan.Column;
+import com.github.toon.exception.ToonException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 集合的列字典：低基数的值列（枚举、状态、城市名等）在数据行中写为字典下标，
+ * 取值在头部之前以 "@dict path: v0,v1,..." 声明一次，每个不同的取值只转换、转义一次。
+ * 由一次预扫描构建：标注 @ToonField(dictionary = true) 的列总是编码；
+ * 开启自动模式时，不同取值数不超过 行数×比例 的列也会编码。嵌套对象列按路径递归处理。
+ */
+final class TableDictionary {
+    static final int AUTO_MIN_ROWS = 16; // 自动模式下至少的行数，行数太少时字典不划算
+    private static final int EMPTY = -1; // 转换结果为空的取值，与非字典模式一样写为空单元格
+
+    private final ClassPlan plan;
+    private final Map<Object, Integer>[] codes; // 按列：取值 → 下标，未编码的列为null
+    private final List<String>[] values; // 按列：下标 → 取值文本
+    private final boolean[] explicit;
+    private final TableDictionary[] nested; // 嵌套对象列，没有编码列时为null
+
+    @SuppressWarnings("unchecked")
+    private TableDictionary(ClassPlan plan) {
+        Column[] columns = plan.columns();
+        this.plan = plan;
+        this.codes = new Map[columns.length];
+        this.values = new List[columns.length];
+        this.explicit = new boolean[columns.length];
+        this.nested = new TableDictionary[columns.length];
+    }
+
+    /**
+     * 预扫描集合，返回需要编码的列；没有任何列需要编码时返回null
+     * autoRatio为0时只处理显式标注的列
+     */
+    static TableDictionary build(Collection<?> rows, ClassPlan plan, ClassValue<ClassPlan> plans,
+                                 double autoRatio) throws ToonException {
+        boolean auto = autoRatio > 0 && rows.size() >= AUTO_MIN_ROWS;
+        TableDictionary dictionary = candidates(plan, plans, auto, new ArrayList<>());
+        if (dictionary == null) {
+            return null;
+        }
+        int limit = (int) Math.max(1, Math.min(Integer.MAX_VALUE, rows.size() * autoRatio));
+        for (Object row : rows) {
+            if (row != null) {
+                dictionary.collect(row, plans, limit);
+            }
+        }
+        return dictionary.prune() ? dictionary : null;
+    }
+
+    // 按列类型确定候选列；自引用的类型不再展开（与头部声明一致）
+    private static TableDictionary candidates(ClassPlan plan, ClassValue<ClassPlan> plans, boolean auto,
+                                              List<Class<?>> path) {
+        TableDictionary dictionary = null;
+        Column[] columns = plan.columns();
+        path.add(plan.type);
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            if (column.kind == ClassPlan.Kind.VALUE && column.primitive == ClassPlan.Primitive.NONE
+                    && (column.dictionary || auto)) {
+                if (dictionary == null) {
+                    dictionary = new TableDictionary(plan);
+                }
+                dictionary.codes[i] = new HashMap<>();
+                dictionary.values[i] = new ArrayList<>();
+                dictionary.explicit[i] = column.dictionary;
+            } else if (column.kind == ClassPlan.Kind.OBJECT && !path.contains(column.type)) {
+                TableDictionary child = candidates(plans.get(column.type), plans, auto, path);
+                if (child != null) {
+                    if (dictionary == null) {
+                        dictionary = new TableDictionary(plan);
+                    }
+                    dictionary.nested[i] = child;
+                }
+            }
+        }
+        path.remove(path.size() - 1);
+        return dictionary;
+    }
+
+    // 登记一行的取值；自动选择的列取值过多时放弃编码
+    private void collect(Object obj, ClassValue<ClassPlan> plans, int limit) throws ToonException {
+        Column[] columns = plan.columns();
+        for (int i = 0; i < columns.length; i++) {
+            Map<Object, Integer> columnCodes = codes[i];
+            if (columnCodes != null) {
+                Object value = columns[i].accessor.get(obj);
+                if (value == null || columnCodes.containsKey(value)) {
+                    continue;
+                }
+                if (!explicit[i] && values[i].size() >= limit) {
+                    codes[i] = null; // 基数过高，保持原样写出
+                    values[i] = null;
+                    continue;
+                }
+                String text = DefaultToonSerializer.valueText(value, columns[i].converter);
+                if (text == null || text.isEmpty()) {
+                    columnCodes.put(value, EMPTY);
+                } else {
+                    columnCodes.put(value, values[i].size());
+                    values[i].add(text);
+                }
+            } else if (nested[i] != null) {
+                Object value = columns[i].accessor.get(obj);
+                if (value != null) {
+                    nested[i].collect(value, plans, limit);
+                }
+            }
+        }
+    }
+
+    // 去掉没有取值的列，返回是否仍有编码列
+    private boolean prune() {
+        boolean any = false;
+        for (int i = 0; i < codes.length; i++) {
+            if (values[i] != null && values[i].isEmpty()) {
+                codes[i] = null;
+                values[i] = null;
+            }
+            if (nested[i] != null && !nested[i].prune()) {
+                nested[i] = null;
+            }
+            any |= codes[i] != null || nested[i] != null;
+        }
+        return any;
+    }
+
+    Map<Object, Integer> codes(int column) {
+        return codes[column];
+    }
+
+    TableDictionary nested(int column) {
+        return nested[column];
+    }
+
+    // 写出各编码列的字典声明行（先于集合头部）
+    void writeDeclarations(ToonOutput out, String indent, String lineBreak) throws ToonException {
+        writeDeclarations(out, indent, lineBreak, "");
+    }
+
+    private void writeDeclarations(ToonOutput out, String indent, String lineBreak, String parentPath)
+            throws ToonException {
+        Column[] columns = plan.columns();
+        for (int i = 0; i < columns.length; i++) {
+            String path = parentPath.isEmpty() ? columns[i].name : parentPath + "." + columns[i].name;
+            if (values[i] != null) {
+                out.beginLine(indent);
+                out.append(ToonSyntax.DICTIONARY_DECLARATION).append(path).append(": ");
+                List<String> texts = values[i];
+                for (int j = 0; j < texts.size(); j++) {
+                    if (j > 0) {
+                        out.append(ToonSyntax.SEPARATOR);
+                    }
+                    out.appendEscaped(texts.get(j));
+                }
+                out.endLine(lineBreak);
+            } else if (nested[i] != null) {
+                nested[i].writeDeclarations(out, indent, lineBreak, path);
+            }
+        }
+    }
+
+    // 数据行中的单元格：取值的下标，空取值写为空
+    static void writeCode(Map<Object, Integer> columnCodes, Object value, ToonOutput out) throws ToonException {
+        Integer code = columnCodes.get(value);
+        if (code == null) {
+            throw new ToonException("字典中缺少取值（集合在序列化期间被修改？）：" + value);
+        }
+        if (code != EMPTY) {
+            out.appendInt(code);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.toon.core;
+
+/**
+ * 按token预算序列化的结果：输出文本、估算的token数，以及实际写出与被舍弃的行数
+ */
+public final class ToonBudgetResult {
+    // 超出预算时的取舍方式
+    public enum Strategy {
+        TRUNCATE, // 按顺序写出，到达预算即停止
+        SAMPLE    // 在整个集合中等距抽样，保留数据的整体分布
+    }
+
+    private final String text;
+    private final long estimatedTokens;
+    private final int totalRows;
+    private final int emittedRows;
+
+    ToonBudgetResult(String text, long estimatedTokens, int totalRows, int emittedRows) {
+        this.text = text;
+        this.estimatedTokens = estimatedTokens;
+        this.totalRows = totalRows;
+        this.emittedRows = emittedRows;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getEstimatedTokens() {
+        return estimatedTokens;
+    }
+
+    // 原集合的行数
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    // 实际写出的行数（与输出头部的 (N) 一致）
+    public int getEmittedRows() {
+        return emittedRows;
+    }
+
+    public int getDroppedRows() {
+        return totalRows - emittedRows;
+    }
+
+    public boolean isTruncated() {
+        return emittedRows < totalRows;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.toon.core;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * UTF-8输出缓冲池：按2的幂分级（4KB起）缓存ByteBuffer，每级最多保留固定个数，超出上限的大缓冲不入池。
+ * 可选择堆内或直接内存（off-heap）缓冲；同时缓存编码时使用的字符缓冲区，避免每次请求分配大数组。
+ * 线程安全。
+ *
+ * <pre>
+ * ToonBufferPool pool = new ToonBufferPool(true, 32, 4 &lt;&lt; 20); // 直接内存，每级最多32个，最大4MB
+ * ByteBuffer body = serializer.serialize("users", users, pool);
+ * try {
+ *     channel.write(body);
+ * } finally {
+ *     pool.release(body);
+ * }
+ * </pre>
+ */
+public final class ToonBufferPool {
+    private static final int MIN_SHIFT = 12; // 最小分级 4KB
+    private static final int DEFAULT_RETAINED = 16;
+    private static final int DEFAULT_MAX_BUFFER_SIZE = 4 << 20;
+
+    private final boolean direct;
+    private final int maxBufferSize;
+    private final ArrayBlockingQueue<ByteBuffer>[] classes;
+    private final ArrayBlockingQueue<char[]> charBuffers;
+
+    // 堆内缓冲，每级最多保留16个，最大4MB
+    public ToonBufferPool() {
+        this(false, DEFAULT_RETAINED, DEFAULT_MAX_BUFFER_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ToonBufferPool(boolean direct, int maxRetainedPerClass, int maxBufferSize) {
+        if (maxRetainedPerClass < 1) {
+            throw new IllegalArgumentException("maxRetainedPerClass至少为1");
+        }
+        this.direct = direct;
+        this.maxBufferSize = Math.max(1 << MIN_SHIFT, Integer.highestOneBit(Math.min(maxBufferSize, 1 << 30)));
+        int count = Integer.numberOfTrailingZeros(this.maxBufferSize) - MIN_SHIFT + 1;
+        this.classes = new ArrayBlockingQueue[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = new ArrayBlockingQueue<>(maxRetainedPerClass);
+        }
+        this.charBuffers = new ArrayBlockingQueue<>(maxRetainedPerClass);
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    // 取得容量不小于minCapacity的缓冲区（position为0，limit为容量）
+    public ByteBuffer acquire(int minCapacity) {
+        if (minCapacity > maxBufferSize) {
+            return allocate(minCapacity); // 超出分级范围，不入池
+        }
+        int shift = Math.max(MIN_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(minCapacity, 1) - 1));
+        ByteBuffer buffer = classes[shift - MIN_SHIFT].poll();
+        if (buffer == null) {
+            return allocate(1 << shift);
+        }
+        ((Buffer) buffer).clear(); // 经由Buffer调用，兼容JDK 8运行时
+        return buffer;
+    }
+
+    // 交还缓冲区；不属于任何分级或该级已满时直接丢弃
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.isDirect() != direct || buffer.isReadOnly()) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        if (Integer.bitCount(capacity) != 1 || capacity < (1 << MIN_SHIFT) || capacity > maxBufferSize) {
+            return;
+        }
+        classes[Integer.numberOfTrailingZeros(capacity) - MIN_SHIFT].offer(buffer);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    // 编码用的字符缓冲区（ToonOutput的写出缓冲）
+    char[] acquireChars() {
+        char[] chars = charBuffers.poll();
+        return chars != null ? chars : new char[ToonOutput.DEFAULT_BUFFER_SIZE];
+    }
+
+    void releaseChars(char[] chars) {
+        charBuffers.offer(chars);
+    }
+}
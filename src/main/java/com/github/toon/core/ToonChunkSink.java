@@ -0,0 +1,46 @@
+package com.github.toon.core;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 异步写出目标：序列化器按块写出文本，上一块的写出完成后才继续编码，
+ * 慢速的下游（网络、LLM流式请求体）因此自然限制了内存占用。
+ * 全部内容写出后调用一次 complete()。
+ */
+public interface ToonChunkSink {
+
+    // 写出一块文本，完成后才会写出下一块
+    CompletionStage<Void> write(String chunk);
+
+    // 全部内容（含回填的头部）写出后调用
+    default CompletionStage<Void> complete() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // 同步写入Appendable（Writer/StringBuilder等），写出即完成
+    static ToonChunkSink of(Appendable target) {
+        return chunk -> {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            try {
+                target.append(chunk);
+                done.complete(null);
+            } catch (IOException e) {
+                done.completeExceptionally(e);
+            }
+            return done;
+        };
+    }
+
+    /**
+     * 可回写开头的目标（文件通道、可重写的缓冲区等）：头部先以定宽的占位行数写出，
+     * 数据行结束后以等长的实际行数覆盖，不需要表尾行数行。
+     * 回写内容只替换ASCII数字，字符数与UTF-8字节数均与原内容相同。
+     */
+    interface Seekable extends ToonChunkSink {
+
+        // 以等长的文本覆盖已写出内容的开头
+        CompletionStage<Void> rewriteHead(String head);
+    }
+}
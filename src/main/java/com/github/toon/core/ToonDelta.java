@@ -0,0 +1,36 @@
+package com.github.toon.core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 增量文档的解析结果：新增、变化的行为完整元素，删除的行只含@ToonId键字段，其余字段为默认值
+ */
+public final class ToonDelta<T> {
+    private final List<T> added;
+    private final List<T> changed;
+    private final List<T> removed;
+
+    ToonDelta(List<T> added, List<T> changed, List<T> removed) {
+        this.added = Collections.unmodifiableList(added);
+        this.changed = Collections.unmodifiableList(changed);
+        this.removed = Collections.unmodifiableList(removed);
+    }
+
+    public List<T> getAdded() {
+        return added;
+    }
+
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    public List<T> getRemoved() {
+        return removed;
+    }
+
+    // 前后快照没有差异
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
@@ -2,6 +2,13 @@ package com.github.toon.core;
 
 import com.github.toon.exception.ToonException;
 
+import java.util.List;
+
 public interface ToonDeserializer {
     <T> T deserialize(String toonStr, Class<T> targetType) throws ToonException;
+
+    // 反序列化集合文档 root(N){...}:，默认实现不支持
+    default <T> List<T> deserializeList(String toonStr, Class<T> elementType) throws ToonException {
+        throw new ToonException("当前反序列化器不支持集合文档：" + getClass().getName());
+    }
 }
@@ -1,10 +1,29 @@
 package com.github.toon.core;
 
+import com.github.toon.exception.ToonException;
+
+import java.io.OutputStream;
+
 public class ToonFactory {
-    private static ToonSerializer defaultSerializer = new DefaultToonSerializer();
+    // volatile：其他线程注入的实现对之后的调用立即可见
+    private static volatile ToonSerializer defaultSerializer = new DefaultToonSerializer();
+    private static volatile ToonDeserializer defaultDeserializer = new DefaultToonDeserializer();
 
     public static ToonSerializer getSerializer() { return defaultSerializer; }
 
-    // 支持自定义实现注入
+    // 支持自定义实现注入（如不可变的 ToonMapper，可同时作为序列化器与反序列化器）
     public static void setSerializer(ToonSerializer serializer) { defaultSerializer = serializer; }
+
+    public static ToonDeserializer getDeserializer() { return defaultDeserializer; }
+
+    public static void setDeserializer(ToonDeserializer deserializer) { defaultDeserializer = deserializer; }
+
+    // 使用当前默认序列化器流式写出
+    public static void serialize(String rootName, Object data, Appendable out) throws ToonException {
+        defaultSerializer.serialize(rootName, data, out);
+    }
+
+    public static void serializeUtf8(String rootName, Object data, OutputStream out) throws ToonException {
+        defaultSerializer.serializeUtf8(rootName, data, out);
+    }
 }
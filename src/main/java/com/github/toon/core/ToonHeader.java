@@ -0,0 +1,437 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonFormatException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 集合头部：name(N){path#comment,obj#comment[$object],obj.child#comment,...}:
+ * 扁平的字段声明按路径还原为树，嵌套对象的子字段挂在其[$object]列下。
+ * schema引用模式下头部为 name(N)&lt;Id&gt;:，列声明取自会话中登记的 "@schema Id{...}"。
+ * 行数未知时头部写为 name(*){...}:，由数据行之后缩进为0的 "@count N" 行给出。
+ * 字典编码的列在头部之前以 "@dict path: v0,v1,..." 声明取值，数据行中为取值的下标。
+ */
+public final class ToonHeader {
+    // 行数延后到表尾给出
+    public static final int DEFERRED_COUNT = -1;
+
+    private final String name;
+    private final int declaredCount;
+    private final List<Column> columns;
+
+    ToonHeader(String name, int declaredCount, List<Column> columns) {
+        this.name = name;
+        this.declaredCount = declaredCount;
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // 头部声明的行数，延后给出时为 DEFERRED_COUNT
+    public int getDeclaredCount() {
+        return declaredCount;
+    }
+
+    public boolean isCountDeferred() {
+        return declaredCount == DEFERRED_COUNT;
+    }
+
+    // 预分配容量的参考值（延后给出时为0）
+    int presize(int limit) {
+        return Math.max(0, Math.min(declaredCount, limit));
+    }
+
+    // 顶层列（与数据行中的单元格一一对应）
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public static final class Column {
+        private final String name;
+        private final String path;
+        private final String comment;
+        private final boolean object;
+        private final List<Column> children = new ArrayList<>();
+        private List<String> dictionary = Collections.emptyList();
+
+        Column(String name, String path, String comment, boolean object) {
+            this.name = name;
+            this.path = path;
+            this.comment = comment;
+            this.object = object;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // 完整路径，如 address.city
+        public String getPath() {
+            return path;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        // 是否为嵌套对象（数据行中为括号组）
+        public boolean isObject() {
+            return object;
+        }
+
+        public List<Column> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        List<Column> children() {
+            return children;
+        }
+
+        // 是否为字典编码的列（数据行中的单元格为字典下标）
+        public boolean isDictionaryEncoded() {
+            return !dictionary.isEmpty();
+        }
+
+        // 字典取值（已还原转义），下标即数据行中的编码；非字典列为空列表
+        public List<String> getDictionary() {
+            return dictionary;
+        }
+    }
+
+    /**
+     * 解析 name(N){...}: 形式的头部，扫描器当前位置为名称之后的 (
+     * 结束时停在 : 之后；非空集合头部后的空格一并消费
+     */
+    static ToonHeader parse(String name, ToonScanner scanner) throws ToonFormatException {
+        return parse(name, scanner, null);
+    }
+
+    // 同上，name(N)<Id>: 形式的引用从会话中取得列声明
+    static ToonHeader parse(String name, ToonScanner scanner, ToonSession session) throws ToonFormatException {
+        ToonHeader header = parseHeader(name, scanner, session);
+        Map<String, List<String>> dictionaries = scanner.takeDictionaries();
+        if (dictionaries != null) {
+            for (Map.Entry<String, List<String>> entry : dictionaries.entrySet()) {
+                Column column = findColumn(header.columns, entry.getKey());
+                if (column == null || column.isObject()) {
+                    throw scanner.error("字典声明的列不存在：" + entry.getKey());
+                }
+                column.dictionary = Collections.unmodifiableList(entry.getValue());
+            }
+        }
+        return header;
+    }
+
+    private static Column findColumn(List<Column> columns, String path) {
+        for (Column column : columns) {
+            if (column.path.equals(path)) {
+                return column;
+            }
+            if (path.startsWith(column.path) && path.length() > column.path.length()
+                    && path.charAt(column.path.length()) == '.') {
+                return findColumn(column.children, path);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 列在数据行中的位置：依次为顶层单元格下标、逐层进入括号组后的子列下标，列不存在时返回null
+     */
+    int[] locate(String path) {
+        int[] indexes = new int[0];
+        List<Column> candidates = columns;
+        outer:
+        while (true) {
+            for (int i = 0; i < candidates.size(); i++) {
+                Column column = candidates.get(i);
+                boolean exact = column.path.equals(path);
+                if (exact || (path.startsWith(column.path) && path.length() > column.path.length()
+                        && path.charAt(column.path.length()) == '.')) {
+                    indexes = Arrays.copyOf(indexes, indexes.length + 1);
+                    indexes[indexes.length - 1] = i;
+                    if (exact) {
+                        return indexes;
+                    }
+                    candidates = column.children;
+                    continue outer;
+                }
+            }
+            return null;
+        }
+    }
+
+    // 按locate得到的位置取列
+    Column column(int[] indexes) {
+        Column column = null;
+        List<Column> candidates = columns;
+        for (int index : indexes) {
+            column = candidates.get(index);
+            candidates = column.children;
+        }
+        return column;
+    }
+
+    private static ToonHeader parseHeader(String name, ToonScanner scanner, ToonSession session)
+            throws ToonFormatException {
+        scanner.expect('(');
+        int count = 0;
+        if (scanner.peekIs(ToonSyntax.DEFERRED_COUNT)) {
+            scanner.pos++;
+            count = DEFERRED_COUNT;
+        } else {
+            int digits = 0;
+            while (scanner.pos < scanner.end && Character.isDigit(scanner.buf[scanner.pos])) {
+                if (count > (Integer.MAX_VALUE - 9) / 10) {
+                    throw scanner.error("集合大小超出范围");
+                }
+                count = count * 10 + (scanner.buf[scanner.pos++] - '0');
+                digits++;
+            }
+            if (digits == 0) {
+                throw scanner.error("缺少集合大小");
+            }
+        }
+        scanner.expect(')');
+        if (scanner.peekIs(ToonSyntax.SCHEMA_REF_START)) {
+            return parseReference(name, count, scanner, session);
+        }
+        scanner.expect('{');
+        // 空集合固定为 {}: ，其后可能紧跟下一字段，不能按行查找结束位置
+        if (scanner.peekIs('}')) {
+            scanner.pos++;
+            scanner.expect(':');
+            skipHeaderBreak(scanner);
+            return new ToonHeader(name, count, new ArrayList<>());
+        }
+        int start = scanner.pos;
+        int close = findHeaderEnd(scanner);
+        List<Column> columns = parseColumns(scanner.buf, start, close);
+        scanner.pos = close + 2;
+        skipHeaderBreak(scanner);
+        return new ToonHeader(name, count, columns);
+    }
+
+    private static ToonHeader parseReference(String name, int count, ToonScanner scanner, ToonSession session)
+            throws ToonFormatException {
+        int start = ++scanner.pos;
+        while (scanner.pos < scanner.end && scanner.buf[scanner.pos] != ToonSyntax.SCHEMA_REF_END
+                && scanner.buf[scanner.pos] != '\n') {
+            scanner.pos++;
+        }
+        String id = new String(scanner.buf, start, scanner.pos - start);
+        scanner.expect(ToonSyntax.SCHEMA_REF_END);
+        String declared = session != null ? session.columnsOf(id) : null;
+        if (declared == null) {
+            throw scanner.error("未声明的schema：" + id);
+        }
+        scanner.expect(':');
+        skipHeaderBreak(scanner);
+        char[] chars = declared.toCharArray();
+        return new ToonHeader(name, count, parseColumns(chars, 0, chars.length));
+    }
+
+    /**
+     * 读取头部之前的声明行，扫描器当前位置为 @，结束时停在声明内容之后：
+     * "@dict path: ..." 暂存在扫描器中，由紧随其后的头部认领；其余为schema声明
+     */
+    static void parseDeclaration(ToonScanner scanner, ToonSession session) throws ToonFormatException {
+        if (atDictionaryDeclaration(scanner)) {
+            parseDictionaryDeclaration(scanner);
+        } else {
+            parseSchemaDeclaration(scanner, session);
+        }
+    }
+
+    static boolean atDictionaryDeclaration(ToonScanner scanner) {
+        return startsWith(scanner, ToonSyntax.DICTIONARY_DECLARATION);
+    }
+
+    private static boolean startsWith(ToonScanner scanner, String prefix) {
+        if (scanner.end - scanner.pos < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (scanner.buf[scanner.pos + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 字典声明行 "@dict path: v0,v1,..."，取值按单元格规则转义
+    private static void parseDictionaryDeclaration(ToonScanner scanner) throws ToonFormatException {
+        scanner.pos += ToonSyntax.DICTIONARY_DECLARATION.length();
+        int start = scanner.pos;
+        while (scanner.pos < scanner.end && scanner.buf[scanner.pos] != ':' && scanner.buf[scanner.pos] != '\n') {
+            scanner.pos++;
+        }
+        String path = new String(scanner.buf, start, scanner.pos - start);
+        if (path.isEmpty()) {
+            throw scanner.error("字典声明缺少列路径");
+        }
+        scanner.expect(':');
+        scanner.expect(' ');
+        List<String> entries = new ArrayList<>();
+        while (true) {
+            scanner.scanCell(false);
+            if (scanner.cellEmpty()) {
+                throw scanner.error("字典取值不能为空");
+            }
+            entries.add(scanner.cellString());
+            if (!scanner.peekIs(ToonSyntax.SEPARATOR)) {
+                break;
+            }
+            scanner.pos++;
+        }
+        scanner.declareDictionary(path, entries);
+    }
+
+    /**
+     * 读取schema声明行 "@schema Id{...}" 并登记到会话，扫描器当前位置为 @，结束时停在本行的 } 之后
+     */
+    static void parseSchemaDeclaration(ToonScanner scanner, ToonSession session) throws ToonFormatException {
+        String prefix = ToonSyntax.SCHEMA_DECLARATION;
+        for (int i = 0; i < prefix.length(); i++) {
+            scanner.expect(prefix.charAt(i));
+        }
+        int start = scanner.pos;
+        while (scanner.pos < scanner.end && scanner.buf[scanner.pos] != '{' && scanner.buf[scanner.pos] != '\n') {
+            scanner.pos++;
+        }
+        String id = new String(scanner.buf, start, scanner.pos - start);
+        if (id.isEmpty()) {
+            throw scanner.error("schema声明缺少名称");
+        }
+        scanner.expect('{');
+        char[] buf = scanner.buf;
+        int lineEnd = scanner.pos;
+        while (lineEnd < scanner.end && !ToonSyntax.isLineEnd(buf[lineEnd])) {
+            lineEnd++;
+        }
+        // 列注释未转义，取本行最后一个 } 作为结束
+        int close = lineEnd - 1;
+        while (close >= scanner.pos && buf[close] != '}') {
+            close--;
+        }
+        if (close < scanner.pos) {
+            throw scanner.error("schema声明缺少结束标记'}'");
+        }
+        session.register(id, new String(buf, scanner.pos, close - scanner.pos));
+        scanner.pos = close + 1;
+    }
+
+    /**
+     * 读取表尾行数行 "@count N"，扫描器当前位置为 @，结束时停在数字之后
+     */
+    static int parseRowCountTrailer(ToonScanner scanner) throws ToonFormatException {
+        String prefix = ToonSyntax.ROW_COUNT_TRAILER;
+        for (int i = 0; i < prefix.length(); i++) {
+            scanner.expect(prefix.charAt(i));
+        }
+        long count = 0;
+        int start = scanner.pos;
+        while (scanner.pos < scanner.end && Character.isDigit(scanner.buf[scanner.pos]) && count <= Integer.MAX_VALUE) {
+            count = count * 10 + (scanner.buf[scanner.pos++] - '0');
+        }
+        if (scanner.pos == start || count > Integer.MAX_VALUE) {
+            throw scanner.error("表尾行数无效");
+        }
+        return (int) count;
+    }
+
+    /**
+     * 跳过单对象头部 name{...}:（字段由各行自描述，声明内容无需解析），扫描器当前位置为 {
+     */
+    static void skipObjectHeader(ToonScanner scanner) throws ToonFormatException {
+        scanner.expect('{');
+        int close = findHeaderEnd(scanner);
+        scanner.pos = close + 2;
+        skipHeaderBreak(scanner);
+    }
+
+    // 头部注释未转义，可能含有 } 等字符，取本行最后一个 }: 作为结束
+    private static int findHeaderEnd(ToonScanner scanner) throws ToonFormatException {
+        char[] buf = scanner.buf;
+        int lineEnd = scanner.pos;
+        while (lineEnd < scanner.end && !ToonSyntax.isLineEnd(buf[lineEnd])) {
+            lineEnd++;
+        }
+        for (int i = lineEnd - 2; i >= scanner.pos; i--) {
+            if (buf[i] == '}' && buf[i + 1] == ':') {
+                return i;
+            }
+        }
+        throw scanner.error("头部缺少结束标记'}:'");
+    }
+
+    // 头部行尾的空格（" \n"）
+    private static void skipHeaderBreak(ToonScanner scanner) {
+        int next = scanner.pos + 1;
+        if (scanner.peekIs(' ') && (next >= scanner.end || ToonSyntax.isLineEnd(scanner.buf[next]))) {
+            scanner.pos++;
+        }
+    }
+
+    // 逗号后紧跟"路径#"才视为新列，注释中的逗号保留在注释内
+    private static List<Column> parseColumns(char[] buf, int start, int end) {
+        List<Column> roots = new ArrayList<>();
+        Map<String, Column> byPath = new HashMap<>();
+        int entryStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || (buf[i] == ',' && startsWithPath(buf, i + 1, end))) {
+                addColumn(buf, entryStart, i, roots, byPath);
+                entryStart = i + 1;
+            }
+        }
+        return roots;
+    }
+
+    private static boolean startsWithPath(char[] buf, int start, int end) {
+        if (start >= end || !Character.isJavaIdentifierStart(buf[start])) {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            char c = buf[i];
+            if (c == '#') {
+                return true;
+            }
+            if (c != '.' && !Character.isJavaIdentifierPart(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static void addColumn(char[] buf, int start, int end, List<Column> roots, Map<String, Column> byPath) {
+        if (start >= end) {
+            return;
+        }
+        int hash = start;
+        while (hash < end && buf[hash] != '#') {
+            hash++;
+        }
+        String path = new String(buf, start, hash - start);
+        String comment = hash < end ? new String(buf, hash + 1, end - hash - 1) : "";
+        boolean object = comment.endsWith(ToonSyntax.OBJECT_MARKER);
+        if (object) {
+            comment = comment.substring(0, comment.length() - ToonSyntax.OBJECT_MARKER.length());
+        }
+        int dot = path.lastIndexOf('.');
+        Column parent = dot > 0 ? byPath.get(path.substring(0, dot)) : null;
+        Column column = new Column(parent != null ? path.substring(dot + 1) : path, path, comment, object);
+        byPath.put(path, column);
+        if (parent != null) {
+            parent.children().add(column);
+        } else {
+            roots.add(column);
+        }
+    }
+}
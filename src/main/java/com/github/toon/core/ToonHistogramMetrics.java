@@ -0,0 +1,179 @@
+package com.github.toon.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内存直方图指标：按2的幂分桶记录耗时、输出字符数、行数、嵌套深度与转义字符数，
+ * 并按类统计计划缓存的命中与未命中。无锁、线程安全，适合本地调试与压测时查看分布。
+ *
+ * <pre>
+ * ToonHistogramMetrics metrics = new ToonHistogramMetrics();
+ * serializer.setMetrics(metrics);
+ * ...
+ * System.out.println(metrics); // 各指标的次数、均值、p50/p99、最大值
+ * </pre>
+ */
+public final class ToonHistogramMetrics implements ToonMetrics {
+    private final Histogram durations = new Histogram();
+    private final Histogram outputChars = new Histogram();
+    private final Histogram rows = new Histogram();
+    private final Histogram depths = new Histogram();
+    private final Histogram escapedChars = new Histogram();
+    private final ConcurrentHashMap<Class<?>, PlanCacheCounter> planCache = new ConcurrentHashMap<>();
+
+    @Override
+    public void onSerialize(ToonSerializationStats stats) {
+        durations.record(stats.getDurationNanos());
+        outputChars.record(stats.getOutputChars());
+        rows.record(stats.getRows());
+        depths.record(stats.getMaxDepth());
+        escapedChars.record(stats.getEscapedChars());
+    }
+
+    @Override
+    public void onPlanCache(Class<?> type, boolean hit) {
+        PlanCacheCounter counter = planCache.computeIfAbsent(type, key -> new PlanCacheCounter());
+        (hit ? counter.hits : counter.misses).increment();
+    }
+
+    // 耗时（纳秒）
+    public Histogram getDurations() {
+        return durations;
+    }
+
+    public Histogram getOutputChars() {
+        return outputChars;
+    }
+
+    public Histogram getRows() {
+        return rows;
+    }
+
+    public Histogram getDepths() {
+        return depths;
+    }
+
+    public Histogram getEscapedChars() {
+        return escapedChars;
+    }
+
+    // 按类的计划缓存统计
+    public Map<Class<?>, PlanCacheCounter> getPlanCache() {
+        return Collections.unmodifiableMap(planCache);
+    }
+
+    public void reset() {
+        durations.reset();
+        outputChars.reset();
+        rows.reset();
+        depths.reset();
+        escapedChars.reset();
+        planCache.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("durationNanos ").append(durations).append('\n')
+                .append("outputChars ").append(outputChars).append('\n')
+                .append("rows ").append(rows).append('\n')
+                .append("maxDepth ").append(depths).append('\n')
+                .append("escapedChars ").append(escapedChars);
+        for (Map.Entry<Class<?>, PlanCacheCounter> entry : planCache.entrySet()) {
+            builder.append('\n').append("planCache ").append(entry.getKey().getName())
+                    .append(' ').append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 对数分桶直方图：第i个桶记录 [2^(i-1), 2^i) 区间的值（0单独一个桶），
+     * 百分位取桶上界，误差不超过2倍，换取固定内存与无锁写入
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value)); // 二进制位数即桶号
+            count.increment();
+            sum.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        // 百分位（0~100），返回所在桶的上界
+        public long getPercentile(double percentile) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * Math.min(Math.max(percentile, 0), 100) / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= Math.max(rank, 1)) {
+                    return Math.min(i == 0 ? 0 : (1L << i) - 1, getMax());
+                }
+            }
+            return getMax();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + getCount() + ", mean=" + String.format("%.1f", getMean())
+                    + ", p50=" + getPercentile(50) + ", p99=" + getPercentile(99) + ", max=" + getMax();
+        }
+    }
+
+    public static final class PlanCacheCounter {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + getHits() + ", misses=" + getMisses();
+        }
+    }
+}
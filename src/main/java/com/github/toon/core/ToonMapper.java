@@ -0,0 +1,281 @@
+package com.github.toon.core;
+
+import com.github.toon.converter.ConverterRegistry;
+import com.github.toon.converter.TypeConverter;
+import com.github.toon.exception.ToonException;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 不可变、线程安全的序列化入口：转换器与选项由Builder在构建时固定，之后不能修改，
+ * 同一实例可在任意线程间共享，类计划与反序列化绑定各只构建一次。
+ * withConverter 派生的新实例沿用不受新转换器影响的计划与绑定，原实例不变。
+ * <pre>
+ * ToonMapper mapper = ToonMapper.builder()
+ *         .addConverter(new BigDecimalConverter())
+ *         .identityTracking(true)
+ *         .build();
+ * </pre>
+ */
+public final class ToonMapper implements ToonSerializer, ToonDeserializer {
+    private final Builder options; // 构建时的设置快照（不再修改）
+    private final ConverterRegistry registry;
+    private final DefaultToonSerializer serializer;
+    private final DefaultToonDeserializer deserializer;
+
+    private ToonMapper(Builder options, ConverterRegistry registry, DefaultToonSerializer serializer,
+                       DefaultToonDeserializer deserializer) {
+        this.options = options;
+        this.registry = registry;
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+        options.applyTo(serializer);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // 以当前设置为起点的Builder（构建出的实例重新构建计划）
+    public Builder toBuilder() {
+        return options.copy();
+    }
+
+    /**
+     * 多注册一个转换器（优先于已有的转换器）的新实例，其余设置不变；
+     * 新转换器不支持的类型（含其各层嵌套字段）沿用本实例已构建的计划与绑定
+     */
+    public ToonMapper withConverter(TypeConverter converter) {
+        ConverterRegistry derived = registry.withConverter(converter);
+        Builder next = options.copy();
+        next.converters.add(converter);
+        return new ToonMapper(next, derived,
+                new DefaultToonSerializer(serializer, derived, converter),
+                new DefaultToonDeserializer(deserializer, derived, converter));
+    }
+
+    // ---------------- 序列化 ----------------
+
+    @Override
+    public String serialize(String rootName, Object data) throws ToonException {
+        return serializer.serialize(rootName, data);
+    }
+
+    @Override
+    public void serialize(String rootName, Object data, Appendable out) throws ToonException {
+        serializer.serialize(rootName, data, out);
+    }
+
+    @Override
+    public void serializeUtf8(String rootName, Object data, OutputStream out) throws ToonException {
+        serializer.serializeUtf8(rootName, data, out);
+    }
+
+    public ByteBuffer serialize(String rootName, Object data, ToonBufferPool pool) throws ToonException {
+        return serializer.serialize(rootName, data, pool);
+    }
+
+    public String serialize(String rootName, Object data, ToonSession session) throws ToonException {
+        return serializer.serialize(rootName, data, session);
+    }
+
+    public void serialize(String rootName, Object data, ToonSession session, Appendable out) throws ToonException {
+        serializer.serialize(rootName, data, session, out);
+    }
+
+    public ToonBudgetResult serialize(String rootName, Object data, int maxTokens) throws ToonException {
+        return serializer.serialize(rootName, data, maxTokens);
+    }
+
+    public ToonBudgetResult serialize(String rootName, Object data, int maxTokens,
+                                      ToonBudgetResult.Strategy strategy) throws ToonException {
+        return serializer.serialize(rootName, data, maxTokens, strategy);
+    }
+
+    public <T> CompletableFuture<Integer> serializeAsync(String rootName, Class<T> elementType,
+                                                         ToonRowSource<T> source, ToonChunkSink sink) {
+        return serializer.serializeAsync(rootName, elementType, source, sink);
+    }
+
+    public String serializeDelta(String rootName, Collection<?> previous, Collection<?> current) throws ToonException {
+        return serializer.serializeDelta(rootName, previous, current);
+    }
+
+    public String serializeCached(String rootName, Object data, Object version) throws ToonException {
+        return serializer.serializeCached(rootName, data, version);
+    }
+
+    // 输出缓存（含命中统计），未开启时为null；每个实例（含withConverter派生的实例）各有一个
+    public ToonOutputCache getCache() {
+        return serializer.getCache();
+    }
+
+    // ---------------- 预热 ----------------
+
+    /**
+     * 启动时预热：解析这些类的字段顺序，构建序列化计划（含头部）与反序列化绑定，返回其中含有@ToonField字段的类
+     */
+    public List<Class<?>> warmup(Class<?>... classes) {
+        return warmup(Arrays.asList(classes));
+    }
+
+    public List<Class<?>> warmup(Collection<Class<?>> classes) {
+        List<Class<?>> annotated = FieldCache.warmup(classes);
+        serializer.warmup(annotated);
+        deserializer.warmup(annotated);
+        return annotated;
+    }
+
+    // 预热包（含子包）中的全部类，扫描方式见 FieldCache.warmup(String)
+    public List<Class<?>> warmup(String packageName) throws ToonException {
+        return warmup(ClassScanner.scan(packageName));
+    }
+
+    // ---------------- 反序列化 ----------------
+
+    @Override
+    public <T> T deserialize(String toonStr, Class<T> targetType) throws ToonException {
+        return deserializer.deserialize(toonStr, targetType);
+    }
+
+    public <T> T deserialize(String toonStr, Class<T> targetType, ToonSession session) throws ToonException {
+        return deserializer.deserialize(toonStr, targetType, session);
+    }
+
+    @Override
+    public <T> List<T> deserializeList(String toonStr, Class<T> elementType) throws ToonException {
+        return deserializer.deserializeList(toonStr, elementType);
+    }
+
+    public <T> List<T> deserializeList(String toonStr, Class<T> elementType, ToonSession session) throws ToonException {
+        return deserializer.deserializeList(toonStr, elementType, session);
+    }
+
+    public <T> List<T> deserializeList(String toonStr, Class<T> elementType, ToonQuery query) throws ToonException {
+        return deserializer.deserializeList(toonStr, elementType, query);
+    }
+
+    public <T> List<T> deserializeList(Path file, Class<T> elementType) throws ToonException {
+        return deserializeList(file, elementType, ToonQuery.all());
+    }
+
+    public <T> List<T> deserializeList(Path file, Class<T> elementType, ToonQuery query) throws ToonException {
+        return deserializer.deserializeList(file, elementType, query,
+                options.pool != null ? options.pool : ForkJoinPool.commonPool());
+    }
+
+    public ToonTable parseTable(String toonStr) throws ToonException {
+        return deserializer.parseTable(toonStr);
+    }
+
+    public <T> ToonDelta<T> deserializeDelta(String toonStr, Class<T> elementType) throws ToonException {
+        return deserializer.deserializeDelta(toonStr, elementType);
+    }
+
+    /**
+     * ToonMapper的设置，build()每次生成独立的实例；Builder本身非线程安全
+     */
+    public static final class Builder {
+        private final List<TypeConverter> converters = new ArrayList<>(); // 按注册顺序，后注册的优先
+        private int parallelThreshold; // 为0时不并行
+        private ForkJoinPool pool;
+        private ToonMetrics metrics = ToonMetrics.NOOP;
+        private boolean identityTracking;
+        private double dictionaryRatio; // 为0时只编码标注的列
+        private long cacheChars; // 为0时不开启输出缓存
+
+        private Builder() {}
+
+        public Builder addConverter(TypeConverter converter) {
+            if (converter == null) {
+                throw new IllegalArgumentException("converter不能为null");
+            }
+            converters.add(converter);
+            return this;
+        }
+
+        // 并行序列化大集合（见 DefaultToonSerializer.enableParallel），pool同时用于文件的并行加载
+        public Builder parallel(int threshold, ForkJoinPool pool) {
+            if (pool == null) {
+                throw new IllegalArgumentException("pool不能为null");
+            }
+            this.parallelThreshold = Math.max(threshold, 1);
+            this.pool = pool;
+            return this;
+        }
+
+        public Builder metrics(ToonMetrics metrics) {
+            this.metrics = metrics != null ? metrics : ToonMetrics.NOOP;
+            return this;
+        }
+
+        public Builder identityTracking(boolean enabled) {
+            this.identityTracking = enabled;
+            return this;
+        }
+
+        // 自动列字典编码（见 DefaultToonSerializer.enableDictionary），传入0关闭
+        public Builder dictionary(double maxDistinctRatio) {
+            if (!(maxDistinctRatio >= 0 && maxDistinctRatio <= 1)) {
+                throw new IllegalArgumentException("maxDistinctRatio须在[0, 1]之间");
+            }
+            this.dictionaryRatio = maxDistinctRatio;
+            return this;
+        }
+
+        // 输出缓存（见 DefaultToonSerializer.enableCache），传入0关闭
+        public Builder cache(long maxChars) {
+            if (maxChars < 0) {
+                throw new IllegalArgumentException("maxChars不能为负数");
+            }
+            this.cacheChars = maxChars;
+            return this;
+        }
+
+        public ToonMapper build() {
+            Builder snapshot = copy();
+            ConverterRegistry registry = new ConverterRegistry();
+            for (TypeConverter converter : snapshot.converters) {
+                registry.addConverter(converter);
+            }
+            // 注册表不对外暴露，构建后不再修改，序列化与反序列化共用
+            return new ToonMapper(snapshot, registry, new DefaultToonSerializer(registry),
+                    new DefaultToonDeserializer(registry));
+        }
+
+        private Builder copy() {
+            Builder copy = new Builder();
+            copy.converters.addAll(converters);
+            copy.parallelThreshold = parallelThreshold;
+            copy.pool = pool;
+            copy.metrics = metrics;
+            copy.identityTracking = identityTracking;
+            copy.dictionaryRatio = dictionaryRatio;
+            copy.cacheChars = cacheChars;
+            return copy;
+        }
+
+        // 在发布ToonMapper之前设置好序列化器，之后不再调用任何修改方法
+        private void applyTo(DefaultToonSerializer serializer) {
+            if (parallelThreshold > 0) {
+                serializer.enableParallel(parallelThreshold, pool);
+            }
+            serializer.setMetrics(metrics);
+            serializer.setIdentityTracking(identityTracking);
+            if (dictionaryRatio > 0) {
+                serializer.enableDictionary(dictionaryRatio);
+            }
+            if (cacheChars > 0) {
+                serializer.enableCache(cacheChars);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.toon.core;
+
+/**
+ * 序列化指标SPI：DefaultToonSerializer 每次序列化结束时回调 onSerialize，
+ * 查找集合/对象的类计划时回调 onPlanCache。
+ * 默认为 NOOP，此时序列化器不计时也不构造统计对象。实现需线程安全，且不应抛出异常。
+ */
+public interface ToonMetrics {
+    ToonMetrics NOOP = new ToonMetrics() {
+        @Override
+        public void onSerialize(ToonSerializationStats stats) {
+        }
+    };
+
+    // 一次序列化调用的统计
+    void onSerialize(ToonSerializationStats stats);
+
+    // 类计划缓存：hit为false表示为该类新建了计划（反射解析字段、生成访问器）
+    default void onPlanCache(Class<?> type, boolean hit) {
+    }
+}
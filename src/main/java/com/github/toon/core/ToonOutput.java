@@ -0,0 +1,318 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonIOException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * TOON输出缓冲区
+ * 内存模式：缓冲区按需扩容，最终通过 toString() 取得结果（只拷贝一次）；
+ * 流式模式：缓冲区大小固定，写满即刷出到目标 Appendable，内存占用有界。
+ * 行尾采用延迟写出：每行结束时只记录待写的换行，下一行开始时才真正写出，
+ * 文档结束时丢弃，从而无需对整个结果做 trim 拷贝。
+ */
+public class ToonOutput {
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int INITIAL_MEMORY_SIZE = 256;
+
+    private final Appendable target; // 为null时为内存模式
+    private char[] buf;
+    private int pos;
+    private String pendingBreak; // 延迟写出的行尾
+    private long flushed; // 流式模式下已刷出的字符数
+    // 指标统计（仅在序列化器开启指标时读取）
+    long escapedChars;
+    long rows;
+    int maxDepth;
+    // 身份去重模式下的锚点登记，未开启时为null
+    IdentityTracker identities;
+
+    // 内存模式
+    public ToonOutput() {
+        this.target = null;
+        this.buf = new char[INITIAL_MEMORY_SIZE];
+    }
+
+    // 流式模式
+    public ToonOutput(Appendable target) {
+        this(target, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ToonOutput(Appendable target, int bufferSize) {
+        this(target, new char[Math.max(bufferSize, 64)]);
+    }
+
+    // 流式模式，使用外部提供（如池化）的写出缓冲
+    ToonOutput(Appendable target, char[] buffer) {
+        if (target == null) {
+            throw new IllegalArgumentException("target不能为null");
+        }
+        this.target = target;
+        this.buf = buffer;
+    }
+
+    public ToonOutput append(char c) throws ToonIOException {
+        if (pos == buf.length) {
+            makeRoom(1);
+        }
+        buf[pos++] = c;
+        return this;
+    }
+
+    public ToonOutput append(String s) throws ToonIOException {
+        return append(s, 0, s.length());
+    }
+
+    public ToonOutput append(String s, int start, int end) throws ToonIOException {
+        int len = end - start;
+        if (len > buf.length - pos) {
+            makeRoom(len);
+            // 流式模式下超长片段直接写出，不经过缓冲区
+            if (len > buf.length - pos) {
+                writeThrough(s, start, end);
+                return this;
+            }
+        }
+        s.getChars(start, end, buf, pos);
+        pos += len;
+        return this;
+    }
+
+    public ToonOutput append(char[] chars, int start, int end) throws ToonIOException {
+        int len = end - start;
+        if (len > buf.length - pos) {
+            makeRoom(len);
+            if (len > buf.length - pos) {
+                writeThrough(chars, start, end);
+                return this;
+            }
+        }
+        System.arraycopy(chars, start, buf, pos, len);
+        pos += len;
+        return this;
+    }
+
+    // 拼接另一个内存模式缓冲区的内容（不含其待写行尾），用于分段并行编码后按序合并
+    void append(ToonOutput other) throws ToonIOException {
+        append(other.buf, 0, other.pos);
+        escapedChars += other.escapedChars;
+    }
+
+    // 拼接另一个内存模式缓冲区中 [start, end) 的内容
+    void append(ToonOutput other, int start, int end) throws ToonIOException {
+        append(other.buf, start, end);
+    }
+
+    // 内存模式缓冲区中已写入的字符数
+    int size() {
+        return pos;
+    }
+
+    // 清空内存模式缓冲区以便复用
+    void reset() {
+        pos = 0;
+        pendingBreak = null;
+        escapedChars = 0;
+    }
+
+    // 取出已写入的内容并清空缓冲区，待写的行尾保留到下一行（分块写出时使用）
+    String drain() {
+        String chunk = new String(buf, 0, pos);
+        pos = 0;
+        return chunk;
+    }
+
+    // 已写出的总字符数（含已刷出的部分，不含待写行尾）
+    long length() {
+        return flushed + pos;
+    }
+
+    void noteDepth(int depth) {
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    // 将已写入的内容（不含待写行尾）计入token估算
+    void addTo(ToonTokenEstimator estimator) {
+        estimator.add(buf, 0, pos);
+    }
+
+    // 写出字符串并转义特殊字符（\ , ; { } ( ) 换行 回车），单次遍历，无需转义的片段整段拷贝
+    public ToonOutput appendEscaped(String s) throws ToonIOException {
+        int length = s.length();
+        int start = 0;
+        if (identities != null && length > 0 && ToonSyntax.isAnchorMark(s.charAt(0))) {
+            appendEscapeSequence(s.charAt(0)); // 身份去重模式下开头的 & * 会被读作锚点
+            start = 1;
+        }
+        for (int i = start; i < length; i++) {
+            char c = s.charAt(i);
+            if (ToonSyntax.isSpecial(c)) {
+                if (i > start) {
+                    append(s, start, i);
+                }
+                appendEscapeSequence(c);
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            append(s, start, length);
+        }
+        return this;
+    }
+
+    public ToonOutput appendEscaped(char[] chars, int start, int end) throws ToonIOException {
+        int from = start;
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (ToonSyntax.isSpecial(c)) {
+                if (i > from) {
+                    append(chars, from, i);
+                }
+                appendEscapeSequence(c);
+                from = i + 1;
+            }
+        }
+        if (from < end) {
+            append(chars, from, end);
+        }
+        return this;
+    }
+
+    public ToonOutput appendEscaped(char c) throws ToonIOException {
+        if (ToonSyntax.isSpecial(c) || (identities != null && ToonSyntax.isAnchorMark(c))) {
+            appendEscapeSequence(c);
+        } else {
+            append(c);
+        }
+        return this;
+    }
+
+    public ToonOutput appendInt(int value) throws ToonIOException {
+        return appendLong(value);
+    }
+
+    // 数字按两位一组查表写入缓冲区，不生成临时字符串
+    public ToonOutput appendLong(long value) throws ToonIOException {
+        if (buf.length - pos < NumberCodec.MAX_CHARS) {
+            makeRoom(NumberCodec.MAX_CHARS);
+        }
+        pos = NumberCodec.writeLong(buf, pos, value);
+        return this;
+    }
+
+    // 格式与 Double.toString 相同，常见取值直接写入缓冲区
+    public ToonOutput appendDouble(double value) throws ToonIOException {
+        if (buf.length - pos < NumberCodec.MAX_CHARS) {
+            makeRoom(NumberCodec.MAX_CHARS);
+        }
+        int end = NumberCodec.writeDouble(buf, pos, value);
+        if (end < 0) {
+            return append(Double.toString(value));
+        }
+        pos = end;
+        return this;
+    }
+
+    // 格式与 Float.toString 相同
+    public ToonOutput appendFloat(float value) throws ToonIOException {
+        if (buf.length - pos < NumberCodec.MAX_CHARS) {
+            makeRoom(NumberCodec.MAX_CHARS);
+        }
+        int end = NumberCodec.writeFloat(buf, pos, value);
+        if (end < 0) {
+            return append(Float.toString(value));
+        }
+        pos = end;
+        return this;
+    }
+
+    public ToonOutput appendBoolean(boolean value) throws ToonIOException {
+        return append(value ? "true" : "false");
+    }
+
+    private void appendEscapeSequence(char c) throws ToonIOException {
+        escapedChars++;
+        append(ToonSyntax.ESCAPE);
+        append(ToonSyntax.escapeCode(c));
+    }
+
+    // 开始新的一行：先补写上一行的行尾，再写缩进
+    void beginLine(String indent) throws ToonIOException {
+        if (pendingBreak != null) {
+            append(pendingBreak);
+            pendingBreak = null;
+        }
+        append(indent);
+    }
+
+    // 结束当前行：行尾延迟到下一行开始时写出
+    void endLine(String lineBreak) {
+        pendingBreak = lineBreak;
+    }
+
+    // 文档结束：丢弃末尾行尾并刷出剩余内容
+    void finish() throws ToonIOException {
+        pendingBreak = null;
+        flush();
+    }
+
+    public void flush() throws ToonIOException {
+        if (target == null || pos == 0) {
+            return;
+        }
+        try {
+            if (target instanceof Writer) {
+                ((Writer) target).write(buf, 0, pos);
+            } else if (target instanceof StringBuilder) {
+                ((StringBuilder) target).append(buf, 0, pos);
+            } else {
+                target.append(CharBuffer.wrap(buf, 0, pos));
+            }
+        } catch (IOException e) {
+            throw new ToonIOException("写出缓冲区失败", e);
+        }
+        flushed += pos;
+        pos = 0;
+    }
+
+    private void makeRoom(int required) throws ToonIOException {
+        if (target != null) {
+            flush();
+            return;
+        }
+        int newSize = Math.max(buf.length << 1, pos + required);
+        buf = Arrays.copyOf(buf, newSize);
+    }
+
+    private void writeThrough(String s, int start, int end) throws ToonIOException {
+        flushed += end - start;
+        try {
+            target.append(s, start, end);
+        } catch (IOException e) {
+            throw new ToonIOException("写出数据失败", e);
+        }
+    }
+
+    private void writeThrough(char[] chars, int start, int end) throws ToonIOException {
+        flushed += end - start;
+        try {
+            if (target instanceof Writer) {
+                ((Writer) target).write(chars, start, end - start);
+            } else {
+                target.append(CharBuffer.wrap(chars, start, end - start));
+            }
+        } catch (IOException e) {
+            throw new ToonIOException("写出数据失败", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, pos);
+    }
+}
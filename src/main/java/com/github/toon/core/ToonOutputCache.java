@@ -0,0 +1,211 @@
+package com.github.toon.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 序列化输出缓存：按对象身份（可附带版本）缓存已写出的文本片段，再次写出同一对象时直接拼接到输出缓冲区。
+ * 容量按缓存文本的总字符数计算，超出时淘汰最久未使用的片段（LRU）；线程安全，由一个序列化器独占
+ * （片段依赖序列化器的转换器与选项）。缓存的对象被强引用，直到片段被淘汰或失效。
+ * 按键的哈希分段加锁，各段独立做LRU淘汰（容量均分），并行序列化的各线程多数情况下不会争用同一把锁。
+ * <pre>
+ * serializer.enableCache(4 &lt;&lt; 20); // 最多缓存约4M字符
+ * ...
+ * ToonOutputCache cache = serializer.getCache();
+ * System.out.println(cache); // 命中、未命中、淘汰次数与当前占用
+ * </pre>
+ */
+public final class ToonOutputCache {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CHARS = 1 << 12; // 容量较小时减少段数，避免单段容量过小而缓存不了片段
+
+    private final long maxChars;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ToonOutputCache(long maxChars) {
+        if (maxChars <= 0) {
+            throw new IllegalArgumentException("maxChars须大于0");
+        }
+        this.maxChars = maxChars;
+        int count = 1;
+        while (count < MAX_SEGMENTS && maxChars / (count << 1) >= MIN_SEGMENT_CHARS) {
+            count <<= 1;
+        }
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maxChars / count);
+        }
+    }
+
+    /**
+     * 取回owner（按身份）在scope下缓存的片段，版本不一致或不存在时返回null
+     * scope区分同一对象的不同片段：数据行/嵌套对象为null，整个文档为根名称
+     */
+    String get(Object owner, String scope, Object version) {
+        Key key = new Key(owner, scope);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry entry = segment.entries.get(key);
+            if (entry != null) {
+                if (Objects.equals(entry.version, version)) {
+                    hits.increment();
+                    return entry.fragment;
+                }
+                segment.entries.remove(key); // 版本已变化
+                segment.chars -= entry.fragment.length();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // 登记片段，超过所在段容量的片段不缓存
+    void put(Object owner, String scope, Object version, String fragment) {
+        Key key = new Key(owner, scope);
+        Segment segment = segmentFor(key);
+        int weight = fragment.length();
+        if (weight > segment.maxChars) {
+            return;
+        }
+        synchronized (segment) {
+            Entry previous = segment.entries.put(key, new Entry(version, fragment));
+            if (previous != null) {
+                segment.chars -= previous.fragment.length();
+            }
+            segment.chars += weight;
+            Iterator<Entry> eldest = segment.entries.values().iterator();
+            while (segment.chars > segment.maxChars && eldest.hasNext()) {
+                segment.chars -= eldest.next().fragment.length();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    // 使某个对象自身的所有片段失效（对象被修改而又没有版本字段时）；包含它的外层片段不受影响，需要时用invalidateAll
+    public void invalidate(Object owner) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Iterator<Map.Entry<Key, Entry>> iterator = segment.entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Key, Entry> entry = iterator.next();
+                    if (entry.getKey().owner == owner) {
+                        segment.chars -= entry.getValue().fragment.length();
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+                segment.chars = 0;
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // 当前缓存的片段数
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    // 当前缓存的总字符数
+    public long getChars() {
+        long chars = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                chars += segment.chars;
+            }
+        }
+        return chars;
+    }
+
+    public long getMaxChars() {
+        return maxChars;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount()
+                + ", size=" + size() + ", chars=" + getChars() + "/" + maxChars;
+    }
+
+    // 段数为2的幂，取打散后哈希的高位
+    private Segment segmentFor(Key key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return segments[(h >>> 16) & (segments.length - 1)];
+    }
+
+    // 一段：按访问顺序的LinkedHashMap与其占用的字符数，均由段自身的锁保护
+    private static final class Segment {
+        final long maxChars;
+        final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // 按访问顺序
+        long chars;
+
+        Segment(long maxChars) {
+            this.maxChars = maxChars;
+        }
+    }
+
+    // 按身份比较的键
+    private static final class Key {
+        final Object owner;
+        final String scope;
+
+        Key(Object owner, String scope) {
+            this.owner = owner;
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return owner == other.owner && Objects.equals(scope, other.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(owner) * 31 + Objects.hashCode(scope);
+        }
+    }
+
+    private static final class Entry {
+        final Object version;
+        final String fragment;
+
+        Entry(Object version, String fragment) {
+            this.version = version;
+            this.fragment = fragment;
+        }
+    }
+}
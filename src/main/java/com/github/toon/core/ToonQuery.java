@@ -0,0 +1,132 @@
+package com.github.toon.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 集合反序列化的列投影与行条件（不可变，线程安全，可复用）：
+ * 未投影的列在扫描时直接跳过，不还原转义也不转换，字段保持默认值；
+ * 不满足条件的行在创建对象之前丢弃。条件列不必在投影中。
+ * <pre>
+ * ToonQuery query = ToonQuery.select("id", "name", "address.city")
+ *         .where("status", UserStatus.ACTIVE)
+ *         .whereBetween("id", 100, 200);
+ * List&lt;User&gt; users = Toons.deserializeList(toon, User.class, query);
+ * </pre>
+ * 列按头部的完整路径指定；投影嵌套对象列（address）即包含其全部子列。
+ * 投影中头部不存在的列被忽略，条件中的列不存在时报错。
+ */
+public final class ToonQuery {
+    private static final ToonQuery ALL = new ToonQuery(null, Collections.emptyList());
+
+    // 列的投影范围
+    static final int NONE = 0;
+    static final int PARTIAL = 1; // 嵌套对象列只投影了部分子列
+    static final int FULL = 2;
+
+    private final Set<String> paths; // 为null时读取全部列
+    private final List<Condition> conditions;
+
+    private ToonQuery(Set<String> paths, List<Condition> conditions) {
+        this.paths = paths;
+        this.conditions = conditions;
+    }
+
+    // 读取全部列、不过滤
+    public static ToonQuery all() {
+        return ALL;
+    }
+
+    // 只读取这些列
+    public static ToonQuery select(String... paths) {
+        if (paths == null || paths.length == 0) {
+            throw new IllegalArgumentException("至少需要投影一列");
+        }
+        for (String path : paths) {
+            checkPath(path);
+        }
+        return new ToonQuery(Collections.unmodifiableSet(new HashSet<>(Arrays.asList(paths))), Collections.emptyList());
+    }
+
+    /**
+     * 等值条件：value为null时匹配空值；数值按数值比较（1与1.0相等），
+     * 其余按转换器（或toString）得到的文本与单元格比较
+     */
+    public ToonQuery where(String path, Object value) {
+        checkPath(path);
+        return with(new Condition(path, value, null, null, true));
+    }
+
+    /**
+     * 范围条件（闭区间）：边界为null表示不限，两个边界须同为数值或同为字符串，
+     * 字符串按字典序比较；单元格为空的行不满足条件
+     */
+    public ToonQuery whereBetween(String path, Object min, Object max) {
+        checkPath(path);
+        if (min == null && max == null) {
+            throw new IllegalArgumentException("范围条件至少需要一个边界");
+        }
+        boolean numeric = (min == null || min instanceof Number) && (max == null || max instanceof Number);
+        boolean text = (min == null || min instanceof String) && (max == null || max instanceof String);
+        if (!numeric && !text) {
+            throw new IllegalArgumentException("范围条件的边界须同为数值或同为字符串");
+        }
+        return with(new Condition(path, null, min, max, false));
+    }
+
+    private ToonQuery with(Condition condition) {
+        List<Condition> next = new ArrayList<>(conditions);
+        next.add(condition);
+        return new ToonQuery(paths, Collections.unmodifiableList(next));
+    }
+
+    private static void checkPath(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("列路径不能为空");
+        }
+    }
+
+    List<Condition> conditions() {
+        return conditions;
+    }
+
+    // 列（完整路径）的投影范围：本身或其上层对象被投影为FULL，只有子列被投影为PARTIAL
+    int coverage(String path) {
+        if (paths == null || paths.contains(path)) {
+            return FULL;
+        }
+        for (int dot = path.indexOf('.'); dot > 0; dot = path.indexOf('.', dot + 1)) {
+            if (paths.contains(path.substring(0, dot))) {
+                return FULL;
+            }
+        }
+        for (String selected : paths) {
+            if (selected.length() > path.length() && selected.startsWith(path)
+                    && selected.charAt(path.length()) == '.') {
+                return PARTIAL;
+            }
+        }
+        return NONE;
+    }
+
+    // 一个行条件：等值（value）或范围（min、max）
+    static final class Condition {
+        final String path;
+        final Object value;
+        final Object min;
+        final Object max;
+        final boolean equality;
+
+        Condition(String path, Object value, Object min, Object max, boolean equality) {
+            this.path = path;
+            this.value = value;
+            this.min = min;
+            this.max = max;
+            this.equality = equality;
+        }
+    }
+}
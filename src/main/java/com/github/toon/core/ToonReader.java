@@ -0,0 +1,783 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonFormatException;
+import com.github.toon.exception.ToonIOException;
+import com.github.toon.exception.ToonTypeConvertException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 拉取式事件读取器：以固定大小的缓冲区从Reader读取，逐个返回结构事件，
+ * 不构建对象也不持有完整文本，适合按行过滤、聚合超大的TOON导出文件。
+ * 转义规则与序列化器一致（ToonSyntax），值的文本在返回前已还原。
+ * 非线程安全。
+ *
+ * <pre>
+ * try (ToonReader reader = new ToonReader(Files.newBufferedReader(path))) {
+ *     for (ToonReader.Event e = reader.next(); e != ToonReader.Event.END_DOCUMENT; e = reader.next()) {
+ *         if (e == ToonReader.Event.VALUE &amp;&amp; "amount".equals(reader.getColumn().getPath())) {
+ *             total += reader.getLong();
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+public final class ToonReader implements Closeable {
+    public enum Event {
+        HEADER,       // 集合头部 name(N){...}:，见 getHeader()
+        ROW_START,    // 数据行开始
+        VALUE,        // 单元格值，见 getText()/getInt() 等
+        GROUP_START,  // 括号组开始（嵌套对象或嵌套集合）
+        GROUP_END,    // 括号组结束
+        ROW_END,      // 数据行结束
+        OBJECT_START, // 单对象头部 name{...}:
+        FIELD,        // 单对象字段行 name: value
+        OBJECT_END,   // 单对象结束（缩进回退）
+        END_DOCUMENT  // 文档结束，之后重复返回
+    }
+
+    private enum State {
+        DOCUMENT_START, LINE, CELL, AFTER_CELL, DONE
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    private final Reader in;
+    private final char[] buf;
+    private final ToonSession session; // schema声明登记表，头部引用 name(N)<Id>: 由此还原列
+    private Map<String, List<String>> dictionaries; // 已读取、尚未被集合头部认领的列字典声明
+    private int pos;
+    private int limit;
+    private long consumed; // 已移出缓冲区的字符数，用于错误定位
+    private boolean eof;
+
+    private State state = State.DOCUMENT_START;
+    private Event event;
+
+    // 当前事件的数据
+    private String name;
+    private ToonHeader header;
+    private ToonHeader.Column column;
+    private char[] text = new char[64];
+    private int textLength;
+    private boolean nullValue;
+    private int anchor;
+
+    // 行结构：对象块（字段层级）与表格块（数据行缩进）
+    private Block[] blocks = new Block[8];
+    private int blockCount;
+    private int lineIndent = -1; // 已读取但尚未处理的行缩进
+    private int pendingSpaces; // 超出行缩进的空格，属于首个单元格
+
+    // 行内括号组：每层对应的列（集合组为null）及当前列序号
+    @SuppressWarnings("unchecked")
+    private List<ToonHeader.Column>[] frameColumns = new List[8];
+    private int[] frameIndex = new int[8];
+    private int depth;
+    private boolean groupOpened; // 刚进入括号组，尚未读取单元格
+
+    public ToonReader(Reader in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ToonReader(Reader in, int bufferSize) {
+        this(in, bufferSize, new ToonSession());
+    }
+
+    // 与多轮对话共享会话，头部可引用此前文档中声明的schema
+    public ToonReader(Reader in, ToonSession session) {
+        this(in, DEFAULT_BUFFER_SIZE, session);
+    }
+
+    public ToonReader(Reader in, int bufferSize, ToonSession session) {
+        if (session == null) {
+            throw new IllegalArgumentException("session不能为null");
+        }
+        this.in = in;
+        this.buf = new char[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+        this.session = session;
+    }
+
+    // 读取下一个事件
+    public Event next() throws ToonException {
+        switch (state) {
+            case DOCUMENT_START:
+                event = readDocumentStart();
+                break;
+            case LINE:
+                event = readLine();
+                break;
+            case CELL:
+                event = readCell();
+                break;
+            case AFTER_CELL:
+                event = readAfterCell();
+                break;
+            default:
+                event = Event.END_DOCUMENT;
+        }
+        return event;
+    }
+
+    // 跳过当前数据行的剩余内容（不产生事件，包括ROW_END），用于按行过滤
+    public void skipRow() throws ToonException {
+        if (state != State.CELL && state != State.AFTER_CELL) {
+            throw error("当前不在数据行内");
+        }
+        while (ensure()) {
+            char c = buf[pos];
+            if (c == ToonSyntax.ESCAPE) {
+                pos++;
+                if (ensure()) {
+                    pos++;
+                }
+                continue;
+            }
+            if (ToonSyntax.isLineEnd(c)) {
+                break;
+            }
+            pos++;
+            if (c == ToonSyntax.ROW_END) {
+                break;
+            }
+        }
+        depth = 0;
+        state = State.LINE;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    // HEADER / OBJECT_START / FIELD 的名称
+    public String getName() {
+        return name;
+    }
+
+    // 当前集合头部（HEADER及其后的数据行中有效）
+    public ToonHeader getHeader() {
+        return header;
+    }
+
+    // 当前单元格对应的列（VALUE、GROUP_START、GROUP_END中有效），集合元素为null
+    public ToonHeader.Column getColumn() {
+        return column;
+    }
+
+    // 当前括号组嵌套深度（行顶层为0）
+    public int getDepth() {
+        return depth;
+    }
+
+    // OBJECT_START / GROUP_START 的锚点编号（身份去重文档中的 name&N{ 与 &N(），没有时为0；
+    // 引用 *N 以 FIELD / VALUE 文本给出
+    public int getAnchor() {
+        return anchor;
+    }
+
+    // 空单元格与 "name: null" 视为null，与反序列化器一致
+    public boolean isNull() {
+        return nullValue;
+    }
+
+    // VALUE / FIELD 的文本（已还原转义），null值返回null
+    public String getText() {
+        return nullValue ? null : new String(text, 0, textLength);
+    }
+
+    // 不创建String地比较当前文本
+    public boolean textEquals(String value) {
+        return !nullValue && textIs(value);
+    }
+
+    private boolean textIs(String value) {
+        if (value.length() != textLength) {
+            return false;
+        }
+        for (int i = 0; i < textLength; i++) {
+            if (text[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getInt() throws ToonTypeConvertException {
+        long value = getLong(int.class);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ToonTypeConvertException(valueName(), int.class, getText());
+        }
+        return (int) value;
+    }
+
+    public long getLong() throws ToonTypeConvertException {
+        return getLong(long.class);
+    }
+
+    private long getLong(Class<?> type) throws ToonTypeConvertException {
+        return ToonScanner.parseLong(text, 0, textLength, valueName(), type);
+    }
+
+    // 与反序列化相同经由 NumberCodec 解析，常见的小数不创建中间字符串
+    public double getDouble() throws ToonTypeConvertException {
+        try {
+            return NumberCodec.parseDouble(text, 0, textLength);
+        } catch (NumberFormatException e) {
+            throw new ToonTypeConvertException(valueName(), double.class, getText());
+        }
+    }
+
+    public boolean getBoolean() throws ToonTypeConvertException {
+        if (textEquals("true")) {
+            return true;
+        }
+        if (textEquals("false")) {
+            return false;
+        }
+        throw new ToonTypeConvertException(valueName(), boolean.class, getText());
+    }
+
+    private String valueName() {
+        if (event == Event.FIELD) {
+            return name;
+        }
+        return column != null ? column.getPath() : "";
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ---------------- 文档与行 ----------------
+
+    private Event readDocumentStart() throws ToonException {
+        while (ensure() && Character.isWhitespace(buf[pos])) {
+            pos++;
+        }
+        while (ensure() && buf[pos] == '@') {
+            readDeclaration();
+            while (ensure() && Character.isWhitespace(buf[pos])) {
+                pos++;
+            }
+        }
+        if (!ensure()) {
+            state = State.DONE;
+            return Event.END_DOCUMENT;
+        }
+        state = State.LINE;
+        return readEntry(0, true);
+    }
+
+    /**
+     * 读取名称开头的一行：name: value / name{...}: / name(N){...}:
+     * level为该行所在层级，其下的字段位于 level+1，数据行缩进为 (level+1)*2
+     */
+    private Event readEntry(int level, boolean root) throws ToonException {
+        name = readName();
+        anchor = 0;
+        int mark = name.indexOf(ToonSyntax.ANCHOR_DEFINE);
+        if (mark > 0) {
+            anchor = parseAnchor(name, mark + 1);
+            name = name.substring(0, mark);
+        }
+        char c = buf[pos];
+        if (c == ':') {
+            pos++;
+            if (ensure() && buf[pos] == ' ') {
+                pos++;
+            }
+            readLineValue();
+            return Event.FIELD;
+        }
+        if (c == '{') {
+            skipToLineEnd();
+            pushBlock(false, level + 1, false, null);
+            return Event.OBJECT_START;
+        }
+        if (c == '(') {
+            header = readTableHeader(name);
+            pushBlock(true, (level + 1) * 2, root, header);
+            return Event.HEADER;
+        }
+        throw error("无法识别的行");
+    }
+
+    private Event readLine() throws ToonException {
+        while (true) {
+            int indent = lineIndent >= 0 ? lineIndent : readIndent();
+            lineIndent = indent;
+            if (indent < 0) {
+                // 文本结束：依次关闭未结束的对象
+                if (blockCount > 0) {
+                    Block block = blocks[--blockCount];
+                    if (!block.table) {
+                        return Event.OBJECT_END;
+                    }
+                    continue;
+                }
+                state = State.DONE;
+                return Event.END_DOCUMENT;
+            }
+            if (blockCount == 0) {
+                // 根内容之后的多余行
+                skipToLineEnd();
+                lineIndent = -1;
+                continue;
+            }
+            Block top = blocks[blockCount - 1];
+            if (top.table) {
+                if (top.lenient && indent == 0 && buf[pos] == '@' && top.header.isCountDeferred()) {
+                    lineIndent = -1;
+                    readRowCountTrailer(top.rows); // 表尾行数行不产生事件
+                    blockCount--;
+                    continue;
+                }
+                if (indent >= top.indent || top.lenient) {
+                    top.rows++;
+                    lineIndent = -1;
+                    pendingSpaces = Math.max(0, indent - top.indent);
+                    header = top.header;
+                    startRow();
+                    return Event.ROW_START;
+                }
+                blockCount--; // 表格结束，本行交给外层处理
+                continue;
+            }
+            // 空集合后不换行时多出1个空格，按层级取整即可
+            int level = indent / 2;
+            if (level < top.indent) {
+                blockCount--;
+                return Event.OBJECT_END;
+            }
+            lineIndent = -1;
+            if (level > top.indent) {
+                skipToLineEnd(); // 无法归属的更深缩进行
+                continue;
+            }
+            if (buf[pos] == '@') {
+                readDeclaration(); // 声明行不产生事件
+                continue;
+            }
+            return readEntry(level, false);
+        }
+    }
+
+    /**
+     * 进入下一个非空行并返回其缩进空格数，没有下一行时返回-1
+     * 当前位置为空格时视为空集合后不换行的同一行（"tags(0){}:   next: 1"）
+     */
+    private int readIndent() throws ToonException {
+        while (ensure()) {
+            char c = buf[pos];
+            if (ToonSyntax.isLineEnd(c)) {
+                pos++;
+            } else if (c != ' ') {
+                skipToLineEnd(); // 行尾残留内容
+                continue;
+            }
+            int count = 0;
+            while (ensure() && buf[pos] == ' ') {
+                pos++;
+                count++;
+            }
+            if (!ensure()) {
+                return -1;
+            }
+            c = buf[pos];
+            if (!ToonSyntax.isLineEnd(c)) {
+                return count;
+            }
+        }
+        return -1;
+    }
+
+    private void pushBlock(boolean table, int indent, boolean lenient, ToonHeader header) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+        }
+        blocks[blockCount++] = new Block(table, indent, lenient, header);
+    }
+
+    // 集合头部：空集合 {}: 之后可能紧跟下一字段，只读到 : 为止；否则读完整行交给 ToonHeader 解析
+    private ToonHeader readTableHeader(String name) throws ToonException {
+        StringBuilder line = new StringBuilder();
+        long start = consumed + pos;
+        char c;
+        do {
+            if (!ensure()) {
+                throw error("头部不完整");
+            }
+            c = buf[pos++];
+            line.append(c);
+        } while (c != '{' && c != ToonSyntax.SCHEMA_REF_START && c != '\n');
+        if (c == '{' && ensure() && buf[pos] == '}') {
+            line.append(buf[pos++]);
+            if (ensure() && buf[pos] == ':') {
+                line.append(buf[pos++]);
+            }
+        } else {
+            while (ensure() && !ToonSyntax.isLineEnd(buf[pos])) {
+                line.append(buf[pos++]);
+            }
+        }
+        char[] chars = new char[line.length()];
+        line.getChars(0, chars.length, chars, 0);
+        ToonScanner scanner = new ToonScanner(chars, 0, chars.length);
+        if (dictionaries != null) {
+            for (Map.Entry<String, List<String>> entry : dictionaries.entrySet()) {
+                scanner.declareDictionary(entry.getKey(), entry.getValue());
+            }
+            dictionaries = null;
+        }
+        try {
+            return ToonHeader.parse(name, scanner, session);
+        } catch (ToonFormatException e) {
+            throw new ToonFormatException("集合头部无效：" + line, (int) start);
+        }
+    }
+
+    // 声明行：schema "@schema Id{...}" 登记到会话，列字典 "@dict path: ..." 暂存到下一个集合头部
+    private void readDeclaration() throws ToonException {
+        StringBuilder line = new StringBuilder();
+        long start = consumed + pos;
+        while (ensure() && !ToonSyntax.isLineEnd(buf[pos])) {
+            line.append(buf[pos++]);
+        }
+        char[] chars = new char[line.length()];
+        line.getChars(0, chars.length, chars, 0);
+        ToonScanner scanner = new ToonScanner(chars, 0, chars.length);
+        try {
+            ToonHeader.parseDeclaration(scanner, session);
+        } catch (ToonFormatException e) {
+            throw new ToonFormatException("声明行无效：" + line, (int) start);
+        }
+        Map<String, List<String>> declared = scanner.takeDictionaries();
+        if (declared != null) {
+            if (dictionaries == null) {
+                dictionaries = declared;
+            } else {
+                dictionaries.putAll(declared);
+            }
+        }
+    }
+
+    // 表尾行数行 "@count N"：读完整行并与已读取的数据行数核对
+    private void readRowCountTrailer(int rows) throws ToonException {
+        StringBuilder line = new StringBuilder();
+        long start = consumed + pos;
+        while (ensure() && !ToonSyntax.isLineEnd(buf[pos])) {
+            line.append(buf[pos++]);
+        }
+        char[] chars = new char[line.length()];
+        line.getChars(0, chars.length, chars, 0);
+        int count;
+        try {
+            count = ToonHeader.parseRowCountTrailer(new ToonScanner(chars, 0, chars.length));
+        } catch (ToonFormatException e) {
+            throw new ToonFormatException("表尾行数无效：" + line, (int) start);
+        }
+        if (count != rows) {
+            throw new ToonFormatException("表尾行数" + count + "与数据行数" + rows + "不一致", (int) start);
+        }
+    }
+
+    private int parseAnchor(String text, int start) throws ToonFormatException {
+        long value = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isDigit(c) || (value = value * 10 + (c - '0')) > Integer.MAX_VALUE) {
+                throw error("锚点无效：" + text);
+            }
+        }
+        if (value == 0) {
+            throw error("锚点无效：" + text);
+        }
+        return (int) value;
+    }
+
+    private String readName() throws ToonException {
+        StringBuilder builder = new StringBuilder();
+        while (ensure()) {
+            char c = buf[pos];
+            if (c == '(' || c == '{' || c == ':' || ToonSyntax.isLineEnd(c)) {
+                break;
+            }
+            builder.append(c);
+            pos++;
+        }
+        if (builder.length() == 0 || !ensure()) {
+            throw error("缺少名称");
+        }
+        return builder.toString();
+    }
+
+    private void skipToLineEnd() throws ToonException {
+        while (ensure() && !ToonSyntax.isLineEnd(buf[pos])) {
+            pos++;
+        }
+    }
+
+    // ---------------- 数据行 ----------------
+
+    private void startRow() {
+        depth = 0;
+        frameColumns[0] = header.getColumns();
+        frameIndex[0] = 0;
+        groupOpened = false;
+        state = State.CELL;
+    }
+
+    private Event readCell() throws ToonException {
+        if (!ensure()) {
+            return endRow(); // 末行缺少 ; 时宽松处理
+        }
+        char c = buf[pos];
+        ToonHeader.Column owner = currentColumn();
+        anchor = 0;
+        boolean prefixRead = false; // 单元格开头的 &N 已读入文本
+        if (c == ToonSyntax.ANCHOR_DEFINE && pendingSpaces == 0 && (owner == null || owner.isObject())) {
+            if (readCellAnchor()) {
+                c = ToonSyntax.GROUP_START;
+            } else {
+                prefixRead = true;
+            }
+        }
+        if (c == ToonSyntax.GROUP_START) {
+            pos++;
+            pendingSpaces = 0;
+            pushFrame(owner != null && owner.isObject() ? owner.getChildren() : null);
+            column = owner;
+            groupOpened = true;
+            return Event.GROUP_START;
+        }
+        if (c == ToonSyntax.GROUP_END && depth > 0 && groupOpened) {
+            // 空括号组 ()
+            pos++;
+            groupOpened = false;
+            depth--;
+            column = currentColumn();
+            state = State.AFTER_CELL;
+            return Event.GROUP_END;
+        }
+        groupOpened = false;
+        column = owner;
+        if (!prefixRead) {
+            textLength = 0;
+        }
+        readCellValue(depth > 0);
+        if (owner != null && !nullValue && owner.isDictionaryEncoded()) {
+            decodeDictionaryCell(owner);
+        }
+        state = State.AFTER_CELL;
+        return Event.VALUE;
+    }
+
+    /**
+     * 读取 &N 后若紧跟 ( 则为带锚点的括号组，停在 ( 上并返回true；
+     * 否则已读的字符保留为单元格文本的开头
+     */
+    private boolean readCellAnchor() throws ToonException {
+        textLength = 0;
+        appendText(buf[pos++]);
+        long value = 0;
+        while (ensure() && Character.isDigit(buf[pos]) && value <= Integer.MAX_VALUE) {
+            value = value * 10 + (buf[pos] - '0');
+            appendText(buf[pos++]);
+        }
+        if (value > 0 && value <= Integer.MAX_VALUE && ensure() && buf[pos] == ToonSyntax.GROUP_START) {
+            anchor = (int) value;
+            textLength = 0;
+            return true;
+        }
+        return false;
+    }
+
+    // 字典编码列：单元格中的下标替换为字典取值
+    private void decodeDictionaryCell(ToonHeader.Column owner) throws ToonException {
+        List<String> dictionary = owner.getDictionary();
+        long code = ToonScanner.parseLong(text, 0, textLength, owner.getPath(), int.class);
+        if (code < 0 || code >= dictionary.size()) {
+            throw error("字典下标超出范围：" + code);
+        }
+        String value = dictionary.get((int) code);
+        textLength = 0;
+        for (int i = 0; i < value.length(); i++) {
+            appendText(value.charAt(i));
+        }
+    }
+
+    private Event readAfterCell() throws ToonException {
+        if (!ensure()) {
+            return endRow();
+        }
+        char c = buf[pos];
+        if (c == ToonSyntax.SEPARATOR) {
+            pos++;
+            frameIndex[depth]++;
+            state = State.CELL;
+            return readCell();
+        }
+        if (c == ToonSyntax.GROUP_END && depth > 0) {
+            pos++;
+            depth--;
+            column = currentColumn();
+            return Event.GROUP_END;
+        }
+        if (c == ToonSyntax.ROW_END) {
+            pos++;
+            return endRow();
+        }
+        if (ToonSyntax.isLineEnd(c)) {
+            return endRow();
+        }
+        throw error("此处应为'" + ToonSyntax.ROW_END + "'");
+    }
+
+    private Event endRow() throws ToonException {
+        if (depth > 0) {
+            throw error("括号未闭合");
+        }
+        column = null;
+        state = State.LINE;
+        return Event.ROW_END;
+    }
+
+    private ToonHeader.Column currentColumn() {
+        List<ToonHeader.Column> columns = frameColumns[depth];
+        int index = frameIndex[depth];
+        return columns != null && index < columns.size() ? columns.get(index) : null;
+    }
+
+    private void pushFrame(List<ToonHeader.Column> columns) {
+        depth++;
+        if (depth == frameIndex.length) {
+            frameColumns = Arrays.copyOf(frameColumns, depth * 2);
+            frameIndex = Arrays.copyOf(frameIndex, depth * 2);
+        }
+        frameColumns[depth] = columns;
+        frameIndex[depth] = 0;
+    }
+
+    /**
+     * 读取一个单元格并还原转义（接在text已有内容之后），停在分隔符上；缓冲区内连续的普通字符整段复制
+     * 行内以 , ; 换行 结束，括号组内还以 ) 结束
+     */
+    private void readCellValue(boolean inGroup) throws ToonException {
+        for (; pendingSpaces > 0; pendingSpaces--) {
+            appendText(' ');
+        }
+        while (ensure()) {
+            int start = pos;
+            char c = 0;
+            while (pos < limit) {
+                c = buf[pos];
+                if (c == ToonSyntax.ESCAPE || c == ToonSyntax.SEPARATOR || c == ToonSyntax.ROW_END
+                        || ToonSyntax.isLineEnd(c) || (inGroup && c == ToonSyntax.GROUP_END)) {
+                    break;
+                }
+                pos++;
+            }
+            appendText(buf, start, pos - start);
+            if (pos == limit) {
+                continue; // 跨越缓冲区边界
+            }
+            if (c != ToonSyntax.ESCAPE) {
+                break;
+            }
+            pos++;
+            if (ensure()) {
+                appendText(ToonSyntax.unescape(buf[pos++]));
+            }
+        }
+        nullValue = textLength == 0;
+    }
+
+    // 单对象字段值：读到行尾，"null" 表示null
+    private void readLineValue() throws ToonException {
+        textLength = 0;
+        while (ensure()) {
+            char c = buf[pos];
+            if (ToonSyntax.isLineEnd(c)) {
+                break;
+            }
+            pos++;
+            if (c == ToonSyntax.ESCAPE && ensure()) {
+                c = ToonSyntax.unescape(buf[pos++]);
+            }
+            appendText(c);
+        }
+        nullValue = textIs(ToonSyntax.NULL_VALUE);
+    }
+
+    private void appendText(char c) {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, textLength * 2);
+        }
+        text[textLength++] = c;
+    }
+
+    private void appendText(char[] chars, int start, int length) {
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+        }
+        System.arraycopy(chars, start, text, textLength, length);
+        textLength += length;
+    }
+
+    // ---------------- 缓冲区 ----------------
+
+    // 保证当前位置有可读字符，文本结束时返回false
+    private boolean ensure() throws ToonIOException {
+        if (pos < limit) {
+            return true;
+        }
+        if (eof) {
+            return false;
+        }
+        try {
+            consumed += limit;
+            pos = 0;
+            limit = 0;
+            int n;
+            do {
+                n = in.read(buf, 0, buf.length);
+            } while (n == 0);
+            if (n < 0) {
+                eof = true;
+                return false;
+            }
+            limit = n;
+            return true;
+        } catch (IOException e) {
+            throw new ToonIOException("读取输入失败", e);
+        }
+    }
+
+    private ToonFormatException error(String message) {
+        return new ToonFormatException(message, (int) Math.min(consumed + pos, Integer.MAX_VALUE));
+    }
+
+    // 行结构块：对象块记录字段层级，表格块记录数据行缩进
+    private static final class Block {
+        final boolean table;
+        final int indent;
+        final boolean lenient; // 顶层表格接受任意缩进的数据行
+        final ToonHeader header;
+        int rows; // 已读取的数据行数
+
+        Block(boolean table, int indent, boolean lenient, ToonHeader header) {
+            this.table = table;
+            this.indent = indent;
+            this.lenient = lenient;
+            this.header = header;
+        }
+    }
+}
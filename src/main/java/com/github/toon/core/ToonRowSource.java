@@ -0,0 +1,41 @@
+package com.github.toon.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 行数未知的数据源（JDBC游标、分页接口等），按需拉取：
+ * 序列化器每次以 next(demand) 请求至多demand行，上一批编码并写出后才请求下一批，
+ * 因此数据源不会超前产生数据。返回空列表表示数据已取完。
+ * 结束（包括失败）时序列化器调用一次 close()，可在此关闭游标。
+ */
+public interface ToonRowSource<T> {
+
+    // 请求下一批至多demand行，可异步完成；空列表表示结束
+    CompletionStage<List<T>> next(int demand);
+
+    default void close() {
+    }
+
+    // 同步迭代器的适配：每批在调用线程上取出
+    static <T> ToonRowSource<T> of(Iterator<? extends T> iterator) {
+        return demand -> {
+            if (!iterator.hasNext()) {
+                return CompletableFuture.completedFuture(Collections.emptyList());
+            }
+            List<T> rows = new ArrayList<>(Math.min(demand, 1024));
+            while (rows.size() < demand && iterator.hasNext()) {
+                rows.add(iterator.next());
+            }
+            return CompletableFuture.completedFuture(rows);
+        };
+    }
+
+    static <T> ToonRowSource<T> of(Iterable<? extends T> rows) {
+        return of(rows.iterator());
+    }
+}
@@ -0,0 +1,390 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonFormatException;
+import com.github.toon.exception.ToonTypeConvertException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单遍字符扫描器：直接在字符数组上定位单元格边界，
+ * 只有确实需要字符串时才创建String（含转义时借助复用的缓冲区还原）。
+ * 非线程安全，每次解析各自创建。
+ */
+final class ToonScanner {
+    final char[] buf;
+    final int end;
+    int pos;
+
+    // 最近一次 scanCell 的结果
+    int cellStart;
+    int cellEnd;
+    boolean cellEscaped;
+
+    private StringBuilder scratch;
+    private AnchorTable anchors;
+    private Map<String, List<String>> dictionaries; // 已读取、尚未被头部认领的字典声明
+
+    ToonScanner(char[] buf, int start, int end) {
+        this.buf = buf;
+        this.pos = start;
+        this.end = end;
+    }
+
+    // 与其他扫描器共用锚点表（同一文档按顺序分块解析时）
+    ToonScanner(char[] buf, int start, int end, AnchorTable anchors) {
+        this(buf, start, end);
+        this.anchors = anchors;
+    }
+
+    AnchorTable anchors() {
+        if (anchors == null) {
+            anchors = new AnchorTable();
+        }
+        return anchors;
+    }
+
+    void declareDictionary(String path, List<String> entries) {
+        if (dictionaries == null) {
+            dictionaries = new HashMap<>();
+        }
+        dictionaries.put(path, entries);
+    }
+
+    // 取出并清空暂存的字典声明，没有时返回null
+    Map<String, List<String>> takeDictionaries() {
+        Map<String, List<String>> result = dictionaries;
+        dictionaries = null;
+        return result;
+    }
+
+    // 读取锚点编号：当前位置为 &N 或 *N 的首字符，结束时停在数字之后
+    int readAnchor() throws ToonFormatException {
+        pos++;
+        int start = pos;
+        int anchor = 0;
+        while (pos < end && Character.isDigit(buf[pos])) {
+            if (anchor > (Integer.MAX_VALUE - 9) / 10) {
+                throw error("锚点编号超出范围");
+            }
+            anchor = anchor * 10 + (buf[pos++] - '0');
+        }
+        if (pos == start || anchor == 0) {
+            throw error("锚点编号无效");
+        }
+        return anchor;
+    }
+
+    // 当前位置是否为带锚点的括号组 &N(
+    boolean atAnchoredGroup() {
+        if (!peekIs(ToonSyntax.ANCHOR_DEFINE)) {
+            return false;
+        }
+        int i = pos + 1;
+        while (i < end && Character.isDigit(buf[i])) {
+            i++;
+        }
+        return i > pos + 1 && i < end && buf[i] == ToonSyntax.GROUP_START;
+    }
+
+    boolean atEnd() {
+        return pos >= end;
+    }
+
+    char peek() {
+        return pos < end ? buf[pos] : '\0';
+    }
+
+    boolean peekIs(char c) {
+        return pos < end && buf[pos] == c;
+    }
+
+    void expect(char c) throws ToonFormatException {
+        if (pos >= end || buf[pos] != c) {
+            throw error("此处应为'" + c + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * 扫描一个值单元格，停在分隔符上（不消费分隔符）
+     * 行内以 , ; 换行 结束，括号组内还以 ) 结束
+     */
+    void scanCell(boolean inGroup) {
+        int i = pos;
+        boolean escaped = false;
+        while (i < end) {
+            char c = buf[i];
+            if (c == ToonSyntax.ESCAPE) {
+                escaped = true;
+                i += 2;
+                continue;
+            }
+            if (c == ToonSyntax.SEPARATOR || c == ToonSyntax.ROW_END || ToonSyntax.isLineEnd(c)
+                    || (inGroup && c == ToonSyntax.GROUP_END)) {
+                break;
+            }
+            i++;
+        }
+        if (i > end) {
+            i = end; // 末尾孤立的反斜杠
+        }
+        cellStart = pos;
+        cellEnd = i;
+        cellEscaped = escaped;
+        pos = i;
+    }
+
+    // 扫描到行尾（单对象格式的字段值）
+    void scanToLineEnd() {
+        int i = pos;
+        boolean escaped = false;
+        while (i < end && buf[i] != '\n') {
+            if (buf[i] == ToonSyntax.ESCAPE) {
+                escaped = true;
+                i++;
+            }
+            i++;
+        }
+        if (i > end) {
+            i = end;
+        }
+        cellStart = pos;
+        cellEnd = i > pos && buf[i - 1] == '\r' ? i - 1 : i; // 兼容CRLF换行
+        cellEscaped = escaped;
+        pos = i;
+    }
+
+    boolean cellEmpty() {
+        return cellStart == cellEnd;
+    }
+
+    boolean cellEquals(String text) {
+        int length = cellEnd - cellStart;
+        if (cellEscaped || length != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf[cellStart + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 单元格内容（已还原转义）
+    String cellString() {
+        if (!cellEscaped) {
+            return new String(buf, cellStart, cellEnd - cellStart);
+        }
+        StringBuilder builder = scratch;
+        if (builder == null) {
+            builder = new StringBuilder(Math.max(16, cellEnd - cellStart));
+            scratch = builder;
+        } else {
+            builder.setLength(0);
+        }
+        for (int i = cellStart; i < cellEnd; i++) {
+            char c = buf[i];
+            if (c == ToonSyntax.ESCAPE && i + 1 < cellEnd) {
+                builder.append(ToonSyntax.unescape(buf[++i]));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    char cellChar(String fieldName, Class<?> type) throws ToonTypeConvertException {
+        int length = cellEnd - cellStart;
+        if (length == 1 && !cellEscaped) {
+            return buf[cellStart];
+        }
+        if (length == 2 && cellEscaped) {
+            return ToonSyntax.unescape(buf[cellStart + 1]);
+        }
+        throw new ToonTypeConvertException(fieldName, type, cellString());
+    }
+
+    // 直接从字符区间解析整数，不创建中间字符串
+    long cellLong(String fieldName, Class<?> type) throws ToonTypeConvertException {
+        if (cellEscaped) {
+            throw new ToonTypeConvertException(fieldName, type, cellString());
+        }
+        return parseLong(buf, cellStart, cellEnd, fieldName, type);
+    }
+
+    static long parseLong(char[] buf, int start, int end, String fieldName, Class<?> type) throws ToonTypeConvertException {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw new ToonTypeConvertException(fieldName, type, new String(buf, start, end - start));
+        }
+        // 以负数累加，可以正确表示 Long.MIN_VALUE
+        long result = 0;
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyMin = limit / 10;
+        for (; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9 || result < multiplyMin) {
+                throw new ToonTypeConvertException(fieldName, type, new String(buf, start, end - start));
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw new ToonTypeConvertException(fieldName, type, new String(buf, start, end - start));
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    // 单元格是否为可按long解析的整数（不超过18位，不会溢出）
+    boolean cellIntegral() {
+        int i = cellStart;
+        if (i < cellEnd && (buf[i] == '-' || buf[i] == '+')) {
+            i++;
+        }
+        if (cellEscaped || i == cellEnd || cellEnd - i > 18) {
+            return false;
+        }
+        for (; i < cellEnd; i++) {
+            if (buf[i] < '0' || buf[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int cellInt(String fieldName, Class<?> type, int min, int max) throws ToonTypeConvertException {
+        long value = cellLong(fieldName, type);
+        if (value < min || value > max) {
+            throw new ToonTypeConvertException(fieldName, type, cellString());
+        }
+        return (int) value;
+    }
+
+    // 常见的小数直接从字符区间解析（见 NumberCodec），其余与 Double.parseDouble 相同
+    double cellDouble(String fieldName, Class<?> type) throws ToonTypeConvertException {
+        try {
+            return cellEscaped ? Double.parseDouble(cellString()) : NumberCodec.parseDouble(buf, cellStart, cellEnd);
+        } catch (NumberFormatException e) {
+            throw new ToonTypeConvertException(fieldName, type, cellString());
+        }
+    }
+
+    float cellFloat(String fieldName, Class<?> type) throws ToonTypeConvertException {
+        try {
+            return cellEscaped ? Float.parseFloat(cellString()) : NumberCodec.parseFloat(buf, cellStart, cellEnd);
+        } catch (NumberFormatException e) {
+            throw new ToonTypeConvertException(fieldName, type, cellString());
+        }
+    }
+
+    boolean cellBoolean(String fieldName, Class<?> type) throws ToonTypeConvertException {
+        if (cellEquals("true")) {
+            return true;
+        }
+        if (cellEquals("false")) {
+            return false;
+        }
+        throw new ToonTypeConvertException(fieldName, type, cellString());
+    }
+
+    // 跳过一个括号组（含嵌套括号与转义字符），当前位置须为 (
+    void skipGroup() throws ToonFormatException {
+        int depth = 0;
+        while (pos < end) {
+            char c = buf[pos++];
+            if (c == ToonSyntax.ESCAPE) {
+                pos++;
+            } else if (c == ToonSyntax.GROUP_START) {
+                depth++;
+            } else if (c == ToonSyntax.GROUP_END) {
+                if (--depth == 0) {
+                    return;
+                }
+            } else if (c == '\n') {
+                break;
+            }
+        }
+        throw error("括号未闭合");
+    }
+
+    // 跳过一个未绑定的单元格：以 ( 或 &N( 开头时按括号组跳过
+    void skipCell(boolean inGroup) throws ToonFormatException {
+        if (atAnchoredGroup()) {
+            readAnchor();
+            skipGroup();
+        } else if (peekIs(ToonSyntax.GROUP_START)) {
+            skipGroup();
+        } else {
+            scanCell(inGroup);
+        }
+    }
+
+    // 跳过本行剩余内容
+    void skipLine() {
+        while (pos < end && buf[pos] != '\n') {
+            pos++;
+        }
+        if (pos > 0 && pos <= end && buf[pos - 1] == '\r') {
+            pos--;
+        }
+    }
+
+    // 是否位于行尾（换行或文本结束）
+    boolean atLineEnd() {
+        return pos >= end || ToonSyntax.isLineEnd(buf[pos]);
+    }
+
+    /**
+     * 进入下一行，返回行首缩进的空格数；没有下一行时返回-1
+     * 兼容空集合后不换行的旧格式（"tags(0){}:   next: 1"），此时当前位置直接视为行首
+     */
+    int nextLine() {
+        if (pos >= end) {
+            return -1;
+        }
+        if (buf[pos] == '\r' && pos + 1 < end && buf[pos + 1] == '\n') {
+            pos++; // 兼容CRLF换行
+        }
+        if (buf[pos] == '\n') {
+            pos++;
+        } else if (buf[pos] != ' ') {
+            return -1;
+        }
+        int start = pos;
+        while (pos < end && buf[pos] == ' ') {
+            pos++;
+        }
+        if (pos >= end) {
+            return -1;
+        }
+        return pos - start;
+    }
+
+    // 读取名称（字段名或根名称），停在 ( { : 或行尾
+    String readName() throws ToonFormatException {
+        int start = pos;
+        while (pos < end) {
+            char c = buf[pos];
+            if (c == '(' || c == '{' || c == ':' || ToonSyntax.isLineEnd(c)) {
+                break;
+            }
+            pos++;
+        }
+        if (pos == start) {
+            throw error("缺少名称");
+        }
+        return new String(buf, start, pos - start);
+    }
+
+    ToonFormatException error(String message) {
+        return new ToonFormatException(message, pos);
+    }
+}
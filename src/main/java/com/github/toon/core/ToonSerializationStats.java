@@ -0,0 +1,63 @@
+package com.github.toon.core;
+
+/**
+ * 单次序列化调用的统计：耗时、输出字符数、数据行数、最大嵌套深度与转义字符数
+ */
+public final class ToonSerializationStats {
+    private final String rootName;
+    private final Class<?> rootType;
+    private final long durationNanos;
+    private final long outputChars;
+    private final long rows;
+    private final int maxDepth;
+    private final long escapedChars;
+
+    ToonSerializationStats(String rootName, Class<?> rootType, long durationNanos, long outputChars,
+                           long rows, int maxDepth, long escapedChars) {
+        this.rootName = rootName;
+        this.rootType = rootType;
+        this.durationNanos = durationNanos;
+        this.outputChars = outputChars;
+        this.rows = rows;
+        this.maxDepth = maxDepth;
+        this.escapedChars = escapedChars;
+    }
+
+    public String getRootName() {
+        return rootName;
+    }
+
+    // 根数据的类型（集合时为集合类型）
+    public Class<?> getRootType() {
+        return rootType;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getOutputChars() {
+        return outputChars;
+    }
+
+    // 所有表格（含单对象中的嵌套集合）的数据行数之和
+    public long getRows() {
+        return rows;
+    }
+
+    // 最大嵌套深度：根为1，每层缩进块或行内括号组加1
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    // 写出时被转义的特殊字符数
+    public long getEscapedChars() {
+        return escapedChars;
+    }
+
+    @Override
+    public String toString() {
+        return rootName + "{durationNanos=" + durationNanos + ", outputChars=" + outputChars + ", rows=" + rows
+                + ", maxDepth=" + maxDepth + ", escapedChars=" + escapedChars + "}";
+    }
+}
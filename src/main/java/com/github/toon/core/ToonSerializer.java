@@ -1,9 +1,37 @@
 package com.github.toon.core;
 
 import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonIOException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 public interface ToonSerializer {
     String serialize(String rootName, Object data) throws ToonException;
-}
 
+    // 写出到Appendable（Writer/StringBuilder等），默认实现先整体序列化再写出，流式实现应覆盖此方法
+    default void serialize(String rootName, Object data, Appendable out) throws ToonException {
+        try {
+            out.append(serialize(rootName, data));
+        } catch (IOException e) {
+            throw new ToonIOException("写出序列化结果失败", e);
+        }
+    }
 
+    /**
+     * 以UTF-8写出到OutputStream，结束后flush但不关闭流
+     * （不与 serialize(..., Appendable) 重载：PrintStream 同时实现了二者）
+     */
+    default void serializeUtf8(String rootName, Object data, OutputStream out) throws ToonException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        serialize(rootName, data, writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new ToonIOException("刷新输出流失败", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.toon.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 会话级的schema登记表：记录模型在当前会话中已经见过的集合头部。
+ * 序列化时同一类型的头部只以 "@schema Order{...}" 声明一次，之后的集合以 "orders(N)&lt;Order&gt;:" 引用；
+ * 反序列化与读取时登记遇到的声明，用于还原引用。
+ * 线程安全，生命周期与一次多轮对话相同；对话上下文被截断时应调用 reset() 重新声明。
+ */
+public final class ToonSession {
+    private final ConcurrentHashMap<String, String> schemas = new ConcurrentHashMap<>(); // id → 列声明
+
+    // 已声明的schema（id → 列声明文本）
+    public Map<String, String> getSchemas() {
+        return Collections.unmodifiableMap(schemas);
+    }
+
+    public boolean isDeclared(String id) {
+        return schemas.containsKey(id);
+    }
+
+    public void reset() {
+        schemas.clear();
+    }
+
+    /**
+     * 为类型的列声明取得schema id：优先使用简单类名，与已声明的不同头部冲突时改用全限定类名，
+     * 仍冲突时返回null（退回内联头部）
+     */
+    String resolve(Class<?> type, String columns) {
+        String id = type.getSimpleName();
+        if (id.isEmpty() || !matches(id, columns)) {
+            id = type.getName();
+            if (!matches(id, columns)) {
+                return null;
+            }
+        }
+        return id;
+    }
+
+    private boolean matches(String id, String columns) {
+        String declared = schemas.get(id);
+        return declared == null || declared.equals(columns);
+    }
+
+    // 登记声明，首次声明时返回true
+    boolean declare(String id, String columns) {
+        return schemas.putIfAbsent(id, columns) == null;
+    }
+
+    // 读取时登记文档中的声明，同名的新声明覆盖旧声明
+    void register(String id, String columns) {
+        schemas.put(id, columns);
+    }
+
+    String columnsOf(String id) {
+        return schemas.get(id);
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.toon.core;
+
+/**
+ * TOON语法字符与转义规则，序列化与解析共用
+ * 需要转义的字符：\ , ; { } ( ) 换行 回车（换行写为 \n，回车写为 \r，其余写为 \ 加原字符）；
+ * 数据中因此不会出现未转义的 \r，解析时 \r 只作为CRLF行尾的一部分；
+ * 身份去重模式下，字符串开头的 &amp; * 也需转义，避免被读作锚点
+ */
+final class ToonSyntax {
+    static final char ESCAPE = '\\';
+    static final char SEPARATOR = ',';
+    static final char ROW_END = ';';
+    static final char GROUP_START = '(';
+    static final char GROUP_END = ')';
+    static final char NEWLINE_CODE = 'n';
+    static final char CARRIAGE_RETURN_CODE = 'r';
+    static final String OBJECT_MARKER = "[$object]";
+    static final String NULL_VALUE = "null";
+    static final String SCHEMA_DECLARATION = "@schema "; // 会话schema声明行前缀
+    static final char SCHEMA_REF_START = '<';
+    static final char SCHEMA_REF_END = '>';
+    static final char DEFERRED_COUNT = '*'; // 头部行数延后到表尾给出：name(*){...}:
+    static final String ROW_COUNT_TRAILER = "@count "; // 表尾行数行前缀，位于缩进0
+    static final char ANCHOR_DEFINE = '&'; // 身份去重：嵌套对象首次出现 &N(...) / name&N{...}:
+    static final char ANCHOR_REF = '*'; // 身份去重：再次出现 *N
+    static final String DICTIONARY_DECLARATION = "@dict "; // 列字典声明行前缀：@dict path: v0,v1,...
+
+    private ToonSyntax() {}
+
+    static boolean isSpecial(char c) {
+        return c == '\\' || c == ',' || c == ';' || c == '{' || c == '}' || c == '(' || c == ')' || c == '\n'
+                || c == '\r';
+    }
+
+    // 行尾字符：\n 或CRLF中的 \r（数据中的回车已转义，未转义的 \r 只会出现在行尾）
+    static boolean isLineEnd(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    // 锚点标记（身份去重模式下出现在字符串开头时需转义）
+    static boolean isAnchorMark(char c) {
+        return c == ANCHOR_DEFINE || c == ANCHOR_REF;
+    }
+
+    // 转义序列中反斜杠后的字符
+    static char escapeCode(char c) {
+        if (c == '\n') {
+            return NEWLINE_CODE;
+        }
+        return c == '\r' ? CARRIAGE_RETURN_CODE : c;
+    }
+
+    // 反斜杠后的字符还原为原字符
+    static char unescape(char code) {
+        if (code == NEWLINE_CODE) {
+            return '\n';
+        }
+        return code == CARRIAGE_RETURN_CODE ? '\r' : code;
+    }
+}
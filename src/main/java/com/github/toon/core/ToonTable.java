@@ -0,0 +1,304 @@
+package com.github.toon.core;
+
+import com.github.toon.core.TypeBinding.Slot;
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonFormatException;
+import com.github.toon.exception.ToonTypeConvertException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 集合文档的延迟视图：解析时只记录每行顶层单元格在原字符数组中的起止位置，不创建对象也不转换取值，
+ * 读取某个单元格时才定位（嵌套路径如 address.city 在括号组内逐个跳过）、还原转义并转换类型。
+ * 适合只读取宽表中少数几列的场景；反复读取的列可用 memoize 缓存还原后的文本。
+ * 列按头部声明的完整路径查找（与序列化时的集合头部一致）。
+ * 身份去重文档中的 *N 引用不按路径展开；rowAs 只解析同一视图中已读取过的锚点。
+ * 非线程安全，需要并发读取时各线程使用各自的视图。
+ */
+public final class ToonTable {
+    private static final int MISSING = -1; // 行中缺少的单元格
+
+    private final DefaultToonDeserializer deserializer;
+    private final ToonHeader header;
+    private final int width; // 顶层列数
+    private final ToonScanner cursor; // 定位与解析单元格，复用同一扫描器
+    private int[] cells = new int[64]; // 每行每个顶层单元格的 [起始, 结束)
+    private int rows;
+    private final Map<String, ColumnRef> columns = new HashMap<>();
+    private final Map<Class<?>, Slot[]> rowSlots = new HashMap<>();
+
+    /**
+     * 从扫描器当前位置（头部之后）记录数据行，停在文档结束处；
+     * trailer为true时停在缩进为0的 @ 行（表尾行数）之前
+     */
+    ToonTable(DefaultToonDeserializer deserializer, ToonScanner scanner, ToonHeader header, boolean trailer)
+            throws ToonFormatException {
+        this.deserializer = deserializer;
+        this.header = header;
+        this.width = header.getColumns().size();
+        this.cursor = new ToonScanner(scanner.buf, 0, scanner.end);
+        if (width > 0) {
+            cells = new int[Math.max(64, header.presize(1 << 16) * width * 2)];
+        }
+        scan(scanner, trailer);
+    }
+
+    private void scan(ToonScanner scanner, boolean trailer) throws ToonFormatException {
+        while (true) {
+            int mark = scanner.pos;
+            int indent = scanner.nextLine();
+            if (indent < 0) {
+                scanner.pos = mark;
+                return;
+            }
+            if (scanner.atLineEnd()) {
+                continue;
+            }
+            if (trailer && indent == 0 && scanner.peekIs('@')) {
+                scanner.pos = mark;
+                return;
+            }
+            if (indent > 2) {
+                scanner.pos -= indent - 2; // 多出的空格属于首个单元格
+            }
+            if (width == 0) {
+                scanner.skipLine();
+                rows++;
+                continue;
+            }
+            int base = rows * width * 2;
+            if (base + width * 2 > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, base + width * 2));
+            }
+            for (int i = 0; i < width; i++) {
+                if (i > 0) {
+                    if (!scanner.peekIs(ToonSyntax.SEPARATOR)) {
+                        Arrays.fill(cells, base + i * 2, base + width * 2, MISSING); // 缺少的列为null
+                        break;
+                    }
+                    scanner.pos++;
+                }
+                cells[base + i * 2] = scanner.pos;
+                scanner.skipCell(false);
+                cells[base + i * 2 + 1] = scanner.pos;
+            }
+            while (scanner.peekIs(ToonSyntax.SEPARATOR)) {
+                scanner.pos++;
+                scanner.skipCell(false);
+            }
+            if (scanner.peekIs(ToonSyntax.ROW_END)) {
+                scanner.pos++;
+            } else if (!scanner.atLineEnd()) {
+                throw scanner.error("此处应为'" + ToonSyntax.ROW_END + "'");
+            }
+            rows++;
+        }
+    }
+
+    public String getName() {
+        return header.getName();
+    }
+
+    public ToonHeader getHeader() {
+        return header;
+    }
+
+    // 数据行数
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * 缓存这些列还原后的文本（含字典解码），之后的读取不再定位与还原转义
+     */
+    public ToonTable memoize(String... paths) throws ToonException {
+        for (String path : paths) {
+            ColumnRef ref = column(path);
+            if (ref.memo == null) {
+                ref.memo = new String[rows];
+            }
+        }
+        return this;
+    }
+
+    public boolean isNull(int row, String path) throws ToonException {
+        return cell(row, column(path)) == null;
+    }
+
+    // 单元格文本（已还原转义，字典列为字典取值），null值返回null
+    public String getString(int row, String path) throws ToonException {
+        ColumnRef ref = column(path);
+        String[] memo = ref.memo;
+        if (memo != null && memo[checkRow(row)] != null) {
+            return memo[row];
+        }
+        ToonScanner scanner = cell(row, ref);
+        if (scanner == null) {
+            return null;
+        }
+        String value = scanner.cellString();
+        if (memo != null) {
+            memo[row] = value;
+        }
+        return value;
+    }
+
+    public int getInt(int row, String path) throws ToonException {
+        return present(row, path, int.class).cellInt(path, int.class, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public long getLong(int row, String path) throws ToonException {
+        return present(row, path, long.class).cellLong(path, long.class);
+    }
+
+    public double getDouble(int row, String path) throws ToonException {
+        return present(row, path, double.class).cellDouble(path, double.class);
+    }
+
+    public boolean getBoolean(int row, String path) throws ToonException {
+        return present(row, path, boolean.class).cellBoolean(path, boolean.class);
+    }
+
+    // 按类型转换单元格（基础类型、String及已注册转换器的类型），null值返回null
+    public <T> T get(int row, String path, Class<T> type) throws ToonException {
+        TypeBinding binding = deserializer.bindingFor(type);
+        if (binding.kind != ClassPlan.Kind.VALUE) {
+            throw new ToonException("按列读取只支持值类型：" + type.getName());
+        }
+        ToonScanner scanner = cell(row, column(path));
+        if (scanner == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) deserializer.readValue(scanner, binding, path);
+        return value;
+    }
+
+    // 把一行完整绑定为对象（与 deserializeList 的行绑定相同），列绑定按类型缓存
+    public <T> T rowAs(int row, Class<T> type) throws ToonException {
+        checkRow(row);
+        TypeBinding binding = deserializer.bindingFor(type);
+        if (binding.kind != ClassPlan.Kind.OBJECT) {
+            throw new ToonException("rowAs只支持对象类型：" + type.getName());
+        }
+        Slot[] slots = rowSlots.get(type);
+        if (slots == null) {
+            slots = deserializer.bindColumns(header.getColumns(), binding);
+            rowSlots.put(type, slots);
+        }
+        cursor.pos = width > 0 ? cells[row * width * 2] : 0;
+        return type.cast(deserializer.readRow(cursor, binding, slots));
+    }
+
+    // 非null单元格，null时按目标类型报告转换失败
+    private ToonScanner present(int row, String path, Class<?> type) throws ToonException {
+        ToonScanner scanner = cell(row, column(path));
+        if (scanner == null) {
+            throw new ToonTypeConvertException(path, type, null);
+        }
+        return scanner;
+    }
+
+    /**
+     * 定位单元格：返回的扫描器cellStart/cellEnd为取值范围，null值返回null
+     * 字典列与已缓存的列返回包装了文本的扫描器
+     */
+    private ToonScanner cell(int row, ColumnRef ref) throws ToonException {
+        checkRow(row);
+        if (ref.memo != null && ref.memo[row] != null) {
+            return textCell(ref.memo[row]);
+        }
+        int base = (row * width + ref.top) * 2;
+        int start = cells[base];
+        if (start == MISSING) {
+            return null;
+        }
+        ToonScanner scanner = cursor;
+        boolean inGroup = false;
+        for (int child : ref.children) {
+            scanner.pos = start;
+            if (scanner.peekIs(ToonSyntax.ANCHOR_REF)) {
+                throw new ToonException("列" + ref.path + "所在的对象为引用，视图不按路径展开");
+            }
+            if (scanner.atAnchoredGroup()) {
+                scanner.readAnchor();
+            }
+            if (!scanner.peekIs(ToonSyntax.GROUP_START)) {
+                return null; // 嵌套对象为null
+            }
+            scanner.pos++;
+            for (int i = 0; i < child; i++) {
+                scanner.skipCell(true);
+                if (!scanner.peekIs(ToonSyntax.SEPARATOR)) {
+                    return null; // 括号组中缺少的列
+                }
+                scanner.pos++;
+            }
+            start = scanner.pos;
+            inGroup = true;
+        }
+        scanner.pos = start;
+        scanner.scanCell(inGroup);
+        if (scanner.cellEmpty()) {
+            return null;
+        }
+        List<String> dictionary = ref.column.getDictionary();
+        if (dictionary.isEmpty()) {
+            return scanner;
+        }
+        int code = scanner.cellInt(ref.path, int.class, 0, dictionary.size() - 1);
+        return textCell(dictionary.get(code));
+    }
+
+    private static ToonScanner textCell(String text) {
+        char[] chars = text.toCharArray();
+        ToonScanner scanner = new ToonScanner(chars, 0, chars.length);
+        scanner.cellStart = 0;
+        scanner.cellEnd = chars.length;
+        return scanner;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("行号" + row + "超出范围，共" + rows + "行");
+        }
+        return row;
+    }
+
+    // 按完整路径查找列（address.city），首次查找后缓存
+    private ColumnRef column(String path) throws ToonException {
+        ColumnRef ref = columns.get(path);
+        if (ref == null) {
+            int[] indexes = header.locate(path);
+            if (indexes == null) {
+                throw new ToonException("表格中没有列：" + path);
+            }
+            ref = new ColumnRef(path, header.column(indexes), indexes[0],
+                    Arrays.copyOfRange(indexes, 1, indexes.length));
+            if (ref.column.isObject()) {
+                throw new ToonException("列" + path + "为嵌套对象，请读取其子列或使用rowAs");
+            }
+            columns.put(path, ref);
+        }
+        return ref;
+    }
+
+    // 已解析的列：顶层单元格下标，以及逐层进入括号组后的子列下标
+    private static final class ColumnRef {
+        final String path;
+        final ToonHeader.Column column;
+        final int top;
+        final int[] children;
+        String[] memo; // memoize后按行缓存的文本
+
+        ColumnRef(String path, ToonHeader.Column column, int top, int[] children) {
+            this.path = path;
+            this.column = column;
+            this.top = top;
+            this.children = children;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.toon.core;
+
+/**
+ * 增量式token估算器：按字符类别切分连续片段，近似BPE分词器（cl100k/o200k一类）的切分方式，
+ * 无需加载词表，单次遍历即可得到估算值。结果为近似值，整体略偏保守（宁多勿少），适合做预算控制。
+ * <ul>
+ *     <li>ASCII字母片段约4个字符1个token，数字片段约3位1个token</li>
+ *     <li>单个空格并入后面的单词，连续多个空格（缩进）计1个token</li>
+ *     <li>中日韩字符每字1个token，标点、换行等其他字符每个1个token</li>
+ * </ul>
+ * 非线程安全。
+ */
+public final class ToonTokenEstimator {
+    private static final int NONE = 0;
+    private static final int LETTER = 1;
+    private static final int DIGIT = 2;
+    private static final int SPACE = 3;
+    private static final int SINGLE = 4; // 每个字符单独计数（标点、换行、中日韩字符等）
+
+    private long tokens; // 已结束片段的token数
+    private int runClass = NONE;
+    private int runLength;
+
+    public ToonTokenEstimator add(CharSequence text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            add(text.charAt(i));
+        }
+        return this;
+    }
+
+    public ToonTokenEstimator add(char[] chars, int start, int end) {
+        for (int i = start; i < end; i++) {
+            add(chars[i]);
+        }
+        return this;
+    }
+
+    public ToonTokenEstimator add(char c) {
+        int charClass = classOf(c);
+        if (charClass == runClass && charClass != SINGLE) {
+            runLength++;
+            return this;
+        }
+        tokens += runCost(runClass, runLength);
+        runClass = charClass;
+        runLength = 1;
+        return this;
+    }
+
+    // 当前的估算值（含尚未结束的片段）
+    public long tokens() {
+        return tokens + runCost(runClass, runLength);
+    }
+
+    public void reset() {
+        tokens = 0;
+        runClass = NONE;
+        runLength = 0;
+    }
+
+    public static long estimate(CharSequence text) {
+        return new ToonTokenEstimator().add(text).tokens();
+    }
+
+    private static int classOf(char c) {
+        if (c < 128) {
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_') {
+                return LETTER;
+            }
+            if (c >= '0' && c <= '9') {
+                return DIGIT;
+            }
+            return c == ' ' || c == '\t' ? SPACE : SINGLE;
+        }
+        // 中日韩字符及之后的区段按字计数，其余（带重音的拉丁字母、西里尔字母等）按单词处理
+        return c < 0x2E80 && Character.isLetter(c) ? LETTER : SINGLE;
+    }
+
+    private static long runCost(int runClass, int runLength) {
+        switch (runClass) {
+            case LETTER:
+                return (runLength + 3) / 4;
+            case DIGIT:
+                return (runLength + 2) / 3;
+            case SPACE:
+                return runLength > 1 ? 1 : 0;
+            case SINGLE:
+                return runLength;
+            default:
+                return 0;
+        }
+    }
+}
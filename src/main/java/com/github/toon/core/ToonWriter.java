@@ -0,0 +1,18 @@
+package com.github.toon.core;
+
+import com.github.toon.exception.ToonException;
+
+/**
+ * 单个类的专用写出器，通常由 toon-processor 在编译期生成，类名为目标类的二进制名加 "$$ToonWriter"。
+ * 运行时构建序列化计划时自动发现并优先使用；不存在、或注册了接管其列类型的自定义转换器时退回反射路径。
+ */
+public interface ToonWriter<T> {
+    // 集合头部字段声明（不含花括号），须与反射路径生成的结果一致
+    String tableHeader();
+
+    // 各列的声明类型（按字段顺序），用于运行时校验转换器是否被覆盖
+    Class<?>[] columnTypes();
+
+    // 写出一行的值（不含缩进与行尾分号）
+    void writeRow(T value, ToonOutput out) throws ToonException;
+}
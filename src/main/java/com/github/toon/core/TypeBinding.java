@@ -0,0 +1,231 @@
+package com.github.toon.core;
+
+import com.github.toon.converter.ConverterRegistry;
+import com.github.toon.converter.TypeConverter;
+import com.github.toon.core.ClassPlan.Kind;
+import com.github.toon.exception.ToonReflectionException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * 按类预解析的反序列化绑定（不可变，线程安全），与序列化侧的 ClassPlan 对应
+ * 值类型记录解析方式，对象类型记录构造器与按名称索引的字段写入器。
+ */
+final class TypeBinding {
+    // 值类型的解析方式
+    enum ValueType {
+        INT, LONG, SHORT, BYTE, DOUBLE, FLOAT, BOOLEAN, CHAR, STRING, CONVERTER
+    }
+
+    final Class<?> type;
+    final Kind kind;
+    final ValueType valueType; // VALUE时有效
+    final TypeConverter converter;
+    final FieldBinding[] fields; // 按@ToonField排序
+    private final Map<String, FieldBinding> fieldsByName;
+    private final Constructor<?> constructor;
+    // 按类字段顺序的列绑定（集合元素中的嵌套对象没有头部），首次使用时生成
+    volatile Slot[] classSlots;
+
+    private TypeBinding(Class<?> type, ConverterRegistry registry) {
+        // 无泛型信息的元素按字符串处理
+        this.type = type;
+        this.kind = type == Object.class ? Kind.VALUE : ClassPlan.kindOf(type, registry);
+        this.converter = kind == Kind.VALUE ? registry.findConverter(type) : null;
+        this.valueType = kind == Kind.VALUE ? valueTypeOf(type, converter) : null;
+        if (kind == Kind.OBJECT) {
+            List<Field> ordered = FieldCache.getOrderedFields(type);
+            this.fields = new FieldBinding[ordered.size()];
+            this.fieldsByName = new HashMap<>();
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = new FieldBinding(ordered.get(i));
+                fieldsByName.put(fields[i].name, fields[i]);
+            }
+            this.constructor = findConstructor(type);
+        } else {
+            this.fields = new FieldBinding[0];
+            this.fieldsByName = new HashMap<>();
+            this.constructor = null;
+        }
+    }
+
+    static TypeBinding build(Class<?> type, ConverterRegistry registry) {
+        return new TypeBinding(type, registry);
+    }
+
+    // 新注册的转换器是否会改变本绑定：支持本类型或任一字段的类型，或改变某个嵌套对象字段（逐层展开）的绑定
+    boolean dependsOn(TypeConverter added, ClassValue<TypeBinding> bindings) {
+        return dependsOn(added, bindings, new HashSet<>());
+    }
+
+    private boolean dependsOn(TypeConverter added, ClassValue<TypeBinding> bindings, Set<Class<?>> visited) {
+        if (!visited.add(type)) {
+            return false;
+        }
+        if (added.support(type)) {
+            return true;
+        }
+        for (FieldBinding field : fields) {
+            if (added.support(field.type)) {
+                return true;
+            }
+            TypeBinding fieldBinding = bindings.get(field.type);
+            if (fieldBinding.kind == Kind.OBJECT && fieldBinding.dependsOn(added, bindings, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    FieldBinding field(String name) {
+        return fieldsByName.get(name);
+    }
+
+    Object newInstance() throws ToonReflectionException {
+        if (constructor == null) {
+            throw new ToonReflectionException(type, "缺少无参构造函数", null);
+        }
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new ToonReflectionException(type, "实例化失败", e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ValueType valueTypeOf(Class<?> type, TypeConverter converter) {
+        if (converter != null) {
+            return ValueType.CONVERTER; // 自定义转换器优先，与序列化一致
+        }
+        if (type == int.class || type == Integer.class) {
+            return ValueType.INT;
+        } else if (type == long.class || type == Long.class) {
+            return ValueType.LONG;
+        } else if (type == short.class) {
+            return ValueType.SHORT;
+        } else if (type == byte.class) {
+            return ValueType.BYTE;
+        } else if (type == double.class || type == Double.class) {
+            return ValueType.DOUBLE;
+        } else if (type == float.class) {
+            return ValueType.FLOAT;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return ValueType.BOOLEAN;
+        } else if (type == char.class) {
+            return ValueType.CHAR;
+        }
+        return ValueType.STRING;
+    }
+
+    // 创建集合实例：接口按常用实现，具体类使用无参构造
+    @SuppressWarnings("unchecked")
+    static Collection<Object> newCollection(Class<?> collectionType, int sizeHint) throws ToonReflectionException {
+        if (collectionType.isInterface() || Modifier.isAbstract(collectionType.getModifiers())) {
+            if (SortedSet.class.isAssignableFrom(collectionType)) {
+                return new TreeSet<>();
+            } else if (Set.class.isAssignableFrom(collectionType)) {
+                return new LinkedHashSet<>();
+            } else if (Queue.class.isAssignableFrom(collectionType) && !List.class.isAssignableFrom(collectionType)) {
+                return new ArrayDeque<>();
+            }
+            return new ArrayList<>(Math.max(sizeHint, 0));
+        }
+        try {
+            Constructor<?> constructor = collectionType.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (Collection<Object>) constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new ToonReflectionException(collectionType, "无法创建集合实例", e);
+        }
+    }
+
+    // 集合泛型参数，如 List<Address> 得到 Address；无法确定时为 Object
+    static Type elementTypeOf(Type collectionType) {
+        if (collectionType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) collectionType).getActualTypeArguments();
+            if (arguments.length == 1) {
+                return arguments[0];
+            }
+        }
+        return Object.class;
+    }
+
+    static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return rawClass(((ParameterizedType) type).getRawType());
+        } else if (type instanceof WildcardType) {
+            return rawClass(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof GenericArrayType) {
+            return Object[].class;
+        }
+        return Object.class; // 类型变量等
+    }
+
+    // 单个字段的写入信息
+    static final class FieldBinding {
+        final String name;
+        final Class<?> type;
+        final Type elementType; // 集合字段的元素类型
+        final FieldSetter setter;
+
+        FieldBinding(Field field) {
+            this.name = field.getName();
+            this.type = field.getType();
+            this.elementType = Collection.class.isAssignableFrom(type) ? elementTypeOf(field.getGenericType()) : null;
+            this.setter = FieldSetter.of(field);
+        }
+    }
+
+    // 一列数据的绑定：目标字段、字段类型的绑定，以及头部声明的嵌套子列
+    static final class Slot {
+        static final Slot SKIP = new Slot(null, null, null); // 类中不存在的列
+
+        final FieldBinding field;
+        final TypeBinding binding;
+        final Slot[] children; // 为null时按类字段顺序读取
+        final Object[] dictionary; // 字典编码列的取值（已转换为字段类型），其余为null
+
+        Slot(FieldBinding field, TypeBinding binding, Slot[] children) {
+            this(field, binding, children, null);
+        }
+
+        Slot(FieldBinding field, TypeBinding binding, Slot[] children, Object[] dictionary) {
+            this.field = field;
+            this.binding = binding;
+            this.children = children;
+            this.dictionary = dictionary;
+        }
+    }
+}
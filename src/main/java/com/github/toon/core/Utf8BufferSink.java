@@ -0,0 +1,124 @@
+package com.github.toon.core;
+
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * 将字符直接编码为UTF-8写入池化的ByteBuffer，容量不足时换用更大一级的缓冲区并交还旧的。
+ * 跨写入边界的代理对会暂存高位代理；不成对的代理字符编码为'?'（与String.getBytes一致）。
+ */
+final class Utf8BufferSink extends Writer {
+    private static final int MAX_BYTES_PER_CHAR = 3; // 代理对4字节对应2个字符，单字符最多3字节
+
+    private final ToonBufferPool pool;
+    private ByteBuffer buffer;
+    private byte[] scratch; // 直接内存缓冲区先编码到此再整体写入
+    private char pendingHigh; // 上次写入末尾的高位代理
+
+    Utf8BufferSink(ToonBufferPool pool, int initialCapacity) {
+        this.pool = pool;
+        this.buffer = pool.acquire(initialCapacity);
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) {
+        ensureRemaining(len * MAX_BYTES_PER_CHAR + MAX_BYTES_PER_CHAR + 1);
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int base = buffer.arrayOffset();
+            int end = encode(chars, off, off + len, array, base + buffer.position());
+            ((Buffer) buffer).position(end - base);
+        } else {
+            int required = len * MAX_BYTES_PER_CHAR + MAX_BYTES_PER_CHAR + 1;
+            if (scratch == null || scratch.length < required) {
+                scratch = new byte[Math.max(required, ToonOutput.DEFAULT_BUFFER_SIZE * MAX_BYTES_PER_CHAR)];
+            }
+            int end = encode(chars, off, off + len, scratch, 0);
+            buffer.put(scratch, 0, end);
+        }
+    }
+
+    private int encode(char[] chars, int start, int end, byte[] out, int p) {
+        int i = start;
+        if (pendingHigh != 0) {
+            if (i < end && Character.isLowSurrogate(chars[i])) {
+                p = encodeCodePoint(Character.toCodePoint(pendingHigh, chars[i++]), out, p);
+            } else {
+                out[p++] = '?';
+            }
+            pendingHigh = 0;
+        }
+        while (i < end) {
+            char c = chars[i++];
+            if (c < 0x80) {
+                out[p++] = (byte) c;
+            } else if (c < 0x800) {
+                out[p++] = (byte) (0xC0 | (c >> 6));
+                out[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                if (i == end) {
+                    pendingHigh = c; // 低位代理在下一次写入中
+                } else if (Character.isLowSurrogate(chars[i])) {
+                    p = encodeCodePoint(Character.toCodePoint(c, chars[i++]), out, p);
+                } else {
+                    out[p++] = '?';
+                }
+            } else if (Character.isLowSurrogate(c)) {
+                out[p++] = '?';
+            } else {
+                out[p++] = (byte) (0xE0 | (c >> 12));
+                out[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return p;
+    }
+
+    private static int encodeCodePoint(int codePoint, byte[] out, int p) {
+        out[p++] = (byte) (0xF0 | (codePoint >> 18));
+        out[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        out[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        out[p++] = (byte) (0x80 | (codePoint & 0x3F));
+        return p;
+    }
+
+    private void ensureRemaining(int required) {
+        if (buffer.remaining() >= required) {
+            return;
+        }
+        long wanted = Math.max((long) buffer.capacity() * 2, (long) buffer.position() + required);
+        if (wanted > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("TOON输出超过ByteBuffer的最大容量");
+        }
+        ByteBuffer larger = pool.acquire((int) wanted);
+        ((Buffer) buffer).flip();
+        larger.put(buffer);
+        pool.release(buffer);
+        buffer = larger;
+    }
+
+    // 结束编码：补写未成对的高位代理，返回可读的缓冲区（position为0，limit为字节数）
+    ByteBuffer finish() {
+        if (pendingHigh != 0) {
+            ensureRemaining(1);
+            buffer.put((byte) '?');
+            pendingHigh = 0;
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    // 编码失败时交还缓冲区
+    void discard() {
+        pool.release(buffer);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.toon.exception;
+
+import java.io.IOException;
+
+public class ToonIOException extends ToonException {
+    public ToonIOException(String message, IOException cause) {
+        super(String.format("TOON数据读写失败：%s", message), cause);
+    }
+}
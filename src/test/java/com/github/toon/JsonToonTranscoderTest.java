@@ -0,0 +1,159 @@
+package com.github.toon;
+
+import com.github.toon.ToonSerializerTest.Address;
+import com.github.toon.ToonSerializerTest.User;
+import com.github.toon.ToonSerializerTest.UserStatus;
+import com.github.toon.core.JsonToonTranscoder;
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonFormatException;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonToonTranscoderTest {
+
+    public static void main(String[] args) throws ToonException {
+        testObjectArrayToTable();
+        testSingleObjectAndValues();
+        testMatchesSerializer();
+        testSpillAndStreaming();
+        testInvalidInput();
+    }
+
+    /**
+     * 测试对象数组转为表格：列由首个元素推断，字段顺序不同、缺失字段与嵌套对象，结果可直接反序列化
+     */
+    public static void testObjectArrayToTable() throws ToonException {
+        String json = "[{\"id\":1,\"name\":\"Alice; \\\"A\\\"\",\"registerTime\":\"2024-01-01T10:30:00\","
+                + "\"status\":\"ACTIVE\",\"address\":{\"street\":\"123 Main St, Apt {4B}\",\"city\":\"New\\nYork\"}},"
+                + " {\"status\":\"INACTIVE\",\"name\":\"Bob\",\"id\":2,\"address\":null}]";
+        String toon = Toons.fromJson("users", json);
+        System.out.println("JSON转码结果:\n" + toon);
+
+        assertTrue(toon.startsWith("users(*){id#,name#,registerTime#,status#,address#[$object],address.street#,address.city#}: \n"));
+        assertTrue(toon.endsWith("  2,Bob,,INACTIVE,;\n@count 2"));
+
+        List<User> users = Toons.deserializeList(toon, User.class);
+        assertEquals(2, users.size());
+        assertEquals("Alice; \"A\"", users.get(0).getName());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 30), users.get(0).getRegisterTime());
+        assertEquals("123 Main St, Apt {4B}", users.get(0).getAddress().getStreet());
+        assertEquals("New\nYork", users.get(0).getAddress().getCity());
+        assertEquals(UserStatus.INACTIVE, users.get(1).getStatus());
+        assertNull(users.get(1).getAddress());
+    }
+
+    /**
+     * 测试单个对象、嵌套数组与值数组
+     */
+    public static void testSingleObjectAndValues() throws ToonException {
+        String toon = Toons.fromJson("order", "{\"id\":7,\"buyer\":{\"name\":\"Q\"},\"lines\":[{\"sku\":\"A\",\"qty\":2}],"
+                + "\"tags\":[\"x\",\"y\"],\"matrix\":[[1,2],[3]],\"none\":[],\"note\":null,\"paid\":true}");
+        assertEquals("order{id,buyer,lines,tags,matrix,none,note,paid}: \n"
+                + "  id: 7\n"
+                + "  buyer{name}: \n"
+                + "    name: Q\n"
+                + "  lines(1){sku#,qty#}: \n"
+                + "    A,2;\n"
+                + "  tags(2){}: \n"
+                + "    x;\n"
+                + "    y;\n"
+                + "  matrix(2){}: \n"
+                + "    (1,2);\n"
+                + "    (3);\n"
+                + "  none(0){}:   note: null\n"
+                + "  paid: true", toon);
+        assertEquals("n: 1.5e3", Toons.fromJson("n", " 1.5e3 "));
+        assertEquals("n: null", Toons.fromJson("n", "null"));
+        assertEquals("rows(*){a#}: \n  ((1,2),(3));\n  ();\n@count 2", Toons.fromJson("rows", "[{\"a\":[{\"x\":1,\"y\":2},{\"x\":3}]},{\"a\":[]}]"));
+    }
+
+    /**
+     * 测试与序列化器逐字节一致：同一份数据的数据行、转义与空集合写法相同，顶层表格的行数写在表尾
+     */
+    public static void testMatchesSerializer() throws ToonException {
+        List<User> users = new ArrayList<>();
+        StringBuilder json = new StringBuilder("[");
+        String[] names = {"a,b;c\\d", "(x) {y}", "*1", "&2", "line\nbreak", "普通"};
+        for (int i = 0; i < names.length; i++) {
+            Address address = i % 3 == 2 ? null : new Address("Street (" + i + "), Apt {" + i + "}", "City;" + i);
+            users.add(new User(i, names[i], null, i % 2 == 0 ? UserStatus.ACTIVE : UserStatus.INACTIVE, address));
+            json.append(i > 0 ? "," : "").append("{\"id\":").append(i)
+                    .append(",\"name\":\"").append(names[i].replace("\\", "\\\\").replace("\n", "\\n"))
+                    .append("\",\"registerTime\":null,\"status\":\"").append(users.get(i).getStatus()).append('"')
+                    .append(",\"address\":");
+            if (address == null) {
+                json.append("null");
+            } else {
+                json.append("{\"street\":\"").append(address.getStreet()).append("\",\"city\":\"")
+                        .append(address.getCity()).append("\"}");
+            }
+            json.append('}');
+        }
+        json.append(']');
+        String serialized = Toons.serialize("users", users);
+        String transcoded = Toons.fromJson("users", json.toString());
+        System.out.println("转码与序列化对比:\n" + transcoded);
+
+        // 头部的注释来自字段注解，JSON中没有，只比较数据行与表尾
+        String rows = serialized.substring(serialized.indexOf('\n'));
+        String trailer = "\n@count " + users.size();
+        assertTrue(serialized.startsWith("users(" + users.size() + "){"));
+        assertTrue(transcoded.startsWith("users(*){"));
+        assertTrue(transcoded.endsWith(trailer));
+        assertEquals(rows, transcoded.substring(transcoded.indexOf('\n'), transcoded.length() - trailer.length()));
+        assertEquals(Toons.deserializeList(serialized, User.class).get(3).getName(),
+                Toons.deserializeList(transcoded, User.class).get(3).getName());
+
+        // 空集合与嵌套在单对象中的集合与序列化器相同
+        assertEquals(Toons.serializeDelta("shipments", new ArrayList<User>(), new ArrayList<User>()),
+                Toons.fromJson("shipments", "{\"added\":[],\"changed\":[],\"removed\":[]}"));
+        assertEquals(Toons.serialize("users", new ArrayList<User>()), Toons.fromJson("users", "[]"));
+    }
+
+    /**
+     * 测试暂存阈值很小时转存临时文件，以及从Reader到Writer的流式转码
+     */
+    public static void testSpillAndStreaming() throws ToonException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"name\":\"用户").append(i).append("\"}");
+        }
+        json.append(']');
+        String inMemory = new JsonToonTranscoder().transcode("users", json.toString());
+        StringWriter writer = new StringWriter();
+        new JsonToonTranscoder(256).transcode("users", new StringReader(json.toString()), writer);
+        assertEquals(inMemory, writer.toString());
+        assertTrue(inMemory.startsWith("users(*){id#,name#}: \n  0,用户0;"));
+        assertTrue(inMemory.endsWith("\n@count 5000"));
+        assertEquals(4999, Toons.deserializeList(inMemory, User.class).get(4999).getId());
+    }
+
+    /**
+     * 测试非法输入：JSON语法错误、元素字段不一致、字段名无法作为TOON名称
+     */
+    public static void testInvalidInput() {
+        String[] invalid = {"[1,]", "{\"a\":1", "[{\"a\":1},{\"b\":2}]", "{\"a b\":1}", "[1] x", "01", "[\"\\x\"]", ""};
+        for (String json : invalid) {
+            try {
+                Toons.fromJson("r", json);
+                fail("应拒绝非法输入：" + json);
+            } catch (ToonFormatException expected) {
+                // 预期异常
+            } catch (ToonException e) {
+                fail("应为格式异常：" + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.github.toon;
+
+import com.github.toon.ToonSerializerTest.Address;
+import com.github.toon.ToonSerializerTest.User;
+import com.github.toon.ToonSerializerTest.UserStatus;
+import com.github.toon.anno.ToonField;
+import com.github.toon.core.DefaultToonDeserializer;
+import com.github.toon.core.DefaultToonSerializer;
+import com.github.toon.core.ToonQuery;
+import com.github.toon.core.ToonReader;
+import com.github.toon.core.ToonSession;
+import com.github.toon.core.ToonTable;
+import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonFormatException;
+import com.github.toon.exception.ToonIOException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ToonDeserializerTest {
+
+    public static void main(String[] args) throws ToonException {
+        testCollectionRoundTrip();
+        testSingleObjectRoundTrip();
+        testPrimitiveAndNestedCollections();
+        testGroupDelimitersInValues();
+        testCarriageReturnInValues();
+        testPrimitiveArrays();
+        testNullAndEmptyDocuments();
+        testMappedFileLoading();
+        testMappedFileLongEscapeRuns();
+        testSchemaSession();
+        testTableView();
+        testQuery();
+    }
+
+    /**
+     * 测试集合的序列化-反序列化往返（含转义字符、嵌套对象、枚举和时间）
+     */
+    public static void testCollectionRoundTrip() throws ToonException {
+        List<User> users = new ArrayList<>();
+        users.add(new User(1, "Alice; \"A\"", LocalDateTime.of(2024, 1, 1, 10, 30),
+                UserStatus.ACTIVE, new Address("123 Main St, Apt {4B}", "New\nYork")));
+        users.add(new User(2, "Bob", LocalDateTime.of(2024, 2, 15, 14, 20), UserStatus.INACTIVE, null));
+
+        String toonStr = Toons.serialize("users", users);
+        List<User> restored = Toons.deserializeList(toonStr, User.class);
+        System.out.println("集合反序列化结果: " + restored.size() + "条");
+
+        assertEquals(2, restored.size());
+        User alice = restored.get(0);
+        assertEquals(1, alice.getId());
+        assertEquals("Alice; \"A\"", alice.getName());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 30), alice.getRegisterTime());
+        assertEquals(UserStatus.ACTIVE, alice.getStatus());
+        assertEquals("123 Main St, Apt {4B}", alice.getAddress().getStreet());
+        assertEquals("New\nYork", alice.getAddress().getCity());
+        assertEquals(UserStatus.INACTIVE, restored.get(1).getStatus());
+        assertNull("空单元格应还原为null", restored.get(1).getAddress());
+    }
+
+    /**
+     * 测试单个对象（含嵌套对象）的往返
+     */
+    public static void testSingleObjectRoundTrip() throws ToonException {
+        User user = new User(3, "Charlie", LocalDateTime.of(2023, 12, 31, 23, 59),
+                UserStatus.ACTIVE, new Address("789 Park Rd", "Chicago"));
+
+        User restored = Toons.deserialize(Toons.serialize("singleUser", user), User.class);
+        assertEquals(3, restored.getId());
+        assertEquals("Charlie", restored.getName());
+        assertEquals(LocalDateTime.of(2023, 12, 31, 23, 59), restored.getRegisterTime());
+        assertEquals("Chicago", restored.getAddress().getCity());
+
+        try {
+            Toons.deserialize(Toons.serialize("users", Collections.singletonList(user)), User.class);
+            fail("集合文档不应按单个对象反序列化");
+        } catch (ToonFormatException expected) {
+            assertTrue(expected.getMessage().contains("deserializeList"));
+        }
+    }
+
+    /**
+     * 测试基础类型字段、嵌套集合（行内括号组与单对象中的嵌套表格）
+     */
+    public static void testPrimitiveAndNestedCollections() throws ToonException {
+        Profile profile = new Profile();
+        profile.count = Integer.MIN_VALUE;
+        profile.total = Long.MAX_VALUE;
+        profile.delta = -7;
+        profile.ratio = -0.25;
+        profile.enabled = true;
+        profile.flag = ',';
+        profile.weight = 1.5f;
+        profile.scores = Arrays.asList(3, null, 7);
+        profile.history = Arrays.asList(new Address("A, 1", "X"), new Address("B", "Y"));
+        profile.aliases = new ArrayList<>();
+
+        // 集合行内：嵌套集合写为括号组
+        List<Profile> restored = Toons.deserializeList(Toons.serialize("profiles", Collections.singletonList(profile)), Profile.class);
+        assertProfile(restored.get(0));
+        assertEquals(Arrays.asList(3, null, 7), restored.get(0).scores);
+        assertEquals("A, 1", restored.get(0).history.get(0).getStreet());
+
+        // 单个对象：嵌套集合写为缩进的子表格，空集合后不换行
+        Profile single = Toons.deserialize(Toons.serialize("profile", profile), Profile.class);
+        assertProfile(single);
+        assertEquals(2, single.history.size());
+        assertEquals("Y", single.history.get(1).getCity());
+        assertEquals(0, single.aliases.size());
+    }
+
+    /**
+     * 测试值中的括号（括号组的分隔符）与身份去重模式下开头的 &amp; *：均转义，往返后不变
+     */
+    public static void testGroupDelimitersInValues() throws ToonException {
+        Profile profile = new Profile();
+        profile.flag = ')';
+        profile.history = Arrays.asList(new Address("Suite (4B)", "NY)"), new Address("(", "x)y"));
+        profile.aliases = Arrays.asList("x)y", "(z", "((", "*1", "&2(q");
+
+        String toonStr = Toons.serialize("profiles", Collections.singletonList(profile));
+        Profile restored = Toons.deserializeList(toonStr, Profile.class).get(0);
+        assertEquals(')', restored.flag);
+        assertEquals("Suite (4B)", restored.history.get(0).getStreet());
+        assertEquals("NY)", restored.history.get(0).getCity());
+        assertEquals("(", restored.history.get(1).getStreet());
+        assertEquals("x)y", restored.history.get(1).getCity());
+        assertEquals(profile.aliases, restored.aliases);
+        assertEquals(Boolean.TRUE, restored.tail);
+
+        Profile single = Toons.deserialize(Toons.serialize("profile", profile), Profile.class);
+        assertEquals("Suite (4B)", single.history.get(0).getStreet());
+        assertEquals("x)y", single.history.get(1).getCity());
+        assertEquals(')', single.flag);
+
+        // 行内嵌套对象：投影与表格视图同样按转义后的括号定位
+        Address address = new Address("Suite (4B)", "NY)");
+        List<User> users = Arrays.asList(new User(1, "(A)", null, UserStatus.ACTIVE, address),
+                new User(2, "*1", null, UserStatus.INACTIVE, address));
+        String usersToon = Toons.serialize("users", users);
+        List<User> projected = Toons.deserializeList(usersToon, User.class, ToonQuery.select("address.city"));
+        assertEquals("NY)", projected.get(0).getAddress().getCity());
+        assertEquals(UserStatus.INACTIVE, Toons.deserializeList(usersToon, User.class).get(1).getStatus());
+        ToonTable table = Toons.parseTable(usersToon);
+        assertEquals("Suite (4B)", table.getString(0, "address.street"));
+        assertEquals("ACTIVE", table.getString(0, "status"));
+
+        // 身份去重模式：字符串开头的 * &amp; 不会被读作锚点
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        serializer.setIdentityTracking(true);
+        String tracked = serializer.serialize("users", users);
+        assertTrue(tracked.contains("*1"));
+        List<User> restoredUsers = Toons.deserializeList(tracked, User.class);
+        assertEquals("(A)", restoredUsers.get(0).getName());
+        assertEquals("*1", restoredUsers.get(1).getName());
+        assertTrue(restoredUsers.get(0).getAddress() == restoredUsers.get(1).getAddress());
+        assertEquals("NY)", restoredUsers.get(1).getAddress().getCity());
+    }
+
+    /**
+     * 测试值中的回车：\r 与 \r\n 均转义，往返后不变，不会被读作行尾而截断后续的行与字段；
+     * 文档本身使用CRLF行尾时（含分块加载）同样可以读取
+     */
+    public static void testCarriageReturnInValues() throws ToonException {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 22; i++) {
+            String name = i == 5 ? "a\rb" : i == 9 ? "line\r\nnext\r" : "User" + i;
+            users.add(new User(i, name, null, UserStatus.ACTIVE, new Address("\r" + i, "City\r\n" + i)));
+        }
+        String toonStr = Toons.serialize("users", users);
+        assertTrue(toonStr.indexOf('\r') < 0);
+        List<User> restored = Toons.deserializeList(toonStr, User.class);
+        assertEquals(22, restored.size());
+        assertEquals("a\rb", restored.get(5).getName());
+        assertEquals("line\r\nnext\r", restored.get(9).getName());
+        assertEquals(UserStatus.ACTIVE, restored.get(9).getStatus());
+        assertEquals("City\r\n21", restored.get(21).getAddress().getCity());
+        assertEquals("line\r\nnext\r", Toons.parseTable(toonStr).getString(9, "name"));
+
+        User single = Toons.deserialize(Toons.serialize("user", users.get(9)), User.class);
+        assertEquals("line\r\nnext\r", single.getName());
+        assertEquals("\r9", single.getAddress().getStreet());
+
+        // CRLF行尾的文档：数据中的回车已转义，未转义的 \r 只出现在行尾
+        String crlf = toonStr.replace("\n", "\r\n");
+        assertEquals("a\rb", Toons.deserializeList(crlf, User.class).get(5).getName());
+
+        List<User> many = new ArrayList<>();
+        for (int i = 0; i < 30000; i++) {
+            many.add(new User(i, "名\r" + i, null, UserStatus.INACTIVE, new Address("\r\n", "城市" + i)));
+        }
+        try {
+            Path file = Files.createTempFile("users-crlf", ".toon");
+            try {
+                Files.write(file, Toons.serialize("users", many).replace("\n", "\r\n").getBytes(StandardCharsets.UTF_8));
+                List<User> loaded = new DefaultToonDeserializer().deserializeList(file, User.class, new ForkJoinPool(4));
+                assertEquals(many.size(), loaded.size());
+                for (int i = 0; i < many.size(); i += 997) {
+                    assertEquals("名\r" + i, loaded.get(i).getName());
+                    assertEquals("\r\n", loaded.get(i).getAddress().getStreet());
+                    assertEquals("城市" + i, loaded.get(i).getAddress().getCity());
+                }
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new ToonIOException("临时文件读写失败", e);
+        }
+    }
+
+    /**
+     * 测试基础类型数组与String[]：写为括号组，数值与 toString 格式一致，往返后逐元素相等
+     */
+    public static void testPrimitiveArrays() throws ToonException {
+        Embedding embedding = new Embedding();
+        embedding.id = 7;
+        embedding.vector = new float[]{0.1f, -1.5f, 3.4028235e38f, 1.0e-7f};
+        embedding.series = new double[]{0.25, -0.001, 12345.678, 1.0E-5, Double.NaN, 0.1 + 0.2};
+        embedding.stamps = new long[]{Long.MIN_VALUE, 0, 1700000000000L};
+        embedding.counts = new int[0];
+        embedding.mask = new boolean[]{true, false};
+        embedding.tags = new String[]{"a,b", null, "(c)"};
+
+        String toonStr = Toons.serialize("embeddings", Collections.singletonList(embedding));
+        System.out.println("数组序列化结果:\n" + toonStr);
+        assertTrue(toonStr.contains("(0.1,-1.5,3.4028235E38,1.0E-7)"));
+        assertTrue(toonStr.contains("(0.25,-0.001,12345.678,1.0E-5,NaN,0.30000000000000004)"));
+        assertTrue(toonStr.contains(",(),"));
+        assertEmbedding(Toons.deserializeList(toonStr, Embedding.class).get(0));
+        assertEmbedding(Toons.deserialize(Toons.serialize("embedding", embedding), Embedding.class));
+
+        // 数组集合元素
+        List<double[]> rows = Toons.deserialize(Toons.serialize("holder", new Holder()), Holder.class).rows;
+        assertEquals(2, rows.size());
+        assertEquals(2.5, rows.get(1)[0], 0);
+    }
+
+    private static void assertEmbedding(Embedding restored) {
+        assertEquals(7, restored.id);
+        assertTrue(Arrays.equals(new float[]{0.1f, -1.5f, 3.4028235e38f, 1.0e-7f}, restored.vector));
+        assertTrue(Arrays.equals(new double[]{0.25, -0.001, 12345.678, 1.0E-5, Double.NaN, 0.1 + 0.2}, restored.series));
+        assertTrue(Arrays.equals(new long[]{Long.MIN_VALUE, 0, 1700000000000L}, restored.stamps));
+        assertEquals(0, restored.counts.length);
+        assertTrue(Arrays.equals(new boolean[]{true, false}, restored.mask));
+        assertTrue(Arrays.equals(new String[]{"a,b", null, "(c)"}, restored.tags));
+        assertNull(restored.missing);
+    }
+
+    private static void assertProfile(Profile profile) {
+        assertEquals(Integer.MIN_VALUE, profile.count);
+        assertEquals(Long.MAX_VALUE, profile.total);
+        assertEquals(-7, profile.delta);
+        assertEquals(-0.25, profile.ratio, 0);
+        assertTrue(profile.enabled);
+        assertEquals(',', profile.flag);
+        assertEquals(1.5f, profile.weight, 0);
+        assertEquals(Boolean.TRUE, profile.tail);
+    }
+
+    /**
+     * 测试null文档与空集合
+     */
+    public static void testNullAndEmptyDocuments() throws ToonException {
+        assertNull(Toons.deserialize(Toons.serialize("user", null), User.class));
+        assertNull(Toons.deserializeList("users: null", User.class));
+        assertEquals(0, Toons.deserializeList(Toons.serialize("users", new ArrayList<User>()), User.class).size());
+    }
+
+    /**
+     * 测试内存映射文件的分块并行加载（多个分块、UTF-8多字节字符与转义字符），结果顺序与文本解析一致
+     */
+    /**
+     * 测试内存映射加载时，跨越分块边界的长反斜杠序列（远超过64个）不影响 ; 是否被转义的判断，
+     * 分块始终落在行末，各行的值完整还原
+     */
+    public static void testMappedFileLongEscapeRuns() throws ToonException {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            char[] run = new char[1000 + i * 7];
+            Arrays.fill(run, '\\');
+            String backslashes = new String(run);
+            // 值以反斜杠结尾：行末的 ; 前是偶数个反斜杠；值中含 \; ：反斜杠之后是被转义的 ;
+            String name = i % 2 == 0 ? "用户" + i + backslashes : backslashes + ";" + i + backslashes + ";";
+            users.add(new User(i, name, LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i),
+                    UserStatus.values()[i % 2], new Address("街道" + i, "城市" + i)));
+        }
+        String toonStr = Toons.serialize("users", users);
+        assertTrue(toonStr.length() > 4 << 20);
+        try {
+            Path file = Files.createTempFile("users", ".toon");
+            try {
+                Files.write(file, toonStr.getBytes(StandardCharsets.UTF_8));
+                List<User> loaded = new DefaultToonDeserializer().deserializeList(file, User.class, new ForkJoinPool(4));
+                assertEquals(users.size(), loaded.size());
+                for (int i = 0; i < users.size(); i++) {
+                    assertEquals(i, loaded.get(i).getId());
+                    assertEquals(users.get(i).getName(), loaded.get(i).getName());
+                    assertEquals("城市" + i, loaded.get(i).getAddress().getCity());
+                }
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new ToonIOException("临时文件读写失败", e);
+        }
+    }
+
+    public static void testMappedFileLoading() throws ToonException {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 60000; i++) {
+            users.add(new User(i, "用户;" + i + "\\", LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i),
+                    UserStatus.values()[i % 2], new Address("街道, " + i, "城市\n" + i)));
+        }
+        String toonStr = Toons.serialize("users", users);
+        try {
+            Path file = Files.createTempFile("users", ".toon");
+            try {
+                Files.write(file, toonStr.getBytes(StandardCharsets.UTF_8));
+                List<User> loaded = new DefaultToonDeserializer().deserializeList(file, User.class, new ForkJoinPool(4));
+                assertEquals(users.size(), loaded.size());
+                for (int i = 0; i < users.size(); i += 997) {
+                    assertEquals(i, loaded.get(i).getId());
+                    assertEquals(users.get(i).getName(), loaded.get(i).getName());
+                    assertEquals(users.get(i).getAddress().getCity(), loaded.get(i).getAddress().getCity());
+                }
+                assertEquals(users.size() - 1, loaded.get(users.size() - 1).getId());
+
+                // 按查询加载：各分块中同样只读取投影的列、只保留满足条件的行
+                ToonQuery query = ToonQuery.select("id", "address.city").where("status", UserStatus.INACTIVE);
+                List<User> inactive = new DefaultToonDeserializer().deserializeList(file, User.class, query, new ForkJoinPool(4));
+                assertEquals(users.size() / 2, inactive.size());
+                assertEquals(users.size() - 1, inactive.get(inactive.size() - 1).getId());
+                assertNull(inactive.get(0).getName());
+                assertNull(inactive.get(0).getStatus());
+                assertEquals("城市\n1", inactive.get(0).getAddress().getCity());
+
+                // 行数延后给出：校验表尾行数；头部行前的长空白使头部行超出首次映射的窗口
+                String deferred = toonStr.replaceFirst("users\\(60000\\)", "users(*)");
+                char[] padding = new char[10000];
+                Arrays.fill(padding, ' ');
+                Files.write(file, (new String(padding) + deferred + "\n@count 60000").getBytes(StandardCharsets.UTF_8));
+                assertEquals(users.size(), new DefaultToonDeserializer().deserializeList(file, User.class, new ForkJoinPool(4)).size());
+                Files.write(file, (deferred + "\n@count 59999").getBytes(StandardCharsets.UTF_8));
+                try {
+                    new DefaultToonDeserializer().deserializeList(file, User.class, new ForkJoinPool(4));
+                    fail("表尾行数与数据行数不一致时应报错");
+                } catch (ToonFormatException expected) {
+                    assertTrue(expected.getMessage().contains("59999"));
+                }
+                Files.write(file, deferred.getBytes(StandardCharsets.UTF_8));
+                try {
+                    new DefaultToonDeserializer().deserializeList(file, User.class);
+                    fail("缺少表尾行数时应报错");
+                } catch (ToonFormatException expected) {
+                    assertTrue(expected.getMessage().contains("@count"));
+                }
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new ToonIOException("临时文件读写失败", e);
+        }
+    }
+
+    /**
+     * 测试schema引用模式：同一会话中首次出现时声明，之后的集合只引用；用同一会话还原，未声明的引用报错
+     */
+    public static void testSchemaSession() throws ToonException {
+        List<User> users = Arrays.asList(
+                new User(1, "Alice", LocalDateTime.of(2024, 1, 1, 10, 30), UserStatus.ACTIVE, new Address("Main St", "NY")),
+                new User(2, "Bob", LocalDateTime.of(2024, 2, 15, 14, 20), UserStatus.INACTIVE, null));
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        ToonSession writeSession = new ToonSession();
+        String first = serializer.serialize("users", users, writeSession);
+        String second = serializer.serialize("admins", users.subList(0, 1), writeSession);
+        System.out.println("schema首次声明:\n" + first + "\n再次引用:\n" + second);
+
+        assertTrue(first.startsWith("@schema User{id#"));
+        assertTrue(first.contains("\nusers(2)<User>:"));
+        assertTrue(second.startsWith("admins(1)<User>:"));
+        assertFalse(second.contains("#"));
+        assertTrue(writeSession.isDeclared("User"));
+
+        DefaultToonDeserializer deserializer = new DefaultToonDeserializer();
+        ToonSession readSession = new ToonSession();
+        List<User> restored = deserializer.deserializeList(first, User.class, readSession);
+        assertEquals(2, restored.size());
+        assertEquals("NY", restored.get(0).getAddress().getCity());
+        List<User> admins = deserializer.deserializeList(second, User.class, readSession);
+        assertEquals("Alice", admins.get(0).getName());
+        assertEquals(UserStatus.ACTIVE, admins.get(0).getStatus());
+
+        // 事件读取器共享同一会话
+        ToonReader reader = new ToonReader(new StringReader(second), readSession);
+        assertEquals(ToonReader.Event.HEADER, reader.next());
+        assertEquals("name", reader.getHeader().getColumns().get(1).getName());
+
+        try {
+            deserializer.deserializeList(second, User.class);
+            fail("未声明的schema引用应报错");
+        } catch (ToonFormatException expected) {
+            assertTrue(expected.getMessage().contains("User"));
+        }
+    }
+
+    /**
+     * 测试表格视图：按列路径读取单元格（含嵌套路径与字典列），按需绑定整行
+     */
+    public static void testTableView() throws ToonException {
+        List<User> users = new ArrayList<>();
+        users.add(new User(1, "Alice, A", LocalDateTime.of(2024, 1, 1, 10, 30),
+                UserStatus.ACTIVE, new Address("Main St", "New York")));
+        users.add(new User(2, "Bob", null, UserStatus.INACTIVE, null));
+        users.add(new User(3, "Carol", null, UserStatus.ACTIVE, new Address(null, "Lima")));
+        ToonTable table = Toons.parseTable(Toons.serialize("users", users));
+
+        assertEquals("users", table.getName());
+        assertEquals(3, table.size());
+        assertEquals(2, table.getInt(1, "id"));
+        assertEquals("Alice, A", table.getString(0, "name"));
+        assertEquals("New York", table.getString(0, "address.city"));
+        assertNull(table.getString(1, "address.city"));
+        assertTrue(table.isNull(2, "address.street"));
+        assertEquals("Lima", table.getString(2, "address.city"));
+        assertEquals(UserStatus.INACTIVE, table.get(1, "status", UserStatus.class));
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 30), table.get(0, "registerTime", LocalDateTime.class));
+        assertNull(table.get(1, "registerTime", LocalDateTime.class));
+        User carol = table.rowAs(2, User.class);
+        assertEquals("Carol", carol.getName());
+        assertEquals("Lima", carol.getAddress().getCity());
+
+        table.memoize("address.city");
+        assertEquals("Lima", table.getString(2, "address.city"));
+        assertEquals("Lima", table.getString(2, "address.city"));
+
+        try {
+            table.getInt(0, "missing");
+            fail("不存在的列应报错");
+        } catch (ToonException expected) {
+            // 预期
+        }
+
+        // 字典编码的列读取为字典取值
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        List<User> many = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            many.add(new User(i, "User" + i, null, UserStatus.ACTIVE, new Address("S" + i, i % 2 == 0 ? "A" : "B")));
+        }
+        serializer.enableDictionary(0.25);
+        ToonTable encoded = new DefaultToonDeserializer().parseTable(serializer.serialize("users", many));
+        assertEquals("B", encoded.getString(19, "address.city"));
+        assertEquals(UserStatus.ACTIVE, encoded.get(7, "status", UserStatus.class));
+    }
+
+    /**
+     * 测试列投影与行条件：未投影的字段保持默认值，只为满足条件的行创建对象
+     */
+    public static void testQuery() throws ToonException {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            users.add(new User(i, "User, " + i, LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i),
+                    i % 4 == 0 ? UserStatus.INACTIVE : UserStatus.ACTIVE,
+                    i % 5 == 0 ? null : new Address("S" + i, i % 3 == 0 ? "Lima" : "Oslo")));
+        }
+        String toonStr = Toons.serialize("users", users);
+
+        List<User> inactive = Toons.deserializeList(toonStr, User.class,
+                ToonQuery.select("id", "name").where("status", UserStatus.INACTIVE));
+        assertEquals(10, inactive.size());
+        assertEquals(4, inactive.get(1).getId());
+        assertEquals("User, 4", inactive.get(1).getName());
+        assertNull("未投影的字段应保持默认值", inactive.get(1).getStatus());
+        assertNull(inactive.get(1).getAddress());
+
+        // 嵌套路径、范围条件，以及只投影部分子列
+        List<User> lima = Toons.deserializeList(toonStr, User.class,
+                ToonQuery.select("id", "address.city").where("address.city", "Lima").whereBetween("id", 10, 30.5));
+        assertEquals(5, lima.size()); // 12、18、21、24、27
+        assertEquals(12, lima.get(0).getId());
+        assertEquals("Lima", lima.get(0).getAddress().getCity());
+        assertNull(lima.get(0).getAddress().getStreet());
+
+        // 空值条件、字符串范围与全部列
+        List<User> noAddress = Toons.deserializeList(toonStr, User.class,
+                ToonQuery.all().where("address.city", null).whereBetween("name", "User, 1", "User, 2"));
+        assertEquals(2, noAddress.size()); // 10、15（按字典序）
+        assertEquals(UserStatus.ACTIVE, noAddress.get(0).getStatus());
+        assertNull(noAddress.get(1).getAddress());
+
+        // 字典编码的列：条件按字典取值预先求值
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        serializer.enableDictionary(0.25);
+        String encoded = serializer.serialize("users", users);
+        assertTrue(encoded.contains("@dict status: "));
+        assertEquals(30, new DefaultToonDeserializer().deserializeList(encoded, User.class,
+                ToonQuery.all().where("status", UserStatus.ACTIVE)).size());
+
+        try {
+            Toons.deserializeList(toonStr, User.class, ToonQuery.all().where("missing", 1));
+            fail("不存在的条件列应报错");
+        } catch (ToonException expected) {
+            // 预期
+        }
+        try {
+            ToonQuery.all().whereBetween("id", 1, "9");
+            fail("边界类型不一致应报错");
+        } catch (IllegalArgumentException expected) {
+            // 预期
+        }
+    }
+
+    static class Embedding {
+        @ToonField(order = 1)
+        int id;
+        @ToonField(order = 2, comment = "向量")
+        float[] vector;
+        @ToonField(order = 3)
+        double[] series;
+        @ToonField(order = 4)
+        long[] stamps;
+        @ToonField(order = 5)
+        int[] counts;
+        @ToonField(order = 6)
+        boolean[] mask;
+        @ToonField(order = 7)
+        String[] tags;
+        @ToonField(order = 8)
+        int[] missing;
+    }
+
+    static class Holder {
+        List<double[]> rows = Arrays.asList(new double[]{1}, new double[]{2.5, -3});
+    }
+
+    static class Profile {
+        @ToonField(order = 1)
+        int count;
+        @ToonField(order = 2)
+        long total;
+        @ToonField(order = 3)
+        short delta;
+        @ToonField(order = 4)
+        double ratio;
+        @ToonField(order = 5)
+        boolean enabled;
+        @ToonField(order = 6, comment = "分隔符, 测试")
+        char flag;
+        @ToonField(order = 7)
+        float weight;
+        @ToonField(order = 8)
+        List<Integer> scores;
+        @ToonField(order = 9)
+        List<Address> history;
+        @ToonField(order = 10)
+        List<String> aliases;
+        @ToonField(order = 11)
+        Boolean tail = Boolean.TRUE;
+    }
+}
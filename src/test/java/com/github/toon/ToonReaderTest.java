@@ -0,0 +1,204 @@
+package com.github.toon;
+
+import com.github.toon.ToonSerializerTest.Address;
+import com.github.toon.ToonSerializerTest.User;
+import com.github.toon.ToonSerializerTest.UserStatus;
+import com.github.toon.core.ToonReader;
+import com.github.toon.core.ToonReader.Event;
+import com.github.toon.exception.ToonException;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ToonReaderTest {
+
+    public static void main(String[] args) throws ToonException {
+        testTableEvents();
+        testSmallBufferAndSkipRow();
+        testSingleObjectEvents();
+        testCarriageReturnInValues();
+        testDoubleValues();
+    }
+
+    /**
+     * 测试集合文档的事件序列（嵌套对象为括号组，null为空值）
+     */
+    public static void testTableEvents() throws ToonException {
+        List<User> users = new ArrayList<>();
+        users.add(new User(1, "Alice", LocalDateTime.of(2024, 1, 1, 10, 30),
+                UserStatus.ACTIVE, new Address("123 Main St, Apt 4B", "New York")));
+        users.add(new User(2, "Bob", null, UserStatus.INACTIVE, null));
+
+        ToonReader reader = new ToonReader(new StringReader(Toons.serialize("users", users)));
+        assertEquals(Event.HEADER, reader.next());
+        assertEquals("users", reader.getName());
+        assertEquals(2, reader.getHeader().getDeclaredCount());
+
+        List<Event> events = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (Event e = reader.next(); e != Event.END_DOCUMENT; e = reader.next()) {
+            events.add(e);
+            if (e == Event.VALUE) {
+                values.add(reader.getColumn().getPath() + "=" + reader.getText());
+            }
+        }
+        assertEquals(Arrays.asList(Event.ROW_START, Event.VALUE, Event.VALUE, Event.VALUE, Event.VALUE,
+                Event.GROUP_START, Event.VALUE, Event.VALUE, Event.GROUP_END, Event.ROW_END,
+                Event.ROW_START, Event.VALUE, Event.VALUE, Event.VALUE, Event.VALUE, Event.VALUE, Event.ROW_END), events);
+        assertEquals("address.street=123 Main St, Apt 4B", values.get(4));
+        assertEquals("registerTime=null", values.get(8));
+        assertEquals("address=null", values.get(10));
+    }
+
+    /**
+     * 测试值跨越缓冲区边界（含转义字符）以及按行跳过
+     */
+    public static void testSmallBufferAndSkipRow() throws ToonException {
+        StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            longName.append("name,;{}\\").append(i);
+        }
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(new User(i, i % 10 == 0 ? longName.toString() : "u" + i, null, UserStatus.ACTIVE, null));
+        }
+
+        ToonReader reader = new ToonReader(new StringReader(Toons.serialize("users", users)), 64);
+        long idSum = 0;
+        int longNames = 0;
+        int rows = 0;
+        for (Event e = reader.next(); e != Event.END_DOCUMENT; e = reader.next()) {
+            if (e == Event.ROW_START) {
+                rows++;
+            } else if (e == Event.VALUE && "id".equals(reader.getColumn().getName())) {
+                int id = reader.getInt();
+                idSum += id;
+                if (id % 2 == 1) {
+                    reader.skipRow(); // 奇数行其余单元格不再读取
+                }
+            } else if (e == Event.VALUE && "name".equals(reader.getColumn().getName())
+                    && reader.textEquals(longName.toString())) {
+                longNames++;
+            }
+        }
+        assertEquals(100, rows);
+        assertEquals(4950, idSum);
+        assertEquals(10, longNames);
+    }
+
+    /**
+     * 测试单对象文档：字段行、嵌套对象、嵌套表格与空集合
+     */
+    public static void testSingleObjectEvents() throws ToonException {
+        ToonDeserializerTest.Profile profile = new ToonDeserializerTest.Profile();
+        profile.history = Arrays.asList(new Address("A", "X"), new Address("B", "Y"));
+        profile.aliases = new ArrayList<>();
+
+        ToonReader reader = new ToonReader(new StringReader(Toons.serialize("profile", profile)));
+        List<String> trace = new ArrayList<>();
+        for (Event e = reader.next(); e != Event.END_DOCUMENT; e = reader.next()) {
+            if (e == Event.FIELD) {
+                trace.add(reader.getName() + ":" + reader.getText());
+            } else if (e == Event.HEADER || e == Event.OBJECT_START) {
+                trace.add(e + ":" + reader.getName());
+            } else if (e != Event.VALUE) {
+                trace.add(e.name());
+            }
+        }
+        assertEquals(Arrays.asList("OBJECT_START:profile", "count:0", "total:0", "delta:0", "ratio:0.0",
+                "enabled:false", "flag:\u0000", "weight:0.0", "scores:null",
+                "HEADER:history", "ROW_START", "ROW_END", "ROW_START", "ROW_END",
+                "HEADER:aliases", "tail:true", "OBJECT_END"), trace);
+
+        ToonReader nullReader = new ToonReader(new StringReader("user: null"));
+        assertEquals(Event.FIELD, nullReader.next());
+        assertTrue(nullReader.isNull());
+        assertNull(nullReader.getText());
+        assertFalse(nullReader.textEquals("null"));
+        assertEquals(Event.END_DOCUMENT, nullReader.next());
+    }
+
+    /**
+     * 测试值中的回车：\r 与 \r\n 转义后不会结束单元格或行，还原后与原值一致；文档使用CRLF行尾时同样可读
+     */
+    public static void testCarriageReturnInValues() throws ToonException {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 22; i++) {
+            String name = i == 5 ? "a\rb" : i == 9 ? "line\r\nnext\r" : "User" + i;
+            users.add(new User(i, name, null, UserStatus.ACTIVE, new Address("\r" + i, "City\r\n" + i)));
+        }
+        String toonStr = Toons.serialize("users", users);
+        for (String document : Arrays.asList(toonStr, toonStr.replace("\n", "\r\n"))) {
+            ToonReader reader = new ToonReader(new StringReader(document), 64);
+            List<String> names = new ArrayList<>();
+            List<String> cities = new ArrayList<>();
+            for (Event e = reader.next(); e != Event.END_DOCUMENT; e = reader.next()) {
+                if (e == Event.VALUE && "name".equals(reader.getColumn().getPath())) {
+                    names.add(reader.getText());
+                } else if (e == Event.VALUE && "address.city".equals(reader.getColumn().getPath())) {
+                    cities.add(reader.getText());
+                }
+            }
+            assertEquals(22, names.size());
+            assertEquals("a\rb", names.get(5));
+            assertEquals("line\r\nnext\r", names.get(9));
+            assertEquals("User21", names.get(21));
+            assertEquals("City\r\n21", cities.get(21));
+        }
+
+        ToonReader single = new ToonReader(new StringReader(Toons.serialize("user", users.get(9))));
+        List<String> fields = new ArrayList<>();
+        for (Event e = single.next(); e != Event.END_DOCUMENT; e = single.next()) {
+            if (e == Event.FIELD) {
+                fields.add(single.getName() + "=" + single.getText());
+            }
+        }
+        assertTrue(fields.contains("name=line\r\nnext\r"));
+        assertTrue(fields.contains("street=\r9"));
+        assertTrue(fields.contains("status=ACTIVE"));
+    }
+
+    /**
+     * 测试getDouble与反序列化的解析结果一致（含指数、NaN与格式错误）
+     */
+    public static void testDoubleValues() throws ToonException {
+        String[] values = {"0.1", "-0.0", "123456789.125", "1.0E-7", "1e21", "NaN", "-Infinity", "2.5E308", "007.50"};
+        StringBuilder document = new StringBuilder("v{");
+        for (int i = 0; i < values.length; i++) {
+            document.append(i > 0 ? "," : "").append('f').append(i);
+        }
+        document.append("}: ");
+        for (int i = 0; i < values.length; i++) {
+            document.append("\n  f").append(i).append(": ").append(values[i]);
+        }
+        ToonReader reader = new ToonReader(new StringReader(document.toString()));
+        int index = 0;
+        for (Event e = reader.next(); e != Event.END_DOCUMENT; e = reader.next()) {
+            if (e == Event.FIELD) {
+                assertEquals(Double.doubleToLongBits(Double.parseDouble(values[index])),
+                        Double.doubleToLongBits(reader.getDouble()));
+                index++;
+            }
+        }
+        assertEquals(values.length, index);
+
+        ToonReader invalid = new ToonReader(new StringReader("v{x}: \n  x: 1.5x"));
+        invalid.next();
+        assertEquals(Event.FIELD, invalid.next());
+        try {
+            invalid.getDouble();
+            fail("格式错误的小数应报错");
+        } catch (com.github.toon.exception.ToonTypeConvertException expected) {
+            // 预期异常
+        }
+    }
+}
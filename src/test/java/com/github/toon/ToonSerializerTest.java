@@ -1,13 +1,46 @@
 package com.github.toon;
 
+import com.github.toon.core.DefaultToonSerializer;
+import com.github.toon.core.FieldCache;
+import com.github.toon.core.ToonBudgetResult;
+import com.github.toon.core.ToonBufferPool;
+import com.github.toon.core.ToonChunkSink;
+import com.github.toon.core.ToonHistogramMetrics;
+import com.github.toon.core.ToonMapper;
+import com.github.toon.core.ToonMetrics;
+import com.github.toon.core.ToonOutputCache;
+import com.github.toon.core.ToonReader;
+import com.github.toon.core.ToonRowSource;
+import com.github.toon.core.ToonSerializationStats;
+import com.github.toon.core.ToonTokenEstimator;
 import com.github.toon.exception.ToonException;
+import com.github.toon.exception.ToonFormatException;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ToonSerializerTest {
 
@@ -15,6 +48,20 @@ public class ToonSerializerTest {
         testCollectionSerialization();
         testSingleObjectSerialization();
         testEmptyCollectionSerialization();
+        testStreamingSerialization();
+        testEscapeSpecialCharacters();
+        testPrimitiveColumns();
+        testParallelSerialization();
+        testTokenBudget();
+        testMetrics();
+        testPooledUtf8Output();
+        testAsyncRowSource();
+        testIdentityTracking();
+        testDictionaryEncoding();
+        testDeltaSerialization();
+        testToonMapper();
+        testOutputCache();
+        testWarmup();
     }
     /**
      * 测试完整对象集合的序列化
@@ -87,6 +134,844 @@ public class ToonSerializerTest {
         assertTrue("空集合应标识为(0)", toonStr.contains("emptyUsers(0){}:"));
     }
 
+    /**
+     * 测试流式序列化（Writer/OutputStream）与字符串结果一致
+     */
+    public static void testStreamingSerialization() throws ToonException {
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Address address = new Address("Street " + i + ", Apt " + i, "City;" + i);
+            userList.add(new User(i, "User" + i, LocalDateTime.of(2024, 1, 1, 10, 30), UserStatus.ACTIVE, address));
+        }
+        String expected = Toons.serialize("users", userList);
+
+        StringWriter writer = new StringWriter();
+        Toons.serialize("users", userList, writer);
+        assertEquals("Writer输出应与字符串结果一致", expected, writer.toString());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Toons.serializeUtf8("users", userList, stream);
+        assertEquals("OutputStream输出应与字符串结果一致", expected, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+
+        // PrintStream同时是OutputStream与Appendable：按Appendable写出，不产生重载歧义
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        try (PrintStream print = new PrintStream(printed, true, "UTF-8")) {
+            Toons.serialize("users", userList, print);
+            print.flush();
+            assertEquals(expected, new String(printed.toByteArray(), StandardCharsets.UTF_8));
+        } catch (java.io.UnsupportedEncodingException e) {
+            throw new ToonException("不支持UTF-8", e);
+        }
+
+        StringBuilder emptyOut = new StringBuilder();
+        Toons.serialize("emptyUsers", new ArrayList<User>(), emptyOut);
+        assertEquals("emptyUsers(0){}:", emptyOut.toString());
+    }
+
+    /**
+     * 测试特殊字符单次遍历转义（\\ , ; { } 换行）
+     */
+    public static void testEscapeSpecialCharacters() throws ToonException {
+        List<Address> addressList = new ArrayList<>();
+        addressList.add(new Address("a\\b,c;d{e}f\ng", "plain"));
+        addressList.add(new Address(null, ""));
+
+        String toonStr = Toons.serialize("addresses", addressList);
+        assertEquals("addresses(2){street#街道地址，含门牌号和单元号,city#城市名称}: \n"
+                + "  a\\\\b\\,c\\;d\\{e\\}f\\ng,plain;\n"
+                + "  ,;", toonStr);
+    }
+
+    /**
+     * 测试基础类型字段无装箱写出，结果与toString一致
+     */
+    public static void testPrimitiveColumns() throws ToonException {
+        List<Metrics> metricsList = new ArrayList<>();
+        metricsList.add(new Metrics(Integer.MIN_VALUE, Long.MIN_VALUE, (short) -7, 0.1, true, ',', 1.1f, Long.MAX_VALUE));
+        metricsList.add(new Metrics(Integer.MAX_VALUE, 1000000000000L, (byte) 0, -0.0, false, 'x', 0f, null));
+
+        String toonStr = Toons.serialize("metrics", metricsList);
+        assertEquals("metrics(2){count#,total#,delta#,ratio#,enabled#,flag#,weight#,boxed#}: \n"
+                + "  -2147483648,-9223372036854775808,-7,0.1,true,\\,,1.1,9223372036854775807;\n"
+                + "  2147483647,1000000000000,0,-0.0,false,x,0.0,;", toonStr);
+    }
+
+    /**
+     * 测试并行序列化与顺序序列化的输出逐字节一致（字符串与流式两种输出）
+     */
+    public static void testParallelSerialization() throws ToonException {
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            Address address = i % 7 == 0 ? null : new Address("Street " + i + ", Apt " + i, "City;" + i);
+            userList.add(new User(i, "User" + i, LocalDateTime.of(2024, 1, 1, 10, 30), UserStatus.ACTIVE, address));
+        }
+        String expected = Toons.serialize("users", userList);
+
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        serializer.enableParallel(1000, new ForkJoinPool(4));
+        assertEquals("并行输出应与顺序输出一致", expected, serializer.serialize("users", userList));
+
+        StringWriter writer = new StringWriter();
+        serializer.serialize("users", userList, writer);
+        assertEquals(expected, writer.toString());
+
+        // 低于阈值时仍走顺序路径
+        List<User> small = userList.subList(0, 10);
+        assertEquals(Toons.serialize("users", small), serializer.serialize("users", small));
+    }
+
+    /**
+     * 测试token预算：预算充足时与普通序列化一致；不足时截断或抽样，(N)与实际行数一致
+     */
+    public static void testTokenBudget() throws ToonException {
+        assertEquals(4, ToonTokenEstimator.estimate("hello world"));
+        assertEquals(0, ToonTokenEstimator.estimate(""));
+
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            userList.add(new User(i, "User" + i, LocalDateTime.of(2024, 1, 1, 10, 30), UserStatus.ACTIVE,
+                    new Address("Street " + i, "City")));
+        }
+        String full = Toons.serialize("users", userList);
+        ToonBudgetResult unlimited = Toons.serialize("users", userList, Integer.MAX_VALUE);
+        assertEquals(full, unlimited.getText());
+        assertEquals(0, unlimited.getDroppedRows());
+        assertEquals(ToonTokenEstimator.estimate(full), unlimited.getEstimatedTokens());
+
+        ToonBudgetResult truncated = Toons.serialize("users", userList, 2000);
+        assertTrue(truncated.isTruncated());
+        assertTrue(truncated.getEstimatedTokens() <= 2000);
+        assertEquals(500, truncated.getEmittedRows() + truncated.getDroppedRows());
+        assertTrue(truncated.getText().startsWith("users(" + truncated.getEmittedRows() + "){"));
+        List<User> kept = Toons.deserializeList(truncated.getText(), User.class);
+        assertEquals(truncated.getEmittedRows(), kept.size());
+        assertEquals(truncated.getEmittedRows() - 1, kept.get(kept.size() - 1).getId());
+
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        ToonBudgetResult sampled = serializer.serialize("users", userList, 2000, ToonBudgetResult.Strategy.SAMPLE);
+        List<User> samples = Toons.deserializeList(sampled.getText(), User.class);
+        assertTrue(sampled.getEstimatedTokens() <= 2000);
+        assertEquals(sampled.getEmittedRows(), samples.size());
+        assertTrue("抽样应覆盖整个集合", samples.get(samples.size() - 1).getId() > 400);
+
+        assertEquals("users(0){}:", Toons.serialize("users", userList, 5).getText());
+
+        // 预算模式同样报告指标
+        ToonSerializationStats[] last = new ToonSerializationStats[1];
+        serializer.setMetrics(stats -> last[0] = stats);
+        ToonBudgetResult measured = serializer.serialize("users", userList, 2000);
+        assertEquals(measured.getEmittedRows(), last[0].getRows());
+        assertEquals(measured.getText().length(), last[0].getOutputChars());
+        serializer.setMetrics(null);
+
+        // 身份去重：写出的行与普通序列化的前N行一致，引用还原为同一实例
+        Address shared = new Address("Street, 1", "City");
+        List<User> sharing = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sharing.add(new User(i, "User" + i, null, UserStatus.ACTIVE, shared));
+        }
+        serializer.setIdentityTracking(true);
+        assertEquals(serializer.serialize("users", sharing),
+                serializer.serialize("users", sharing, Integer.MAX_VALUE).getText());
+        ToonBudgetResult deduped = serializer.serialize("users", sharing, 300);
+        assertTrue(deduped.isTruncated() && deduped.getEmittedRows() > 1);
+        assertEquals(serializer.serialize("users", sharing.subList(0, deduped.getEmittedRows())), deduped.getText());
+        List<User> sharedUsers = Toons.deserializeList(deduped.getText(), User.class);
+        assertTrue(sharedUsers.get(0).getAddress() == sharedUsers.get(sharedUsers.size() - 1).getAddress());
+        serializer.setIdentityTracking(false);
+
+        // 字典编码：按写出的行生成字典，任何预算下都不超出
+        List<Shipment> shipments = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            shipments.add(new Shipment(i, i % 2 == 0 ? "Rio, Brazil" : "Lima", UserStatus.ACTIVE));
+        }
+        assertEquals(serializer.serialize("shipments", shipments),
+                serializer.serialize("shipments", shipments, Integer.MAX_VALUE).getText());
+        for (int budget = 10; budget < 200; budget += 7) {
+            ToonBudgetResult limited = serializer.serialize("shipments", shipments, budget);
+            assertTrue(limited.getEstimatedTokens() <= budget);
+            assertEquals(limited.getEmittedRows(), Toons.deserializeList(limited.getText(), Shipment.class).size());
+        }
+        assertTrue(serializer.serialize("shipments", shipments, 100).getText().startsWith("@dict city: "));
+    }
+
+    /**
+     * 测试指标回调：单次调用的统计值与输出一致，直方图记录分布与按类的计划缓存命中
+     */
+    public static void testMetrics() throws ToonException {
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            userList.add(new User(i, "User;" + i, LocalDateTime.of(2024, 1, 1, 10, 30), UserStatus.ACTIVE,
+                    new Address("Street, " + i, "City")));
+        }
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        ToonSerializationStats[] last = new ToonSerializationStats[1];
+        serializer.setMetrics(stats -> last[0] = stats);
+        String text = serializer.serialize("users", userList);
+        assertEquals(text.length(), last[0].getOutputChars());
+        assertEquals(10, last[0].getRows());
+        assertEquals(20, last[0].getEscapedChars());
+        assertEquals(3, last[0].getMaxDepth()); // 头部、数据行、地址括号组
+        assertEquals("users", last[0].getRootName());
+
+        StringWriter writer = new StringWriter();
+        serializer.serialize("users", userList, writer);
+        assertEquals(writer.toString().length(), last[0].getOutputChars());
+
+        ToonHistogramMetrics histogram = new ToonHistogramMetrics();
+        serializer = new DefaultToonSerializer();
+        serializer.setMetrics(histogram);
+        for (int i = 0; i < 3; i++) {
+            serializer.serialize("users", userList);
+        }
+        System.out.println("指标统计:\n" + histogram);
+        assertEquals(3, histogram.getRows().getCount());
+        assertEquals(10, histogram.getRows().getMax());
+        ToonHistogramMetrics.PlanCacheCounter userPlan = histogram.getPlanCache().get(User.class);
+        assertEquals(1, userPlan.getMisses());
+        assertEquals(2, userPlan.getHits());
+
+        serializer.setMetrics(null);
+        assertTrue(serializer.getMetrics() == ToonMetrics.NOOP);
+    }
+
+    /**
+     * 测试池化UTF-8输出：字节与String.getBytes一致（含中文、emoji），堆内/直接内存缓冲，扩容与复用
+     */
+    public static void testPooledUtf8Output() throws ToonException {
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            userList.add(new User(i, "用户\uD83D\uDE00" + i, LocalDateTime.of(2024, 1, 1, 10, 30), UserStatus.ACTIVE,
+                    new Address("街道, " + i, "City")));
+        }
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        byte[] expected = serializer.serialize("users", userList).getBytes(StandardCharsets.UTF_8);
+        assertTrue(expected.length > 64 * 1024); // 超过初始缓冲，需要扩容
+
+        for (boolean direct : new boolean[]{false, true}) {
+            ToonBufferPool pool = new ToonBufferPool(direct, 4, 1 << 20);
+            ByteBuffer body = serializer.serialize("users", userList, pool);
+            assertEquals(direct, body.isDirect());
+            assertEquals(0, body.position());
+            byte[] actual = new byte[body.remaining()];
+            body.get(actual);
+            assertArrayEquals(expected, actual);
+            pool.release(body);
+            body = serializer.serialize("users", userList, pool);
+            assertEquals(expected.length, body.remaining());
+            pool.release(body);
+        }
+
+        ToonBufferPool pool = new ToonBufferPool();
+        ByteBuffer small = pool.acquire(100);
+        assertEquals(4096, small.capacity());
+        pool.release(small);
+        assertTrue(pool.acquire(4000) == small); // 同级缓冲被复用
+        ByteBuffer nullRoot = serializer.serialize("user", null, pool);
+        assertEquals("user: null", StandardCharsets.UTF_8.decode(nullRoot).toString());
+    }
+
+    /**
+     * 测试异步数据源：表尾行数与回填头部两种方式，分块大小受限，异步拉取与写出，失败时关闭数据源
+     */
+    public static void testAsyncRowSource() throws ToonException {
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            userList.add(new User(i, "User;" + i, LocalDateTime.of(2024, 1, 1, 10, 30), UserStatus.ACTIVE,
+                    new Address("Street, " + i, "City")));
+        }
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        String expected = serializer.serialize("users", userList);
+        String body = expected.substring(expected.indexOf("){"));
+
+        // 表尾行数：数据行与集合序列化一致，(N)改为(*)，末尾追加 @count N
+        StringBuilder text = new StringBuilder();
+        int rows = serializer.serializeAsync("users", User.class, ToonRowSource.of(userList), ToonChunkSink.of(text))
+                .join();
+        assertEquals(50, rows);
+        assertEquals("users(*" + body + "\n@count 50", text.toString());
+        assertEquals(49, Toons.deserializeList(text.toString(), User.class).get(49).getId());
+        ToonReader reader = new ToonReader(new StringReader(text.toString()));
+        int rowEvents = 0;
+        for (ToonReader.Event e = reader.next(); e != ToonReader.Event.END_DOCUMENT; e = reader.next()) {
+            if (e == ToonReader.Event.ROW_START) {
+                rowEvents++;
+            }
+        }
+        assertEquals(50, rowEvents);
+        try {
+            Toons.deserializeList(text.toString().replace("@count 50", "@count 49"), User.class);
+            fail("表尾行数不一致时应报错");
+        } catch (ToonFormatException expectedError) {
+            // 预期异常
+        }
+
+        // 空数据源
+        StringBuilder empty = new StringBuilder();
+        serializer.serializeAsync("users", User.class, ToonRowSource.of(Collections.<User>emptyList()),
+                ToonChunkSink.of(empty)).join();
+        assertTrue(empty.toString().endsWith("}: \n@count 0"));
+        assertEquals(0, Toons.deserializeList(empty.toString(), User.class).size());
+
+        // 可回写的目标：异步分页拉取、异步写出，结束后回填定宽行数
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            StringBuilder seekable = new StringBuilder();
+            List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+            ToonChunkSink.Seekable sink = new ToonChunkSink.Seekable() {
+                @Override
+                public CompletionStage<Void> write(String chunk) {
+                    chunkSizes.add(chunk.length());
+                    return CompletableFuture.runAsync(() -> seekable.append(chunk), executor);
+                }
+
+                @Override
+                public CompletionStage<Void> rewriteHead(String head) {
+                    seekable.replace(0, head.length(), head);
+                    return CompletableFuture.completedFuture(null);
+                }
+            };
+            boolean[] closed = new boolean[1];
+            ToonRowSource<User> pages = new ToonRowSource<User>() {
+                private int offset;
+
+                @Override
+                public CompletionStage<List<User>> next(int demand) {
+                    int from = offset;
+                    offset = Math.min(userList.size(), offset + demand);
+                    return CompletableFuture.supplyAsync(() -> userList.subList(from, offset), executor);
+                }
+
+                @Override
+                public void close() {
+                    closed[0] = true;
+                }
+            };
+            assertEquals(50, (int) serializer.serializeAsync("users", User.class, pages, sink, 256, 7).join());
+            assertTrue(closed[0]);
+            assertEquals("users(0000000050" + body, seekable.toString());
+            assertTrue(chunkSizes.size() > 10);
+            for (int size : chunkSizes) {
+                assertTrue(size < 256 + 128); // 每块不超过chunkSize加一行
+            }
+            assertEquals(50, Toons.deserializeList(seekable.toString(), User.class).size());
+
+            // 数据源失败：以ToonException异常完成，并关闭数据源
+            closed[0] = false;
+            ToonRowSource<User> failing = new ToonRowSource<User>() {
+                @Override
+                public CompletionStage<List<User>> next(int demand) {
+                    return CompletableFuture.supplyAsync(() -> {
+                        throw new IllegalStateException("cursor closed");
+                    }, executor);
+                }
+
+                @Override
+                public void close() {
+                    closed[0] = true;
+                }
+            };
+            try {
+                serializer.serializeAsync("users", User.class, failing, ToonChunkSink.of(new StringBuilder())).get();
+                fail("数据源失败时应异常完成");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ToonException);
+                assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertTrue(closed[0]);
+        } finally {
+            executor.shutdown();
+        }
+
+        // 同步数据源逐行拉取：循环推进，调用栈不随行数加深
+        List<User> many = Collections.nCopies(100000, userList.get(0));
+        StringWriter sink = new StringWriter();
+        assertEquals(100000, (int) serializer.serializeAsync("users", User.class, ToonRowSource.of(many),
+                ToonChunkSink.of(sink), 64, 1).join());
+    }
+
+    /**
+     * 测试身份去重：共享的嵌套对象只写出一次，环形引用可终止，反序列化后还原为同一实例
+     */
+    public static void testIdentityTracking() throws ToonException {
+        Address shared = new Address("Street, 1", "City");
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            userList.add(new User(i, "User" + i, null, UserStatus.ACTIVE, shared));
+        }
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        String plain = serializer.serialize("users", userList);
+        serializer.setIdentityTracking(true);
+        String deduped = serializer.serialize("users", userList);
+        System.out.println("身份去重结果:\n" + deduped);
+        assertTrue(deduped.contains("  0,User0,,ACTIVE,&1(Street\\, 1,City);\n  1,User1,,ACTIVE,*1;"));
+        assertTrue(deduped.length() < plain.length());
+        List<User> users = Toons.deserializeList(deduped, User.class);
+        assertTrue(users.get(0).getAddress() == users.get(2).getAddress());
+        assertEquals("Street, 1", users.get(2).getAddress().getStreet());
+
+        // 环形引用：集合格式
+        Employee a = new Employee("A");
+        Employee b = new Employee("B");
+        a.manager = b;
+        b.manager = a;
+        List<Employee> staff = new ArrayList<>();
+        staff.add(a);
+        staff.add(b);
+        String table = serializer.serialize("staff", staff);
+        assertEquals("staff(2){name#,manager#[$object]}: \n  A,&1(B,&2(A,*1));\n  B,*2;", table);
+        List<Employee> restored = Toons.deserializeList(table, Employee.class);
+        Employee managerOfA = restored.get(0).manager;
+        assertTrue(managerOfA.manager.manager == managerOfA);
+        assertTrue(restored.get(1).manager == managerOfA.manager);
+
+        // 环形引用：单对象格式
+        String object = serializer.serialize("employee", a);
+        assertEquals("employee&1{name,manager}: \n  name: A\n  manager&2{name,manager}: \n    name: B\n    manager: *1",
+                object);
+        Employee root = Toons.deserialize(object, Employee.class);
+        assertTrue(root.manager.manager == root);
+
+        ToonReader reader = new ToonReader(new StringReader(table));
+        List<Integer> anchors = new ArrayList<>();
+        for (ToonReader.Event e = reader.next(); e != ToonReader.Event.END_DOCUMENT; e = reader.next()) {
+            if (e == ToonReader.Event.GROUP_START) {
+                anchors.add(reader.getAnchor());
+            }
+        }
+        assertEquals(java.util.Arrays.asList(1, 2), anchors);
+
+        // 未开启时，自引用类型的无环数据也不会在展开头部时无限递归
+        serializer.setIdentityTracking(false);
+        Employee c = new Employee("C");
+        c.manager = new Employee("D");
+        String acyclic = serializer.serialize("staff", Collections.singletonList(c));
+        assertEquals("staff(1){name#,manager#[$object]}: \n  C,(D,);", acyclic);
+        assertEquals("D", Toons.deserializeList(acyclic, Employee.class).get(0).manager.name);
+    }
+
+    /**
+     * 测试列字典编码：标注的列总是编码，开启自动模式后低基数的值列（含嵌套对象的子列）也会编码
+     */
+    public static void testDictionaryEncoding() throws ToonException {
+        List<Shipment> shipments = new ArrayList<>();
+        shipments.add(new Shipment(1, "Rio, Brazil", UserStatus.ACTIVE));
+        shipments.add(new Shipment(2, "Lima", UserStatus.ACTIVE));
+        shipments.add(new Shipment(3, "Rio, Brazil", null));
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        String encoded = serializer.serialize("shipments", shipments);
+        System.out.println("列字典编码结果:\n" + encoded);
+        assertEquals("@dict city: Rio\\, Brazil,Lima\n"
+                + "shipments(3){id#,city#,status#}: \n  1,0,ACTIVE;\n  2,1,ACTIVE;\n  3,0,;", encoded);
+        List<Shipment> restored = Toons.deserializeList(encoded, Shipment.class);
+        assertEquals("Rio, Brazil", restored.get(2).city);
+        assertEquals("Lima", restored.get(1).city);
+        assertEquals(null, restored.get(2).status);
+
+        ToonReader reader = new ToonReader(new StringReader(encoded));
+        List<String> cities = new ArrayList<>();
+        for (ToonReader.Event e = reader.next(); e != ToonReader.Event.END_DOCUMENT; e = reader.next()) {
+            if (e == ToonReader.Event.VALUE && "city".equals(reader.getColumn().getPath())) {
+                cities.add(reader.getText());
+            }
+        }
+        assertEquals(java.util.Arrays.asList("Rio, Brazil", "Lima", "Rio, Brazil"), cities);
+
+        // 自动模式：取值重复的列编码，几乎各不相同的列（name）保持原样
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            userList.add(new User(i, "User" + i, null, i % 3 == 0 ? UserStatus.INACTIVE : UserStatus.ACTIVE,
+                    new Address("Street " + i, i % 2 == 0 ? "New York" : "Chicago")));
+        }
+        String plain = serializer.serialize("users", userList);
+        serializer.enableDictionary(0.25);
+        String auto = serializer.serialize("users", userList);
+        System.out.println("自动字典编码结果:\n" + auto);
+        assertTrue(auto.startsWith("@dict status: INACTIVE,ACTIVE\n@dict address.city: New York,Chicago\nusers(20){"));
+        assertTrue(auto.contains("\n  1,User1,,1,(Street 1,1);"));
+        assertTrue(auto.length() < plain.length());
+        List<User> users = Toons.deserializeList(auto, User.class);
+        assertEquals(UserStatus.INACTIVE, users.get(3).getStatus());
+        assertEquals("Chicago", users.get(3).getAddress().getCity());
+
+        // 关闭自动模式后与默认输出一致
+        serializer.disableDictionary();
+        assertEquals(plain, serializer.serialize("users", userList));
+    }
+
+    /**
+     * 测试增量序列化：只写出新增、变化与删除的行，并可读回
+     */
+    public static void testDeltaSerialization() throws ToonException {
+        List<Shipment> previous = new ArrayList<>();
+        previous.add(new Shipment(1, "Lima", UserStatus.ACTIVE));
+        previous.add(new Shipment(2, "Quito", UserStatus.ACTIVE));
+        previous.add(new Shipment(3, "Cusco", UserStatus.ACTIVE));
+        List<Shipment> current = new ArrayList<>();
+        current.add(new Shipment(1, "Lima", UserStatus.ACTIVE));
+        current.add(new Shipment(3, "Cusco", UserStatus.INACTIVE));
+        current.add(new Shipment(4, "Rio, Brazil", UserStatus.ACTIVE));
+        String delta = Toons.serializeDelta("shipments", previous, current);
+        System.out.println("增量序列化结果:\n" + delta);
+        assertEquals("shipments{added,changed,removed}: \n"
+                + "  added(1){id#,city#,status#}: \n    4,Rio\\, Brazil,ACTIVE;\n"
+                + "  changed(1){id#,city#,status#}: \n    3,Cusco,INACTIVE;\n"
+                + "  removed(1){id#}: \n    2;", delta);
+
+        com.github.toon.core.ToonDelta<Shipment> parsed = Toons.deserializeDelta(delta, Shipment.class);
+        assertEquals("Rio, Brazil", parsed.getAdded().get(0).city);
+        assertEquals(UserStatus.INACTIVE, parsed.getChanged().get(0).status);
+        assertEquals(2, parsed.getRemoved().get(0).id);
+        assertEquals(null, parsed.getRemoved().get(0).city);
+
+        // 没有差异时三个集合均为空
+        String same = Toons.serializeDelta("shipments", current, current);
+        assertEquals("shipments{added,changed,removed}: \n  added(0){}:   changed(0){}:   removed(0){}:", same);
+        assertTrue(Toons.deserializeDelta(same, Shipment.class).isEmpty());
+
+        try {
+            Toons.serializeDelta("users", Collections.emptyList(),
+                    Collections.singletonList(new User(1, "A", null, UserStatus.ACTIVE, null)));
+            fail("没有@ToonId的类型应拒绝增量序列化");
+        } catch (ToonException expected) {
+            // 预期
+        }
+    }
+
+    /**
+     * 测试不可变的ToonMapper：派生实例注册新转换器后原实例不变，不受影响的类计划直接沿用
+     */
+    public static void testToonMapper() throws ToonException {
+        ToonHistogramMetrics metrics = new ToonHistogramMetrics();
+        ToonMapper base = ToonMapper.builder().metrics(metrics).build();
+        List<User> userList = Collections.singletonList(
+                new User(1, "Alice", null, UserStatus.ACTIVE, new Address("Main St", "NY")));
+        List<Shipment> shipments = Collections.singletonList(new Shipment(1, "Lima", UserStatus.ACTIVE));
+        String before = base.serialize("users", userList);
+        base.serialize("shipments", shipments);
+
+        ToonMapper derived = base.withConverter(new com.github.toon.converter.TypeConverter() {
+            @Override
+            public boolean support(Class<?> type) {
+                return type == Address.class;
+            }
+
+            @Override
+            public Object convert(String value, Class<?> type) {
+                String[] parts = value.split("/", 2);
+                return new Address(parts[0], parts[1]);
+            }
+
+            @Override
+            public String serialize(Object value) {
+                Address address = (Address) value;
+                return address.getStreet() + "/" + address.getCity();
+            }
+        });
+        String after = derived.serialize("users", userList);
+        assertTrue(after.contains("  1,Alice,,ACTIVE,Main St/NY;"));
+        assertEquals("NY", derived.deserializeList(after, User.class).get(0).getAddress().getCity());
+        assertEquals(before, base.serialize("users", userList)); // 原实例不变
+
+        // Shipment不涉及Address：派生实例沿用已构建的计划，不再计为未命中
+        derived.serialize("shipments", shipments);
+        assertEquals(1, metrics.getPlanCache().get(Shipment.class).getMisses());
+        assertEquals(2, metrics.getPlanCache().get(User.class).getMisses());
+
+        // 多线程共享同一实例
+        List<Shipment> many = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            many.add(new Shipment(i, "City" + (i % 7), UserStatus.ACTIVE));
+        }
+        String expected = derived.serialize("shipments", many);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<java.util.concurrent.Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> derived.serialize("shipments", many)));
+            }
+            for (java.util.concurrent.Future<String> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new ToonException("并发序列化失败", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static void testOutputCache() throws ToonException {
+        DefaultToonSerializer plain = new DefaultToonSerializer();
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        serializer.enableCache(1 << 16);
+        ToonOutputCache cache = serializer.getCache();
+        assertNotNull(cache);
+
+        Catalog shared = new Catalog("Books", 1);
+        List<CatalogItem> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(new CatalogItem(i, "Item, #" + i, shared));
+        }
+        String expected = plain.serialize("items", items);
+        assertEquals(expected, serializer.serialize("items", items));
+        assertEquals(19, cache.getHitCount()); // 首次写出：共享的嵌套对象命中19次
+        assertEquals(expected, serializer.serialize("items", items));
+        assertEquals(39, cache.getHitCount()); // 再次写出：每行直接命中，不再写出嵌套对象
+        assertEquals(21, cache.size());
+
+        // 版本字段变化后片段失效
+        items.get(3).name = "Renamed";
+        items.get(3).revision++;
+        String changed = serializer.serialize("items", items);
+        assertEquals(plain.serialize("items", items), changed);
+        assertTrue(changed.contains("3,Renamed,(Books,1);"));
+
+        // 没有版本字段的对象被修改后需显式失效；包含它的行片段同样需要失效
+        shared.title = "Music";
+        cache.invalidateAll();
+        assertEquals(plain.serialize("items", items), serializer.serialize("items", items));
+
+        // 单对象格式
+        assertEquals(plain.serialize("item", items.get(0)), serializer.serialize("item", items.get(0)));
+
+        // 容量不足时淘汰最久未使用的片段
+        DefaultToonSerializer small = new DefaultToonSerializer();
+        small.enableCache(40);
+        assertEquals(plain.serialize("items", items), small.serialize("items", items));
+        assertTrue(small.getCache().getEvictionCount() > 0);
+        assertTrue(small.getCache().getChars() <= 40);
+
+        // 分段加锁：分段并行序列化与多个线程同时读写缓存，结果与不缓存时一致，占用不超过容量
+        DefaultToonSerializer concurrent = new DefaultToonSerializer();
+        concurrent.enableCache(1 << 16);
+        concurrent.enableParallel(256, new ForkJoinPool(4));
+        List<CatalogItem> many = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            many.add(new CatalogItem(i, "Item, #" + i, new Catalog("C" + (i % 50), i % 3)));
+        }
+        String expectedMany = plain.serialize("items", many);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<java.util.concurrent.Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> concurrent.serialize("items", many)));
+            }
+            for (java.util.concurrent.Future<String> result : results) {
+                assertEquals(expectedMany, result.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new ToonException("并发序列化失败", e);
+        } finally {
+            executor.shutdown();
+        }
+        ToonOutputCache concurrentCache = concurrent.getCache();
+        assertTrue(concurrentCache.getHitCount() > 0);
+        assertTrue(concurrentCache.getEvictionCount() > 0);
+        assertTrue(concurrentCache.getChars() <= 1 << 16);
+
+        // 整个文档按身份与版本缓存
+        String document = serializer.serializeCached("items", items, 1);
+        long hits = cache.getHitCount();
+        assertTrue(document == serializer.serializeCached("items", items, 1));
+        assertEquals(hits + 1, cache.getHitCount());
+        items.get(0).name = "First";
+        items.get(0).revision++;
+        String next = serializer.serializeCached("items", items, 2);
+        assertTrue(next.contains("0,First,"));
+
+        // 身份去重模式下不使用缓存
+        serializer.setIdentityTracking(true);
+        long misses = cache.getMissCount();
+        serializer.serialize("items", items);
+        assertEquals(misses, cache.getMissCount());
+        serializer.setIdentityTracking(false);
+
+        // 注册转换器后，按旧转换器写出的片段与文档全部失效
+        DefaultToonSerializer converting = new DefaultToonSerializer();
+        converting.enableCache(1 << 16);
+        List<CatalogItem> catalog = Collections.singletonList(new CatalogItem(1, "Disc", new Catalog("Jazz", 4)));
+        assertTrue(converting.serialize("items", catalog).contains("1,Disc,(Jazz,4);"));
+        String cachedDocument = converting.serializeCached("items", catalog, null);
+        converting.addConverter(new com.github.toon.converter.TypeConverter() {
+            @Override
+            public boolean support(Class<?> type) {
+                return type == Catalog.class;
+            }
+
+            @Override
+            public Object convert(String value, Class<?> type) {
+                String[] parts = value.split("/", 2);
+                return new Catalog(parts[0], Integer.parseInt(parts[1]));
+            }
+
+            @Override
+            public String serialize(Object value) {
+                Catalog c = (Catalog) value;
+                return c.title + "/" + c.shelf;
+            }
+        });
+        assertEquals(0, converting.getCache().size());
+        assertTrue(converting.serialize("items", catalog).contains("1,Disc,Jazz/4;"));
+        String converted = converting.serializeCached("items", catalog, null);
+        assertTrue(converted != cachedDocument && converted.contains("1,Disc,Jazz/4;"));
+        converting.setIdentityTracking(true); // 输出选项变化同样使缓存失效
+        assertEquals(0, converting.getCache().size());
+
+        ToonMapper mapper = ToonMapper.builder().cache(1 << 10).build();
+        assertEquals(plain.serialize("items", items), mapper.serialize("items", items));
+        assertTrue(mapper.getCache().getMissCount() > 0);
+        assertEquals(null, ToonMapper.builder().build().getCache());
+        try {
+            ToonMapper.builder().cache(-1);
+            fail("负的缓存容量应当报错");
+        } catch (IllegalArgumentException expectedError) {
+            // 预期
+        }
+    }
+
+    public static void testWarmup() throws ToonException {
+        ToonHistogramMetrics metrics = new ToonHistogramMetrics();
+        ToonMapper mapper = ToonMapper.builder().metrics(metrics).build();
+        List<Class<?>> warmed = mapper.warmup(Shipment.class, String.class);
+        assertEquals(Collections.singletonList(Shipment.class), warmed);
+        assertEquals(1, metrics.getPlanCache().get(Shipment.class).getMisses());
+        mapper.serialize("shipments", Collections.singletonList(new Shipment(1, "Lima", UserStatus.ACTIVE)));
+        assertEquals(1, metrics.getPlanCache().get(Shipment.class).getMisses()); // 预热后不再构建
+
+        // 按包扫描：目录中的测试模型与jar中的类
+        List<Class<?>> scanned = mapper.warmup("com.github.toon");
+        assertTrue(scanned.contains(User.class));
+        assertTrue(scanned.contains(CatalogItem.class));
+        assertTrue(FieldCache.warmup("org.junit").isEmpty());
+        assertTrue(FieldCache.size() >= scanned.size());
+        assertTrue(FieldCache.getBuildCount() >= scanned.size());
+
+        // 缓存不持有类：类加载器不可达后可被回收
+        WeakReference<ClassLoader> loaderRef = isolatedWarmup();
+        for (int i = 0; i < 50 && loaderRef.get() != null; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assertEquals(null, loaderRef.get());
+    }
+
+    // 在独立的类加载器中加载模型类并写入字段缓存
+    private static WeakReference<ClassLoader> isolatedWarmup() throws ToonException {
+        URL tests = ToonSerializerTest.class.getProtectionDomain().getCodeSource().getLocation();
+        URL classes = FieldCache.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{tests, classes}, null)) {
+            Class<?> type = Class.forName(Shipment.class.getName(), false, loader);
+            int before = FieldCache.size();
+            FieldCache.warmup(type);
+            assertEquals(before + 1, FieldCache.size());
+            return new WeakReference<>(loader);
+        } catch (java.io.IOException | ClassNotFoundException e) {
+            throw new ToonException("加载隔离类失败", e);
+        }
+    }
+
+    @com.github.toon.anno.ToonCacheable(version = "revision")
+    static class CatalogItem {
+        @com.github.toon.anno.ToonField(order = 1)
+        private int id;
+        @com.github.toon.anno.ToonField(order = 2)
+        private String name;
+        @com.github.toon.anno.ToonField(order = 3)
+        private Catalog catalog;
+        private int revision;
+
+        public CatalogItem() {}
+
+        CatalogItem(int id, String name, Catalog catalog) {
+            this.id = id;
+            this.name = name;
+            this.catalog = catalog;
+        }
+    }
+
+    @com.github.toon.anno.ToonCacheable
+    static class Catalog {
+        @com.github.toon.anno.ToonField(order = 1)
+        private String title;
+        @com.github.toon.anno.ToonField(order = 2)
+        private int shelf;
+
+        public Catalog() {}
+
+        Catalog(String title, int shelf) {
+            this.title = title;
+            this.shelf = shelf;
+        }
+    }
+
+    static class Shipment {
+        @com.github.toon.anno.ToonId
+        @com.github.toon.anno.ToonField(order = 1)
+        private int id;
+        @com.github.toon.anno.ToonField(order = 2, dictionary = true)
+        private String city;
+        @com.github.toon.anno.ToonField(order = 3)
+        private UserStatus status;
+
+        public Shipment() {}
+
+        Shipment(int id, String city, UserStatus status) {
+            this.id = id;
+            this.city = city;
+            this.status = status;
+        }
+    }
+
+    static class Employee {
+        @com.github.toon.anno.ToonField(order = 1)
+        private String name;
+        @com.github.toon.anno.ToonField(order = 2)
+        private Employee manager;
+
+        public Employee() {}
+
+        Employee(String name) {
+            this.name = name;
+        }
+    }
+
+    static class Metrics {
+        @com.github.toon.anno.ToonField(order = 1)
+        private int count;
+        @com.github.toon.anno.ToonField(order = 2)
+        private long total;
+        @com.github.toon.anno.ToonField(order = 3)
+        private short delta;
+        @com.github.toon.anno.ToonField(order = 4)
+        private double ratio;
+        @com.github.toon.anno.ToonField(order = 5)
+        private boolean enabled;
+        @com.github.toon.anno.ToonField(order = 6)
+        private char flag;
+        @com.github.toon.anno.ToonField(order = 7)
+        private float weight;
+        @com.github.toon.anno.ToonField(order = 8)
+        private Long boxed;
+
+        Metrics(int count, long total, short delta, double ratio, boolean enabled, char flag, float weight, Long boxed) {
+            this.count = count;
+            this.total = total;
+            this.delta = delta;
+            this.ratio = ratio;
+            this.enabled = enabled;
+            this.flag = flag;
+            this.weight = weight;
+            this.boxed = boxed;
+        }
+    }
+
     static class Address {
         @com.github.toon.anno.ToonField(order = 1, comment = "街道地址，含门牌号和单元号")
         private String street;
@@ -0,0 +1,108 @@
+package com.github.toon;
+
+import com.github.toon.anno.ToonField;
+import com.github.toon.converter.TypeConverter;
+import com.github.toon.core.DefaultToonSerializer;
+import com.github.toon.core.ToonOutput;
+import com.github.toon.core.ToonWriter;
+import com.github.toon.exception.ToonException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ToonWriterTest {
+
+    public static void main(String[] args) throws ToonException {
+        testGeneratedWriterIsUsed();
+        testFallbackWhenConverterOverridesColumn();
+    }
+
+    /**
+     * 测试存在 类名$$ToonWriter 时自动使用，且输出与反射路径一致
+     */
+    public static void testGeneratedWriterIsUsed() throws ToonException {
+        List<GeneratedPoint> points = new ArrayList<>();
+        points.add(new GeneratedPoint(1, "a,b"));
+        points.add(new GeneratedPoint(2, null));
+
+        int before = GeneratedPoint$$ToonWriter.rows;
+        String toonStr = new DefaultToonSerializer().serialize("points", points);
+        System.out.println("生成写出器序列化结果:\n" + toonStr);
+
+        assertEquals(before + 2, GeneratedPoint$$ToonWriter.rows);
+        assertEquals("points(2){x#横坐标,label#}: \n  1,a\\,b;\n  2,;", toonStr);
+    }
+
+    /**
+     * 测试自定义转换器接管列类型时退回反射路径
+     */
+    public static void testFallbackWhenConverterOverridesColumn() throws ToonException {
+        List<GeneratedPoint> points = new ArrayList<>();
+        points.add(new GeneratedPoint(1, "a"));
+
+        DefaultToonSerializer serializer = new DefaultToonSerializer();
+        serializer.addConverter(new UpperCaseConverter());
+        int before = GeneratedPoint$$ToonWriter.rows;
+        String toonStr = serializer.serialize("points", points);
+
+        assertEquals(before, GeneratedPoint$$ToonWriter.rows);
+        assertEquals("points(1){x#横坐标,label#}: \n  1,A;", toonStr);
+    }
+
+    static class UpperCaseConverter implements TypeConverter {
+        @Override
+        public boolean support(Class<?> type) {
+            return type == String.class;
+        }
+
+        @Override
+        public Object convert(String value, Class<?> type) {
+            return value;
+        }
+
+        @Override
+        public String serialize(Object value) {
+            return value.toString().toUpperCase();
+        }
+    }
+}
+
+class GeneratedPoint {
+    @ToonField(order = 1, comment = "横坐标")
+    int x;
+
+    @ToonField(order = 2)
+    String label;
+
+    GeneratedPoint(int x, String label) {
+        this.x = x;
+        this.label = label;
+    }
+}
+
+// 模拟 toon-processor 生成的写出器
+final class GeneratedPoint$$ToonWriter implements ToonWriter<GeneratedPoint> {
+    static int rows;
+
+    @Override
+    public String tableHeader() {
+        return "x#横坐标,label#";
+    }
+
+    @Override
+    public Class<?>[] columnTypes() {
+        return new Class<?>[]{int.class, String.class};
+    }
+
+    @Override
+    public void writeRow(GeneratedPoint value, ToonOutput out) throws ToonException {
+        rows++;
+        out.appendInt(value.x);
+        out.append(',');
+        if (value.label != null) {
+            out.appendEscaped(value.label);
+        }
+    }
+}
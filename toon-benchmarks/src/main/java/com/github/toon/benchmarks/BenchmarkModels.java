@@ -0,0 +1,219 @@
+package com.github.toon.benchmarks;
+
+import com.github.toon.anno.ToonField;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试使用的数据模型与数据生成：扁平、宽表、深层嵌套、集合密集四种形态。
+ * 数据由固定种子生成，保证各次运行之间可比。
+ */
+public final class BenchmarkModels {
+    private BenchmarkModels() {}
+
+    public enum Shape {
+        FLAT, WIDE, DEEP, COLLECTIONS
+    }
+
+    public enum Status {
+        ACTIVE, INACTIVE, LOCKED
+    }
+
+    // 生成指定形态的数据集
+    public static List<?> rows(Shape shape, int count) {
+        Random random = new Random(42);
+        List<Object> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            switch (shape) {
+                case FLAT:
+                    rows.add(Flat.create(i, random));
+                    break;
+                case WIDE:
+                    rows.add(Wide.create(i, random));
+                    break;
+                case DEEP:
+                    rows.add(Deep.create(i, random));
+                    break;
+                default:
+                    rows.add(Order.create(i, random));
+            }
+        }
+        return rows;
+    }
+
+    // 扁平对象：少量基础类型字段与转换器字段
+    public static class Flat {
+        @ToonField(order = 1, comment = "用户ID")
+        public long id;
+        @ToonField(order = 2, comment = "用户名")
+        public String name;
+        @ToonField(order = 3, comment = "余额")
+        public double balance;
+        @ToonField(order = 4, comment = "是否启用")
+        public boolean enabled;
+        @ToonField(order = 5, comment = "状态")
+        public Status status;
+        @ToonField(order = 6, comment = "注册时间")
+        public LocalDateTime createdAt;
+
+        static Flat create(int i, Random random) {
+            Flat flat = new Flat();
+            flat.id = i;
+            flat.name = "user_" + i;
+            flat.balance = random.nextInt(1_000_000) / 100.0;
+            flat.enabled = random.nextBoolean();
+            flat.status = Status.values()[i % 3];
+            flat.createdAt = LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i);
+            return flat;
+        }
+    }
+
+    // 宽表：24列，模拟报表导出
+    public static class Wide {
+        @ToonField(order = 1) public long id;
+        @ToonField(order = 2) public String code;
+        @ToonField(order = 3) public String title;
+        @ToonField(order = 4) public String category;
+        @ToonField(order = 5) public String region;
+        @ToonField(order = 6) public String owner;
+        @ToonField(order = 7) public int quantity;
+        @ToonField(order = 8) public int reserved;
+        @ToonField(order = 9) public int shipped;
+        @ToonField(order = 10) public int returned;
+        @ToonField(order = 11) public long views;
+        @ToonField(order = 12) public long clicks;
+        @ToonField(order = 13) public double price;
+        @ToonField(order = 14) public double cost;
+        @ToonField(order = 15) public double discount;
+        @ToonField(order = 16) public double tax;
+        @ToonField(order = 17) public boolean active;
+        @ToonField(order = 18) public boolean featured;
+        @ToonField(order = 19) public boolean archived;
+        @ToonField(order = 20) public Status status;
+        @ToonField(order = 21) public String note;
+        @ToonField(order = 22) public String sku;
+        @ToonField(order = 23) public String warehouse;
+        @ToonField(order = 24) public LocalDateTime updatedAt;
+
+        static Wide create(int i, Random random) {
+            Wide wide = new Wide();
+            wide.id = i;
+            wide.code = "C" + i;
+            wide.title = "Product " + i;
+            wide.category = "category-" + (i % 17);
+            wide.region = "region-" + (i % 5);
+            wide.owner = "owner" + (i % 101);
+            wide.quantity = random.nextInt(10_000);
+            wide.reserved = random.nextInt(100);
+            wide.shipped = random.nextInt(5_000);
+            wide.returned = random.nextInt(50);
+            wide.views = random.nextInt(Integer.MAX_VALUE);
+            wide.clicks = random.nextInt(1_000_000);
+            wide.price = random.nextInt(100_000) / 100.0;
+            wide.cost = random.nextInt(50_000) / 100.0;
+            wide.discount = random.nextInt(30) / 100.0;
+            wide.tax = 0.13;
+            wide.active = random.nextBoolean();
+            wide.featured = random.nextBoolean();
+            wide.archived = false;
+            wide.status = Status.values()[i % 3];
+            wide.note = "";
+            wide.sku = "SKU-" + Integer.toHexString(i);
+            wide.warehouse = "WH" + (i % 7);
+            wide.updatedAt = LocalDateTime.of(2024, 6, 1, 12, 0).plusSeconds(i);
+            return wide;
+        }
+    }
+
+    // 深层嵌套：4层对象，数据行中为多层括号组
+    public static class Deep {
+        @ToonField(order = 1, comment = "ID")
+        public long id;
+        @ToonField(order = 2, comment = "公司")
+        public Company company;
+
+        static Deep create(int i, Random random) {
+            Deep deep = new Deep();
+            deep.id = i;
+            deep.company = new Company();
+            deep.company.name = "company" + i;
+            deep.company.department = new Department();
+            deep.company.department.name = "dept" + (i % 13);
+            deep.company.department.location = new Location();
+            deep.company.department.location.city = "city" + (i % 31);
+            deep.company.department.location.geo = new Geo();
+            deep.company.department.location.geo.lat = random.nextInt(180_000) / 1000.0 - 90;
+            deep.company.department.location.geo.lng = random.nextInt(360_000) / 1000.0 - 180;
+            return deep;
+        }
+    }
+
+    public static class Company {
+        @ToonField(order = 1) public String name;
+        @ToonField(order = 2) public Department department;
+    }
+
+    public static class Department {
+        @ToonField(order = 1) public String name;
+        @ToonField(order = 2) public Location location;
+    }
+
+    public static class Location {
+        @ToonField(order = 1) public String city;
+        @ToonField(order = 2) public Geo geo;
+    }
+
+    public static class Geo {
+        @ToonField(order = 1) public double lat;
+        @ToonField(order = 2) public double lng;
+    }
+
+    // 集合密集：每行含对象列表与字符串列表
+    public static class Order {
+        @ToonField(order = 1, comment = "订单号")
+        public long id;
+        @ToonField(order = 2, comment = "客户")
+        public String customer;
+        @ToonField(order = 3, comment = "明细")
+        public List<Item> items;
+        @ToonField(order = 4, comment = "标签")
+        public List<String> tags;
+
+        static Order create(int i, Random random) {
+            Order order = new Order();
+            order.id = i;
+            order.customer = "customer" + (i % 997);
+            int itemCount = 1 + random.nextInt(5);
+            order.items = new ArrayList<>(itemCount);
+            for (int j = 0; j < itemCount; j++) {
+                Item item = new Item();
+                item.sku = "SKU-" + random.nextInt(10_000);
+                item.quantity = 1 + random.nextInt(9);
+                item.price = random.nextInt(100_000) / 100.0;
+                order.items.add(item);
+            }
+            order.tags = Arrays.asList("tag" + (i % 3), "tag" + (i % 11));
+            return order;
+        }
+    }
+
+    public static class Item {
+        @ToonField(order = 1) public String sku;
+        @ToonField(order = 2) public int quantity;
+        @ToonField(order = 3) public double price;
+    }
+
+    // 单个字符串字段，用于对比转义开销
+    public static class Text {
+        @ToonField(order = 1, comment = "内容")
+        public String content;
+
+        public Text(String content) {
+            this.content = content;
+        }
+    }
+}
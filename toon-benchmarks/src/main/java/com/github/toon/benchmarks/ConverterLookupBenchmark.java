@@ -0,0 +1,94 @@
+package com.github.toon.benchmarks;
+
+import com.github.toon.benchmarks.BenchmarkModels.Flat;
+import com.github.toon.benchmarks.BenchmarkModels.Shape;
+import com.github.toon.converter.ConverterRegistry;
+import com.github.toon.converter.TypeConverter;
+import com.github.toon.core.DefaultToonSerializer;
+import com.github.toon.exception.ToonException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 转换器查找：注册大量自定义转换器后，查找（命中内置转换器、未命中）与整体序列化的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterLookupBenchmark {
+    @Param({"0", "16", "256"})
+    public int registered;
+
+    private ConverterRegistry registry;
+    private DefaultToonSerializer serializer;
+    private List<?> data;
+
+    @Setup
+    public void setup() throws ToonException {
+        registry = new ConverterRegistry();
+        serializer = new DefaultToonSerializer();
+        for (int i = 0; i < registered; i++) {
+            UnusedConverter converter = new UnusedConverter(i);
+            registry.addConverter(converter);
+            serializer.addConverter(converter);
+        }
+        data = BenchmarkModels.rows(Shape.FLAT, 1000);
+        serializer.serialize("rows", data);
+    }
+
+    @Benchmark
+    public TypeConverter lookupHit() {
+        return registry.findConverter(LocalDateTime.class);
+    }
+
+    @Benchmark
+    public TypeConverter lookupMiss() {
+        return registry.findConverter(Flat.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String serialize() throws ToonException {
+        return serializer.serialize("rows", data);
+    }
+
+    // 不匹配任何类型的转换器，只增加线性扫描的长度
+    static final class UnusedConverter implements TypeConverter {
+        private final int id;
+
+        UnusedConverter(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean support(Class<?> type) {
+            return type.getName().hashCode() == id - Integer.MAX_VALUE;
+        }
+
+        @Override
+        public Object convert(String value, Class<?> type) {
+            return null;
+        }
+
+        @Override
+        public String serialize(Object value) {
+            return String.valueOf(value);
+        }
+    }
+}
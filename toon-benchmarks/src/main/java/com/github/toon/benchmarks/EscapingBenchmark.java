@@ -0,0 +1,74 @@
+package com.github.toon.benchmarks;
+
+import com.github.toon.benchmarks.BenchmarkModels.Text;
+import com.github.toon.core.DefaultToonSerializer;
+import com.github.toon.exception.ToonException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字符串转义：相同长度的字符串分别不含、稀疏含有、密集含有需转义的字符（\ , ; { } 换行）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscapingBenchmark {
+    private static final int ROWS = 1000;
+    private static final int LENGTH = 64;
+
+    @Param({"PLAIN", "SPARSE", "DENSE"})
+    public String content;
+
+    private DefaultToonSerializer serializer;
+    private List<Text> data;
+
+    @Setup
+    public void setup() throws ToonException {
+        serializer = new DefaultToonSerializer();
+        data = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            data.add(new Text(text(i)));
+        }
+        serializer.serialize("texts", data);
+    }
+
+    private String text(int seed) {
+        StringBuilder builder = new StringBuilder(LENGTH);
+        for (int i = 0; builder.length() < LENGTH; i++) {
+            if ("DENSE".equals(content) && i % 2 == 1) {
+                builder.append(",;{}\\\n".charAt((seed + i) % 6));
+            } else if ("SPARSE".equals(content) && i % 16 == 15) {
+                builder.append(',');
+            } else {
+                builder.append((char) ('a' + (seed + i) % 26));
+            }
+        }
+        return builder.toString();
+    }
+
+    @Benchmark
+    public String toon() throws ToonException {
+        return serializer.serialize("texts", data);
+    }
+
+    @Benchmark
+    public String jsonBaseline() {
+        return JsonBaselineWriter.write(data);
+    }
+}
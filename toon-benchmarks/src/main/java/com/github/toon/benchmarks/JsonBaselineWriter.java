@@ -0,0 +1,174 @@
+package com.github.toon.benchmarks;
+
+import com.github.toon.benchmarks.BenchmarkModels.Deep;
+import com.github.toon.benchmarks.BenchmarkModels.Flat;
+import com.github.toon.benchmarks.BenchmarkModels.Item;
+import com.github.toon.benchmarks.BenchmarkModels.Order;
+import com.github.toon.benchmarks.BenchmarkModels.Text;
+import com.github.toon.benchmarks.BenchmarkModels.Wide;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * JSON基线：为每个模型手写的JSON写出器（无反射、无第三方依赖），
+ * 代表同样数据以JSON输出时的最低开销，作为TOON序列化的参照。
+ */
+public final class JsonBaselineWriter {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private JsonBaselineWriter() {}
+
+    public static String write(List<?> rows) {
+        StringBuilder out = new StringBuilder(rows.size() * 64 + 16);
+        out.append('[');
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Object row = rows.get(i);
+            if (row instanceof Flat) {
+                writeFlat(out, (Flat) row);
+            } else if (row instanceof Wide) {
+                writeWide(out, (Wide) row);
+            } else if (row instanceof Deep) {
+                writeDeep(out, (Deep) row);
+            } else if (row instanceof Order) {
+                writeOrder(out, (Order) row);
+            } else {
+                writeText(out, (Text) row);
+            }
+        }
+        return out.append(']').toString();
+    }
+
+    private static void writeFlat(StringBuilder out, Flat flat) {
+        out.append("{\"id\":").append(flat.id);
+        out.append(",\"name\":");
+        string(out, flat.name);
+        out.append(",\"balance\":").append(flat.balance);
+        out.append(",\"enabled\":").append(flat.enabled);
+        out.append(",\"status\":");
+        string(out, flat.status.name());
+        out.append(",\"createdAt\":");
+        string(out, DATE_TIME.format(flat.createdAt));
+        out.append('}');
+    }
+
+    private static void writeWide(StringBuilder out, Wide wide) {
+        out.append("{\"id\":").append(wide.id);
+        out.append(",\"code\":");
+        string(out, wide.code);
+        out.append(",\"title\":");
+        string(out, wide.title);
+        out.append(",\"category\":");
+        string(out, wide.category);
+        out.append(",\"region\":");
+        string(out, wide.region);
+        out.append(",\"owner\":");
+        string(out, wide.owner);
+        out.append(",\"quantity\":").append(wide.quantity);
+        out.append(",\"reserved\":").append(wide.reserved);
+        out.append(",\"shipped\":").append(wide.shipped);
+        out.append(",\"returned\":").append(wide.returned);
+        out.append(",\"views\":").append(wide.views);
+        out.append(",\"clicks\":").append(wide.clicks);
+        out.append(",\"price\":").append(wide.price);
+        out.append(",\"cost\":").append(wide.cost);
+        out.append(",\"discount\":").append(wide.discount);
+        out.append(",\"tax\":").append(wide.tax);
+        out.append(",\"active\":").append(wide.active);
+        out.append(",\"featured\":").append(wide.featured);
+        out.append(",\"archived\":").append(wide.archived);
+        out.append(",\"status\":");
+        string(out, wide.status.name());
+        out.append(",\"note\":");
+        string(out, wide.note);
+        out.append(",\"sku\":");
+        string(out, wide.sku);
+        out.append(",\"warehouse\":");
+        string(out, wide.warehouse);
+        out.append(",\"updatedAt\":");
+        string(out, DATE_TIME.format(wide.updatedAt));
+        out.append('}');
+    }
+
+    private static void writeDeep(StringBuilder out, Deep deep) {
+        out.append("{\"id\":").append(deep.id);
+        out.append(",\"company\":{\"name\":");
+        string(out, deep.company.name);
+        out.append(",\"department\":{\"name\":");
+        string(out, deep.company.department.name);
+        out.append(",\"location\":{\"city\":");
+        string(out, deep.company.department.location.city);
+        out.append(",\"geo\":{\"lat\":").append(deep.company.department.location.geo.lat);
+        out.append(",\"lng\":").append(deep.company.department.location.geo.lng);
+        out.append("}}}}}");
+    }
+
+    private static void writeOrder(StringBuilder out, Order order) {
+        out.append("{\"id\":").append(order.id);
+        out.append(",\"customer\":");
+        string(out, order.customer);
+        out.append(",\"items\":[");
+        for (int i = 0; i < order.items.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Item item = order.items.get(i);
+            out.append("{\"sku\":");
+            string(out, item.sku);
+            out.append(",\"quantity\":").append(item.quantity);
+            out.append(",\"price\":").append(item.price);
+            out.append('}');
+        }
+        out.append("],\"tags\":[");
+        for (int i = 0; i < order.tags.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            string(out, order.tags.get(i));
+        }
+        out.append("]}");
+    }
+
+    private static void writeText(StringBuilder out, Text text) {
+        out.append("{\"content\":");
+        string(out, text.content);
+        out.append('}');
+    }
+
+    // JSON字符串转义（引号、反斜杠与控制字符）
+    private static void string(StringBuilder out, String value) {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.append(value, start, i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append(String.format("\\u%04x", (int) c));
+            }
+            start = i + 1;
+        }
+        out.append(value, start, value.length()).append('"');
+    }
+}
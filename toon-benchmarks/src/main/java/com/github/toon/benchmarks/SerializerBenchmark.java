@@ -0,0 +1,56 @@
+package com.github.toon.benchmarks;
+
+import com.github.toon.benchmarks.BenchmarkModels.Shape;
+import com.github.toon.core.DefaultToonSerializer;
+import com.github.toon.exception.ToonException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集合序列化：四种数据形态 × 1/1k/100k 行，与手写JSON基线对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+    @Param({"FLAT", "WIDE", "DEEP", "COLLECTIONS"})
+    public Shape shape;
+
+    @Param({"1", "1000", "100000"})
+    public int rows;
+
+    private DefaultToonSerializer serializer;
+    private List<?> data;
+
+    @Setup
+    public void setup() throws ToonException {
+        serializer = new DefaultToonSerializer();
+        data = BenchmarkModels.rows(shape, rows);
+        serializer.serialize("rows", data); // 预先生成类计划，测量稳定状态
+    }
+
+    @Benchmark
+    public String toon() throws ToonException {
+        return serializer.serialize("rows", data);
+    }
+
+    @Benchmark
+    public String jsonBaseline() {
+        return JsonBaselineWriter.write(data);
+    }
+}
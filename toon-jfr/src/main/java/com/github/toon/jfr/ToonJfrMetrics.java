@@ -0,0 +1,50 @@
+package com.github.toon.jfr;
+
+import com.github.toon.core.ToonMetrics;
+import com.github.toon.core.ToonSerializationStats;
+
+/**
+ * 将较大的序列化调用提交为 JDK Flight Recorder 事件（com.github.toon.Serialization），
+ * 输出字符数或耗时达到任一阈值才提交；未在录制或事件被禁用时只有一次判断的开销。
+ * 位于可选的 toon-jfr 模块（核心库不依赖 jdk.jfr），按Java 11编译，需要运行在JDK 11+上。
+ *
+ * <pre>
+ * serializer.setMetrics(new ToonJfrMetrics(64 * 1024, TimeUnit.MILLISECONDS.toNanos(5)));
+ * // java -XX:StartFlightRecording=filename=app.jfr ...，在JMC的"TOON"分类下查看
+ * </pre>
+ */
+public final class ToonJfrMetrics implements ToonMetrics {
+    private static final long DEFAULT_MIN_OUTPUT_CHARS = 64 * 1024;
+    private static final long DEFAULT_MIN_DURATION_NANOS = 1_000_000; // 1ms
+
+    private final long minOutputChars;
+    private final long minDurationNanos;
+
+    public ToonJfrMetrics() {
+        this(DEFAULT_MIN_OUTPUT_CHARS, DEFAULT_MIN_DURATION_NANOS);
+    }
+
+    public ToonJfrMetrics(long minOutputChars, long minDurationNanos) {
+        this.minOutputChars = minOutputChars;
+        this.minDurationNanos = minDurationNanos;
+    }
+
+    @Override
+    public void onSerialize(ToonSerializationStats stats) {
+        if (stats.getOutputChars() < minOutputChars && stats.getDurationNanos() < minDurationNanos) {
+            return;
+        }
+        ToonSerializationEvent event = new ToonSerializationEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.rootName = stats.getRootName();
+        event.rootType = stats.getRootType();
+        event.serializationDuration = stats.getDurationNanos();
+        event.outputChars = stats.getOutputChars();
+        event.rows = stats.getRows();
+        event.maxDepth = stats.getMaxDepth();
+        event.escapedChars = stats.getEscapedChars();
+        event.commit();
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.toon.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder 事件：一次较大的序列化调用（由 ToonJfrMetrics 按阈值提交）
+ */
+@Name("com.github.toon.Serialization")
+@Label("TOON Serialization")
+@Category("TOON")
+@Description("一次超过阈值的TOON序列化调用")
+@StackTrace(false)
+class ToonSerializationEvent extends Event {
+    @Label("Root Name")
+    String rootName;
+
+    @Label("Root Type")
+    Class<?> rootType;
+
+    @Label("Serialization Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long serializationDuration;
+
+    @Label("Output Chars")
+    long outputChars;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Max Depth")
+    int maxDepth;
+
+    @Label("Escaped Chars")
+    long escapedChars;
+}
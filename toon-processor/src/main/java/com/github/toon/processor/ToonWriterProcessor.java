@@ -0,0 +1,362 @@
+package com.github.toon.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 为带@ToonField字段的类生成专用写出器（类名+"$$ToonWriter"，实现 com.github.toon.core.ToonWriter）
+ * 只处理所有列都是内置值类型（基础类型、String、Integer/Long/Double/Boolean、枚举、LocalDateTime）
+ * 且可直接访问（非private字段或getter）的类；其余类不生成，运行时自动退回反射路径。
+ */
+@SupportedAnnotationTypes(ToonWriterProcessor.TOON_FIELD)
+public class ToonWriterProcessor extends AbstractProcessor {
+    static final String TOON_FIELD = "com.github.toon.anno.ToonField";
+    private static final String WRITER_SUFFIX = "$$ToonWriter";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement toonField = processingEnv.getElementUtils().getTypeElement(TOON_FIELD);
+        if (toonField == null) {
+            return false;
+        }
+        Set<TypeElement> targets = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(toonField)) {
+            Element owner = element.getEnclosingElement();
+            if (owner instanceof TypeElement) {
+                targets.add((TypeElement) owner);
+            }
+        }
+        for (TypeElement target : targets) {
+            List<ColumnSource> columns = collectColumns(target);
+            if (columns != null) {
+                writeSource(target, columns);
+            }
+        }
+        return false;
+    }
+
+    // 按运行时 FieldCache 的规则收集字段：子类在前、父类在后，再按order稳定排序
+    private List<ColumnSource> collectColumns(TypeElement target) {
+        if (!isEligibleClass(target)) {
+            return null;
+        }
+        List<ColumnSource> columns = new ArrayList<>();
+        TypeElement current = target;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                AnnotationMirror mirror = findToonField(field);
+                if (mirror == null) {
+                    continue;
+                }
+                ColumnSource column = toColumn(target, field, mirror);
+                if (column == null) {
+                    return null;
+                }
+                columns.add(column);
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        columns.sort(Comparator.comparingInt(c -> c.order));
+        return columns;
+    }
+
+    // 生成类与目标类同包，目标类及其外部类都不能是private；泛型类与抽象类不处理
+    private boolean isEligibleClass(TypeElement target) {
+        if (target.getKind() != ElementKind.CLASS
+                || target.getModifiers().contains(Modifier.ABSTRACT)
+                || !target.getTypeParameters().isEmpty()) {
+            return false;
+        }
+        Element current = target;
+        while (current instanceof TypeElement) {
+            TypeElement type = (TypeElement) current;
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)
+                    && type == target) {
+                return false; // 非静态内部类
+            }
+            if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            current = type.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private AnnotationMirror findToonField(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation.getQualifiedName().contentEquals(TOON_FIELD)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private ColumnSource toColumn(TypeElement target, VariableElement field, AnnotationMirror mirror) {
+        if (field.getModifiers().contains(Modifier.STATIC)) {
+            return skip(target, "静态字段[" + field.getSimpleName() + "]");
+        }
+        ValueType valueType = ValueType.of(field.asType(), processingEnv.getTypeUtils());
+        if (valueType == null) {
+            return skip(target, "字段[" + field.getSimpleName() + "]不是内置值类型");
+        }
+        String access = accessExpression(target, field);
+        if (access == null) {
+            return skip(target, "字段[" + field.getSimpleName() + "]既不可直接访问也没有getter");
+        }
+        int order = 0;
+        String comment = "";
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            String name = entry.getKey().getSimpleName().toString();
+            if ("order".equals(name)) {
+                order = (Integer) entry.getValue().getValue();
+            } else if ("comment".equals(name)) {
+                comment = (String) entry.getValue().getValue();
+            }
+        }
+        return new ColumnSource(field.getSimpleName().toString(), comment, order, valueType,
+                processingEnv.getTypeUtils().erasure(field.asType()).toString(), access);
+    }
+
+    // 优先直接读字段，private字段改用 getXxx()/isXxx()
+    private String accessExpression(TypeElement target, VariableElement field) {
+        if (!field.getModifiers().contains(Modifier.PRIVATE) && isSamePackage(target, field)) {
+            return "value." + field.getSimpleName();
+        }
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(target))) {
+            String methodName = method.getSimpleName().toString();
+            boolean nameMatches = methodName.equals("get" + capitalized)
+                    || (methodName.equals("is" + capitalized) && isBoolean(field.asType()));
+            if (nameMatches
+                    && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && (method.getModifiers().contains(Modifier.PUBLIC) || isSamePackage(target, method))
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())) {
+                return "value." + methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    private boolean isBoolean(TypeMirror type) {
+        return type.getKind() == TypeKind.BOOLEAN || type.toString().equals("java.lang.Boolean");
+    }
+
+    private boolean isSamePackage(TypeElement target, Element member) {
+        PackageElement targetPackage = processingEnv.getElementUtils().getPackageOf(target);
+        PackageElement memberPackage = processingEnv.getElementUtils().getPackageOf(member);
+        return targetPackage.getQualifiedName().contentEquals(memberPackage.getQualifiedName());
+    }
+
+    private ColumnSource skip(TypeElement target, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "未生成ToonWriter，运行时将使用反射：" + reason, target);
+        return null;
+    }
+
+    private void writeSource(TypeElement target, List<ColumnSource> columns) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(target).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(target).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + WRITER_SUFFIX;
+        String targetName = target.getQualifiedName().toString();
+
+        StringBuilder header = new StringBuilder();
+        StringBuilder types = new StringBuilder();
+        for (ColumnSource column : columns) {
+            if (header.length() > 0) {
+                header.append(',');
+                types.append(", ");
+            }
+            header.append(column.name).append('#').append(column.comment);
+            types.append(column.erasure).append(".class");
+        }
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("// 由 toon-processor 生成，请勿手工修改\n");
+        src.append("public final class ").append(simpleName)
+                .append(" implements com.github.toon.core.ToonWriter<").append(targetName).append("> {\n");
+        src.append("    private static final String TABLE_HEADER = ").append(literal(header.toString())).append(";\n");
+        src.append("    private static final Class<?>[] COLUMN_TYPES = {").append(types).append("};\n\n");
+        src.append("    @Override\n    public String tableHeader() {\n        return TABLE_HEADER;\n    }\n\n");
+        src.append("    @Override\n    public Class<?>[] columnTypes() {\n        return COLUMN_TYPES.clone();\n    }\n\n");
+        src.append("    @Override\n    public void writeRow(").append(targetName)
+                .append(" value, com.github.toon.core.ToonOutput out) throws com.github.toon.exception.ToonException {\n");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                src.append("        out.append(',');\n");
+            }
+            columns.get(i).appendWrite(src, "v" + i);
+        }
+        src.append("    }\n}\n");
+
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, target)
+                .openWriter()) {
+            writer.write(src.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "生成ToonWriter失败：" + e.getMessage(), target);
+        }
+    }
+
+    // Java字符串字面量，非ASCII字符统一转为\\uXXXX，与源文件编码无关
+    static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c >= 0x20 && c < 0x7f) {
+                builder.append(c);
+            } else {
+                builder.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static final class ColumnSource {
+        final String name;
+        final String comment;
+        final int order;
+        final ValueType valueType;
+        final String erasure;
+        final String access;
+
+        ColumnSource(String name, String comment, int order, ValueType valueType, String erasure, String access) {
+            this.name = name;
+            this.comment = comment;
+            this.order = order;
+            this.valueType = valueType;
+            this.erasure = erasure;
+            this.access = access;
+        }
+
+        void appendWrite(StringBuilder src, String variable) {
+            if (valueType.primitive) {
+                src.append("        ").append(valueType.write(access)).append(";\n");
+                return;
+            }
+            src.append("        ").append(erasure).append(' ').append(variable).append(" = ").append(access).append(";\n");
+            src.append("        if (").append(variable).append(" != null) {\n");
+            src.append("            ").append(valueType.write(variable)).append(";\n");
+            src.append("        }\n");
+        }
+    }
+
+    // 内置值类型及其写出方式，须与运行时反射路径的输出保持一致
+    private enum ValueType {
+        INT(true, "out.appendInt(%s)"),
+        LONG(true, "out.appendLong(%s)"),
+        DOUBLE(true, "out.appendDouble(%s)"),
+        FLOAT(true, "out.append(String.valueOf(%s))"),
+        BOOLEAN(true, "out.appendBoolean(%s)"),
+        CHAR(true, "out.appendEscaped(%s)"),
+        BOXED_INT(false, "out.appendInt(%s)"),
+        BOXED_LONG(false, "out.appendLong(%s)"),
+        BOXED_DOUBLE(false, "out.appendDouble(%s)"),
+        BOXED_BOOLEAN(false, "out.appendBoolean(%s)"),
+        STRING(false, "out.appendEscaped(%s)"),
+        ENUM(false, "out.appendEscaped(%s.name())"),
+        LOCAL_DATE_TIME(false, "out.appendEscaped(java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(%s))");
+
+        final boolean primitive;
+        private final String pattern;
+
+        ValueType(boolean primitive, String pattern) {
+            this.primitive = primitive;
+            this.pattern = pattern;
+        }
+
+        String write(String expression) {
+            return String.format(pattern, expression);
+        }
+
+        static ValueType of(TypeMirror type, javax.lang.model.util.Types types) {
+            switch (type.getKind()) {
+                case INT:
+                case SHORT:
+                case BYTE:
+                    return INT;
+                case LONG:
+                    return LONG;
+                case DOUBLE:
+                    return DOUBLE;
+                case FLOAT:
+                    return FLOAT;
+                case BOOLEAN:
+                    return BOOLEAN;
+                case CHAR:
+                    return CHAR;
+                case DECLARED:
+                    break;
+                default:
+                    return null;
+            }
+            Element element = types.asElement(type);
+            if (element.getKind() == ElementKind.ENUM) {
+                return ENUM;
+            }
+            switch (((TypeElement) element).getQualifiedName().toString()) {
+                case "java.lang.Integer":
+                    return BOXED_INT;
+                case "java.lang.Long":
+                    return BOXED_LONG;
+                case "java.lang.Double":
+                    return BOXED_DOUBLE;
+                case "java.lang.Boolean":
+                    return BOXED_BOOLEAN;
+                case "java.lang.String":
+                    return STRING;
+                case "java.time.LocalDateTime":
+                    return LOCAL_DATE_TIME;
+                default:
+                    return null;
+            }
+        }
+    }
+}
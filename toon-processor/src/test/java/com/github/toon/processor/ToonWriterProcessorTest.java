@@ -0,0 +1,206 @@
+package com.github.toon.processor;
+
+import com.github.toon.core.DefaultToonSerializer;
+import com.github.toon.core.ToonOutput;
+import com.github.toon.core.ToonWriter;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ToonWriterProcessorTest {
+    private static final String SAMPLE = "sample.Reading";
+    private static final String SAMPLE_SOURCE = String.join("\n",
+            "package sample;",
+            "",
+            "import com.github.toon.anno.ToonField;",
+            "import java.time.LocalDateTime;",
+            "import java.util.ArrayList;",
+            "import java.util.List;",
+            "",
+            "public class Reading {",
+            "    public enum Kind { LOW, HIGH_VALUE }",
+            "",
+            "    @ToonField(order = 1, comment = \"编号, \\\"主键\\\"\") int id;",
+            "    @ToonField(order = 2) long total;",
+            "    @ToonField(order = 3) float ratio;",
+            "    @ToonField(order = 4) double value;",
+            "    @ToonField(order = 5) Double boxed;",
+            "    @ToonField(order = 6) private String label;",
+            "    @ToonField(order = 7) boolean active;",
+            "    @ToonField(order = 8) char mark;",
+            "    @ToonField(order = 9) short small;",
+            "    @ToonField(order = 10) Kind kind;",
+            "    @ToonField(order = 11) LocalDateTime time;",
+            "    @ToonField(order = 12) Integer count;",
+            "    @ToonField(order = 13) Boolean flag;",
+            "    @ToonField(order = 14) Long big;",
+            "",
+            "    public String getLabel() {",
+            "        return label;",
+            "    }",
+            "",
+            "    public static List<Reading> samples() {",
+            "        float[] ratios = {0.1f, 1e-5f, Float.NaN, Float.POSITIVE_INFINITY, -0.0f, 1234567.9f, 100f,"
+                    + " Float.MIN_VALUE};",
+            "        double[] values = {0.1, 1e-7, 1e21, -0.0, Double.NaN, 123456789.125, Double.MAX_VALUE, 2.5};",
+            "        String[] labels = {\"a,b;c\\\\d\", \"(x){y}\", \"*1\", \"line\\nbreak\", \"\", null, \"普通 文本\","
+                    + " \"&2\"};",
+            "        char[] marks = {',', '(', ')', 'x', '\\n', ';', '{', '\\\\'};",
+            "        List<Reading> rows = new ArrayList<>();",
+            "        for (int i = 0; i < ratios.length; i++) {",
+            "            Reading r = new Reading();",
+            "            r.id = i - 3;",
+            "            r.total = Long.MIN_VALUE + i;",
+            "            r.ratio = ratios[i];",
+            "            r.value = values[i];",
+            "            r.boxed = i % 3 == 0 ? null : Double.valueOf(-values[i]);",
+            "            r.label = labels[i];",
+            "            r.active = i % 2 == 0;",
+            "            r.mark = marks[i];",
+            "            r.small = (short) (i * -1000);",
+            "            r.kind = i % 4 == 3 ? null : Kind.values()[i % 2];",
+            "            r.time = i % 4 == 2 ? null : LocalDateTime.of(2024, 1, 1, 10, 30, i * 7, i * 1000);",
+            "            r.count = i % 2 == 1 ? null : Integer.valueOf(i * 1000);",
+            "            r.flag = i % 3 == 1 ? null : Boolean.valueOf(i % 3 == 0);",
+            "            r.big = i % 2 == 0 ? null : Long.valueOf(Long.MAX_VALUE - i);",
+            "            rows.add(r);",
+            "        }",
+            "        return rows;",
+            "    }",
+            "}",
+            "");
+
+    public static void main(String[] args) throws Exception {
+        testGeneratedWriterMatchesReflection();
+    }
+
+    /**
+     * 测试以 -processor 编译示例类：生成 Reading$$ToonWriter，其头部与逐行输出（含float/double、转义字符串）
+     * 与不运行注解处理器编译出的同一个类（反射路径）逐字节一致
+     */
+    public static void testGeneratedWriterMatchesReflection() throws Exception {
+        Path root = Files.createTempDirectory("toon-processor-test");
+        try {
+            Path generatedClasses = compile(root.resolve("generated"), true);
+            Path reflectiveClasses = compile(root.resolve("reflective"), false);
+            assertTrue(Files.exists(generatedClasses.resolve("sample/Reading$$ToonWriter.class")));
+            assertTrue(!Files.exists(reflectiveClasses.resolve("sample/Reading$$ToonWriter.class")));
+
+            try (URLClassLoader generatedLoader = load(generatedClasses);
+                 URLClassLoader reflectiveLoader = load(reflectiveClasses)) {
+                List<?> generatedRows = samples(generatedLoader);
+                List<?> reflectiveRows = samples(reflectiveLoader);
+                String expected = new DefaultToonSerializer().serialize("readings", reflectiveRows);
+                String actual = new DefaultToonSerializer().serialize("readings", generatedRows);
+                System.out.println("生成写出器与反射路径对比:\n" + actual);
+                assertEquals(expected, actual);
+
+                // 直接调用生成的写出器，确认逐行输出一致（而不是运行时退回了反射路径）
+                @SuppressWarnings("unchecked")
+                ToonWriter<Object> writer = (ToonWriter<Object>) generatedLoader
+                        .loadClass(SAMPLE + "$$ToonWriter").getDeclaredConstructor().newInstance();
+                String[] lines = expected.split("\n");
+                assertEquals("readings(" + generatedRows.size() + "){" + writer.tableHeader() + "}: ", lines[0]);
+                for (int i = 0; i < generatedRows.size(); i++) {
+                    ToonOutput out = new ToonOutput();
+                    writer.writeRow(generatedRows.get(i), out);
+                    assertEquals(lines[i + 1], "  " + out + ";");
+                }
+            }
+        } finally {
+            delete(root);
+        }
+    }
+
+    // 编译示例类；processor为false时不运行注解处理（-proc:none），得到只能走反射路径的同名类
+    private static Path compile(Path dir, boolean processor) throws IOException, URISyntaxException {
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Path sources = Files.createDirectories(dir.resolve("sources"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("需要在JDK（而非JRE）上运行", compiler);
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = new ArrayList<>(Arrays.asList(
+                "-classpath", location(ToonWriter.class),
+                "-d", classes.toString(),
+                "-s", sources.toString(),
+                "-encoding", "UTF-8"));
+        if (processor) {
+            options.addAll(Arrays.asList("-processorpath", location(ToonWriterProcessor.class),
+                    "-processor", ToonWriterProcessor.class.getName()));
+        } else {
+            options.add("-proc:none");
+        }
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8)) {
+            boolean success = compiler.getTask(null, files, diagnostics, options, null,
+                    Collections.singletonList(new SourceFile(SAMPLE, SAMPLE_SOURCE))).call();
+            if (!success) {
+                StringBuilder message = new StringBuilder("编译示例类失败：");
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                    message.append('\n').append(diagnostic);
+                }
+                fail(message.toString());
+            }
+        }
+        return classes;
+    }
+
+    private static String location(Class<?> type) throws URISyntaxException {
+        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    // 示例类由独立的类加载器加载，父加载器提供 toon-java
+    private static URLClassLoader load(Path classes) throws IOException {
+        return new URLClassLoader(new URL[]{classes.toUri().toURL()}, ToonWriterProcessorTest.class.getClassLoader());
+    }
+
+    private static List<?> samples(ClassLoader loader) throws ReflectiveOperationException {
+        return (List<?>) loader.loadClass(SAMPLE).getMethod("samples").invoke(null);
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    // 内存中的源文件
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}